@@ -1,9 +0,0 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Config;
-@Configuration
-public class AreasComunesConfig {
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-
-}
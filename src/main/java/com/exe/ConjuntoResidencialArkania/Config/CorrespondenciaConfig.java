@@ -2,11 +2,12 @@ package com.exe.ConjuntoResidencialArkania.Config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
-import org.modelmapper.PropertyMap;
 
 import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 
 /**
  * Clase de configuración para la entidad Correspondencia.
@@ -35,45 +36,41 @@ public class CorrespondenciaConfig {
     public ModelMapper correspondenciaModelMapper() {
         ModelMapper modelMapper = new ModelMapper();
 
-        // Configuración personalizada para mapear CorrespondenciaEntity a CorrespondenciaDTO
-        modelMapper.addMappings(new PropertyMap<CorrespondenciaEntity, CorrespondenciaDTO>() {
-            @Override
-            protected void configure() {
-                // Mapeo de IDs de usuarios relacionados
-                map().setRegistradoPor(source.getRegistradoPor().getUsuarioId());
-                map().setDestinatario(source.getDestinatario().getUsuarioId());
-                map().setRetiradoPor(source.getRetiradoPor() != null ? source.getRetiradoPor().getUsuarioId() : null);
-                
-                // Mapeo de nombres de usuarios para información adicional en el DTO
-                map().setRegistradoPorNombre(source.getRegistradoPor().getNombres() + " " + source.getRegistradoPor().getApellidos());
-                map().setDestinatarioNombre(source.getDestinatario().getNombres() + " " + source.getDestinatario().getApellidos());
-                map().setRetiradoPorNombre(source.getRetiradoPor() != null ? source.getRetiradoPor().getNombres() + " " + source.getRetiradoPor().getApellidos() : null);
-                
-                // Mapeo del ID del apartamento relacionado
-                map().setApartamentoId(source.getApartamento() != null ? source.getApartamento().getApartamentoId() : null);
-                
-                // Mapeo de enums a strings para compatibilidad con el DTO
-                map().setTipo(source.getTipo().toString());
-                map().setEstado(source.getEstado().toString());
-            }
-        });
+        // Configuración personalizada para mapear CorrespondenciaEntity a CorrespondenciaDTO.
+        // Las expresiones se registran como rutas de propiedades: una relación nula deja el
+        // campo del DTO en null en lugar de fallar. Los enums pasan a texto por nombre.
+        Converter<UserEntity, String> nombreCompleto = contexto -> contexto.getSource() == null ? null
+                : contexto.getSource().getNombres() + " " + contexto.getSource().getApellidos();
+        modelMapper.emptyTypeMap(CorrespondenciaEntity.class, CorrespondenciaDTO.class).addMappings(mapeo -> {
+            // Mapeo de IDs de usuarios relacionados
+            mapeo.map(source -> source.getRegistradoPor().getUsuarioId(), CorrespondenciaDTO::setRegistradoPor);
+            mapeo.map(source -> source.getDestinatario().getUsuarioId(), CorrespondenciaDTO::setDestinatario);
+            mapeo.map(source -> source.getRetiradoPor().getUsuarioId(), CorrespondenciaDTO::setRetiradoPor);
 
-        // Configuración personalizada para mapear CorrespondenciaDTO a CorrespondenciaEntity
-        modelMapper.addMappings(new PropertyMap<CorrespondenciaDTO, CorrespondenciaEntity>() {
-            @Override
-            protected void configure() {
-                // Omitir campos que requieren resolución manual de entidades relacionadas
-                // Estos se manejarán en el servicio mediante consultas a la base de datos
-                skip(destination.getRegistradoPor());
-                skip(destination.getDestinatario());
-                skip(destination.getRetiradoPor());
-                skip(destination.getApartamento());
-                
-                // Mapeo de strings a enums
-                map(source.getTipo()).setTipo(null); // Se manejará manualmente en el servicio
-                map(source.getEstado()).setEstado(null); // Se manejará manualmente en el servicio
-            }
-        });
+            // Mapeo de nombres de usuarios para información adicional en el DTO
+            mapeo.using(nombreCompleto).map(CorrespondenciaEntity::getRegistradoPor, CorrespondenciaDTO::setRegistradoPorNombre);
+            mapeo.using(nombreCompleto).map(CorrespondenciaEntity::getDestinatario, CorrespondenciaDTO::setDestinatarioNombre);
+            mapeo.using(nombreCompleto).map(CorrespondenciaEntity::getRetiradoPor, CorrespondenciaDTO::setRetiradoPorNombre);
+
+            // Mapeo del ID del apartamento relacionado
+            mapeo.map(source -> source.getApartamento().getApartamentoId(), CorrespondenciaDTO::setApartamentoId);
+        }).implicitMappings();
+
+        // Configuración personalizada para mapear CorrespondenciaDTO a CorrespondenciaEntity.
+        // Se parte de un mapa vacío: los campos omitidos no se pueden quitar después de las
+        // correspondencias implícitas
+        modelMapper.emptyTypeMap(CorrespondenciaDTO.class, CorrespondenciaEntity.class).addMappings(mapeo -> {
+            // Omitir campos que requieren resolución manual de entidades relacionadas
+            // Estos se manejarán en el servicio mediante consultas a la base de datos
+            mapeo.skip(CorrespondenciaEntity::setRegistradoPor);
+            mapeo.skip(CorrespondenciaEntity::setDestinatario);
+            mapeo.skip(CorrespondenciaEntity::setRetiradoPor);
+            mapeo.skip(CorrespondenciaEntity::setApartamento);
+
+            // Los enums se convierten manualmente en el servicio
+            mapeo.skip(CorrespondenciaEntity::setTipo);
+            mapeo.skip(CorrespondenciaEntity::setEstado);
+        }).implicitMappings();
 
         return modelMapper;
     }
@@ -0,0 +1,53 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesMysql;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesPostgresql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Selección de las operaciones nativas según el motor de base de datos.
+ *
+ * Los perfiles postgresql y mysql fijan arkania.bd.motor. Sin perfil, el motor se detecta
+ * con los metadatos de la conexión.
+ */
+@Configuration
+public class DialectoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DialectoConfig.class);
+
+    @Bean
+    public OperacionesDialecto operacionesDialecto(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                                   @Value("${arkania.bd.motor:}") String motor) {
+        if (motor.isBlank()) {
+            motor = detectarMotor(dataSource);
+        }
+        OperacionesDialecto operaciones = switch (motor.toLowerCase()) {
+            case "mysql", "mariadb" -> new OperacionesMysql(jdbcTemplate);
+            case "postgresql" -> new OperacionesPostgresql(jdbcTemplate);
+            default -> throw new IllegalStateException("Motor de base de datos no soportado: " + motor);
+        };
+        log.info("Operaciones nativas de {}", operaciones.nombre());
+        return operaciones;
+    }
+
+    private String detectarMotor(DataSource dataSource) {
+        try {
+            String producto = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return JdbcUtils.commonDatabaseName(producto).toLowerCase();
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("No se pudo detectar el motor de base de datos", e);
+        }
+    }
+}
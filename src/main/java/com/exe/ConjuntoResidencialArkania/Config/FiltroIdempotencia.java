@@ -0,0 +1,302 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService.Reserva;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService.RespuestaGuardada;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Filtro que aplica la cabecera Idempotency-Key a las peticiones POST.
+ *
+ * La clave se guarda junto con el usuario autenticado, el método y la ruta, así que dos
+ * usuarios o dos endpoints nunca comparten una clave. La primera petición se ejecuta y su
+ * respuesta se guarda si no es un error del servidor; las repeticiones con el mismo cuerpo
+ * reciben esa respuesta con la cabecera Idempotency-Replayed, sin llegar al controlador.
+ * Una repetición que llega mientras la primera se ejecuta recibe 409 con Retry-After, y
+ * una clave reutilizada con otro cuerpo, 422.
+ *
+ * La huella es el SHA-256 del cuerpo, que se lee completo antes de ejecutar la petición; un
+ * cuerpo de más de MAX_BYTES_CUERPO (declarado o enviado por partes) se rechaza con 413. En
+ * los formularios la huella se calcula sobre los parámetros, y en los multipart sobre el
+ * contenido de cada parte, que el contenedor ya guardó. Una petición con la cabecera y sin
+ * usuario autenticado se rechaza con 401: las claves anónimas se compartirían entre clientes.
+ * Las peticiones sin la cabecera pasan sin cambios.
+ */
+public class FiltroIdempotencia extends OncePerRequestFilter {
+
+    /**
+     * Longitud máxima de la clave enviada por el cliente.
+     */
+    public static final int MAX_LONGITUD_CLAVE = 255;
+
+    private static final int MAX_BYTES_CUERPO = 1024 * 1024;
+
+    private final IdempotenciaService idempotenciaService;
+
+    public FiltroIdempotencia(IdempotenciaService idempotenciaService) {
+        this.idempotenciaService = idempotenciaService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(IdempotenciaService.CABECERA_CLAVE) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String claveCliente = request.getHeader(IdempotenciaService.CABECERA_CLAVE).trim();
+        if (claveCliente.isEmpty() || claveCliente.length() > MAX_LONGITUD_CLAVE) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    IdempotenciaService.CABECERA_CLAVE + " debe tener entre 1 y " + MAX_LONGITUD_CLAVE + " caracteres");
+            return;
+        }
+
+        Object usuario = request.getAttribute(AuditoriaService.ATRIBUTO_USUARIO_RESPONSABLE);
+        if (usuario == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED,
+                    IdempotenciaService.CABECERA_CLAVE + " requiere un usuario autenticado");
+            return;
+        }
+        String clave = usuario + " " + request.getMethod() + " " + request.getRequestURI() + " " + claveCliente;
+
+        byte[] cuerpo = null;
+        String huella;
+        if (esFormulario(request)) {
+            huella = huellaFormulario(request);
+        } else {
+            cuerpo = leerCuerpo(request);
+            huella = cuerpo != null ? HexFormat.of().formatHex(sha256().digest(cuerpo)) : null;
+        }
+        if (huella == null) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Cuerpo demasiado grande para una petición con " + IdempotenciaService.CABECERA_CLAVE);
+            return;
+        }
+
+        Reserva reserva = idempotenciaService.reservar(clave, huella);
+        if (!huella.equals(reserva.huella())) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    "La clave de idempotencia ya se usó con otra petición");
+            return;
+        }
+        switch (reserva.estado()) {
+            case EN_CURSO -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_CONFLICT,
+                        "Hay una petición con la misma clave de idempotencia en curso");
+            }
+            case COMPLETADA -> repetir(reserva.respuesta(), response);
+            case NUEVA -> ejecutar(cuerpo != null ? new PeticionConCuerpo(request, cuerpo) : request,
+                    response, chain, clave);
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Ejecuta la petición guardando la respuesta. Si la petición falla o termina en un error
+     * del servidor, la clave se libera para que el cliente pueda reintentar.
+     */
+    private void ejecutar(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String clave)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        boolean completada = false;
+        try {
+            chain.doFilter(request, respuesta);
+            if (respuesta.getStatus() < 500) {
+                idempotenciaService.completar(clave, new RespuestaGuardada(respuesta.getStatus(),
+                        respuesta.getContentType(), respuesta.getHeader(HttpHeaders.LOCATION),
+                        respuesta.getHeader(HttpHeaders.ETAG), respuesta.getContentAsByteArray()));
+                completada = true;
+            }
+        } finally {
+            if (!completada) {
+                idempotenciaService.liberar(clave);
+            }
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    private void repetir(RespuestaGuardada guardada, HttpServletResponse response) throws IOException {
+        response.setStatus(guardada.estado());
+        response.setHeader(IdempotenciaService.CABECERA_REPETIDA, "true");
+        if (guardada.tipoContenido() != null) {
+            response.setContentType(guardada.tipoContenido());
+        }
+        if (guardada.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, guardada.location());
+        }
+        if (guardada.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, guardada.etag());
+        }
+        response.setContentLength(guardada.cuerpo().length);
+        response.getOutputStream().write(guardada.cuerpo());
+    }
+
+    private static boolean esFormulario(HttpServletRequest request) {
+        String tipo = request.getContentType();
+        return tipo != null && (tipo.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || tipo.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE));
+    }
+
+    /**
+     * Lee el cuerpo completo, también si llega por partes sin Content-Length.
+     *
+     * @return Cuerpo leído, o null si supera MAX_BYTES_CUERPO
+     */
+    private static byte[] leerCuerpo(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > MAX_BYTES_CUERPO) {
+            return null;
+        }
+        byte[] cuerpo = request.getInputStream().readNBytes(MAX_BYTES_CUERPO + 1);
+        return cuerpo.length > MAX_BYTES_CUERPO ? null : cuerpo;
+    }
+
+    /**
+     * Huella de un formulario: los parámetros ordenados por nombre o, si es multipart, el
+     * nombre, el archivo, el tipo y el contenido de cada parte en el orden recibido.
+     *
+     * @return Huella, o null si el multipart supera el tamaño máximo del contenedor
+     */
+    private static String huellaFormulario(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        if (!request.getContentType().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            for (Map.Entry<String, String[]> parametro : new TreeMap<>(request.getParameterMap()).entrySet()) {
+                actualizar(digest, parametro.getKey());
+                for (String valor : parametro.getValue()) {
+                    actualizar(digest, valor);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        Collection<Part> partes;
+        try {
+            partes = request.getParts();
+        } catch (IllegalStateException e) {
+            // Supera spring.servlet.multipart.max-request-size
+            return null;
+        }
+        for (Part parte : partes) {
+            actualizar(digest, parte.getName());
+            actualizar(digest, parte.getSubmittedFileName());
+            actualizar(digest, parte.getContentType());
+            try (InputStream contenido = parte.getInputStream()) {
+                contenido.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            }
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Agrega un texto a la huella seguido de un separador, para que "ab"+"c" y "a"+"bc" difieran.
+     */
+    private static void actualizar(MessageDigest digest, String texto) {
+        if (texto != null) {
+            digest.update(texto.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Petición cuyo cuerpo ya se leyó para calcular la huella; lo sirve desde memoria.
+     */
+    private static final class PeticionConCuerpo extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        private PeticionConCuerpo(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Todo el cuerpo ya está en memoria: se avisa enseguida que hay datos y que terminó
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String codificacion = getCharacterEncoding();
+            Charset charset = codificacion != null ? Charset.forName(codificacion) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
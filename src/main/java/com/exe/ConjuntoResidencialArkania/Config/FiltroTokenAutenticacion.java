@@ -0,0 +1,65 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.exe.ConjuntoResidencialArkania.DTO.TokenVerificadoDTO;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Filtro que verifica el token de acceso enviado en Authorization: Bearer.
+ * 
+ * La verificación no accede a la base de datos: los sellos de permisos del token se comparan
+ * con los que PermisoEfectivoService mantiene en memoria. Si el token es válido, el ID del
+ * usuario queda en el atributo de la petición que usa la auditoría como responsable del cambio
+ * y el token verificado en TokenService.ATRIBUTO_TOKEN. Si es inválido, expiró o fue revocado,
+ * la petición se rechaza con 401. Las peticiones sin token continúan sin usuario autenticado.
+ */
+public class FiltroTokenAutenticacion extends OncePerRequestFilter {
+
+    /**
+     * Cabecera de respuesta que indica que los permisos cambiaron desde que se emitió el token.
+     */
+    public static final String CABECERA_RENOVAR_TOKEN = "X-Token-Renovar";
+
+    private static final String PREFIJO = TokenService.TIPO_TOKEN + " ";
+
+    private final TokenService tokenService;
+
+    public FiltroTokenAutenticacion(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String autorizacion = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (autorizacion == null || !autorizacion.regionMatches(true, 0, PREFIJO, 0, PREFIJO.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<TokenVerificadoDTO> verificado = tokenService.verificarToken(autorizacion.substring(PREFIJO.length()).trim());
+        if (verificado.isEmpty()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token inválido, expirado o revocado");
+            return;
+        }
+
+        TokenVerificadoDTO token = verificado.get();
+        request.setAttribute(AuditoriaService.ATRIBUTO_USUARIO_RESPONSABLE, token.getUsuarioId());
+        request.setAttribute(TokenService.ATRIBUTO_TOKEN, token);
+        if (!token.isPermisosVigentes()) {
+            response.setHeader(CABECERA_RENOVAR_TOKEN, "true");
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,73 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuración de la réplica de lectura.
+ *
+ * Solo se activa con arkania.replica.habilitada=true; si no, Spring Boot crea el pool
+ * único de spring.datasource.* como siempre. Activa, crea dos pools Hikari (primaria con
+ * spring.datasource.* y réplica con arkania.replica.*) y expone como DataSource principal
+ * el ruteador envuelto en un LazyConnectionDataSourceProxy, que es el que usan JPA y
+ * JdbcTemplate.
+ *
+ * Hibernate crea y actualiza el esquema solo en la primaria (sin transacción de solo
+ * lectura), así que la réplica debe recibir el esquema por replicación o, con dos bases
+ * locales independientes para pruebas, restaurando una copia de la primaria.
+ */
+@Configuration
+@ConditionalOnProperty(name = "arkania.replica.habilitada", havingValue = "true")
+public class FuentesDatosConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource fuenteDatosPrimaria(DataSourceProperties propiedades) {
+        HikariDataSource fuente = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        fuente.setPoolName(RuteadorFuenteDatos.PRIMARIA);
+        return fuente;
+    }
+
+    @Bean
+    @ConfigurationProperties("arkania.replica.hikari")
+    public HikariDataSource fuenteDatosReplica(DataSourceProperties propiedades,
+                                               @Value("${arkania.replica.url}") String url,
+                                               @Value("${arkania.replica.username:}") String usuario,
+                                               @Value("${arkania.replica.password:}") String clave) {
+        HikariDataSource fuente = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(propiedades.determineDriverClassName())
+                .url(url)
+                .username(usuario.isBlank() ? propiedades.determineUsername() : usuario)
+                .password(usuario.isBlank() ? propiedades.determinePassword() : clave)
+                .build();
+        fuente.setPoolName(RuteadorFuenteDatos.REPLICA);
+        fuente.setReadOnly(true);
+        return fuente;
+    }
+
+    @Bean
+    public RuteadorFuenteDatos ruteadorFuenteDatos(@Qualifier("fuenteDatosPrimaria") HikariDataSource primaria,
+                                                   @Qualifier("fuenteDatosReplica") HikariDataSource replica,
+                                                   @Value("${arkania.replica.max-retraso-segundos:5}") double maxRetrasoSegundos) {
+        return new RuteadorFuenteDatos(primaria, replica, maxRetrasoSegundos);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RuteadorFuenteDatos ruteador) {
+        return new LazyConnectionDataSourceProxy(ruteador);
+    }
+}
@@ -0,0 +1,28 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuración de las claves de idempotencia en las peticiones POST.
+ */
+@Configuration
+public class IdempotenciaConfig {
+
+    /**
+     * Registra el filtro de claves de idempotencia en las rutas /api/*. Va después del filtro
+     * de autenticación, porque la clave se guarda junto con el usuario autenticado.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroIdempotencia> filtroIdempotencia(IdempotenciaService idempotenciaService) {
+        FilterRegistrationBean<FiltroIdempotencia> registro =
+                new FilterRegistrationBean<>(new FiltroIdempotencia(idempotenciaService));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registro;
+    }
+}
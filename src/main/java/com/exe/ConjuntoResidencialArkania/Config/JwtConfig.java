@@ -0,0 +1,89 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Configuración de los tokens de acceso firmados (formato JWT con HS256).
+ * 
+ * La clave de firma se toma de arkania.token.secreto (Base64, al menos 32 bytes). Si no
+ * está configurada se genera una aleatoria al iniciar: los tokens dejan de ser válidos
+ * al reiniciar la aplicación, lo cual solo es aceptable en desarrollo.
+ */
+@Configuration
+public class JwtConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtConfig.class);
+
+    public static final String ALGORITMO_FIRMA = "HmacSHA256";
+
+    private static final int LONGITUD_MINIMA_CLAVE = 32;
+
+    // ========================================
+    // CONFIGURACIÓN DE FIRMA Y VIGENCIA
+    // ========================================
+
+    /**
+     * Clave HMAC para firmar y verificar tokens.
+     * 
+     * @param secreto Clave en Base64 (vacía para generar una aleatoria)
+     * @return Clave secreta HmacSHA256
+     */
+    @Bean
+    public SecretKey claveFirmaToken(@Value("${arkania.token.secreto:}") String secreto) {
+        byte[] clave;
+        if (secreto == null || secreto.isBlank()) {
+            log.warn("arkania.token.secreto no está configurado: se usa una clave aleatoria y los tokens no sobreviven a un reinicio");
+            clave = new byte[LONGITUD_MINIMA_CLAVE];
+            new SecureRandom().nextBytes(clave);
+        } else {
+            clave = Base64.getDecoder().decode(secreto.trim().getBytes(StandardCharsets.US_ASCII));
+            if (clave.length < LONGITUD_MINIMA_CLAVE) {
+                throw new IllegalStateException("arkania.token.secreto debe tener al menos "
+                        + LONGITUD_MINIMA_CLAVE + " bytes");
+            }
+        }
+        return new SecretKeySpec(clave, ALGORITMO_FIRMA);
+    }
+
+    /**
+     * Vigencia de los tokens emitidos.
+     * 
+     * @param minutos Minutos de vigencia
+     * @return Duración de los tokens
+     */
+    @Bean
+    public Duration duracionToken(@Value("${arkania.token.duracion-minutos:60}") long minutos) {
+        return Duration.ofMinutes(minutos);
+    }
+
+    // ========================================
+    // FILTRO DE AUTENTICACIÓN
+    // ========================================
+
+    /**
+     * Registra el filtro que verifica el token de la cabecera Authorization en las rutas /api/*.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroTokenAutenticacion> filtroTokenAutenticacion(TokenService tokenService) {
+        FilterRegistrationBean<FiltroTokenAutenticacion> registro =
+                new FilterRegistrationBean<>(new FiltroTokenAutenticacion(tokenService));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+}
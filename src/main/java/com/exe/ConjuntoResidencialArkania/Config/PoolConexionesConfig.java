@@ -0,0 +1,54 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Dimensionamiento de los pools de conexiones según los núcleos disponibles.
+ *
+ * Con arkania.pool.dimensionar-por-nucleos=true (perfil produccion) cada pool Hikari queda
+ * con núcleos × conexiones-por-nucleo + conexiones-adicionales conexiones, la fórmula que
+ * recomienda HikariCP: más conexiones que eso solo agregan espera en la base de datos. Si
+ * el tamaño máximo se configura explícitamente (spring.datasource.hikari.maximum-pool-size
+ * o arkania.replica.hikari.maximum-pool-size) se respeta ese valor.
+ *
+ * El tamaño se ajusta después de enlazar las propiedades y antes de la primera conexión,
+ * que es cuando Hikari crea el pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "arkania.pool.dimensionar-por-nucleos", havingValue = "true")
+public class PoolConexionesConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolConexionesConfig.class);
+
+    @Bean
+    public static BeanPostProcessor dimensionadorPoolConexiones(Environment environment) {
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        int porNucleo = environment.getProperty("arkania.pool.conexiones-por-nucleo", Integer.class, 2);
+        int adicionales = environment.getProperty("arkania.pool.conexiones-adicionales", Integer.class, 1);
+        int tamano = nucleos * porNucleo + adicionales;
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource fuente) {
+                    String propiedad = RuteadorFuenteDatos.REPLICA.equals(fuente.getPoolName())
+                            ? "arkania.replica.hikari.maximum-pool-size"
+                            : "spring.datasource.hikari.maximum-pool-size";
+                    if (!environment.containsProperty(propiedad)) {
+                        fuente.setMaximumPoolSize(tamano);
+                        log.info("Pool {}: {} conexiones ({} núcleos)", fuente.getPoolName(), tamano, nucleos);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
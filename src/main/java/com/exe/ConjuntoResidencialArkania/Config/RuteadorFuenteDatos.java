@@ -0,0 +1,184 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fuente de datos que envía las transacciones de solo lectura a la réplica y todo lo
+ * demás (escrituras y accesos sin transacción) a la primaria.
+ *
+ * La decisión se toma con TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+ * que Spring marca al iniciar un método @Transactional(readOnly = true). Por eso el
+ * ruteador siempre se usa detrás de un LazyConnectionDataSourceProxy: el gestor de
+ * transacciones pide la conexión antes de marcar la transacción como de solo lectura, y
+ * el proxy retrasa la conexión real hasta la primera sentencia.
+ *
+ * Un método de solo lectura llamado dentro de una transacción de escritura se une a ella
+ * y lee de la primaria, así que siempre ve lo que la transacción ya escribió.
+ *
+ * La réplica se verifica periódicamente: si no responde o su retraso supera el máximo
+ * configurado, las lecturas vuelven a la primaria hasta la siguiente verificación
+ * exitosa. Mientras no se haya verificado ninguna vez también se lee de la primaria.
+ */
+public class RuteadorFuenteDatos extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RuteadorFuenteDatos.class);
+
+    public static final String PRIMARIA = "primaria";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> FORZAR_PRIMARIA = new ThreadLocal<>();
+
+    // Con el WAL recibido ya aplicado no hay retraso, aunque la última transacción sea vieja
+    private static final String RETRASO_POSTGRESQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+    private static final String RETRASO_MYSQL = "SHOW REPLICA STATUS";
+
+    private final HikariDataSource primaria;
+    private final HikariDataSource replica;
+    private final double maxRetrasoSegundos;
+
+    private volatile boolean replicaDisponible = false;
+    private volatile Double retrasoSegundos;
+
+    private final LongAdder conexionesEscritura = new LongAdder();
+    private final LongAdder lecturasReplica = new LongAdder();
+    private final LongAdder lecturasEnPrimaria = new LongAdder();
+
+    public RuteadorFuenteDatos(HikariDataSource primaria, HikariDataSource replica, double maxRetrasoSegundos) {
+        this.primaria = primaria;
+        this.replica = replica;
+        this.maxRetrasoSegundos = maxRetrasoSegundos;
+        setTargetDataSources(Map.of(PRIMARIA, primaria, REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+    }
+
+    /**
+     * Ejecuta la acción leyendo siempre de la primaria, aunque abra transacciones de solo
+     * lectura. Se usa cuando el resultado se va a guardar (por ejemplo en una caché) y no
+     * puede quedar atrasado respecto a la última escritura confirmada.
+     */
+    public static <T> T enPrimaria(Supplier<T> accion) {
+        if (FORZAR_PRIMARIA.get() != null) {
+            return accion.get();
+        }
+        FORZAR_PRIMARIA.set(Boolean.TRUE);
+        try {
+            return accion.get();
+        } finally {
+            FORZAR_PRIMARIA.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            conexionesEscritura.increment();
+            return PRIMARIA;
+        }
+        if (replicaDisponible && FORZAR_PRIMARIA.get() == null) {
+            lecturasReplica.increment();
+            return REPLICA;
+        }
+        lecturasEnPrimaria.increment();
+        return PRIMARIA;
+    }
+
+    // ========================================
+    // VERIFICACIÓN DE LA RÉPLICA
+    // ========================================
+
+    /**
+     * Mide el retraso de la réplica y decide si puede recibir lecturas.
+     */
+    @Scheduled(fixedDelayString = "${arkania.replica.intervalo-verificacion-ms:5000}")
+    public void verificarReplica() {
+        boolean disponibleAntes = replicaDisponible;
+        try (Connection conexion = replica.getConnection(); Statement sentencia = conexion.createStatement()) {
+            sentencia.setQueryTimeout(2);
+            String producto = conexion.getMetaData().getDatabaseProductName().toLowerCase();
+            Double retraso = producto.contains("postgres") ? retrasoPostgresql(sentencia) : retrasoMysql(sentencia);
+            retrasoSegundos = retraso;
+            replicaDisponible = retraso != null && retraso <= maxRetrasoSegundos;
+        } catch (SQLException e) {
+            retrasoSegundos = null;
+            replicaDisponible = false;
+            log.debug("Réplica no disponible: {}", e.getMessage());
+        }
+        if (disponibleAntes != replicaDisponible) {
+            if (replicaDisponible) {
+                log.info("Réplica disponible (retraso {} s): las lecturas vuelven a la réplica", retrasoSegundos);
+            } else {
+                log.warn("Réplica no disponible o atrasada (retraso {} s, máximo {} s): las lecturas van a la primaria",
+                        retrasoSegundos, maxRetrasoSegundos);
+            }
+        }
+    }
+
+    private Double retrasoPostgresql(Statement sentencia) throws SQLException {
+        try (ResultSet rs = sentencia.executeQuery(RETRASO_POSTGRESQL)) {
+            return rs.next() ? rs.getDouble(1) : null;
+        }
+    }
+
+    /**
+     * Sin filas, la instancia no es réplica de nadie (por ejemplo una segunda base local
+     * para pruebas) y no tiene retraso. Seconds_Behind_Source nulo indica replicación detenida.
+     */
+    private Double retrasoMysql(Statement sentencia) throws SQLException {
+        try (ResultSet rs = sentencia.executeQuery(RETRASO_MYSQL)) {
+            if (!rs.next()) {
+                return 0.0;
+            }
+            long segundos = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : (double) segundos;
+        }
+    }
+
+    // ========================================
+    // MÉTRICAS
+    // ========================================
+
+    public HikariDataSource getPrimaria() {
+        return primaria;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    public boolean isReplicaDisponible() {
+        return replicaDisponible;
+    }
+
+    public Double getRetrasoSegundos() {
+        return retrasoSegundos;
+    }
+
+    public long getConexionesEscritura() {
+        return conexionesEscritura.sum();
+    }
+
+    public long getLecturasReplica() {
+        return lecturasReplica.sum();
+    }
+
+    public long getLecturasEnPrimaria() {
+        return lecturasEnPrimaria.sum();
+    }
+}
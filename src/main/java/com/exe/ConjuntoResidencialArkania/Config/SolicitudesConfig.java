@@ -1,5 +1,10 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Config;
+package com.exe.ConjuntoResidencialArkania.Config;
 
+import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
 public class SolicitudesConfig {
      @Bean
     public ModelMapper modelMapper() {
@@ -0,0 +1,19 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración de las tareas programadas de la aplicación.
+ * 
+ * Habilita los métodos anotados con @Scheduled, como el relay del outbox de eventos
+ * de dominio y su limpieza periódica. Los intervalos se configuran en
+ * application.properties (propiedades arkania.*).
+ *
+ * Los trabajos por lotes largos no corren en los hilos del programador: su método programado
+ * los entrega a EjecutorTareasLargas y vuelve enseguida.
+ */
+@Configuration
+@EnableScheduling
+public class TareasProgramadasConfig {
+}
@@ -2,6 +2,7 @@ package com.exe.ConjuntoResidencialArkania.Config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import java.util.Arrays;
 import java.util.List;
@@ -21,8 +22,12 @@ import java.util.HashMap;
  * 
  * Utiliza Spring Configuration para inyectar estas configuraciones
  * en toda la aplicación de manera consistente.
+ * 
+ * Los beans son perezosos: se crean al inyectarse por primera vez, no al arrancar, y los
+ * que nadie inyecta no se crean.
  */
 @Configuration
+@Lazy
 public class UsuarioRolConfig {
 
     // ========================================
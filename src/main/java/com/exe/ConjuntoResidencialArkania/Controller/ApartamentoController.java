@@ -1,13 +1,16 @@
 package com.exe.ConjuntoResidencialArkania.Controller;
 
 import com.exe.ConjuntoResidencialArkania.DTO.ApartamentoDTO;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Service.ApartamentoService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/apartamentos")
@@ -16,17 +19,18 @@ import java.util.List;
 public class ApartamentoController {
 
     private final ApartamentoService apartamentoService;
+    private final CacheRespuestasService cacheRespuestasService;
 
     @GetMapping
-    public ResponseEntity<List<ApartamentoDTO>> obtenerTodos() {
-        List<ApartamentoDTO> apartamentos = apartamentoService.obtenerTodos();
-        return ResponseEntity.ok(apartamentos);
+    public ResponseEntity<byte[]> obtenerTodos(WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.APARTAMENTOS,
+                "todos", apartamentoService::obtenerTodos);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApartamentoDTO> obtenerPorId(@PathVariable Long id) {
         return apartamentoService.obtenerPorId(id)
-                .map(apartamento -> ResponseEntity.ok(apartamento))
+                .map(apartamento -> VersionHttp.ok(apartamento, apartamento.getVersion()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -42,10 +46,16 @@ public class ApartamentoController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ApartamentoDTO> actualizar(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                      @RequestBody ApartamentoDTO apartamentoDTO) {
         try {
+            apartamentoDTO.setVersion(VersionHttp.versionEsperada(ifMatch, apartamentoDTO.getVersion()));
             ApartamentoDTO actualizado = apartamentoService.actualizar(id, apartamentoDTO);
-            return ResponseEntity.ok(actualizado);
+            return VersionHttp.ok(actualizado, actualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -0,0 +1,79 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import com.exe.ConjuntoResidencialArkania.DTO.AreasComunesDTO;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Service.AreasComunesService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/areas-comunes")
+public class AreasComunesController {
+    private final AreasComunesService areasComunesService;
+    private final CacheRespuestasService cacheRespuestasService;
+
+    @Autowired
+    public AreasComunesController(AreasComunesService areasComunesService,
+            CacheRespuestasService cacheRespuestasService) {
+        this.areasComunesService = areasComunesService;
+        this.cacheRespuestasService = cacheRespuestasService;
+    }
+
+    // Listados con GET condicional: 304 sin consultar si las áreas no cambiaron
+    @GetMapping
+    public ResponseEntity<byte[]> listarAreasComunes(WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.AREAS_COMUNES,
+                "todas", areasComunesService::listarAreasComunes);
+    }
+
+    @GetMapping("/activas")
+    public ResponseEntity<byte[]> listarAreasActivas(WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.AREAS_COMUNES,
+                "activas", areasComunesService::listarAreasActivas);
+    }
+
+    @GetMapping("/{idAreaComun}")
+    public ResponseEntity<AreasComunesDTO> obtenerPorId(@PathVariable Long idAreaComun) {
+        return areasComunesService.findById(idAreaComun)
+                .map(area -> VersionHttp.ok(area, area.getVersion()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<AreasComunesDTO> crearAreaComun(@Valid @RequestBody AreasComunesDTO areaDTO) {
+        AreasComunesDTO creada = areasComunesService.guardarAreasComunes(areaDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(creada);
+    }
+
+    @PutMapping("/{idAreaComun}")
+    public ResponseEntity<AreasComunesDTO> actualizarAreaComun(@PathVariable Long idAreaComun,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody AreasComunesDTO areaDTO) {
+        try {
+            areaDTO.setVersion(VersionHttp.versionEsperada(ifMatch, areaDTO.getVersion()));
+            AreasComunesDTO actualizada = areasComunesService.actualizarAreaComun(idAreaComun, areaDTO);
+            return VersionHttp.ok(actualizada, actualizada.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{idAreaComun}")
+    public ResponseEntity<Void> eliminar(@PathVariable Long idAreaComun) {
+        areasComunesService.eliminarAreasComunes(idAreaComun);
+        return ResponseEntity.noContent().build();
+    }
+}
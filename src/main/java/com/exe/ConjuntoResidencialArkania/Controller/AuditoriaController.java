@@ -0,0 +1,108 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.DTO.AuditoriaDTO;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Controlador REST para consultar el log de auditoría de usuarios, roles y asignaciones.
+ *
+ * Todas las consultas son paginadas (page desde 0, size hasta 200) y devuelven los
+ * cambios del más reciente al más antiguo.
+ *
+ * Base URL: /api/auditoria
+ */
+@RestController
+@RequestMapping("/api/auditoria")
+@CrossOrigin(origins = "*")
+public class AuditoriaController {
+
+    private static final int TAMANO_MAXIMO_PAGINA = 200;
+
+    private static final Set<String> ENTIDADES = Set.of(
+            AuditoriaService.ENTIDAD_USUARIO, AuditoriaService.ENTIDAD_ROL, AuditoriaService.ENTIDAD_USUARIO_ROL);
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    /**
+     * Historial de una entidad.
+     * @param entidadTipo USUARIO, ROL o USUARIO_ROL
+     * @param entidadId ID de la entidad
+     * @return ResponseEntity con la página de cambios o 400 BAD REQUEST si el tipo no es válido
+     */
+    @GetMapping("/entidades/{entidadTipo}/{entidadId}")
+    public ResponseEntity<Page<AuditoriaDTO>> obtenerHistorialEntidad(
+            @PathVariable String entidadTipo,
+            @PathVariable Long entidadId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        String tipo = entidadTipo.toUpperCase();
+        if (!ENTIDADES.contains(tipo)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(auditoriaService.obtenerHistorialEntidad(tipo, entidadId, paginar(page, size)));
+    }
+
+    /**
+     * Historial de un usuario: cambios de sus datos y de sus asignaciones de rol.
+     * @param usuarioId ID del usuario
+     * @param inicio Fecha inicial opcional (ISO, ej. 2025-01-01T00:00:00)
+     * @param fin Fecha final opcional
+     * @return ResponseEntity con la página de cambios
+     */
+    @GetMapping("/usuarios/{usuarioId}")
+    public ResponseEntity<Page<AuditoriaDTO>> obtenerHistorialUsuario(
+            @PathVariable Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditoriaService.obtenerHistorialUsuario(usuarioId, inicio, fin, paginar(page, size)));
+    }
+
+    /**
+     * Cambios realizados por un usuario.
+     * @param usuarioId ID del usuario responsable
+     * @return ResponseEntity con la página de cambios
+     */
+    @GetMapping("/responsables/{usuarioId}")
+    public ResponseEntity<Page<AuditoriaDTO>> obtenerCambiosPorResponsable(
+            @PathVariable Long usuarioId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditoriaService.obtenerCambiosPorResponsable(usuarioId, paginar(page, size)));
+    }
+
+    /**
+     * Todos los cambios de un periodo.
+     * @param inicio Fecha inicial (ISO)
+     * @param fin Fecha final (ISO)
+     * @return ResponseEntity con la página de cambios o 400 BAD REQUEST si el rango es inválido
+     */
+    @GetMapping("/periodo")
+    public ResponseEntity<Page<AuditoriaDTO>> obtenerCambiosEnPeriodo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (fin.isBefore(inicio)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(auditoriaService.obtenerCambiosEnPeriodo(inicio, fin, paginar(page, size)));
+    }
+
+    private Pageable paginar(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), TAMANO_MAXIMO_PAGINA));
+    }
+}
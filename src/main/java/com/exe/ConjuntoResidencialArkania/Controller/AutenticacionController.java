@@ -0,0 +1,62 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.DTO.LoginDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.TokenDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.TokenVerificadoDTO;
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
+import com.exe.ConjuntoResidencialArkania.Service.UserService;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de autenticación con tokens firmados.
+ * 
+ * El token se envía en las peticiones siguientes en la cabecera
+ * Authorization: Bearer {token} y se verifica sin consultar la base de datos.
+ * 
+ * Base URL: /api/auth
+ */
+@RestController
+@RequestMapping("/api/auth")
+@CrossOrigin(origins = "*")
+public class AutenticacionController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Inicia sesión con email y contraseña.
+     * 
+     * @param loginDTO Credenciales (validadas automáticamente)
+     * @return ResponseEntity con el token emitido o 401 UNAUTHORIZED si las credenciales no son válidas
+     */
+    @PostMapping("/login")
+    public ResponseEntity<TokenDTO> iniciarSesion(@Valid @RequestBody LoginDTO loginDTO) {
+        return userService.validarCredenciales(loginDTO.getEmail(), loginDTO.getPassword())
+                .map(usuario -> ResponseEntity.ok(tokenService.emitirToken(usuario.getUsuarioId())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Emite un token nuevo a partir del token vigente de la petición, con la versión
+     * actual de los permisos del usuario.
+     * 
+     * @param token Token verificado por el filtro de autenticación
+     * @return ResponseEntity con el nuevo token o 401 UNAUTHORIZED si la petición no trae token
+     */
+    @PostMapping("/renovar")
+    public ResponseEntity<TokenDTO> renovarToken(
+            @RequestAttribute(name = TokenService.ATRIBUTO_TOKEN, required = false) TokenVerificadoDTO token) {
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(tokenService.emitirToken(token.getUsuarioId()));
+    }
+}
@@ -1,20 +1,26 @@
 package com.exe.ConjuntoResidencialArkania.Controller;
 
 import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaLoteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoCorrespondenciaLoteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoEntregaDTO;
 import com.exe.ConjuntoResidencialArkania.Service.CorrespondenciaService;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Estado;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Tipo;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Exception.CorrespondenciaNotFoundException;
 
 /**
@@ -22,6 +28,8 @@ import com.exe.ConjuntoResidencialArkania.Exception.CorrespondenciaNotFoundExcep
  * 
  * Este controlador expone endpoints para:
  * - CRUD completo de correspondencias
+ * - Registro en lote de las correspondencias recibidas juntas en portería
+ * - Entrega de una correspondencia o de todas las pendientes de un apartamento
  * - Búsquedas específicas por destinatario, estado, tipo, rango de fechas y retirado por
  * - Operaciones de actualización y eliminación
  * 
@@ -59,6 +67,25 @@ public class CorrespondenciaController {
         }
     }
 
+    /**
+     * Registra en un solo paso varias correspondencias recibidas juntas en portería.
+     * Los paquetes con errores (apartamento o documento inexistente, datos inválidos) se
+     * reportan por posición y el resto se registra.
+     * @param lote Usuario que registra, fecha de recepción opcional y paquetes
+     * @return ResponseEntity con el resultado y 201 CREATED si se registró al menos uno,
+     *         400 BAD REQUEST con el resultado si ninguno fue válido o el lote es inválido
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoCorrespondenciaLoteDTO> registrarLote(@RequestBody CorrespondenciaLoteDTO lote) {
+        try {
+            ResultadoCorrespondenciaLoteDTO resultado = correspondenciaService.registrarLote(lote);
+            HttpStatus estado = resultado.getRegistradas() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+            return new ResponseEntity<>(resultado, estado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Obtiene todas las correspondencias del sistema.
      * @return ResponseEntity con la lista de todas las correspondencias
@@ -77,7 +104,7 @@ public class CorrespondenciaController {
     @GetMapping("/{id}")
     public ResponseEntity<CorrespondenciaDTO> obtenerCorrespondenciaPorId(@PathVariable Long id) {
         Optional<CorrespondenciaDTO> dtoOpt = correspondenciaService.buscarPorId(id);
-        return dtoOpt.map(dto -> ResponseEntity.ok(dto))
+        return dtoOpt.map(dto -> VersionHttp.ok(dto, dto.getVersion()))
                      .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -86,17 +113,26 @@ public class CorrespondenciaController {
      * @param id ID de la correspondencia a actualizar
      * @param dto Nuevos datos de la correspondencia (validados automáticamente)
      * @return ResponseEntity con la correspondencia actualizada o error correspondiente
+     *         (400 BAD REQUEST si intenta entregarla: la entrega tiene su propio endpoint)
      */
     @PutMapping("/{id}")
     public ResponseEntity<CorrespondenciaDTO> actualizarCorrespondencia(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CorrespondenciaDTO dto) {
         try {
             dto.setIdCorrespondencia(id);
+            dto.setVersion(VersionHttp.versionEsperada(ifMatch, dto.getVersion()));
             CorrespondenciaDTO responseDto = correspondenciaService.actualizarCorrespondencia(dto);
-            return ResponseEntity.ok(responseDto);
+            return VersionHttp.ok(responseDto, responseDto.getVersion());
         } catch (CorrespondenciaNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
@@ -115,6 +151,50 @@ public class CorrespondenciaController {
         }
     }
 
+    // ========================================
+    // ENTREGA
+    // ========================================
+
+    /**
+     * Marca una correspondencia pendiente como entregada. La transición se hace en una sola
+     * sentencia condicionada al estado, así que dos entregas simultáneas no se pisan.
+     * @param id ID de la correspondencia a entregar
+     * @param retiradoPor ID del usuario que la retira
+     * @return ResponseEntity con el resultado y 200 OK, 409 CONFLICT con el resultado si ya
+     *         no estaba pendiente, 404 NOT FOUND si no existe o 400 BAD REQUEST si el usuario
+     *         no existe
+     */
+    @PutMapping("/{id}/entregar")
+    public ResponseEntity<ResultadoEntregaDTO> entregarCorrespondencia(
+            @PathVariable Long id, @RequestParam Long retiradoPor) {
+        try {
+            ResultadoEntregaDTO resultado = correspondenciaService.entregarCorrespondencia(id, retiradoPor);
+            HttpStatus estado = resultado.getEntregadas() > 0 ? HttpStatus.OK : HttpStatus.CONFLICT;
+            return new ResponseEntity<>(resultado, estado);
+        } catch (CorrespondenciaNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Entrega todas las correspondencias pendientes de un apartamento en una sola sentencia.
+     * @param apartamentoId ID del apartamento
+     * @param retiradoPor ID del usuario que las retira
+     * @return ResponseEntity con el número de correspondencias entregadas (puede ser 0) o
+     *         400 BAD REQUEST si el usuario no existe
+     */
+    @PutMapping("/apartamento/{apartamentoId}/entregar")
+    public ResponseEntity<ResultadoEntregaDTO> entregarPendientesDeApartamento(
+            @PathVariable Long apartamentoId, @RequestParam Long retiradoPor) {
+        try {
+            return ResponseEntity.ok(correspondenciaService.entregarPendientesDeApartamento(apartamentoId, retiradoPor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ========================================
     // BÚSQUEDAS ESPECÍFICAS
     // ========================================
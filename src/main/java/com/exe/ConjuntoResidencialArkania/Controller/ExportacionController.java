@@ -0,0 +1,135 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.Service.ExportacionService;
+import com.exe.ConjuntoResidencialArkania.Service.ExportacionService.Formato;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controlador REST para la exportación del historial de correspondencias y solicitudes.
+ *
+ * Las respuestas se escriben con StreamingResponseBody: las filas se envían al cliente
+ * a medida que se leen de la base de datos, por lo que la memoria usada es constante
+ * sin importar el rango de fechas exportado.
+ *
+ * Parámetros comunes:
+ * - inicio, fin: rango de fechas en formato ISO (yyyy-MM-ddTHH:mm:ss)
+ * - formato: CSV (por defecto) o NDJSON
+ * - gzip: true para comprimir la respuesta con gzip
+ *
+ * Base URL: /api/exportaciones
+ */
+@RestController
+@RequestMapping("/api/exportaciones")
+@CrossOrigin(origins = "*")
+public class ExportacionController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+    private static final DateTimeFormatter FORMATO_NOMBRE_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    /**
+     * Exporta las correspondencias recibidas en un rango de fechas.
+     * @param inicio Fecha inicial del rango
+     * @param fin Fecha final del rango
+     * @param formato Formato de salida (CSV o NDJSON)
+     * @param gzip Indica si la respuesta se comprime con gzip
+     * @return ResponseEntity con el archivo generado en streaming o 400 BAD REQUEST si el rango es inválido
+     */
+    @GetMapping("/correspondencias")
+    public ResponseEntity<StreamingResponseBody> exportarCorrespondencias(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "CSV") Formato formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (inicio.isAfter(fin)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody cuerpo = salida -> escribir(salida, gzip,
+                destino -> exportacionService.exportarCorrespondencias(inicio, fin, formato, destino));
+        return construirRespuesta("correspondencias", inicio, fin, formato, gzip, cuerpo);
+    }
+
+    /**
+     * Exporta las solicitudes creadas en un rango de fechas.
+     * @param inicio Fecha inicial del rango
+     * @param fin Fecha final del rango
+     * @param formato Formato de salida (CSV o NDJSON)
+     * @param gzip Indica si la respuesta se comprime con gzip
+     * @return ResponseEntity con el archivo generado en streaming o 400 BAD REQUEST si el rango es inválido
+     */
+    @GetMapping("/solicitudes")
+    public ResponseEntity<StreamingResponseBody> exportarSolicitudes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "CSV") Formato formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (inicio.isAfter(fin)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody cuerpo = salida -> escribir(salida, gzip,
+                destino -> exportacionService.exportarSolicitudes(inicio, fin, formato, destino));
+        return construirRespuesta("solicitudes", inicio, fin, formato, gzip, cuerpo);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Operación de exportación sobre un flujo de salida.
+     */
+    @FunctionalInterface
+    private interface Exportacion {
+        long exportar(OutputStream destino) throws IOException;
+    }
+
+    /**
+     * Ejecuta la exportación sobre el flujo de la respuesta, envolviéndolo en gzip si se solicitó.
+     */
+    private void escribir(OutputStream salida, boolean gzip, Exportacion exportacion) throws IOException {
+        if (gzip) {
+            GZIPOutputStream comprimido = new GZIPOutputStream(salida, 8192);
+            exportacion.exportar(comprimido);
+            comprimido.finish();
+        } else {
+            exportacion.exportar(salida);
+        }
+        salida.flush();
+    }
+
+    /**
+     * Construye la respuesta con el tipo de contenido y el nombre de archivo adecuados.
+     */
+    private ResponseEntity<StreamingResponseBody> construirRespuesta(String recurso, LocalDateTime inicio,
+            LocalDateTime fin, Formato formato, boolean gzip, StreamingResponseBody cuerpo) {
+        String extension = formato == Formato.NDJSON ? ".ndjson" : ".csv";
+        String nombreArchivo = recurso + "_" + inicio.format(FORMATO_NOMBRE_ARCHIVO) + "_"
+                + fin.format(FORMATO_NOMBRE_ARCHIVO) + extension + (gzip ? ".gz" : "");
+        MediaType tipoContenido = gzip ? APPLICATION_GZIP : (formato == Formato.NDJSON ? APPLICATION_NDJSON : TEXT_CSV);
+
+        return ResponseEntity.ok()
+                .contentType(tipoContenido)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(nombreArchivo).build().toString())
+                .body(cuerpo);
+    }
+}
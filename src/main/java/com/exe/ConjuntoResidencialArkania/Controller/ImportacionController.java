@@ -0,0 +1,94 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ImportacionResidenteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO.ErrorFila;
+import com.exe.ConjuntoResidencialArkania.Service.ImportacionService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controlador REST para la importación masiva de residentes.
+ *
+ * Permite cargar en una sola operación los usuarios de una torre, sus apartamentos
+ * y sus roles, a partir de JSON o de un archivo CSV. Las filas inválidas se omiten
+ * y se pueden consultar en el reporte de errores de la importación.
+ *
+ * Base URL: /api/importaciones
+ */
+@RestController
+@RequestMapping("/api/importaciones")
+@CrossOrigin(origins = "*")
+public class ImportacionController {
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    /**
+     * Importa residentes enviados como un arreglo JSON.
+     * @param filas Filas a importar
+     * @return ResponseEntity con el resultado de la importación o 400 BAD REQUEST si no hay filas
+     */
+    @PostMapping("/residentes")
+    public ResponseEntity<ResultadoImportacionDTO> importarResidentes(@RequestBody List<ImportacionResidenteDTO> filas) {
+        if (filas == null || filas.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(importacionService.importarResidentes(filas));
+    }
+
+    /**
+     * Importa residentes desde un archivo CSV con fila de encabezado.
+     * @param archivo Archivo CSV (UTF-8)
+     * @return ResponseEntity con el resultado de la importación o 400 BAD REQUEST si el archivo es inválido
+     */
+    @PostMapping(value = "/residentes/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResultadoImportacionDTO> importarResidentesCsv(@RequestParam("archivo") MultipartFile archivo) {
+        if (archivo.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try (InputStream contenido = archivo.getInputStream()) {
+            return ResponseEntity.ok(importacionService.importarResidentesCsv(contenido));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Descarga el reporte completo de errores de una importación en formato CSV.
+     * @param importacionId Identificador devuelto por la importación
+     * @return ResponseEntity con el CSV de errores o 404 NOT FOUND si no existe o expiró
+     */
+    @GetMapping("/{importacionId}/errores")
+    public ResponseEntity<byte[]> descargarReporteErrores(@PathVariable String importacionId) {
+        return importacionService.obtenerReporteErrores(importacionId)
+                .map(errores -> ResponseEntity.ok()
+                        .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("errores_importacion_" + importacionId + ".csv").build().toString())
+                        .body(generarCsv(errores)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private byte[] generarCsv(List<ErrorFila> errores) {
+        StringBuilder csv = new StringBuilder("fila,campo,mensaje\r\n");
+        for (ErrorFila error : errores) {
+            csv.append(error.getFila()).append(',')
+               .append(error.getCampo() == null ? "" : error.getCampo()).append(',')
+               .append('"').append(error.getMensaje().replace("\"", "\"\"")).append('"')
+               .append("\r\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
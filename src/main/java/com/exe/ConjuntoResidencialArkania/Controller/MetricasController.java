@@ -0,0 +1,77 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasArchivoDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasCacheDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasFuentesDatosDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasIdempotenciaDTO;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.FuentesDatosService;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST con métricas internas de operación (cachés, fuentes de datos, claves de idempotencia y archivo).
+ *
+ * Base URL: /api/metricas
+ */
+@RestController
+@RequestMapping("/api/metricas")
+@CrossOrigin(origins = "*")
+public class MetricasController {
+
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
+    @Autowired
+    private FuentesDatosService fuentesDatosService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    /**
+     * Obtiene las métricas de la caché de respuestas serializadas.
+     * 
+     * @return ResponseEntity con entradas, bytes en uso, aciertos, fallos, 304, gzip y desalojos
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<MetricasCacheDTO> obtenerMetricasCache() {
+        return ResponseEntity.ok(cacheRespuestasService.obtenerMetricas());
+    }
+
+    /**
+     * Obtiene el ruteo entre primaria y réplica y el estado de cada pool de conexiones.
+     * 
+     * @return ResponseEntity con disponibilidad y retraso de la réplica, contadores de ruteo y pools
+     */
+    @GetMapping("/datasources")
+    public ResponseEntity<MetricasFuentesDatosDTO> obtenerMetricasFuentesDatos() {
+        return ResponseEntity.ok(fuentesDatosService.obtenerMetricas());
+    }
+
+    /**
+     * Obtiene las métricas del almacén de claves de idempotencia.
+     * 
+     * @return ResponseEntity con claves, bytes, ejecuciones, repeticiones, conflictos y desalojos
+     */
+    @GetMapping("/idempotencia")
+    public ResponseEntity<MetricasIdempotenciaDTO> obtenerMetricasIdempotencia() {
+        return ResponseEntity.ok(idempotenciaService.obtenerMetricas());
+    }
+
+    /**
+     * Obtiene el estado del archivo de correspondencias entregadas y solicitudes cerradas.
+     * 
+     * @return ResponseEntity con disponibilidad, límite de archivo y registros archivados por esta instancia
+     */
+    @GetMapping("/archivo")
+    public ResponseEntity<MetricasArchivoDTO> obtenerMetricasArchivo() {
+        return ResponseEntity.ok(archivoService.obtenerMetricas());
+    }
+}
@@ -1,13 +1,16 @@
 package com.exe.ConjuntoResidencialArkania.Controller;
 
 import com.exe.ConjuntoResidencialArkania.DTO.ParqueaderoDTO;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
 import com.exe.ConjuntoResidencialArkania.Service.ParqueaderoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/parqueaderos")
@@ -16,17 +19,18 @@ import java.util.List;
 public class ParqueaderoController {
 
     private final ParqueaderoService parqueaderoService;
+    private final CacheRespuestasService cacheRespuestasService;
 
     @GetMapping
-    public ResponseEntity<List<ParqueaderoDTO>> obtenerTodos() {
-        List<ParqueaderoDTO> parqueaderos = parqueaderoService.obtenerTodos();
-        return ResponseEntity.ok(parqueaderos);
+    public ResponseEntity<byte[]> obtenerTodos(WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.PARQUEADEROS,
+                "todos", parqueaderoService::obtenerTodos);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ParqueaderoDTO> obtenerPorId(@PathVariable Long id) {
         return parqueaderoService.obtenerPorId(id)
-                .map(parqueadero -> ResponseEntity.ok(parqueadero))
+                .map(parqueadero -> VersionHttp.ok(parqueadero, parqueadero.getVersion()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -42,10 +46,16 @@ public class ParqueaderoController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ParqueaderoDTO> actualizar(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                      @RequestBody ParqueaderoDTO parqueaderoDTO) {
         try {
+            parqueaderoDTO.setVersion(VersionHttp.versionEsperada(ifMatch, parqueaderoDTO.getVersion()));
             ParqueaderoDTO actualizado = parqueaderoService.actualizar(id, parqueaderoDTO);
-            return ResponseEntity.ok(actualizado);
+            return VersionHttp.ok(actualizado, actualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -0,0 +1,46 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.DTO.PermisosUsuarioDTO;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para consultar los permisos efectivos de los usuarios
+ * (la unión de los permisos de sus roles activos).
+ *
+ * Base URL: /api/permisos
+ */
+@RestController
+@RequestMapping("/api/permisos")
+@CrossOrigin(origins = "*")
+public class PermisoController {
+
+    @Autowired
+    private PermisoEfectivoService permisoEfectivoService;
+
+    /**
+     * Obtiene los permisos efectivos de un usuario y su versión.
+     * 
+     * @param usuarioId ID del usuario
+     * @return ResponseEntity con los permisos (lista vacía si el usuario no existe o está inactivo)
+     */
+    @GetMapping("/usuarios/{usuarioId}")
+    public ResponseEntity<PermisosUsuarioDTO> obtenerPermisosUsuario(@PathVariable Long usuarioId) {
+        return ResponseEntity.ok(permisoEfectivoService.obtenerPermisosUsuario(usuarioId));
+    }
+
+    /**
+     * Verifica si un usuario tiene un permiso.
+     * 
+     * @param usuarioId ID del usuario
+     * @param permiso Permiso a verificar (ej. READ_USERS)
+     * @return ResponseEntity con true/false
+     */
+    @GetMapping("/usuarios/{usuarioId}/tiene/{permiso}")
+    public ResponseEntity<Boolean> usuarioTienePermiso(@PathVariable Long usuarioId, @PathVariable String permiso) {
+        return ResponseEntity.ok(permisoEfectivoService.tienePermiso(usuarioId, permiso));
+    }
+}
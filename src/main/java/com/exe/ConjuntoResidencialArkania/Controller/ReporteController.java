@@ -0,0 +1,71 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ReporteDiarioDTO;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService.Metrica;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Controlador REST de reportes operativos, leídos de los resúmenes diarios.
+ *
+ * Base URL: /api/reportes
+ */
+@RestController
+@RequestMapping("/api/reportes")
+@CrossOrigin(origins = "*")
+public class ReporteController {
+
+    private final ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    public ReporteController(ResumenDiarioService resumenDiarioService) {
+        this.resumenDiarioService = resumenDiarioService;
+    }
+
+    /**
+     * Resumen diario de una métrica (CORRESPONDENCIAS, SOLICITUDES, USUARIOS_REGISTRADOS).
+     * Por defecto, los últimos 30 días.
+     *
+     * @return ResponseEntity con una fila por día y dimensiones, y el total del rango
+     */
+    @GetMapping("/diarios")
+    public ResponseEntity<ReporteDiarioDTO> obtenerReporteDiario(
+            @RequestParam Metrica metrica,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(29);
+        try {
+            return ResponseEntity.ok(resumenDiarioService.consultar(metrica, inicio, fin));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recalcula los resúmenes de un rango de días desde las tablas (llenado inicial o
+     * corrección). Sin métrica, recalcula todas.
+     *
+     * @return ResponseEntity con las filas de resumen escritas; 409 si no existe la tabla
+     */
+    @PostMapping("/diarios/recalcular")
+    public ResponseEntity<Long> recalcular(
+            @RequestParam(required = false) Metrica metrica,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            return ResponseEntity.ok(resumenDiarioService.recalcular(metrica, desde, hasta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService.EstadoRecurso;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService.RespuestaSerializada;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Utilidades para responder GET condicionales de listados con la caché de respuestas.
+ *
+ * Primero se compara If-None-Match / If-Modified-Since con el estado en memoria del
+ * recurso; si no cambió se responde 304 NOT MODIFIED sin llamar al servicio. Si cambió,
+ * se devuelve el JSON ya serializado (o se calcula y guarda). Cache-Control no-cache
+ * obliga a los clientes a revalidar siempre, así que nunca usan una copia vencida.
+ *
+ * Si el cliente acepta gzip y la respuesta tiene versión comprimida, se envía esa con
+ * Content-Encoding gzip. En ambos casos el arreglo guardado se entrega tal cual al
+ * convertidor de bytes, sin copiarlo ni volver a codificarlo.
+ */
+public final class RespuestaCondicional {
+
+    private RespuestaCondicional() {
+    }
+
+    /**
+     * Responde un listado con soporte de GET condicional.
+     *
+     * @param request Petición actual (cabeceras condicionales)
+     * @param cache Caché de respuestas
+     * @param recurso Recurso del listado (ej. CacheRespuestasService.ROLES)
+     * @param clave Variante del listado dentro del recurso
+     * @param consulta Obtiene los datos cuando no hay respuesta vigente en caché
+     * @return 304 sin cuerpo, o 200 con el JSON (o su gzip), ETag y Last-Modified
+     */
+    public static ResponseEntity<byte[]> listado(WebRequest request, CacheRespuestasService cache,
+                                                 String recurso, String clave, Supplier<?> consulta) {
+        EstadoRecurso estado = cache.obtenerEstado(recurso);
+        long ultimaModificacion = estado.ultimaModificacion().toEpochMilli();
+
+        if (request.checkNotModified(estado.etag(), ultimaModificacion)) {
+            cache.registrarNoModificado();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(estado.etag())
+                    .lastModified(ultimaModificacion)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        RespuestaSerializada respuesta = cache.obtenerOCalcular(recurso, clave, estado, consulta);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(estado.etag())
+                .lastModified(ultimaModificacion)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (respuesta.gzip() != null && aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            cache.registrarServidaGzip();
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(respuesta.gzip());
+        }
+        return builder.body(respuesta.json());
+    }
+
+    /**
+     * Indica si Accept-Encoding admite gzip (se ignora si viene con q=0).
+     */
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            String nombre = partes[0].trim();
+            if (nombre.equalsIgnoreCase("gzip") || nombre.equals("*")) {
+                for (int i = 1; i < partes.length; i++) {
+                    String parametro = partes[i].trim().replace(" ", "");
+                    if (parametro.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,18 @@
 package com.exe.ConjuntoResidencialArkania.Controller;
 
 import com.exe.ConjuntoResidencialArkania.DTO.RolDTO;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
 import com.exe.ConjuntoResidencialArkania.Service.RolService;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +41,9 @@ public class RolController {
     @Autowired
     private RolService rolService;
 
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
     // ========================================
     // OPERACIONES CRUD BÁSICAS
     // ========================================
@@ -67,19 +75,21 @@ public class RolController {
     @GetMapping("/{rolId}")
     public ResponseEntity<RolDTO> obtenerRolPorId(@PathVariable Long rolId) {
         Optional<RolDTO> rol = rolService.obtenerRolPorId(rolId);
-        return rol.map(r -> ResponseEntity.ok(r))
+        return rol.map(r -> VersionHttp.ok(r, r.getVersion()))
                  .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Obtiene todos los roles del sistema.
+     * Soporta GET condicional: responde 304 NOT MODIFIED sin consultar si los roles no cambiaron.
      * 
-     * @return ResponseEntity con la lista de todos los roles
+     * @param request Petición actual (If-None-Match / If-Modified-Since)
+     * @return ResponseEntity con la lista de todos los roles en JSON, o 304 NOT MODIFIED
      */
     @GetMapping
-    public ResponseEntity<List<RolDTO>> obtenerTodosLosRoles() {
-        List<RolDTO> roles = rolService.obtenerTodosLosRoles();
-        return ResponseEntity.ok(roles);
+    public ResponseEntity<byte[]> obtenerTodosLosRoles(WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.ROLES,
+                "todos", rolService::obtenerTodosLosRoles);
     }
 
     /**
@@ -92,10 +102,16 @@ public class RolController {
     @PutMapping("/{rolId}")
     public ResponseEntity<RolDTO> actualizarRol(
             @PathVariable Long rolId, 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody RolDTO rolDTO) {
         try {
+            rolDTO.setVersion(VersionHttp.versionEsperada(ifMatch, rolDTO.getVersion()));
             RolDTO rolActualizado = rolService.actualizarRol(rolId, rolDTO);
-            return ResponseEntity.ok(rolActualizado);
+            return VersionHttp.ok(rolActualizado, rolActualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -112,10 +128,16 @@ public class RolController {
     @PatchMapping("/{rolId}")
     public ResponseEntity<RolDTO> actualizarRolParcial(
             @PathVariable Long rolId, 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody RolDTO rolDTO) {
         try {
+            rolDTO.setVersion(VersionHttp.versionEsperada(ifMatch, rolDTO.getVersion()));
             RolDTO rolActualizado = rolService.actualizarRolParcial(rolId, rolDTO);
-            return ResponseEntity.ok(rolActualizado);
+            return VersionHttp.ok(rolActualizado, rolActualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -173,13 +195,15 @@ public class RolController {
 
     /**
      * Obtiene todos los roles activos del sistema.
+     * Soporta GET condicional: responde 304 NOT MODIFIED sin consultar si los roles no cambiaron.
      * 
-     * @return ResponseEntity con la lista de roles activos
+     * @param request Petición actual (If-None-Match / If-Modified-Since)
+     * @return ResponseEntity con la lista de roles activos en JSON, o 304 NOT MODIFIED
      */
     @GetMapping("/activos")
-    public ResponseEntity<List<RolDTO>> obtenerRolesActivos() {
-        List<RolDTO> rolesActivos = rolService.obtenerRolesActivos();
-        return ResponseEntity.ok(rolesActivos);
+    public ResponseEntity<byte[]> obtenerRolesActivos(WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.ROLES,
+                "activos", rolService::obtenerRolesActivos);
     }
 
     /**
@@ -231,14 +255,16 @@ public class RolController {
 
     /**
      * Encuentra roles que contienen un permiso específico.
+     * Cada permiso consultado se guarda como una respuesta distinta en la caché de roles.
      * 
      * @param permiso Permiso a buscar en la lista de permisos del rol
-     * @return ResponseEntity con la lista de roles que contienen el permiso
+     * @param request Petición actual (If-None-Match / If-Modified-Since)
+     * @return ResponseEntity con la lista de roles que contienen el permiso en JSON, o 304 NOT MODIFIED
      */
     @GetMapping("/permiso/{permiso}")
-    public ResponseEntity<List<RolDTO>> obtenerRolesPorPermiso(@PathVariable String permiso) {
-        List<RolDTO> roles = rolService.obtenerRolesPorPermiso(permiso);
-        return ResponseEntity.ok(roles);
+    public ResponseEntity<byte[]> obtenerRolesPorPermiso(@PathVariable String permiso, WebRequest request) {
+        return RespuestaCondicional.listado(request, cacheRespuestasService, CacheRespuestasService.ROLES,
+                "permiso=" + permiso, () -> rolService.obtenerRolesPorPermiso(permiso));
     }
 
     // ========================================
@@ -247,10 +273,11 @@ public class RolController {
 
     /**
      * Agrega un permiso a un rol específico.
+     * Los conflictos con otras modificaciones concurrentes del rol se reintentan en el servicio.
      * 
      * @param rolId ID del rol
      * @param permiso Permiso a agregar
-     * @return ResponseEntity indicando el resultado de la operación
+     * @return ResponseEntity indicando el resultado de la operación, o 409 CONFLICT si se agotaron los reintentos
      */
     @PostMapping("/{rolId}/permisos/{permiso}")
     public ResponseEntity<Void> agregarPermisoARol(
@@ -259,6 +286,30 @@ public class RolController {
         try {
             rolService.agregarPermisoARol(rolId, permiso);
             return ResponseEntity.ok().build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Quita un permiso de un rol específico.
+     * Los conflictos con otras modificaciones concurrentes del rol se reintentan en el servicio.
+     * 
+     * @param rolId ID del rol
+     * @param permiso Permiso a quitar
+     * @return ResponseEntity con código 204 NO CONTENT, 404 NOT FOUND o 409 CONFLICT si se agotaron los reintentos
+     */
+    @DeleteMapping("/{rolId}/permisos/{permiso}")
+    public ResponseEntity<Void> removerPermisoDeRol(
+            @PathVariable Long rolId, 
+            @PathVariable String permiso) {
+        try {
+            rolService.removerPermisoDeRol(rolId, permiso);
+            return ResponseEntity.noContent().build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
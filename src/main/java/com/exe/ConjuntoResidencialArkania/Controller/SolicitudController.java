@@ -1,22 +1,39 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Controller;
+package com.exe.ConjuntoResidencialArkania.Controller;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
-import com.exe.ConjuntoResidencialArkania.DTO.AreasComunesDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+
+import com.exe.ConjuntoResidencialArkania.DTO.SlaSolicitudesDTO;
 import com.exe.ConjuntoResidencialArkania.DTO.SolicitudesDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.TokenVerificadoDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Service.AnaliticaSolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.SolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
 
-import main.java.com.exe.ConjuntoResidencialArkania.Service.SolicitudesService;
+import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/solicitudes")
 public class SolicitudController {
     private final SolicitudesService solicitudesService;
+    private final AnaliticaSolicitudesService analiticaSolicitudesService;
 
     @Autowired
-    public SolicitudController(SolicitudesService solicitudesService) {
+    public SolicitudController(SolicitudesService solicitudesService,
+            AnaliticaSolicitudesService analiticaSolicitudesService) {
         this.solicitudesService = solicitudesService;
+        this.analiticaSolicitudesService = analiticaSolicitudesService;
     }
 
     @GetMapping
@@ -28,7 +45,7 @@ public class SolicitudController {
     @GetMapping("/{idSolicitud}")
     public ResponseEntity<SolicitudesDTO> obtenerPorId(@PathVariable Long idSolicitud) {
         return solicitudesService.findById(idSolicitud)
-                .map(ResponseEntity::ok)
+                .map(solicitud -> VersionHttp.ok(solicitud, solicitud.getVersion()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -40,9 +57,20 @@ public class SolicitudController {
 
     @PutMapping("/{idSolicitud}")
     public ResponseEntity<SolicitudesDTO> actualizarSolicitud(@PathVariable Long idSolicitud,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody SolicitudesDTO dto) {
-        SolicitudesDTO actualizado = solicitudesService.editarSolicitud(idSolicitud, dto);
-        return ResponseEntity.ok(actualizado);
+        try {
+            dto.setVersion(VersionHttp.versionEsperada(ifMatch, dto.getVersion()));
+            SolicitudesDTO actualizado = solicitudesService.editarSolicitud(idSolicitud, dto);
+            return VersionHttp.ok(actualizado, actualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
+        } catch (IllegalArgumentException e) {
+            // Solicitud inexistente, o en proceso sin trabajador asignado
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{idSolicitud}")
@@ -93,4 +121,125 @@ public class SolicitudController {
 
         return ResponseEntity.ok(solicitudesService.filtrarPorEstadosYTipos(estados, tipos));
     }
+
+    // ========================================
+    // COLA DE TRABAJO
+    // ========================================
+
+    // El trabajador es el usuario del token de acceso; sin token, 401
+
+    // Reclama las siguientes solicitudes pendientes del tipo; 204 si la cola está vacía
+    @PostMapping("/cola/{tipo}/reclamar")
+    public ResponseEntity<List<SolicitudesDTO>> reclamarSiguientes(@PathVariable SolicitudesEntity.TipoSolicitud tipo,
+            @RequestAttribute(name = TokenService.ATRIBUTO_TOKEN, required = false) TokenVerificadoDTO token,
+            @RequestParam(defaultValue = "1") int cantidad) {
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        List<SolicitudesDTO> reclamadas = solicitudesService.reclamarSiguientes(tipo, token.getUsuarioId(), cantidad);
+        return reclamadas.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(reclamadas);
+    }
+
+    // Cierra una solicitud reclamada; 409 si el reclamo venció o es de otro trabajador
+    @PutMapping("/cola/{idSolicitud}/completar")
+    public ResponseEntity<SolicitudesDTO> completarReclamo(@PathVariable Long idSolicitud,
+            @RequestAttribute(name = TokenService.ATRIBUTO_TOKEN, required = false) TokenVerificadoDTO token,
+            @RequestParam(defaultValue = "resuelta") SolicitudesEntity.EstadoSolicitud resultado) {
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            SolicitudesDTO completada = solicitudesService.completarReclamo(idSolicitud, token.getUsuarioId(), resultado);
+            return VersionHttp.ok(completada, completada.getVersion());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Extiende el reclamo del trabajador; 409 si ya no es suyo
+    @PutMapping("/cola/{idSolicitud}/renovar")
+    public ResponseEntity<SolicitudesDTO> renovarReclamo(@PathVariable Long idSolicitud,
+            @RequestAttribute(name = TokenService.ATRIBUTO_TOKEN, required = false) TokenVerificadoDTO token) {
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(solicitudesService.renovarReclamo(idSolicitud, token.getUsuarioId()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Devuelve la solicitud a la cola; 409 si el reclamo ya no es del trabajador
+    @PutMapping("/cola/{idSolicitud}/liberar")
+    public ResponseEntity<Void> liberarReclamo(@PathVariable Long idSolicitud,
+            @RequestAttribute(name = TokenService.ATRIBUTO_TOKEN, required = false) TokenVerificadoDTO token) {
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            solicitudesService.liberarReclamo(idSolicitud, token.getUsuarioId());
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ========================================
+    // GRUPOS DE DUPLICADOS
+    // ========================================
+
+    // Solicitudes de un grupo de casi duplicados; 404 si el grupo no existe
+    @GetMapping("/grupos/{grupoId}")
+    public ResponseEntity<List<SolicitudesDTO>> listarGrupo(@PathVariable Long grupoId) {
+        List<SolicitudesDTO> grupo = solicitudesService.listarGrupo(grupoId);
+        return grupo.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(grupo);
+    }
+
+    // Cierra todas las solicitudes abiertas del grupo; 404 si no queda ninguna abierta
+    @PutMapping("/grupos/{grupoId}/resolver")
+    public ResponseEntity<List<SolicitudesDTO>> resolverGrupo(@PathVariable Long grupoId,
+            @RequestParam(defaultValue = "resuelta") SolicitudesEntity.EstadoSolicitud resultado) {
+        try {
+            List<SolicitudesDTO> cerradas = solicitudesService.resolverGrupo(grupoId, resultado);
+            return cerradas.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(cerradas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ========================================
+    // TIEMPOS DE RESOLUCIÓN (SLA)
+    // ========================================
+
+    // p50/p90/p99 por tipo y mes (AAAA-MM); por defecto los últimos 12 meses
+    @GetMapping("/sla")
+    public ResponseEntity<SlaSolicitudesDTO> obtenerSla(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta,
+            @RequestParam(required = false) SolicitudesEntity.TipoSolicitud tipo) {
+        YearMonth fin = hasta != null ? hasta : YearMonth.now();
+        YearMonth inicio = desde != null ? desde : fin.minusMonths(11);
+        try {
+            return ResponseEntity.ok(analiticaSolicitudesService.obtenerSla(inicio, fin, tipo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Reconstruye los resúmenes desde el historial; 409 si ya hay una reconstrucción en curso
+    @PostMapping("/sla/reconstruir")
+    public ResponseEntity<Long> reconstruirSla() {
+        try {
+            return ResponseEntity.ok(analiticaSolicitudesService.reconstruir());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
 }
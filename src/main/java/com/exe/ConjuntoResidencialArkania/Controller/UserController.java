@@ -1,12 +1,15 @@
 package com.exe.ConjuntoResidencialArkania.Controller;
 
 import com.exe.ConjuntoResidencialArkania.DTO.UserDTO;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Service.UserService;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -66,7 +69,7 @@ public class UserController {
     @GetMapping("/{usuarioId}")
     public ResponseEntity<UserDTO> obtenerUsuarioPorId(@PathVariable Long usuarioId) {
         Optional<UserDTO> usuario = userService.obtenerUsuarioPorId(usuarioId);
-        return usuario.map(user -> ResponseEntity.ok(user))
+        return usuario.map(user -> VersionHttp.ok(user, user.getVersion()))
                      .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -91,10 +94,16 @@ public class UserController {
     @PutMapping("/{usuarioId}")
     public ResponseEntity<UserDTO> actualizarUsuario(
             @PathVariable Long usuarioId, 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserDTO userDTO) {
         try {
+            userDTO.setVersion(VersionHttp.versionEsperada(ifMatch, userDTO.getVersion()));
             UserDTO usuarioActualizado = userService.actualizarUsuario(usuarioId, userDTO);
-            return ResponseEntity.ok(usuarioActualizado);
+            return VersionHttp.ok(usuarioActualizado, usuarioActualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -111,10 +120,16 @@ public class UserController {
     @PatchMapping("/{usuarioId}")
     public ResponseEntity<UserDTO> actualizarUsuarioParcial(
             @PathVariable Long usuarioId, 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UserDTO userDTO) {
         try {
+            userDTO.setVersion(VersionHttp.versionEsperada(ifMatch, userDTO.getVersion()));
             UserDTO usuarioActualizado = userService.actualizarUsuarioParcial(usuarioId, userDTO);
-            return ResponseEntity.ok(usuarioActualizado);
+            return VersionHttp.ok(usuarioActualizado, usuarioActualizado.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,12 +1,21 @@
 package com.exe.ConjuntoResidencialArkania.Controller;
 
+import com.exe.ConjuntoResidencialArkania.DTO.ContadorRolDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.EvaluacionAsignacionDTO;
 import com.exe.ConjuntoResidencialArkania.DTO.UsuarioRolDTO;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Exception.UsuarioRolNotFoundException;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto.TipoActivacion;
+import com.exe.ConjuntoResidencialArkania.Service.PoliticaAsignacionService;
 import com.exe.ConjuntoResidencialArkania.Service.UsuarioRolService;
+import com.exe.ConjuntoResidencialArkania.Service.UsuarioRolService.ResultadoAsignacion;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -36,6 +45,9 @@ public class UsuarioRolController {
     @Autowired
     private UsuarioRolService usuarioRolService;
 
+    @Autowired
+    private PoliticaAsignacionService politicaAsignacionService;
+
     // ========================================
     // OPERACIONES CRUD BÁSICAS
     // ========================================
@@ -60,19 +72,21 @@ public class UsuarioRolController {
 
     /**
      * Asigna un rol específico a un usuario específico.
-     * Método de conveniencia para asignaciones simples.
+     * Es idempotente: si la asignación ya existe inactiva se reactiva y si ya está activa se
+     * devuelve sin cambios, así que un cliente puede reintentar sin riesgo.
      * 
      * @param usuarioId ID del usuario
      * @param rolId ID del rol
-     * @return ResponseEntity con la asignación creada
+     * @return ResponseEntity con la asignación y 201 CREATED si se creó, o 200 OK si se reactivó o ya estaba activa
      */
     @PostMapping("/asignar/{usuarioId}/{rolId}")
     public ResponseEntity<UsuarioRolDTO> asignarRolAUsuario(
             @PathVariable Long usuarioId, 
             @PathVariable Long rolId) {
         try {
-            UsuarioRolDTO asignacionCreada = usuarioRolService.asignarRolAUsuario(usuarioId, rolId);
-            return new ResponseEntity<>(asignacionCreada, HttpStatus.CREATED);
+            ResultadoAsignacion resultado = usuarioRolService.activarRolDeUsuario(usuarioId, rolId);
+            HttpStatus estado = resultado.tipo() == TipoActivacion.CREADA ? HttpStatus.CREATED : HttpStatus.OK;
+            return new ResponseEntity<>(resultado.asignacion(), estado);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -87,7 +101,7 @@ public class UsuarioRolController {
     @GetMapping("/{usuarioRolId}")
     public ResponseEntity<UsuarioRolDTO> obtenerAsignacionPorId(@PathVariable Long usuarioRolId) {
         Optional<UsuarioRolDTO> asignacion = usuarioRolService.obtenerAsignacionPorId(usuarioRolId);
-        return asignacion.map(a -> ResponseEntity.ok(a))
+        return asignacion.map(a -> VersionHttp.ok(a, a.getVersion()))
                         .orElse(ResponseEntity.notFound().build());
     }
 
@@ -112,10 +126,16 @@ public class UsuarioRolController {
     @PutMapping("/{usuarioRolId}")
     public ResponseEntity<UsuarioRolDTO> actualizarAsignacion(
             @PathVariable Long usuarioRolId, 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UsuarioRolDTO usuarioRolDTO) {
         try {
+            usuarioRolDTO.setVersion(VersionHttp.versionEsperada(ifMatch, usuarioRolDTO.getVersion()));
             UsuarioRolDTO asignacionActualizada = usuarioRolService.actualizarAsignacion(usuarioRolId, usuarioRolDTO);
-            return ResponseEntity.ok(asignacionActualizada);
+            return VersionHttp.ok(asignacionActualizada, asignacionActualizada.getVersion());
+        } catch (ConflictoVersionException e) {
+            return VersionHttp.precondicionFallida(e.getVersionActual());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return VersionHttp.precondicionFallida(null);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -265,6 +285,28 @@ public class UsuarioRolController {
         }
     }
 
+    /**
+     * Renueva una asignación con vencimiento (visitantes, proveedores, roles con renovación
+     * periódica). Si la asignación había expirado, se reactiva.
+     * 
+     * @param usuarioRolId ID de la asignación a renovar
+     * @return ResponseEntity con la asignación renovada, 400 BAD REQUEST si el rol no vence,
+     *         404 NOT FOUND si no existe o 409 CONFLICT si fue desactivada sin expirar o su
+     *         reactivación incumple las políticas de asignación
+     */
+    @PutMapping("/{usuarioRolId}/renovar")
+    public ResponseEntity<UsuarioRolDTO> renovarAsignacion(@PathVariable Long usuarioRolId) {
+        try {
+            return ResponseEntity.ok(usuarioRolService.renovarAsignacion(usuarioRolId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (UsuarioRolNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     /**
      * Activa la asignación de un rol específico a un usuario específico.
      * 
@@ -366,4 +408,31 @@ public class UsuarioRolController {
         boolean tieneRol = usuarioRolService.usuarioTieneRol(usuarioId, rolId);
         return ResponseEntity.ok(tieneRol);
     }
+
+    // ========================================
+    // POLÍTICAS DE ASIGNACIÓN
+    // ========================================
+
+    /**
+     * Evalúa un lote de asignaciones candidatas contra todas las políticas sin crear nada.
+     * Cada candidata ve como hechas las anteriores permitidas del mismo lote.
+     * 
+     * @param candidatas Lista de pares usuarioId/rolId
+     * @return ResponseEntity con el resultado y las reglas incumplidas de cada candidata
+     */
+    @PostMapping("/politica/evaluar")
+    public ResponseEntity<List<EvaluacionAsignacionDTO>> evaluarPoliticas(
+            @RequestBody List<EvaluacionAsignacionDTO> candidatas) {
+        return ResponseEntity.ok(politicaAsignacionService.evaluar(candidatas));
+    }
+
+    /**
+     * Obtiene los contadores en vivo de asignaciones activas por rol y sus límites.
+     * 
+     * @return ResponseEntity con los contadores por rol
+     */
+    @GetMapping("/politica/contadores")
+    public ResponseEntity<List<ContadorRolDTO>> obtenerContadoresPoliticas() {
+        return ResponseEntity.ok(politicaAsignacionService.obtenerContadores());
+    }
 }
@@ -0,0 +1,73 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utilidades para exponer la versión optimista de las entidades como ETag y
+ * leerla de la cabecera If-Match en las peticiones PUT/PATCH.
+ * 
+ * El ETag de una entidad es su versión entre comillas (ej. "3"). Si la petición trae
+ * If-Match, esa versión tiene prioridad sobre el campo version del cuerpo; si no trae
+ * ninguna de las dos, la actualización no se condiciona.
+ */
+public final class VersionHttp {
+
+    private VersionHttp() {
+    }
+
+    /**
+     * ETag fuerte para una versión.
+     */
+    public static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versión que el cliente espera modificar.
+     * 
+     * @param ifMatch Valor de la cabecera If-Match (puede ser nulo)
+     * @param versionCuerpo Versión enviada en el DTO (puede ser nula)
+     * @return Versión esperada, o null si no se debe verificar
+     * @throws ConflictoVersionException si If-Match no es un ETag de versión válido
+     */
+    public static Long versionEsperada(String ifMatch, Long versionCuerpo) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return versionCuerpo;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new ConflictoVersionException("If-Match no corresponde a ninguna versión: " + ifMatch, null);
+        }
+    }
+
+    /**
+     * Respuesta 200 OK con el ETag de la versión indicada.
+     */
+    public static <T> ResponseEntity<T> ok(T cuerpo, Long version) {
+        if (version == null) {
+            return ResponseEntity.ok(cuerpo);
+        }
+        return ResponseEntity.ok().eTag(etag(version)).body(cuerpo);
+    }
+
+    /**
+     * Respuesta 412 PRECONDITION FAILED, con el ETag actual si se conoce.
+     */
+    public static <T> ResponseEntity<T> precondicionFallida(Long versionActual) {
+        if (versionActual == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag(versionActual)).build();
+    }
+}
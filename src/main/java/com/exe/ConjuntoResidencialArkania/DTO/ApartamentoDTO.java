@@ -14,6 +14,7 @@ public class ApartamentoDTO {
     private String torre;
     private Long propietarioId;
     private String estado;
+    private Long version;
     public ApartamentoDTO(Long apartamentoId, String numero, String torre, String estado) {
         this.apartamentoId = apartamentoId;
         this.numero = numero;
@@ -3,18 +3,18 @@ package com.exe.ConjuntoResidencialArkania.DTO;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-static static @Data
+@Data
 @AllArgsConstructor
 @NoArgsConstructor  
 
 public class AreasComunesDTO {
-    long idAreaComun;
+    Long idAreaComun;
 
     @NotBlank(message = "El nombre es obligatorio")
     @Size(min = 3, max = 100, message = "El nombre debe tener entre 3 y 100 caracteres")
@@ -36,9 +36,11 @@ public class AreasComunesDTO {
     @Size(min = 5, max = 200, message = "El horario de funcionamiento debe tener entre 5 y 200 caracteres")
     String horarioFuncionamiento;
     
-    @Pattern(regexp = "^(|activa|inactiva)$", message = "Estado debe ser: activa o inactiva")
+    @NotNull(message = "El estado es obligatorio (activa o inactiva)")
     EstadoArea estado;
 
+    Long version;
+
     public enum EstadoArea {
         activa,
         inactiva
@@ -0,0 +1,40 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un registro del log de auditoría.
+ * Los valores anterior y nuevo se exponen como JSON anidado, no como texto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditoriaDTO {
+
+    private Long auditoriaId;
+
+    private String entidadTipo;
+
+    private Long entidadId;
+
+    private String operacion;
+
+    private Long usuarioRelacionadoId;
+
+    private Long usuarioResponsableId;
+
+    private JsonNode valorAnterior;
+
+    private JsonNode valorNuevo;
+
+    private Boolean auditoriaEspecial;
+
+    private Boolean requiereAprobacionMultiple;
+
+    private LocalDateTime fechaCambio;
+}
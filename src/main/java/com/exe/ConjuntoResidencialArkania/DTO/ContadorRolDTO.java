@@ -0,0 +1,31 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el contador en vivo de asignaciones activas de un rol.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContadorRolDTO {
+
+    private String rol;
+
+    /**
+     * Asignaciones activas, incluidas las reservadas por transacciones en curso.
+     */
+    private int ocupados;
+
+    /**
+     * Reservas de transacciones que aún no se han confirmado.
+     */
+    private int pendientes;
+
+    /**
+     * Límite configurado en limiteUsuariosPorRol, o null si el rol no tiene límite.
+     */
+    private Integer limite;
+}
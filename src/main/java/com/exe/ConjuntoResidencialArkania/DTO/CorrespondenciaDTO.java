@@ -34,4 +34,7 @@ public class CorrespondenciaDTO {
     private LocalDateTime crearCorrespondencia;
     private LocalDateTime actualizarCorrespondencia;
 
+    // Control de concurrencia optimista (ETag)
+    private Long version;
+
 }
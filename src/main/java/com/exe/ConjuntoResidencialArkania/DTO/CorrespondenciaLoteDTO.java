@@ -0,0 +1,53 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para registrar en portería varias correspondencias recibidas juntas (por ejemplo,
+ * todos los paquetes que deja un mensajero).
+ *
+ * Cada paquete identifica a su destinatario por el apartamento (torre y número, el
+ * destinatario es el propietario) o por el número de documento; si trae ambos, el
+ * documento indica el destinatario y el apartamento queda asociado. Igual que en la
+ * importación de residentes, los paquetes inválidos no abortan el lote: se validan en el
+ * servicio y los errores se reportan por posición.
+ */
+@Data // Lombok: genera getters, setters, toString, equals y hashCode automáticamente
+@NoArgsConstructor // Lombok: genera constructor sin parámetros para deserialización JSON
+public class CorrespondenciaLoteDTO {
+
+    /**
+     * ID del usuario de portería que registra el lote.
+     */
+    private Long registradoPor;
+
+    /**
+     * Fecha de recepción de todo el lote (por defecto, el momento del registro).
+     */
+    private LocalDateTime fechaRecepcion;
+
+    private List<Paquete> paquetes = new ArrayList<>();
+
+    /**
+     * Correspondencia individual del lote.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Paquete {
+        private String torre;
+        private String numero;
+        private String numeroDocumento;
+        /**
+         * PAQUETE, DOCUMENTO u OTRO (por defecto, PAQUETE).
+         */
+        private String tipo;
+        private String observaciones;
+    }
+}
@@ -0,0 +1,32 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de evaluar una asignación usuario-rol candidata contra las
+ * políticas de UsuarioRolConfig (límites, exclusiones y prerequisitos).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluacionAsignacionDTO {
+
+    private Long usuarioId;
+
+    private Long rolId;
+
+    /**
+     * true si la asignación cumple todas las reglas.
+     */
+    private boolean permitida;
+
+    /**
+     * Reglas incumplidas, en lenguaje legible. Vacía si la asignación está permitida.
+     */
+    private List<String> violaciones = new ArrayList<>();
+}
@@ -0,0 +1,37 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO que representa un evento de dominio publicado desde el outbox a los listeners
+ * de la aplicación (métodos anotados con @EventListener que reciben este tipo).
+ * 
+ * La publicación es "al menos una vez": si un listener falla, el evento se reintenta
+ * y los listeners que ya lo procesaron lo recibirán de nuevo, por lo que deben ser
+ * idempotentes (pueden usar eventoId para descartar duplicados).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoDominioDTO {
+
+    private Long eventoId;
+
+    private String agregadoTipo;
+
+    private Long agregadoId;
+
+    private String tipoEvento;
+
+    /**
+     * Datos del evento ya deserializados.
+     */
+    private Map<String, Object> datos;
+
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,48 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una fila de la importación masiva de residentes.
+ *
+ * Cada fila describe un usuario nuevo y, opcionalmente, el apartamento que ocupa
+ * y el rol que se le asigna. Las validaciones no se declaran con anotaciones porque
+ * las filas inválidas no deben abortar la importación completa: se validan en el
+ * servicio y los errores se reportan por fila.
+ */
+@Data // Lombok: genera getters, setters, toString, equals y hashCode automáticamente
+@NoArgsConstructor // Lombok: genera constructor sin parámetros para deserialización JSON
+@AllArgsConstructor // Lombok: genera constructor con todos los parámetros
+public class ImportacionResidenteDTO {
+
+    private String tipoDocumento;
+
+    private String numeroDocumento;
+
+    private String nombres;
+
+    private String apellidos;
+
+    private String email;
+
+    private String telefono;
+
+    private String password;
+
+    /**
+     * Torre del apartamento del residente (opcional, junto con numeroApartamento).
+     */
+    private String torre;
+
+    /**
+     * Número del apartamento del residente (opcional, junto con torre).
+     */
+    private String numeroApartamento;
+
+    /**
+     * Nombre del rol a asignar. Si no se indica se usa el rol por defecto de la importación.
+     */
+    private String rol;
+}
@@ -0,0 +1,50 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el estado del archivo de registros cerrados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasArchivoDTO {
+
+    /**
+     * Las tablas de archivo existen.
+     */
+    private boolean disponible;
+
+    /**
+     * La tarea de archivo está habilitada en esta instancia.
+     */
+    private boolean habilitado;
+
+    private int diasRetencion;
+
+    /**
+     * Registros cerrados antes de esta fecha se archivan; los rangos que empiezan después no leen el archivo.
+     */
+    private LocalDateTime limite;
+
+    /**
+     * Correspondencias archivadas por esta instancia desde el arranque.
+     */
+    private long correspondenciasArchivadas;
+
+    /**
+     * Solicitudes archivadas por esta instancia desde el arranque.
+     */
+    private long solicitudesArchivadas;
+
+    /**
+     * Lotes movidos (cada uno en su propia transacción).
+     */
+    private long lotes;
+
+    private LocalDateTime ultimaEjecucion;
+}
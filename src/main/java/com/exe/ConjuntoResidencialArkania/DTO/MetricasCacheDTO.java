@@ -0,0 +1,59 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas de la caché de respuestas serializadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasCacheDTO {
+
+    /**
+     * Respuestas guardadas (cada una con su JSON y, si aplica, su versión gzip).
+     */
+    private int entradas;
+
+    /**
+     * Bytes ocupados por las respuestas guardadas (JSON más gzip).
+     */
+    private long bytesEnUso;
+
+    /**
+     * Límite de bytes configurado; al superarlo se desalojan las menos usadas recientemente.
+     */
+    private long maxBytes;
+
+    /**
+     * Peticiones servidas desde la caché sin consultar ni serializar.
+     */
+    private long aciertos;
+
+    /**
+     * Peticiones que tuvieron que consultar y serializar.
+     */
+    private long fallos;
+
+    /**
+     * Peticiones condicionales respondidas con 304 NOT MODIFIED.
+     */
+    private long noModificados;
+
+    /**
+     * Peticiones servidas con el cuerpo gzip ya comprimido.
+     */
+    private long servidasGzip;
+
+    /**
+     * Respuestas desalojadas por superar el límite de bytes.
+     */
+    private long desalojos;
+
+    /**
+     * aciertos / (aciertos + fallos), o 0 si aún no hay peticiones.
+     */
+    private double tasaAciertos;
+}
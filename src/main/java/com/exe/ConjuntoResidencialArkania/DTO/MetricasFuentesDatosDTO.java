@@ -0,0 +1,68 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con las métricas de las fuentes de datos: ruteo entre primaria y réplica y estado
+ * de cada pool de conexiones.
+ */
+@Data
+@NoArgsConstructor
+public class MetricasFuentesDatosDTO {
+
+    /**
+     * Indica si la réplica de lectura está configurada (arkania.replica.habilitada).
+     */
+    private boolean replicaHabilitada;
+
+    /**
+     * Indica si la réplica recibe lecturas según la última verificación.
+     */
+    private boolean replicaDisponible;
+
+    /**
+     * Retraso de la réplica en segundos en la última verificación, o null si no respondió.
+     */
+    private Double retrasoReplicaSegundos;
+
+    /**
+     * Conexiones entregadas por la primaria fuera de transacciones de solo lectura.
+     */
+    private long conexionesEscritura;
+
+    /**
+     * Transacciones de solo lectura atendidas por la réplica.
+     */
+    private long lecturasReplica;
+
+    /**
+     * Transacciones de solo lectura atendidas por la primaria (réplica atrasada, caída o
+     * lectura forzada a la primaria).
+     */
+    private long lecturasEnPrimaria;
+
+    /**
+     * Estado de cada pool de conexiones.
+     */
+    private List<PoolConexiones> pools = new ArrayList<>();
+
+    /**
+     * Estado de un pool Hikari.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PoolConexiones {
+        private String nombre;
+        private int activas;
+        private int inactivas;
+        private int totales;
+        private int hilosEsperando;
+        private int maximo;
+    }
+}
@@ -0,0 +1,59 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas del almacén de claves de idempotencia.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasIdempotenciaDTO {
+
+    /**
+     * Claves guardadas (en curso o completadas).
+     */
+    private int claves;
+
+    /**
+     * Bytes ocupados por las respuestas guardadas.
+     */
+    private long bytesEnUso;
+
+    /**
+     * Límite de claves configurado.
+     */
+    private int maxClaves;
+
+    /**
+     * Límite de bytes configurado.
+     */
+    private long maxBytes;
+
+    /**
+     * Peticiones ejecutadas por primera vez con su clave.
+     */
+    private long ejecutadas;
+
+    /**
+     * Repeticiones respondidas con la respuesta guardada, sin ejecutar.
+     */
+    private long repetidas;
+
+    /**
+     * Repeticiones rechazadas con 409 porque la primera petición seguía en curso.
+     */
+    private long enCurso;
+
+    /**
+     * Peticiones rechazadas con 422 por reutilizar una clave con otro cuerpo.
+     */
+    private long huellasDistintas;
+
+    /**
+     * Claves desalojadas antes de vencer por superar el límite de claves o de bytes.
+     */
+    private long desalojos;
+}
@@ -14,6 +14,7 @@ public class ParqueaderoDTO {
     private String numero;
     private Long usuarioId;
     private String estado;
+    private Long version;
     public ParqueaderoDTO(Long parqueaderoId, String tipoRol, String numero, String estado) {
         this.parqueaderoId = parqueaderoId;
         this.tipoRol = tipoRol;
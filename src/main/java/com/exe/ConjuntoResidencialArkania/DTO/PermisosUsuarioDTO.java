@@ -0,0 +1,30 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con los permisos efectivos de un usuario: la unión de los permisos de todos
+ * sus roles activos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermisosUsuarioDTO {
+
+    private Long usuarioId;
+
+    /**
+     * Permisos efectivos ordenados alfabéticamente.
+     */
+    private List<String> permisos;
+
+    /**
+     * Versión de los permisos del usuario. Crece cada vez que cambian sus asignaciones,
+     * sus datos o alguno de sus roles.
+     */
+    private long version;
+}
@@ -0,0 +1,48 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resumen diario de una métrica en un rango de días.
+ */
+@Data
+@NoArgsConstructor
+public class ReporteDiarioDTO {
+
+    private String metrica;
+
+    /**
+     * Primer y último día incluidos.
+     */
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    /**
+     * Una fila por día y combinación de dimensiones con registros, en orden de fecha.
+     */
+    private List<FilaResumen> filas = new ArrayList<>();
+
+    /**
+     * Suma de las cantidades del rango.
+     */
+    private long total;
+
+    /**
+     * Cantidad de registros de un día con las dimensiones indicadas (vacías si la métrica no las usa).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaResumen {
+        private LocalDate fecha;
+        private String dimension1;
+        private String dimension2;
+        private long cantidad;
+    }
+}
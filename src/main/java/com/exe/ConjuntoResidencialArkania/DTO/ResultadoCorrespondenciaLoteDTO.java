@@ -0,0 +1,46 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado del registro de un lote de correspondencias.
+ */
+@Data // Lombok: genera getters, setters, toString, equals y hashCode automáticamente
+@NoArgsConstructor // Lombok: genera constructor sin parámetros para deserialización JSON
+public class ResultadoCorrespondenciaLoteDTO {
+
+    private int totalPaquetes;
+
+    private int registradas;
+
+    /**
+     * Destinatarios distintos notificados (una notificación por destinatario).
+     */
+    private int destinatariosNotificados;
+
+    /**
+     * Correspondencias registradas, en el orden de los paquetes del lote.
+     */
+    private List<CorrespondenciaDTO> correspondencias = new ArrayList<>();
+
+    private List<ErrorPaquete> errores = new ArrayList<>();
+
+    /**
+     * Error de validación o de resolución del destinatario de un paquete.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorPaquete {
+        /**
+         * Posición del paquete en el lote (1 = primero).
+         */
+        private int posicion;
+        private String mensaje;
+    }
+}
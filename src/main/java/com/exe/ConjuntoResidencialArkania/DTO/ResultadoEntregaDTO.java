@@ -0,0 +1,29 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el resultado de entregar correspondencias en portería.
+ */
+@Data // Lombok: genera getters, setters, toString, equals y hashCode automáticamente
+@NoArgsConstructor // Lombok: genera constructor sin parámetros para deserialización JSON
+@AllArgsConstructor // Lombok: genera constructor con todos los parámetros
+public class ResultadoEntregaDTO {
+
+    /**
+     * Correspondencias que pasaron de PENDIENTE a ENTREGADA (filas afectadas). Una
+     * correspondencia que ya estaba entregada no se cuenta.
+     */
+    private int entregadas;
+
+    /**
+     * ID del usuario que retiró la correspondencia.
+     */
+    private Long retiradoPor;
+
+    private LocalDateTime fechaEntrega;
+}
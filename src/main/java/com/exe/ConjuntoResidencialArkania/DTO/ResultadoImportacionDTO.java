@@ -0,0 +1,55 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de residentes.
+ *
+ * Incluye los contadores de filas procesadas y registros creados, y una muestra de
+ * los errores encontrados. El reporte completo de errores se descarga en CSV desde
+ * /api/importaciones/{importacionId}/errores.
+ */
+@Data // Lombok: genera getters, setters, toString, equals y hashCode automáticamente
+@NoArgsConstructor // Lombok: genera constructor sin parámetros para deserialización JSON
+public class ResultadoImportacionDTO {
+
+    /**
+     * Identificador de la importación, usado para descargar el reporte de errores.
+     */
+    private String importacionId;
+
+    private int totalFilas;
+
+    private int filasConError;
+
+    private int usuariosCreados;
+
+    private int apartamentosCreados;
+
+    private int asignacionesCreadas;
+
+    /**
+     * Primeros errores encontrados (el reporte completo se descarga aparte).
+     */
+    private List<ErrorFila> errores = new ArrayList<>();
+
+    /**
+     * Error de validación o de negocio asociado a una fila del archivo.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        /**
+         * Número de fila (1 = primera fila de datos).
+         */
+        private int fila;
+        private String campo;
+        private String mensaje;
+    }
+}
@@ -83,6 +83,12 @@ public class RolDTO {
      */
     private LocalDateTime fechaActualizacion;
 
+    /**
+     * Versión de la entidad para control de concurrencia optimista (se expone también como ETag).
+     * En una actualización, si se envía, debe coincidir con la versión actual.
+     */
+    private Long version;
+
     /**
      * Constructor personalizado para crear RolDTO con nombre y descripción.
      * Útil para inicializar roles básicos.
@@ -0,0 +1,61 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con los tiempos de resolución de solicitudes (de la creación a la resolución) por tipo
+ * y por mes de resolución. Los cuantiles son aproximados, con el error relativo indicado.
+ */
+@Data
+@NoArgsConstructor
+public class SlaSolicitudesDTO {
+
+    /**
+     * Primer y último mes incluidos (AAAA-MM).
+     */
+    private String desde;
+    private String hasta;
+
+    /**
+     * Error relativo máximo de los cuantiles (0.01 = 1 %).
+     */
+    private double precisionRelativa;
+
+    /**
+     * Una fila por tipo y mes con solicitudes resueltas.
+     */
+    private List<TiemposResolucion> porMes = new ArrayList<>();
+
+    /**
+     * Una fila por tipo con todo el rango (mes vacío).
+     */
+    private List<TiemposResolucion> totales = new ArrayList<>();
+
+    /**
+     * Última reconstrucción completa desde el historial.
+     */
+    private LocalDateTime ultimaReconstruccion;
+
+    /**
+     * Tiempos de resolución de un tipo en un mes (o en todo el rango), en horas.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TiemposResolucion {
+        private String tipoSolicitud;
+        private String mes;
+        private long cantidad;
+        private double p50Horas;
+        private double p90Horas;
+        private double p99Horas;
+        private double promedioHoras;
+        private double maximoHoras;
+    }
+}
@@ -30,6 +30,18 @@ public class SolicitudesDTO {
     LocalDateTime fechaCreacion;
 
     LocalDateTime fechaResolucion;
+
+    // Cola de trabajo: prioridad (mayor = antes; null = sin cambios al editar) y reclamo vigente
+    Integer prioridad;
+
+    Long asignadoA;
+
+    LocalDateTime reclamoVence;
+
+    // Grupo de casi duplicados (solo lectura; lo asigna el servicio al crear la solicitud)
+    Long grupoDuplicados;
+
+    Long version;
     
     public enum EstadoSolicitud {
         pendiente,
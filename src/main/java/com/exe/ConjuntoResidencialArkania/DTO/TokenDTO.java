@@ -0,0 +1,32 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con un token de acceso firmado emitido a un usuario.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenDTO {
+
+    /**
+     * Token en formato JWT (HS256). Se envía en la cabecera Authorization: Bearer.
+     */
+    private String token;
+
+    private String tipo;
+
+    private Long usuarioId;
+
+    private LocalDateTime expiraEn;
+
+    /**
+     * Versión de los permisos del usuario al emitir el token.
+     */
+    private long versionPermisos;
+}
@@ -0,0 +1,34 @@
+package com.exe.ConjuntoResidencialArkania.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los datos de un token cuya firma, vigencia y revocación ya se verificaron.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenVerificadoDTO {
+
+    private Long usuarioId;
+
+    /**
+     * Emisión y expiración en segundos desde epoch, como en el token.
+     */
+    private long emitidoEn;
+
+    private long expiraEn;
+
+    /**
+     * Versión de los permisos del usuario incluida en el token.
+     */
+    private long versionPermisos;
+
+    /**
+     * false si los permisos del usuario cambiaron después de emitir el token;
+     * el cliente debería renovarlo para reflejar el cambio.
+     */
+    private boolean permisosVigentes;
+}
@@ -117,4 +117,10 @@ public class UserDTO {
      * Se actualiza automáticamente cada vez que se modifica el registro.
      */
     private LocalDateTime fechaActualizacion;
+
+    /**
+     * Versión de la entidad para control de concurrencia optimista (se expone también como ETag).
+     * En una actualización, si se envía, debe coincidir con la versión actual.
+     */
+    private Long version;
 }
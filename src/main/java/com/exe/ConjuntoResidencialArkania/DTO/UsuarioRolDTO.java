@@ -71,6 +71,12 @@ public class UsuarioRolDTO {
      */
     private Boolean activo;
 
+    /**
+     * Fecha de vencimiento de la asignación (null si no vence).
+     * La calcula el servicio según el rol; no se recibe del cliente.
+     */
+    private LocalDateTime fechaExpiracion;
+
     /**
      * Fecha y hora de creación de la asignación usuario-rol.
      * Se establece automáticamente al crear el registro.
@@ -82,4 +88,10 @@ public class UsuarioRolDTO {
      * Se actualiza automáticamente cada vez que se modifica el registro.
      */
     private LocalDateTime fechaActualizacion;
+
+    /**
+     * Versión de la entidad para control de concurrencia optimista (se expone también como ETag).
+     * En una actualización, si se envía, debe coincidir con la versión actual.
+     */
+    private Long version;
 }
@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class ApartamentoEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "apartamentos_seq")
+    @SequenceGenerator(name = "apartamentos_seq", sequenceName = "apartamentos_seq", allocationSize = 50)
     @Column(name = "apartamento_id")
     private Long apartamentoId;
 
@@ -37,6 +38,14 @@ public class ApartamentoEntity {
     @Enumerated(EnumType.STRING)
     private EstadoApartamento estado = EstadoApartamento.LIBRE;
 
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     public enum EstadoApartamento {
         LIBRE,
         OCUPADO,
@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -20,7 +22,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AreasComunesEntity {
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "areas_comunes_seq")
+    @SequenceGenerator(name = "areas_comunes_seq", sequenceName = "areas_comunes_seq", allocationSize = 50)
     @Column(name = "id_area_comun")
     private Long idAreaComun;
 
@@ -53,6 +56,14 @@ public class AreasComunesEntity {
     @Column(name = "estado", nullable = false, length = 20)
     EstadoArea estado;
 
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     public enum EstadoArea {
         activa,
         inactiva
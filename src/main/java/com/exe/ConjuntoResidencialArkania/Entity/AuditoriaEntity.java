@@ -0,0 +1,103 @@
+package com.exe.ConjuntoResidencialArkania.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un registro del log de auditoría de usuarios, roles y asignaciones.
+ * Esta clase mapea la tabla 'auditoria_cambios'.
+ *
+ * El log es de solo inserción: los registros no se modifican ni se eliminan desde la
+ * aplicación (la entidad es inmutable para Hibernate). Las inserciones no pasan por JPA,
+ * las hace por lotes AuditoriaServiceImpl con JDBC; esta entidad se usa para las consultas.
+ *
+ * En PostgreSQL la tabla está particionada por mes sobre fecha_cambio
+ * (ver db/migracion/postgresql/002_auditoria_cambios.sql), por eso su clave primaria
+ * es (auditoria_id, fecha_cambio). Los índices los crea la migración sobre la tabla
+ * particionada; no se declaran aquí porque ddl-auto=update intentaría crearlos de nuevo
+ * en cada arranque.
+ */
+@Entity
+@Immutable
+@Table(name = "auditoria_cambios")
+@Data // Lombok: genera getters, setters, toString, equals y hashCode
+@NoArgsConstructor // Lombok: genera constructor sin parámetros
+@AllArgsConstructor // Lombok: genera constructor con todos los parámetros
+public class AuditoriaEntity {
+
+    /**
+     * Identificador del registro, reservado de la secuencia auditoria_seq al escribir el lote.
+     * El generador se declara para que la secuencia use el mismo incremento que las demás.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditoria_seq")
+    @SequenceGenerator(name = "auditoria_seq", sequenceName = "auditoria_seq", allocationSize = 50)
+    @Column(name = "auditoria_id")
+    private Long auditoriaId;
+
+    /**
+     * Tipo de entidad modificada (USUARIO, ROL, USUARIO_ROL).
+     */
+    @Column(name = "entidad_tipo", nullable = false, length = 30)
+    private String entidadTipo;
+
+    /**
+     * Identificador de la entidad modificada.
+     */
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    /**
+     * Operación realizada (CREAR, ACTUALIZAR, DESACTIVAR...).
+     */
+    @Column(name = "operacion", nullable = false, length = 40)
+    private String operacion;
+
+    /**
+     * Usuario afectado por el cambio: el propio usuario o el usuario de la asignación.
+     * Permite consultar en una sola búsqueda el historial completo de un usuario.
+     */
+    @Column(name = "usuario_relacionado_id")
+    private Long usuarioRelacionadoId;
+
+    /**
+     * Usuario que realizó el cambio, si la petición lo identificó.
+     */
+    @Column(name = "usuario_responsable_id")
+    private Long usuarioResponsableId;
+
+    /**
+     * Estado de la entidad antes del cambio, en JSON. Nulo en las creaciones.
+     */
+    @Column(name = "valor_anterior", columnDefinition = "TEXT")
+    private String valorAnterior;
+
+    /**
+     * Estado de la entidad después del cambio, en JSON. Nulo en las eliminaciones físicas.
+     */
+    @Column(name = "valor_nuevo", columnDefinition = "TEXT")
+    private String valorNuevo;
+
+    /**
+     * Indica si el rol involucrado está en UsuarioRolConfig.rolesRequierenAuditoriaEspecial.
+     */
+    @Column(name = "auditoria_especial", nullable = false)
+    private Boolean auditoriaEspecial = false;
+
+    /**
+     * Indica si el rol involucrado está en UsuarioRolConfig.rolesRequierenAprobacionMultiple.
+     */
+    @Column(name = "requiere_aprobacion_multiple", nullable = false)
+    private Boolean requiereAprobacionMultiple = false;
+
+    /**
+     * Fecha del cambio (confirmación de la operación). Clave de partición.
+     */
+    @Column(name = "fecha_cambio", nullable = false)
+    private LocalDateTime fechaCambio;
+}
@@ -10,14 +10,18 @@ import java.time.LocalDateTime;
  * y su estado de entrega a los residentes.
  */
 @Entity
-@Table(name = "correspondencias")
+@Table(name = "correspondencias", indexes = {
+    // Soporta las búsquedas y exportaciones por rango de fecha de recepción sin ordenar en memoria
+    @Index(name = "idx_correspondencias_fecha_recepcion", columnList = "fecha_recepcion")
+})
 @Data
 
 public class CorrespondenciaEntity {
     
     // Identificador único de la correspondencia
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "correspondencias_seq")
+    @SequenceGenerator(name = "correspondencias_seq", sequenceName = "correspondencias_seq", allocationSize = 50)
     private Long idCorrespondencia;
     
     // Quien registra en portería (personal de seguridad).
@@ -61,6 +65,14 @@ public class CorrespondenciaEntity {
     private LocalDateTime crearCorrespondencia;
     private LocalDateTime actualizarCorrespondencia;
 
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     // Enun para el tipo de la correspondencia
     public enum Tipo {
         PAQUETE,
@@ -0,0 +1,94 @@
+package com.exe.ConjuntoResidencialArkania.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un evento de dominio pendiente de publicar (patrón outbox transaccional).
+ * Esta clase mapea la tabla 'eventos_outbox'.
+ * 
+ * Los servicios registran el evento en la misma transacción que el cambio de negocio,
+ * de modo que el evento existe si y solo si el cambio se confirmó. Un proceso en segundo
+ * plano publica después los eventos pendientes a los listeners de la aplicación, sin
+ * que el trabajo de esos listeners afecte la latencia de la petición original.
+ */
+@Entity
+@Table(name = "eventos_outbox", indexes = {
+    @Index(name = "idx_eventos_outbox_estado", columnList = "estado, evento_id"),
+    @Index(name = "idx_eventos_outbox_proximo_intento", columnList = "estado, proximo_intento"),
+    @Index(name = "idx_eventos_outbox_agregado", columnList = "agregado_tipo, agregado_id")
+})
+@Data // Lombok: genera getters, setters, toString, equals y hashCode
+@NoArgsConstructor // Lombok: genera constructor sin parámetros
+@AllArgsConstructor // Lombok: genera constructor con todos los parámetros
+public class EventoOutboxEntity {
+
+    /**
+     * Identificador del evento. Define además el orden de publicación.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eventos_outbox_seq")
+    @SequenceGenerator(name = "eventos_outbox_seq", sequenceName = "eventos_outbox_seq", allocationSize = 50)
+    @Column(name = "evento_id")
+    private Long eventoId;
+
+    /**
+     * Tipo de agregado al que pertenece el evento (CORRESPONDENCIA, USUARIO, SOLICITUD...).
+     * Los eventos de un mismo agregado se publican en orden.
+     */
+    @Column(name = "agregado_tipo", nullable = false, length = 50)
+    private String agregadoTipo;
+
+    /**
+     * Identificador del agregado al que pertenece el evento.
+     */
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    /**
+     * Tipo de evento (CORRESPONDENCIA_RECIBIDA, ROL_ASIGNADO...).
+     */
+    @Column(name = "tipo_evento", nullable = false, length = 80)
+    private String tipoEvento;
+
+    /**
+     * Datos del evento serializados en JSON.
+     */
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private EstadoEvento estado = EstadoEvento.PENDIENTE;
+
+    /**
+     * Número de intentos de publicación fallidos.
+     */
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos = 0;
+
+    /**
+     * Momento a partir del cual se puede reintentar la publicación.
+     */
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_publicacion")
+    private LocalDateTime fechaPublicacion;
+
+    public enum EstadoEvento {
+        PENDIENTE,
+        PUBLICADO,
+        FALLIDO
+    }
+}
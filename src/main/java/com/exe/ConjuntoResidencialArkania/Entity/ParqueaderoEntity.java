@@ -16,7 +16,8 @@ import lombok.NoArgsConstructor;
 public class ParqueaderoEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parqueaderos_seq")
+    @SequenceGenerator(name = "parqueaderos_seq", sequenceName = "parqueaderos_seq", allocationSize = 50)
     @Column(name = "parqueadero_id")
     private Long parqueaderoId;
 
@@ -38,6 +39,14 @@ public class ParqueaderoEntity {
     @Enumerated(EnumType.STRING)
     private EstadoParqueadero estado = EstadoParqueadero.LIBRE;
 
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     public enum TipoRolParqueadero {
         RESIDENTE,
         VISITANTE
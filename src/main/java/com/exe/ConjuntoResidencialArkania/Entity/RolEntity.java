@@ -22,7 +22,10 @@ import java.util.Set;
  * Un rol puede ser asignado a múltiples usuarios (relación many-to-many).
  */
 @Entity
-@Table(name = "roles")
+@Table(name = "roles", uniqueConstraints = {
+    // Con nombre: RolServiceImpl traduce su violación a RoleAlreadyExistsException
+    @UniqueConstraint(name = "uk_roles_nombre", columnNames = "nombre")
+})
 @Data // Lombok: genera getters, setters, toString, equals y hashCode
 @NoArgsConstructor // Lombok: genera constructor sin parámetros
 @AllArgsConstructor // Lombok: genera constructor con todos los parámetros
@@ -30,10 +33,12 @@ public class RolEntity {
 
     /**
      * Identificador único del rol en la base de datos.
-     * Se genera automáticamente usando IDENTITY strategy.
+     * Se genera con la secuencia roles_seq, reservando bloques de 50 IDs
+     * para permitir inserciones por lotes.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_seq")
+    @SequenceGenerator(name = "roles_seq", sequenceName = "roles_seq", allocationSize = 50)
     @Column(name = "rol_id")
     private Long rolId;
 
@@ -42,7 +47,7 @@ public class RolEntity {
      * Ejemplos: ADMINISTRADOR, PROPIETARIO, RESIDENTE, VIGILANTE, VISITANTE.
      * Se almacena en mayúsculas para consistencia.
      */
-    @Column(name = "nombre", nullable = false, unique = true, length = 50)
+    @Column(name = "nombre", nullable = false, length = 50)
     @NotBlank(message = "El nombre del rol es obligatorio")
     @Size(min = 3, max = 50, message = "El nombre del rol debe tener entre 3 y 50 caracteres")
     @Pattern(regexp = "^[A-Z_]+$", message = "El nombre del rol debe estar en mayúsculas y usar solo letras y guiones bajos")
@@ -87,6 +92,24 @@ public class RolEntity {
     @Column(name = "fecha_actualizacion", nullable = false)
     private LocalDateTime fechaActualizacion;
 
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    /**
+     * Sello de versión de los permisos del rol: milisegundos de época de su último cambio,
+     * estrictamente creciente. Lo escribe solo RolRepository.sellarVersionPermisos, dentro de
+     * la transacción del cambio; la entidad no lo inserta ni lo actualiza para no pisar un
+     * sello más nuevo con uno leído antes.
+     */
+    @Column(name = "version_permisos", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0")
+    private Long versionPermisos;
+
     /**
      * Usuarios asociados al rol.
      * Relación many-to-many inversa con la entidad User.
@@ -7,9 +7,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -18,14 +21,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "solicitudes")
+@Table(name = "solicitudes", indexes = {
+    // Soporta las búsquedas y exportaciones por rango de fecha de creación
+    @Index(name = "idx_solicitudes_fecha_creacion", columnList = "fecha_creacion"),
+    // Cola de trabajo: siguiente pendiente de un tipo, y reclamos vencidos por reencolar
+    @Index(name = "idx_solicitudes_cola", columnList = "estado_solicitud, tipo_solicitud, orden_cola"),
+    @Index(name = "idx_solicitudes_reclamo_vence", columnList = "estado_solicitud, reclamo_vence"),
+    // Solicitudes de un grupo de duplicados
+    @Index(name = "idx_solicitudes_grupo_duplicados", columnList = "grupo_duplicados")
+})
 @Data
 @NoArgsConstructor // Lombok: genera constructor sin parámetros para deserialización JSON
 @AllArgsConstructor // Lombok: genera constructor con todos los parámetros
 
 public class SolicitudesEntity {
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "solicitudes_seq")
+    @SequenceGenerator(name = "solicitudes_seq", sequenceName = "solicitudes_seq", allocationSize = 50)
     @Column(name = "id_solicitud") 
     @NotNull(message = "El id de la solicitud es obligatorio") 
     long idSolicitud;
@@ -56,6 +68,49 @@ public class SolicitudesEntity {
 
     @Column(name = "fecha_resolucion")
     LocalDateTime fechaResolucion;
+
+    /**
+     * Prioridad en la cola de trabajo: cada nivel adelanta la solicitud en la cola como si se
+     * hubiera creado arkania.cola.minutos-por-nivel-prioridad minutos antes.
+     */
+    @Column(name = "prioridad", nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private Integer prioridad;
+
+    /**
+     * Posición en la cola: fecha de creación adelantada según la prioridad. Las pendientes se
+     * atienden en orden ascendente, así una solicitud de baja prioridad termina pasando delante
+     * de las de alta prioridad más recientes (envejecimiento) sin recalcular nada.
+     */
+    @Column(name = "orden_cola")
+    private LocalDateTime ordenCola;
+
+    /**
+     * ID del usuario que reclamó la solicitud desde la cola (mientras está en proceso).
+     */
+    @Column(name = "asignado_a")
+    private Long asignadoA;
+
+    /**
+     * Vencimiento del reclamo: si el trabajador no la completa, libera o renueva antes, la
+     * solicitud vuelve a la cola.
+     */
+    @Column(name = "reclamo_vence")
+    private LocalDateTime reclamoVence;
+
+    /**
+     * Grupo de solicitudes casi duplicadas: ID de la solicitud que abrió el grupo (la propia,
+     * si fue la primera). Null en los tipos que no se agrupan.
+     */
+    @Column(name = "grupo_duplicados")
+    private Long grupoDuplicados;
+
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
     
     public enum EstadoSolicitud {
         pendiente,
@@ -20,7 +20,14 @@ import java.util.Set;
  * puede estar asociado a uno o más apartamentos como propietario o residente.
  */
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+    // Usado por la sincronización de permisos entre instancias: cambios desde la última lectura
+    @Index(name = "idx_usuarios_version_permisos", columnList = "version_permisos")
+}, uniqueConstraints = {
+    // Con nombre: UserServiceImpl traduce su violación a UserAlreadyExistsException
+    @UniqueConstraint(name = "uk_usuarios_numero_documento", columnNames = "numero_documento"),
+    @UniqueConstraint(name = "uk_usuarios_email", columnNames = "email")
+})
 @Data // Lombok: genera getters, setters, toString, equals y hashCode
 @NoArgsConstructor // Lombok: genera constructor sin parámetros
 @AllArgsConstructor // Lombok: genera constructor con todos los parámetros
@@ -28,10 +35,12 @@ public class UserEntity {
 
     /**
      * Identificador único del usuario en la base de datos.
-     * Se genera automáticamente usando IDENTITY strategy.
+     * Se genera con la secuencia usuarios_seq, reservando bloques de 50 IDs
+     * para permitir inserciones por lotes.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     @Column(name = "usuario_id")
     private Long usuarioId;
     
@@ -49,7 +58,7 @@ public class UserEntity {
      * Debe ser único en el sistema y es requerido.
      * Se usa como identificador principal del usuario.
      */
-    @Column(name = "numero_documento", nullable = false, unique = true, length = 20)
+    @Column(name = "numero_documento", nullable = false, length = 20)
     @NotBlank(message = "El número de documento es obligatorio")
     @Size(min = 6, max = 20, message = "El número de documento debe tener entre 6 y 20 caracteres")
     private String numeroDocumento;
@@ -77,7 +86,7 @@ public class UserEntity {
      * Correo electrónico del usuario.
      * Debe ser único en el sistema y se usa para autenticación y notificaciones.
      */
-    @Column(name = "email", nullable = false, unique = true, length = 150)
+    @Column(name = "email", nullable = false, length = 150)
     @NotBlank(message = "El email es obligatorio")
     @Email(message = "El formato del email no es válido")
     @Size(max = 150, message = "El email no puede exceder 150 caracteres")
@@ -124,6 +133,25 @@ public class UserEntity {
     @Column(name = "fecha_actualizacion", nullable = false)
     private LocalDateTime fechaActualizacion;
 
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    /**
+     * Sello de versión de los permisos efectivos del usuario: milisegundos de época del último
+     * cambio de sus datos o sus asignaciones, estrictamente creciente (los cambios de un rol
+     * avanzan el sello del rol, RolEntity.versionPermisos). Lo escribe solo
+     * UserRepository.sellarVersionPermisos, dentro de la transacción del cambio; la entidad no
+     * lo inserta ni lo actualiza para no pisar un sello más nuevo con uno leído antes.
+     */
+    @Column(name = "version_permisos", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0")
+    private Long versionPermisos;
+
     /**
      * Roles asociados al usuario.
      * Relación many-to-many con la entidad Rol.
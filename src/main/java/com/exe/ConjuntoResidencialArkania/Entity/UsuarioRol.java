@@ -23,7 +23,13 @@ import java.time.LocalDateTime;
  * many-to-many que el que proporcionan las anotaciones @ManyToMany simples.
  */
 @Entity
-@Table(name = "usuario_rol")
+@Table(name = "usuario_rol", indexes = {
+    // Usado por el motor de expiración: busca asignaciones activas por fecha de expiración
+    @Index(name = "idx_usuario_rol_expiracion", columnList = "activo, fecha_expiracion")
+}, uniqueConstraints = {
+    // Una sola fila por usuario y rol: la activación es un upsert sobre esta restricción
+    @UniqueConstraint(name = "uk_usuario_rol_usuario_rol", columnNames = {"usuario_id", "rol_id"})
+})
 @Data // Lombok: genera getters, setters, toString, equals y hashCode
 @NoArgsConstructor // Lombok: genera constructor sin parámetros
 @AllArgsConstructor // Lombok: genera constructor con todos los parámetros
@@ -31,10 +37,12 @@ public class UsuarioRol {
 
     /**
      * Identificador único de la relación usuario-rol.
-     * Se genera automáticamente usando IDENTITY strategy.
+     * Se genera con la secuencia usuario_rol_seq, reservando bloques de 50 IDs
+     * para permitir inserciones por lotes.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_rol_seq")
+    @SequenceGenerator(name = "usuario_rol_seq", sequenceName = "usuario_rol_seq", allocationSize = 50)
     @Column(name = "usuario_rol_id")
     private Long usuarioRolId;
 
@@ -69,6 +77,21 @@ public class UsuarioRol {
     @Column(name = "activo", nullable = false)
     private Boolean activo = true;
 
+    /**
+     * Fecha en que vence la asignación, para los roles con expiración o renovación
+     * configuradas en UsuarioRolConfig. Nula si la asignación no vence.
+     * Tras los días de gracia configurados, el motor de expiración la desactiva.
+     */
+    @Column(name = "fecha_expiracion")
+    private LocalDateTime fechaExpiracion;
+
+    /**
+     * Indica si ya se emitió el recordatorio de renovación del vencimiento actual.
+     * Se reinicia al renovar la asignación.
+     */
+    @Column(name = "recordatorio_enviado", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private Boolean recordatorioEnviado = false;
+
     /**
      * Fecha y hora de creación de la asignación usuario-rol.
      * Se establece automáticamente al crear el registro.
@@ -84,4 +107,12 @@ public class UsuarioRol {
     @UpdateTimestamp
     @Column(name = "fecha_actualizacion", nullable = false)
     private LocalDateTime fechaActualizacion;
+
+    /**
+     * Versión para control de concurrencia optimista. Hibernate la incrementa en cada
+     * actualización y rechaza la escritura si otra transacción la cambió antes.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
 }
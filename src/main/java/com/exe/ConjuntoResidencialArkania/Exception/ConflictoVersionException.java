@@ -0,0 +1,49 @@
+package com.exe.ConjuntoResidencialArkania.Exception;
+
+/**
+ * Excepción que se lanza cuando se intenta modificar una entidad a partir de una versión
+ * que ya no es la actual (control de concurrencia optimista).
+ * 
+ * Esta excepción se utiliza en casos como:
+ * - La cabecera If-Match de una petición PUT/PATCH no coincide con el ETag actual
+ * - El campo version del DTO enviado no coincide con la versión almacenada
+ * 
+ * Los controladores la traducen a 412 PRECONDITION FAILED, igual que las
+ * ObjectOptimisticLockingFailureException de Hibernate cuando otra transacción
+ * confirma primero entre la lectura y la escritura.
+ */
+public class ConflictoVersionException extends RuntimeException {
+
+    private final Long versionActual;
+
+    /**
+     * Constructor con mensaje y versión actual de la entidad.
+     * 
+     * @param mensaje Mensaje descriptivo del error
+     * @param versionActual Versión almacenada de la entidad
+     */
+    public ConflictoVersionException(String mensaje, Long versionActual) {
+        super(mensaje);
+        this.versionActual = versionActual;
+    }
+
+    public Long getVersionActual() {
+        return versionActual;
+    }
+
+    /**
+     * Verifica que la versión esperada por el cliente sea la actual.
+     * 
+     * @param entidad Nombre de la entidad, para el mensaje
+     * @param id ID de la entidad
+     * @param versionActual Versión almacenada
+     * @param versionEsperada Versión que el cliente leyó (null para no verificar)
+     * @throws ConflictoVersionException si las versiones no coinciden
+     */
+    public static void verificar(String entidad, Object id, Long versionActual, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(versionActual)) {
+            throw new ConflictoVersionException(entidad + " con ID " + id + " fue modificado por otro usuario (versión actual "
+                    + versionActual + ", esperada " + versionEsperada + ")", versionActual);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.SlaSolicitudesDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.SlaSolicitudesDTO.TiemposResolucion;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.TipoSolicitud;
+import com.exe.ConjuntoResidencialArkania.Service.AnaliticaSolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Implementación de los tiempos de resolución con un SketchCuantiles por tipo y mes.
+ *
+ * Actualización: cada resolución confirmada suma su duración (en segundos) al resumen de su
+ * tipo y mes, bajo un bloqueo corto. Consulta: se copian los resúmenes del rango bajo el
+ * bloqueo y los cuantiles se calculan fuera de él.
+ *
+ * Reconstrucción: recorre con un cursor (tamaño de fetch acotado) las solicitudes resueltas
+ * antes del inicio de la reconstrucción y arma resúmenes nuevos sin bloquear las
+ * actualizaciones. La lectura va siempre a la primaria, en una transacción REPEATABLE READ
+ * para que las dos tablas se lean de la misma instantánea (el archivado mueve filas entre
+ * ellas). Los registros y retiros hechos mientras tanto se guardan aparte, el último por
+ * solicitud. Al terminar la lectura, y todavía en la misma instantánea, se vuelven a leer
+ * por ID esas solicitudes: lo que la instantánea contó de ellas se quita de los resúmenes
+ * nuevos y se suma su último registro, antes de reemplazar los actuales. Se comparan por ID
+ * y no por fecha porque una resolución se registra al confirmarse y su fecha puede ser
+ * anterior al corte aunque la lectura no la haya visto, y porque una solicitud reabierta
+ * retira una resolución de cualquier antigüedad.
+ */
+@Service
+public class AnaliticaSolicitudesServiceImpl implements AnaliticaSolicitudesService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaSolicitudesServiceImpl.class);
+
+    private static final String SQL_RESOLUCIONES =
+            "SELECT id_solicitud, tipo_solicitud, fecha_creacion, fecha_resolucion FROM %s " +
+            "WHERE estado_solicitud = 'resuelta' AND fecha_resolucion IS NOT NULL AND fecha_resolucion < ?";
+
+    private static final int TAMANO_LOTE_IDS = 500;
+
+    private static final double SEGUNDOS_POR_HORA = 3600.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionLectura;
+    private final ArchivoService archivoService;
+    private final double precisionRelativa;
+    private final EjecutorTareasLargas ejecutorTareasLargas;
+
+    /** Resúmenes por tipo y mes de resolución; protegidos por this. */
+    private Map<ClaveResumen, SketchCuantiles> resumenes = new HashMap<>();
+
+    /**
+     * Último registro por ID durante una reconstrucción en curso (null si no hay); el valor es
+     * null si la resolución se retiró. Protegido por this.
+     */
+    private Map<Long, Resolucion> registradasDuranteReconstruccion;
+
+    private volatile LocalDateTime ultimaReconstruccion;
+
+    @Autowired
+    public AnaliticaSolicitudesServiceImpl(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                           ArchivoService archivoService, EjecutorTareasLargas ejecutorTareasLargas,
+                                           @Value("${arkania.sla.precision-relativa:0.01}") double precisionRelativa,
+                                           @Value("${arkania.sla.tamano-fetch:1000}") int tamanoFetch) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(tamanoFetch);
+        // En PostgreSQL el cursor solo se respeta dentro de una transacción. No es de solo
+        // lectura para que el ruteador no la envíe a la réplica, que puede estar atrasada
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.archivoService = archivoService;
+        this.ejecutorTareasLargas = ejecutorTareasLargas;
+        this.precisionRelativa = precisionRelativa;
+    }
+
+    // ========================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ========================================
+
+    @Override
+    public void registrarResolucion(Long idSolicitud, TipoSolicitud tipo, LocalDateTime fechaCreacion,
+                                    LocalDateTime fechaResolucion) {
+        if (idSolicitud == null || tipo == null || fechaCreacion == null || fechaResolucion == null
+                || fechaResolucion.isBefore(fechaCreacion)) {
+            return;
+        }
+        Resolucion resolucion = new Resolucion(idSolicitud, tipo, fechaCreacion, fechaResolucion);
+        alConfirmar(() -> aplicar(resolucion));
+    }
+
+    @Override
+    public void retirarResolucion(Long idSolicitud, TipoSolicitud tipo, LocalDateTime fechaCreacion,
+                                  LocalDateTime fechaResolucion) {
+        if (idSolicitud == null || tipo == null || fechaCreacion == null || fechaResolucion == null
+                || fechaResolucion.isBefore(fechaCreacion)) {
+            return;
+        }
+        Resolucion resolucion = new Resolucion(idSolicitud, tipo, fechaCreacion, fechaResolucion);
+        alConfirmar(() -> retirar(resolucion));
+    }
+
+    private synchronized void aplicar(Resolucion resolucion) {
+        agregar(resumenes, resolucion);
+        if (registradasDuranteReconstruccion != null) {
+            registradasDuranteReconstruccion.put(resolucion.idSolicitud(), resolucion);
+        }
+    }
+
+    private synchronized void retirar(Resolucion resolucion) {
+        quitar(resumenes, resolucion);
+        if (registradasDuranteReconstruccion != null) {
+            registradasDuranteReconstruccion.put(resolucion.idSolicitud(), null);
+        }
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    // ========================================
+    // RECONSTRUCCIÓN DESDE EL HISTORIAL
+    // ========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruirProgramado();
+    }
+
+    /**
+     * Reconstrucción nocturna: incorpora las resoluciones de otras instancias y corrige las
+     * solicitudes reabiertas después de contarse. Corre en el ejecutor de tareas largas.
+     */
+    @Scheduled(cron = "${arkania.sla.cron-reconstruccion:0 30 4 * * *}")
+    public void reconstruirProgramado() {
+        ejecutorTareasLargas.ejecutar("SLA de solicitudes", () -> {
+            try {
+                long leidas = reconstruir();
+                log.info("SLA de solicitudes: resúmenes reconstruidos con {} solicitudes resueltas", leidas);
+            } catch (DataAccessException | IllegalStateException e) {
+                log.error("SLA de solicitudes: no se pudo reconstruir: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public long reconstruir() {
+        LocalDateTime corte;
+        synchronized (this) {
+            if (registradasDuranteReconstruccion != null) {
+                throw new IllegalStateException("Ya hay una reconstrucción en curso");
+            }
+            registradasDuranteReconstruccion = new HashMap<>();
+            corte = LocalDateTime.now();
+        }
+
+        Map<ClaveResumen, SketchCuantiles> nuevos = new HashMap<>();
+        long[] leidas = {0};
+        try {
+            transaccionLectura.executeWithoutResult(estado -> {
+                boolean conArchivo = archivoService.disponible();
+                leer("solicitudes", "", List.of(), corte, resolucion -> {
+                    agregar(nuevos, resolucion);
+                    leidas[0]++;
+                });
+                if (conArchivo) {
+                    leer("solicitudes_archivo", "", List.of(), corte, resolucion -> {
+                        agregar(nuevos, resolucion);
+                        leidas[0]++;
+                    });
+                }
+                // Se reemplazan los resúmenes bajo el bloqueo, sin dejar pasar registros
+                // entre la relectura y el reemplazo
+                synchronized (this) {
+                    Map<Long, Resolucion> enInstantanea = leerPorId(
+                            new ArrayList<>(registradasDuranteReconstruccion.keySet()), corte, conArchivo);
+                    registradasDuranteReconstruccion.forEach((id, ultima) -> {
+                        Resolucion contada = enInstantanea.get(id);
+                        if (contada != null) {
+                            quitar(nuevos, contada);
+                        }
+                        if (ultima != null) {
+                            agregar(nuevos, ultima);
+                        }
+                    });
+                    resumenes = nuevos;
+                    registradasDuranteReconstruccion = null;
+                }
+            });
+        } finally {
+            synchronized (this) {
+                registradasDuranteReconstruccion = null;
+            }
+        }
+        ultimaReconstruccion = LocalDateTime.now();
+        return leidas[0];
+    }
+
+    private Map<Long, Resolucion> leerPorId(List<Long> ids, LocalDateTime corte, boolean conArchivo) {
+        Map<Long, Resolucion> leidasPorId = new HashMap<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANO_LOTE_IDS) {
+            List<Long> lote = ids.subList(inicio, Math.min(inicio + TAMANO_LOTE_IDS, ids.size()));
+            String filtro = " AND id_solicitud IN (" + String.join(",", Collections.nCopies(lote.size(), "?")) + ")";
+            leer("solicitudes", filtro, lote, corte, r -> leidasPorId.put(r.idSolicitud(), r));
+            if (conArchivo) {
+                leer("solicitudes_archivo", filtro, lote, corte, r -> leidasPorId.put(r.idSolicitud(), r));
+            }
+        }
+        return leidasPorId;
+    }
+
+    private void leer(String tabla, String filtro, List<Long> ids, LocalDateTime corte, Consumer<Resolucion> destino) {
+        List<Object> parametros = new ArrayList<>(ids.size() + 1);
+        parametros.add(Timestamp.valueOf(corte));
+        parametros.addAll(ids);
+        jdbcTemplate.query(String.format(SQL_RESOLUCIONES, tabla) + filtro, (ResultSet rs) -> {
+            Timestamp creacion = rs.getTimestamp(3);
+            Timestamp resolucion = rs.getTimestamp(4);
+            if (creacion == null || resolucion.before(creacion)) {
+                return;
+            }
+            destino.accept(new Resolucion(rs.getLong(1), TipoSolicitud.valueOf(rs.getString(2)),
+                    creacion.toLocalDateTime(), resolucion.toLocalDateTime()));
+        }, parametros.toArray());
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    @Override
+    public SlaSolicitudesDTO obtenerSla(YearMonth desde, YearMonth hasta, TipoSolicitud tipo) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El mes inicial no puede ser posterior al final");
+        }
+        Map<ClaveResumen, SketchCuantiles> copias = new TreeMap<>(Comparator
+                .comparing((ClaveResumen c) -> c.tipo().name()).thenComparing(ClaveResumen::mes));
+        synchronized (this) {
+            resumenes.forEach((clave, resumen) -> {
+                if ((tipo == null || clave.tipo() == tipo) && !clave.mes().isBefore(desde) && !clave.mes().isAfter(hasta)) {
+                    copias.put(clave, resumen.copia());
+                }
+            });
+        }
+
+        SlaSolicitudesDTO sla = new SlaSolicitudesDTO();
+        sla.setDesde(desde.toString());
+        sla.setHasta(hasta.toString());
+        sla.setPrecisionRelativa(precisionRelativa);
+        sla.setUltimaReconstruccion(ultimaReconstruccion);
+
+        Map<TipoSolicitud, SketchCuantiles> totales = new TreeMap<>();
+        copias.forEach((clave, resumen) -> {
+            sla.getPorMes().add(tiempos(clave.tipo(), clave.mes().toString(), resumen));
+            totales.computeIfAbsent(clave.tipo(), t -> new SketchCuantiles(precisionRelativa)).combinar(resumen);
+        });
+        totales.forEach((tipoTotal, resumen) -> sla.getTotales().add(tiempos(tipoTotal, null, resumen)));
+        return sla;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private void agregar(Map<ClaveResumen, SketchCuantiles> destino, Resolucion resolucion) {
+        ClaveResumen clave = new ClaveResumen(resolucion.tipo(), YearMonth.from(resolucion.fechaResolucion()));
+        destino.computeIfAbsent(clave, c -> new SketchCuantiles(precisionRelativa))
+                .agregar(Duration.between(resolucion.fechaCreacion(), resolucion.fechaResolucion()).toSeconds());
+    }
+
+    private void quitar(Map<ClaveResumen, SketchCuantiles> destino, Resolucion resolucion) {
+        SketchCuantiles resumen = destino.get(new ClaveResumen(resolucion.tipo(), YearMonth.from(resolucion.fechaResolucion())));
+        if (resumen != null) {
+            resumen.quitar(Duration.between(resolucion.fechaCreacion(), resolucion.fechaResolucion()).toSeconds());
+        }
+    }
+
+    private static TiemposResolucion tiempos(TipoSolicitud tipo, String mes, SketchCuantiles resumen) {
+        return new TiemposResolucion(tipo.name(), mes, resumen.cantidad(),
+                horas(resumen.cuantil(0.5)), horas(resumen.cuantil(0.9)), horas(resumen.cuantil(0.99)),
+                horas(resumen.promedio()), horas(resumen.maximo()));
+    }
+
+    private static double horas(double segundos) {
+        return Math.round(segundos / SEGUNDOS_POR_HORA * 100) / 100.0;
+    }
+
+    private record ClaveResumen(TipoSolicitud tipo, YearMonth mes) {
+    }
+
+    private record Resolucion(Long idSolicitud, TipoSolicitud tipo, LocalDateTime fechaCreacion,
+                              LocalDateTime fechaResolucion) {
+    }
+}
@@ -3,9 +3,11 @@ package com.exe.ConjuntoResidencialArkania.Impl;
 import com.exe.ConjuntoResidencialArkania.DTO.ApartamentoDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.ApartamentoEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Repository.ApartamentoRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
 import com.exe.ConjuntoResidencialArkania.Service.ApartamentoService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -19,6 +21,7 @@ public class ApartamentoServiceImpl implements ApartamentoService {
 
     private final ApartamentoRepository apartamentoRepository;
     private final UserRepository userRepository;
+    private final CacheRespuestasService cacheRespuestasService;
 
     @Override
     public List<ApartamentoDTO> obtenerTodos() {
@@ -37,6 +40,7 @@ public class ApartamentoServiceImpl implements ApartamentoService {
     public ApartamentoDTO crear(ApartamentoDTO apartamentoDTO) {
         ApartamentoEntity entity = convertirAEntity(apartamentoDTO);
         ApartamentoEntity guardado = apartamentoRepository.save(entity);
+        cacheRespuestasService.invalidar(CacheRespuestasService.APARTAMENTOS);
         return convertirADTO(guardado);
     }
 
@@ -44,6 +48,7 @@ public class ApartamentoServiceImpl implements ApartamentoService {
     public ApartamentoDTO actualizar(Long id, ApartamentoDTO apartamentoDTO) {
         ApartamentoEntity entity = apartamentoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Apartamento no encontrado"));
+        ConflictoVersionException.verificar("Apartamento", id, entity.getVersion(), apartamentoDTO.getVersion());
 
         entity.setNumero(apartamentoDTO.getNumero());
         entity.setTorre(apartamentoDTO.getTorre());
@@ -56,12 +61,14 @@ public class ApartamentoServiceImpl implements ApartamentoService {
         }
 
         ApartamentoEntity actualizado = apartamentoRepository.save(entity);
+        cacheRespuestasService.invalidar(CacheRespuestasService.APARTAMENTOS);
         return convertirADTO(actualizado);
     }
 
     @Override
     public void eliminar(Long id) {
         apartamentoRepository.deleteById(id);
+        cacheRespuestasService.invalidar(CacheRespuestasService.APARTAMENTOS);
     }
 
     private ApartamentoDTO convertirADTO(ApartamentoEntity entity) {
@@ -70,7 +77,8 @@ public class ApartamentoServiceImpl implements ApartamentoService {
                 entity.getNumero(),
                 entity.getTorre(),
                 entity.getPropietario() != null ? entity.getPropietario().getUsuarioId() : null,
-                entity.getEstado().toString()
+                entity.getEstado().toString(),
+                entity.getVersion()
         );
     }
 
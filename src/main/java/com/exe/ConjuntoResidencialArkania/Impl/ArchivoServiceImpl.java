@@ -0,0 +1,199 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasArchivoDTO;
+import com.exe.ConjuntoResidencialArkania.Repository.ArchivoRepository;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación del archivo de registros cerrados.
+ *
+ * Cada lote (arkania.archivo.tamano-lote filas) se mueve en su propia transacción, con una
+ * pausa entre lotes y un máximo de lotes por ejecución, para no retener bloqueos ni ocupar
+ * una conexión durante toda la tarea. Si la tarea se interrumpe, la siguiente ejecución
+ * continúa con las filas que quedaron.
+ *
+ * La tarea asume una sola instancia habilitada (arkania.archivo.habilitado); si dos la
+ * ejecutan a la vez, el bloqueo de las filas de cada lote evita que una fila se archive dos
+ * veces. Todas las instancias verifican periódicamente si las tablas de archivo existen,
+ * porque de eso depende que sus consultas lean el archivo.
+ */
+@Service
+public class ArchivoServiceImpl implements ArchivoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoServiceImpl.class);
+
+    private final ArchivoRepository archivoRepository;
+    private final TransactionTemplate transaccionNueva;
+    private final EjecutorTareasLargas ejecutorTareasLargas;
+
+    private final AtomicLong correspondenciasArchivadas = new AtomicLong();
+    private final AtomicLong solicitudesArchivadas = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+
+    /** Se verifica al iniciar y cada intervalo hasta que las tablas existan. */
+    private volatile boolean tablasDisponibles;
+    private volatile LocalDateTime ultimaEjecucion;
+
+    @Value("${arkania.archivo.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${arkania.archivo.dias-retencion:180}")
+    private int diasRetencion;
+
+    @Value("${arkania.archivo.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${arkania.archivo.max-lotes-por-ejecucion:200}")
+    private int maxLotesPorEjecucion;
+
+    @Value("${arkania.archivo.pausa-entre-lotes-ms:100}")
+    private long pausaEntreLotesMs;
+
+    @Autowired
+    public ArchivoServiceImpl(ArchivoRepository archivoRepository, PlatformTransactionManager transactionManager,
+                              EjecutorTareasLargas ejecutorTareasLargas) {
+        this.archivoRepository = archivoRepository;
+        this.ejecutorTareasLargas = ejecutorTareasLargas;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ========================================
+    // DISPONIBILIDAD
+    // ========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        verificarTablas();
+        if (!tablasDisponibles) {
+            log.warn("Archivo: no existen las tablas de archivo o les faltan columnas "
+                    + "(db/migracion/007_archivo_historico.sql y 016_archivo_cola_grupos.sql); "
+                    + "no se archivará hasta crearlas");
+        }
+    }
+
+    /**
+     * Verificación periódica de las tablas de archivo, hasta encontrarlas.
+     */
+    @Scheduled(fixedDelayString = "${arkania.archivo.intervalo-verificacion-ms:300000}")
+    public void verificarTablas() {
+        if (!tablasDisponibles) {
+            tablasDisponibles = archivoRepository.tablasDisponibles();
+        }
+    }
+
+    @Override
+    public boolean disponible() {
+        return tablasDisponibles;
+    }
+
+    @Override
+    public boolean requiereArchivo(LocalDateTime inicio) {
+        return tablasDisponibles && (inicio == null || inicio.isBefore(limite()));
+    }
+
+    // ========================================
+    // TAREA DE ARCHIVO
+    // ========================================
+
+    /**
+     * Ejecución nocturna de la tarea de archivo, en el ejecutor de tareas largas.
+     */
+    @Scheduled(cron = "${arkania.archivo.cron:0 0 4 * * *}")
+    public void ejecutarArchivo() {
+        if (!habilitado || !tablasDisponibles) {
+            return;
+        }
+        ejecutorTareasLargas.ejecutar("archivo", this::archivarTodo);
+    }
+
+    private void archivarTodo() {
+        int correspondencias = archivarCorrespondencias();
+        int solicitudes = archivarSolicitudes();
+        ultimaEjecucion = LocalDateTime.now();
+        if (correspondencias > 0 || solicitudes > 0) {
+            log.info("Archivo: {} correspondencias y {} solicitudes archivadas", correspondencias, solicitudes);
+        }
+    }
+
+    @Override
+    public int archivarCorrespondencias() {
+        int movidas = moverPorLotes(archivoRepository::moverCorrespondencias);
+        correspondenciasArchivadas.addAndGet(movidas);
+        return movidas;
+    }
+
+    @Override
+    public int archivarSolicitudes() {
+        int movidas = moverPorLotes(archivoRepository::moverSolicitudes);
+        solicitudesArchivadas.addAndGet(movidas);
+        return movidas;
+    }
+
+    @Override
+    public MetricasArchivoDTO obtenerMetricas() {
+        return new MetricasArchivoDTO(tablasDisponibles, habilitado, diasRetencion, limite(),
+                correspondenciasArchivadas.get(), solicitudesArchivadas.get(), lotes.get(), ultimaEjecucion);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private LocalDateTime limite() {
+        return LocalDateTime.now().minusDays(diasRetencion);
+    }
+
+    /**
+     * Repite el movimiento de lotes hasta que uno salga incompleto o se alcance el máximo.
+     */
+    private int moverPorLotes(MovimientoLote movimiento) {
+        if (!tablasDisponibles) {
+            return 0;
+        }
+        LocalDateTime limite = limite();
+        int total = 0;
+        for (int lote = 0; lote < maxLotesPorEjecucion; lote++) {
+            LocalDateTime ahora = LocalDateTime.now();
+            Integer movidas = transaccionNueva.execute(estado -> movimiento.mover(limite, tamanoLote, ahora));
+            if (movidas == null || movidas == 0) {
+                break;
+            }
+            total += movidas;
+            lotes.incrementAndGet();
+            if (movidas < tamanoLote) {
+                break;
+            }
+            try {
+                Thread.sleep(pausaEntreLotesMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Movimiento de un lote de una tabla principal a su archivo.
+     */
+    @FunctionalInterface
+    private interface MovimientoLote {
+        int mover(LocalDateTime limite, int tamanoLote, LocalDateTime archivadaEn);
+    }
+}
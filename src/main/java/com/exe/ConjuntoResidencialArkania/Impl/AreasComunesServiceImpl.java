@@ -1,27 +1,38 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Impl;
+package com.exe.ConjuntoResidencialArkania.Impl;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
 import com.exe.ConjuntoResidencialArkania.DTO.AreasComunesDTO;
-import com.exe.ConjuntoResidencialArkania.DTO.SolicitudesDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.AreasComunesEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Repository.AreasComunesRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AreasComunesService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
 
-import main.java.com.exe.ConjuntoResidencialArkania.Service.AreasComunesService;
 @Service
+@Transactional
 public class AreasComunesServiceImpl implements AreasComunesService{
     private final AreasComunesRepository areaRepository;
     private final ModelMapper modelMapper;
+    private final CacheRespuestasService cacheRespuestasService;
 
     @Autowired
-    public AreasComunesServiceImpl(AreasComunesRepository areaRepository, ModelMapper modelMapper) {
+    public AreasComunesServiceImpl(AreasComunesRepository areaRepository, ModelMapper modelMapper,
+            CacheRespuestasService cacheRespuestasService) {
         this.areaRepository = areaRepository;
         this.modelMapper = modelMapper;
+        this.cacheRespuestasService = cacheRespuestasService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AreasComunesDTO> listarAreasComunes() {
         List<AreasComunesEntity> areas = areaRepository.findAll();
         return areas.stream()
@@ -30,8 +41,17 @@ public class AreasComunesServiceImpl implements AreasComunesService{
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<AreasComunesDTO> listarAreasActivas() {
+        return areaRepository.findByEstadoOrderByNombreAsc(AreasComunesEntity.EstadoArea.activa).stream()
+                .map(area -> modelMapper.map(area, AreasComunesDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<AreasComunesDTO> findById(Long idAreaComun) {
-        
+
         return areaRepository.findById(idAreaComun).
         map(area->modelMapper.map(area, AreasComunesDTO.class));
     }
@@ -39,7 +59,11 @@ public class AreasComunesServiceImpl implements AreasComunesService{
     @Override
     public AreasComunesDTO guardarAreasComunes(AreasComunesDTO areasComunesDTO){
         AreasComunesEntity area = modelMapper.map(areasComunesDTO, AreasComunesEntity.class);
+        // Un área nueva toma ID de la secuencia y empieza sin versión, aunque el cliente envíe valores
+        area.setIdAreaComun(null);
+        area.setVersion(null);
         area = areaRepository.save(area);
+        cacheRespuestasService.invalidar(CacheRespuestasService.AREAS_COMUNES);
         return modelMapper.map(area, AreasComunesDTO.class);
     }
 
@@ -47,19 +71,24 @@ public class AreasComunesServiceImpl implements AreasComunesService{
     public AreasComunesDTO actualizarAreaComun(Long idAreaComun, AreasComunesDTO areasComunesDTO){
         AreasComunesEntity areaExistente = areaRepository.findById(idAreaComun).
         orElseThrow(() -> new IllegalArgumentException("Area con el ID: " + idAreaComun + " no encontrada"));
+        ConflictoVersionException.verificar("Área común", idAreaComun, areaExistente.getVersion(), areasComunesDTO.getVersion());
         areaExistente.setCapacidadMaxima(areasComunesDTO.getCapacidadMaxima());
         areaExistente.setDescripcion(areasComunesDTO.getDescripcion());
         areaExistente.setHorarioFuncionamiento(areasComunesDTO.getHorarioFuncionamiento());
-        areaExistente.setEstado(areasComunesDTO.getEstado());
+        // El DTO define su propio enum; se convierte por nombre al de la entidad
+        areaExistente.setEstado(AreasComunesEntity.EstadoArea.valueOf(areasComunesDTO.getEstado().name()));
 
-        AreasComunesEntity areaActualizada = areaRepository.save(areaExistente);
+        // El flush incrementa la versión antes de convertir la respuesta
+        AreasComunesEntity areaActualizada = areaRepository.saveAndFlush(areaExistente);
+        cacheRespuestasService.invalidar(CacheRespuestasService.AREAS_COMUNES);
         return modelMapper.map(areaActualizada, AreasComunesDTO.class);
     }
 
 
-    
+
     @Override
     public void eliminarAreasComunes(Long idAreaComun){
         areaRepository.deleteById(idAreaComun);
+        cacheRespuestasService.invalidar(CacheRespuestasService.AREAS_COMUNES);
     }
 }
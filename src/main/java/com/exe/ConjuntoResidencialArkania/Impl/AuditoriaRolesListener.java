@@ -0,0 +1,43 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.EventoDominioDTO;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Listener de eventos de dominio para la auditoría especial de roles.
+ * 
+ * Los cambios de asignación de los roles configurados en
+ * UsuarioRolConfig.rolesRequierenAuditoriaEspecial se registran en un log de auditoría
+ * dedicado (logger "auditoria.roles"), fuera de la transacción de la petición.
+ */
+@Component
+public class AuditoriaRolesListener {
+
+    private static final Logger auditoria = LoggerFactory.getLogger("auditoria.roles");
+
+    @Autowired
+    @Qualifier("rolesRequierenAuditoriaEspecial")
+    private List<String> rolesRequierenAuditoriaEspecial;
+
+    @EventListener
+    public void alPublicarEvento(EventoDominioDTO evento) {
+        if (!EventoDominioService.AGREGADO_USUARIO.equals(evento.getAgregadoTipo())) {
+            return;
+        }
+        Object rolNombre = evento.getDatos().get("rolNombre");
+        if (rolNombre != null && rolesRequierenAuditoriaEspecial.contains(rolNombre.toString())) {
+            auditoria.info("{} usuario={} rol={} asignacion={} fecha={} evento={}",
+                    evento.getTipoEvento(), evento.getAgregadoId(), rolNombre,
+                    evento.getDatos().get("usuarioRolId"), evento.getFechaCreacion(), evento.getEventoId());
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.AuditoriaDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.AuditoriaEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.AuditoriaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.SecuenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación del log de auditoría con escritura asíncrona por lotes.
+ *
+ * Ruta de escritura: registrarCambio solo arma un registro inmutable y, al confirmarse la
+ * transacción del llamador, lo inserta en un buffer circular sin bloqueos. No hay
+ * serialización JSON ni acceso a la base de datos en el hilo de la petición.
+ *
+ * Escritor: una tarea periódica drena el buffer y escribe lotes con JDBC (un solo viaje por
+ * lote, IDs reservados en bloque), cada lote en su propia transacción. Si un lote falla se
+ * conserva y se reintenta en la siguiente ejecución. Si el buffer se llena, el registro se
+ * escribe de forma síncrona para no perderlo.
+ *
+ * Los registros encolados y aún no escritos viven en memoria: al detener la aplicación se
+ * vacía el buffer, pero una caída abrupta puede perder los últimos milisegundos de auditoría.
+ */
+@Service
+public class AuditoriaServiceImpl implements AuditoriaService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaServiceImpl.class);
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO auditoria_cambios (auditoria_id, entidad_tipo, entidad_id, operacion, "
+            + "usuario_relacionado_id, usuario_responsable_id, valor_anterior, valor_nuevo, "
+            + "auditoria_especial, requiere_aprobacion_multiple, fecha_cambio) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_TABLA_PARTICIONADA =
+            "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid "
+            + "WHERE c.relname = 'auditoria_cambios'";
+
+    private final AuditoriaRepository auditoriaRepository;
+    private final SecuenciaRepository secuenciaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaccionNueva;
+    private final List<String> rolesRequierenAuditoriaEspecial;
+    private final List<String> rolesRequierenAprobacionMultiple;
+    private final BufferCircularAuditoria<RegistroAuditoria> buffer;
+
+    /** Lote que falló al escribirse; solo lo usa el escritor. */
+    private final List<RegistroAuditoria> loteFallido = new ArrayList<>();
+    private final AtomicLong desbordes = new AtomicLong();
+    private volatile Boolean tablaParticionada;
+
+    @Value("${arkania.auditoria.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${arkania.auditoria.meses-anticipacion-particiones:2}")
+    private int mesesAnticipacion;
+
+    @Autowired
+    public AuditoriaServiceImpl(AuditoriaRepository auditoriaRepository,
+                                SecuenciaRepository secuenciaRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("rolesRequierenAuditoriaEspecial") List<String> rolesRequierenAuditoriaEspecial,
+                                @Qualifier("rolesRequierenAprobacionMultiple") List<String> rolesRequierenAprobacionMultiple,
+                                @Value("${arkania.auditoria.capacidad-buffer:8192}") int capacidadBuffer) {
+        this.auditoriaRepository = auditoriaRepository;
+        this.secuenciaRepository = secuenciaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rolesRequierenAuditoriaEspecial = rolesRequierenAuditoriaEspecial;
+        this.rolesRequierenAprobacionMultiple = rolesRequierenAprobacionMultiple;
+        this.buffer = new BufferCircularAuditoria<>(capacidadBuffer);
+    }
+
+    // ========================================
+    // REGISTRO DE CAMBIOS
+    // ========================================
+
+    @Override
+    public void registrarCambio(String entidadTipo, Long entidadId, Long usuarioRelacionadoId, String rolNombre,
+                                String operacion, Object valorAnterior, Object valorNuevo) {
+        RegistroAuditoria registro = new RegistroAuditoria(entidadTipo, entidadId, operacion, usuarioRelacionadoId,
+                resolverUsuarioResponsable(), valorAnterior, valorNuevo,
+                rolNombre != null && rolesRequierenAuditoriaEspecial.contains(rolNombre),
+                rolNombre != null && rolesRequierenAprobacionMultiple.contains(rolNombre),
+                LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    encolar(registro);
+                }
+            });
+        } else {
+            encolar(registro);
+        }
+    }
+
+    // ========================================
+    // ESCRITOR POR LOTES
+    // ========================================
+
+    /**
+     * Ejecución periódica del escritor. Drena el buffer completo en lotes.
+     */
+    @Scheduled(fixedDelayString = "${arkania.auditoria.intervalo-ms:200}")
+    public void escribirPendientes() {
+        vaciarPendientes();
+    }
+
+    /**
+     * Sincronizado para garantizar un único consumidor del buffer (tarea periódica y cierre).
+     * Los productores nunca toman este bloqueo.
+     */
+    @Override
+    public synchronized int vaciarPendientes() {
+        int escritos = 0;
+        if (!loteFallido.isEmpty()) {
+            if (!escribirLote(loteFallido)) {
+                return 0; // La base de datos sigue fallando; se reintenta en la próxima ejecución
+            }
+            escritos += loteFallido.size();
+            loteFallido.clear();
+        }
+
+        List<RegistroAuditoria> lote = new ArrayList<>(tamanoLote);
+        while (buffer.drenar(lote, tamanoLote) > 0) {
+            if (!escribirLote(lote)) {
+                loteFallido.addAll(lote);
+                return escritos;
+            }
+            escritos += lote.size();
+            lote.clear();
+        }
+        return escritos;
+    }
+
+    @PreDestroy
+    public void alDetener() {
+        int escritos = vaciarPendientes();
+        if (!loteFallido.isEmpty() || buffer.tamano() > 0) {
+            log.error("Auditoría: {} registros no se pudieron escribir al detener la aplicación",
+                    loteFallido.size() + buffer.tamano());
+        } else if (escritos > 0) {
+            log.info("Auditoría: {} registros pendientes escritos al detener la aplicación", escritos);
+        }
+    }
+
+    // ========================================
+    // PARTICIONES MENSUALES
+    // ========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        asegurarParticiones();
+    }
+
+    /**
+     * Revisión diaria de las particiones de los próximos meses.
+     */
+    @Scheduled(cron = "${arkania.auditoria.cron-particiones:0 15 2 * * *}")
+    public void revisarParticiones() {
+        asegurarParticiones();
+    }
+
+    @Override
+    public int asegurarParticiones() {
+        if (!esTablaParticionada()) {
+            return 0;
+        }
+        int creadas = 0;
+        YearMonth mes = YearMonth.now();
+        for (int i = 0; i <= mesesAnticipacion; i++, mes = mes.plusMonths(1)) {
+            String particion = String.format("auditoria_cambios_%d_%02d", mes.getYear(), mes.getMonthValue());
+            try {
+                Boolean existe = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, particion);
+                if (Boolean.TRUE.equals(existe)) {
+                    continue;
+                }
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + particion
+                        + " PARTITION OF auditoria_cambios FOR VALUES FROM ('" + mes.atDay(1)
+                        + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+                creadas++;
+                log.info("Auditoría: partición {} creada", particion);
+            } catch (DataAccessException e) {
+                // Típicamente, filas de ese mes ya caídas en la partición por defecto
+                log.error("Auditoría: no se pudo crear la partición {}: {}", particion, e.getMessage());
+            }
+        }
+        return creadas;
+    }
+
+    // ========================================
+    // CONSULTAS PAGINADAS
+    // ========================================
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AuditoriaDTO> obtenerHistorialEntidad(String entidadTipo, Long entidadId, Pageable pageable) {
+        return auditoriaRepository.findByEntidadTipoAndEntidadIdOrderByFechaCambioDesc(
+                entidadTipo, entidadId, pageable).map(this::convertirAAuditoriaDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AuditoriaDTO> obtenerHistorialUsuario(Long usuarioId, LocalDateTime fechaInicio,
+                                                      LocalDateTime fechaFin, Pageable pageable) {
+        Page<AuditoriaEntity> pagina = fechaInicio != null && fechaFin != null
+                ? auditoriaRepository.findByUsuarioRelacionadoIdAndFechaCambioBetweenOrderByFechaCambioDesc(
+                        usuarioId, fechaInicio, fechaFin, pageable)
+                : auditoriaRepository.findByUsuarioRelacionadoIdOrderByFechaCambioDesc(usuarioId, pageable);
+        return pagina.map(this::convertirAAuditoriaDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AuditoriaDTO> obtenerCambiosPorResponsable(Long usuarioResponsableId, Pageable pageable) {
+        return auditoriaRepository.findByUsuarioResponsableIdOrderByFechaCambioDesc(usuarioResponsableId, pageable)
+                .map(this::convertirAAuditoriaDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AuditoriaDTO> obtenerCambiosEnPeriodo(LocalDateTime fechaInicio, LocalDateTime fechaFin, Pageable pageable) {
+        return auditoriaRepository.findByFechaCambioBetweenOrderByFechaCambioDesc(fechaInicio, fechaFin, pageable)
+                .map(this::convertirAAuditoriaDTO);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Inserta el registro en el buffer. Si está lleno, lo escribe en el hilo actual.
+     */
+    private void encolar(RegistroAuditoria registro) {
+        if (buffer.offer(registro)) {
+            return;
+        }
+        long total = desbordes.incrementAndGet();
+        if (total % 1000 == 1) {
+            log.warn("Auditoría: buffer lleno ({} posiciones), escritura síncrona ({} desbordes en total)",
+                    buffer.capacidad(), total);
+        }
+        if (!escribirLote(List.of(registro))) {
+            log.error("Auditoría: registro perdido {} {} {} responsable={}", registro.entidadTipo(),
+                    registro.entidadId(), registro.operacion(), registro.usuarioResponsableId());
+        }
+    }
+
+    /**
+     * Escribe un lote en una transacción nueva.
+     *
+     * @return false si la escritura falló
+     */
+    private boolean escribirLote(List<RegistroAuditoria> lote) {
+        try {
+            transaccionNueva.executeWithoutResult(estado -> {
+                List<Long> ids = secuenciaRepository.reservarIds("auditoria_seq", lote.size());
+                jdbcTemplate.batchUpdate(SQL_INSERTAR, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RegistroAuditoria registro = lote.get(i);
+                        ps.setLong(1, ids.get(i));
+                        ps.setString(2, registro.entidadTipo());
+                        ps.setLong(3, registro.entidadId());
+                        ps.setString(4, registro.operacion());
+                        ps.setObject(5, registro.usuarioRelacionadoId(), Types.BIGINT);
+                        ps.setObject(6, registro.usuarioResponsableId(), Types.BIGINT);
+                        ps.setString(7, serializar(registro.valorAnterior()));
+                        ps.setString(8, serializar(registro.valorNuevo()));
+                        ps.setBoolean(9, registro.auditoriaEspecial());
+                        ps.setBoolean(10, registro.requiereAprobacionMultiple());
+                        ps.setTimestamp(11, Timestamp.valueOf(registro.fechaCambio()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lote.size();
+                    }
+                });
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Auditoría: fallo escribiendo lote de {} registros: {}", lote.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean esTablaParticionada() {
+        if (tablaParticionada == null) {
+            try {
+                Integer particionadas = jdbcTemplate.queryForObject(SQL_TABLA_PARTICIONADA, Integer.class);
+                tablaParticionada = particionadas != null && particionadas > 0;
+            } catch (DataAccessException e) {
+                tablaParticionada = false; // Motor distinto de PostgreSQL
+            }
+            if (!tablaParticionada) {
+                log.info("Auditoría: auditoria_cambios no está particionada, no se gestionan particiones");
+            }
+        }
+        return tablaParticionada;
+    }
+
+    private Long resolverUsuarioResponsable() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (!(atributos instanceof ServletRequestAttributes servlet)) {
+            return null;
+        }
+        // Solo el filtro de tokens fija el atributo: una cabecera del cliente no identifica al responsable
+        return servlet.getRequest().getAttribute(ATRIBUTO_USUARIO_RESPONSABLE) instanceof Long usuarioId
+                ? usuarioId : null;
+    }
+
+    private String serializar(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            // Un valor no serializable no debe impedir registrar el cambio
+            return objectMapper.createObjectNode().put("valor", String.valueOf(valor)).toString();
+        }
+    }
+
+    private JsonNode deserializar(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return objectMapper.getNodeFactory().textNode(json);
+        }
+    }
+
+    private AuditoriaDTO convertirAAuditoriaDTO(AuditoriaEntity entity) {
+        return new AuditoriaDTO(entity.getAuditoriaId(), entity.getEntidadTipo(), entity.getEntidadId(),
+                entity.getOperacion(), entity.getUsuarioRelacionadoId(), entity.getUsuarioResponsableId(),
+                deserializar(entity.getValorAnterior()), deserializar(entity.getValorNuevo()),
+                entity.getAuditoriaEspecial(), entity.getRequiereAprobacionMultiple(), entity.getFechaCambio());
+    }
+
+    /**
+     * Cambio pendiente de escribir. Inmutable: se comparte entre el hilo de la petición y el escritor.
+     */
+    private record RegistroAuditoria(String entidadTipo, Long entidadId, String operacion,
+                                     Long usuarioRelacionadoId, Long usuarioResponsableId,
+                                     Object valorAnterior, Object valorNuevo,
+                                     boolean auditoriaEspecial, boolean requiereAprobacionMultiple,
+                                     LocalDateTime fechaCambio) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular acotado, sin bloqueos, de múltiples productores y un solo consumidor.
+ *
+ * Cada posición guarda un número de secuencia que indica si está libre para el productor
+ * de una vuelta dada o lista para el consumidor. Los productores reservan posiciones con
+ * un compareAndSet sobre el contador de escritura; el consumidor es único y avanza su
+ * contador sin sincronización. Ningún productor espera a otro ni al consumidor: si el
+ * buffer está lleno, offer devuelve false y el llamador decide qué hacer.
+ *
+ * @param <E> Tipo de los elementos
+ */
+final class BufferCircularAuditoria<E> {
+
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicReferenceArray<E> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong escritura = new AtomicLong();
+
+    /** Solo lo modifica el hilo consumidor. */
+    private long lectura;
+
+    /**
+     * @param capacidadMinima Capacidad deseada; se redondea a la siguiente potencia de 2
+     */
+    BufferCircularAuditoria(int capacidadMinima) {
+        if (capacidadMinima < 2) {
+            throw new IllegalArgumentException("La capacidad del buffer debe ser al menos 2");
+        }
+        this.capacidad = Integer.highestOneBit(capacidadMinima - 1) << 1;
+        this.mascara = capacidad - 1;
+        this.elementos = new AtomicReferenceArray<>(capacidad);
+        this.secuencias = new AtomicLongArray(capacidad);
+        for (int i = 0; i < capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Inserta un elemento. Seguro para varios hilos productores.
+     *
+     * @return false si el buffer está lleno
+     */
+    boolean offer(E elemento) {
+        while (true) {
+            long posicion = escritura.get();
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (escritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.lazySet(indice, elemento);
+                    secuencias.set(indice, posicion + 1); // Publica el elemento al consumidor
+                    return true;
+                }
+            } else if (diferencia < 0) {
+                return false; // La posición aún no la libera el consumidor: buffer lleno
+            }
+            // diferencia > 0: otro productor tomó la posición; se reintenta con la siguiente
+        }
+    }
+
+    /**
+     * Extrae hasta maximo elementos en orden de inserción. Solo la invoca el hilo consumidor.
+     *
+     * @return Número de elementos extraídos
+     */
+    int drenar(List<E> destino, int maximo) {
+        int extraidos = 0;
+        while (extraidos < maximo) {
+            int indice = (int) (lectura & mascara);
+            if (secuencias.get(indice) != lectura + 1) {
+                break; // Posición vacía o con una escritura aún en curso
+            }
+            destino.add(elementos.get(indice));
+            elementos.lazySet(indice, null);
+            secuencias.set(indice, lectura + capacidad); // Libera la posición para la siguiente vuelta
+            lectura++;
+            extraidos++;
+        }
+        return extraidos;
+    }
+
+    /**
+     * Número aproximado de elementos pendientes (solo informativo).
+     */
+    int tamano() {
+        long pendientes = escritura.get() - lectura;
+        return (int) Math.max(0, Math.min(pendientes, capacidad));
+    }
+
+    int capacidad() {
+        return capacidad;
+    }
+}
@@ -0,0 +1,261 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Config.RuteadorFuenteDatos;
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasCacheDTO;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementación de la caché de respuestas serializadas.
+ *
+ * El ETag combina el recurso, el instante de arranque y el sello de versión, así que un
+ * reinicio (que vuelve los sellos a cero) nunca produce un 304 con datos de antes. Por la
+ * misma razón la última modificación arranca en el instante de inicio.
+ *
+ * Igual que en la caché de permisos, la versión se lee antes de consultar y se guarda con
+ * la respuesta: si una escritura se confirma mientras tanto, la entrada queda con una
+ * versión vieja y se recalcula en la siguiente petición.
+ *
+ * El límite de bytes se controla con un contador que se ajusta al guardar y al quitar cada
+ * entrada. Cada lectura marca la entrada con un reloj lógico; al superar el límite se
+ * desalojan las de marca más antigua hasta bajar al 90 %, con lo que el costo de ordenar
+ * se paga solo de vez en cuando y no en cada lectura.
+ */
+@Service
+public class CacheRespuestasServiceImpl implements CacheRespuestasService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRespuestasServiceImpl.class);
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int minBytesGzip;
+    private final String inicio;
+    private final Instant instanteInicio;
+
+    private final ConcurrentHashMap<String, EstadoRecurso> estados = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ClaveRespuesta, RespuestaEnCache> respuestas = new ConcurrentHashMap<>();
+
+    private final AtomicLong bytesEnUso = new AtomicLong();
+    private final AtomicLong reloj = new AtomicLong();
+    private final Object desalojo = new Object();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder noModificados = new LongAdder();
+    private final LongAdder servidasGzip = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    @Autowired
+    public CacheRespuestasServiceImpl(ObjectMapper objectMapper,
+                                      @Value("${arkania.cache-respuestas.max-bytes:16777216}") long maxBytes,
+                                      @Value("${arkania.cache-respuestas.min-bytes-gzip:1024}") int minBytesGzip) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.minBytesGzip = minBytesGzip;
+        this.instanteInicio = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        this.inicio = Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    // ========================================
+    // CONSULTAS
+    // ========================================
+
+    @Override
+    public EstadoRecurso obtenerEstado(String recurso) {
+        return estados.computeIfAbsent(recurso, r -> nuevoEstado(r, 0, instanteInicio));
+    }
+
+    @Override
+    public RespuestaSerializada obtenerOCalcular(String recurso, String clave, EstadoRecurso estado, Supplier<?> consulta) {
+        ClaveRespuesta claveRespuesta = new ClaveRespuesta(recurso, clave);
+        RespuestaEnCache enCache = respuestas.get(claveRespuesta);
+        if (enCache != null && enCache.version == estado.version()) {
+            enCache.ultimoAcceso = reloj.incrementAndGet();
+            aciertos.increment();
+            return enCache.respuesta;
+        }
+
+        fallos.increment();
+        // Se consulta la primaria: con réplica, un listado atrasado quedaría guardado con la versión nueva
+        RespuestaSerializada respuesta = serializar(recurso, RuteadorFuenteDatos.enPrimaria(consulta));
+        long bytes = respuesta.json().length + (respuesta.gzip() != null ? respuesta.gzip().length : 0);
+        if (bytes <= maxBytes / 4) {
+            guardar(claveRespuesta, new RespuestaEnCache(respuesta, estado.version(), bytes, reloj.incrementAndGet()));
+        }
+        return respuesta;
+    }
+
+    @Override
+    public MetricasCacheDTO obtenerMetricas() {
+        long totalAciertos = aciertos.sum();
+        long totalFallos = fallos.sum();
+        long total = totalAciertos + totalFallos;
+        return new MetricasCacheDTO(respuestas.size(), bytesEnUso.get(), maxBytes, totalAciertos, totalFallos,
+                noModificados.sum(), servidasGzip.sum(), desalojos.sum(),
+                total == 0 ? 0.0 : (double) totalAciertos / total);
+    }
+
+    @Override
+    public void registrarNoModificado() {
+        noModificados.increment();
+    }
+
+    @Override
+    public void registrarServidaGzip() {
+        servidasGzip.increment();
+    }
+
+    // ========================================
+    // INVALIDACIÓN
+    // ========================================
+
+    @Override
+    public void invalidar(String recurso) {
+        Runnable accion = () -> {
+            estados.compute(recurso, (r, actual) -> {
+                EstadoRecurso anterior = actual != null ? actual : nuevoEstado(r, 0, instanteInicio);
+                // Last-Modified tiene precisión de segundos: debe avanzar aunque haya dos escrituras en el mismo segundo
+                Instant ahora = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+                Instant siguiente = anterior.ultimaModificacion().plusSeconds(1);
+                return nuevoEstado(r, anterior.version() + 1, ahora.isAfter(siguiente) ? ahora : siguiente);
+            });
+            for (Map.Entry<ClaveRespuesta, RespuestaEnCache> entrada : respuestas.entrySet()) {
+                if (entrada.getKey().recurso().equals(recurso)) {
+                    quitar(entrada.getKey(), entrada.getValue());
+                }
+            }
+        };
+        // Como en la caché de permisos: también al revertir, por si se cacheó algo sin confirmar
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private EstadoRecurso nuevoEstado(String recurso, long version, Instant ultimaModificacion) {
+        return new EstadoRecurso("W/\"" + recurso + "-" + inicio + "-" + version + "\"", version, ultimaModificacion);
+    }
+
+    private RespuestaSerializada serializar(String recurso, Object datos) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(datos);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar la respuesta de " + recurso, e);
+        }
+        if (json.length < minBytesGzip) {
+            return new RespuestaSerializada(json, null);
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            // No ocurre con un flujo en memoria; se sirve sin comprimir
+            return new RespuestaSerializada(json, null);
+        }
+        byte[] comprimido = salida.toByteArray();
+        return new RespuestaSerializada(json, comprimido.length < json.length ? comprimido : null);
+    }
+
+    private void guardar(ClaveRespuesta clave, RespuestaEnCache nueva) {
+        respuestas.compute(clave, (k, anterior) -> {
+            bytesEnUso.addAndGet(nueva.bytes - (anterior != null ? anterior.bytes : 0));
+            return nueva;
+        });
+        if (bytesEnUso.get() > maxBytes) {
+            desalojar();
+        }
+    }
+
+    private void quitar(ClaveRespuesta clave, RespuestaEnCache entrada) {
+        if (respuestas.remove(clave, entrada)) {
+            bytesEnUso.addAndGet(-entrada.bytes);
+        }
+    }
+
+    /**
+     * Desaloja las entradas usadas menos recientemente hasta bajar al 90 % del límite.
+     * Un solo hilo desaloja a la vez; los demás siguen sirviendo y guardando.
+     */
+    private void desalojar() {
+        synchronized (desalojo) {
+            long objetivo = maxBytes - maxBytes / 10;
+            if (bytesEnUso.get() <= objetivo) {
+                return;
+            }
+            // Las marcas se copian antes de ordenar: otros hilos las siguen actualizando
+            List<Candidata> candidatas = new ArrayList<>(respuestas.size());
+            respuestas.forEach((clave, entrada) -> candidatas.add(new Candidata(clave, entrada, entrada.ultimoAcceso)));
+            candidatas.sort(Comparator.comparingLong(Candidata::ultimoAcceso));
+            int desalojadas = 0;
+            for (Candidata candidata : candidatas) {
+                if (bytesEnUso.get() <= objetivo) {
+                    break;
+                }
+                if (respuestas.remove(candidata.clave(), candidata.entrada())) {
+                    bytesEnUso.addAndGet(-candidata.entrada().bytes);
+                    desalojadas++;
+                }
+            }
+            desalojos.add(desalojadas);
+            log.debug("Caché de respuestas: {} entradas desalojadas, {} bytes en uso", desalojadas, bytesEnUso.get());
+        }
+    }
+
+    private record ClaveRespuesta(String recurso, String clave) {
+    }
+
+    private record Candidata(ClaveRespuesta clave, RespuestaEnCache entrada, long ultimoAcceso) {
+    }
+
+    /**
+     * Respuesta serializada con la versión del recurso con la que se calculó y la marca
+     * de su último uso para el desalojo.
+     */
+    private static final class RespuestaEnCache {
+        final RespuestaSerializada respuesta;
+        final long version;
+        final long bytes;
+        volatile long ultimoAcceso;
+
+        RespuestaEnCache(RespuestaSerializada respuesta, long version, long bytes, long ultimoAcceso) {
+            this.respuesta = respuesta;
+            this.version = version;
+            this.bytes = bytes;
+            this.ultimoAcceso = ultimoAcceso;
+        }
+    }
+}
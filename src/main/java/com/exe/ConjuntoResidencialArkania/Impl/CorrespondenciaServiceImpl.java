@@ -1,19 +1,53 @@
 package com.exe.ConjuntoResidencialArkania.Impl;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 
 import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaLoteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaLoteDTO.Paquete;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoCorrespondenciaLoteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoCorrespondenciaLoteDTO.ErrorPaquete;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoEntregaDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Estado;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Tipo;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.ArchivoRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.CorrespondenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.SecuenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
 import com.exe.ConjuntoResidencialArkania.Service.CorrespondenciaService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService.Metrica;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Exception.CorrespondenciaNotFoundException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -22,11 +56,21 @@ import java.util.stream.Collectors;
  * incluyendo operaciones CRUD y consultas específicas. Utiliza el repositorio para interactuar
  * con la base de datos y sigue las mejores prácticas de inyección de dependencias y separación
  * de responsabilidades. Ahora trabaja directamente con DTOs, manejando la conversión interna.
+ * Las consultas que pueden incluir correspondencias entregadas hace tiempo leen también el
+ * archivo (ver ArchivoService); las archivadas no se pueden modificar.
  * Los métodos están documentados para facilitar el mantenimiento y comprensión del código.
  */
 @Service
+@Transactional
 public class CorrespondenciaServiceImpl implements CorrespondenciaService {
 
+    private static final String SQL_INSERTAR =
+            "INSERT INTO correspondencias (id_correspondencia, registrado_por, destinatario, apartamento, tipo, " +
+            "fecha_recepcion, estado, observaciones, crear_correspondencia, actualizar_correspondencia, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final int MAX_LONGITUD_OBSERVACIONES = 500;
+
     /**
      * Repositorio de correspondencia inyectado para acceder a la capa de datos.
      * Se utiliza para realizar operaciones de persistencia y consultas en la base de datos.
@@ -34,13 +78,75 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     private final CorrespondenciaRepository correspondenciaRepository;
 
     /**
-     * Constructor que inyecta el repositorio de correspondencia.
+     * Servicio de eventos de dominio, usado para registrar en el outbox los cambios
+     * de correspondencia (por ejemplo, para notificar al destinatario).
+     */
+    private final EventoDominioService eventoDominioService;
+
+    /**
+     * Repositorio de usuarios, usado para enlazar a quien retira la correspondencia.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Acceso JDBC para resolver destinatarios e insertar lotes de correspondencias sin pasar por JPA.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Repositorio de secuencias, usado para reservar en un solo viaje los IDs de un lote.
+     */
+    private final SecuenciaRepository secuenciaRepository;
+
+    /**
+     * Servicio y repositorio del archivo, para incluir en las consultas las correspondencias archivadas.
+     */
+    private final ArchivoService archivoService;
+    private final ArchivoRepository archivoRepository;
+
+    /**
+     * Servicio de resúmenes diarios, para marcar los días de recepción que cambian.
+     */
+    private final ResumenDiarioService resumenDiarioService;
+
+    /**
+     * Máximo de paquetes por lote.
+     */
+    private final int maxPaquetesLote;
+
+    /**
+     * Constructor que inyecta el repositorio de correspondencia, el servicio de eventos, el
+     * repositorio de usuarios, el acceso JDBC usado por el registro en lote y el archivo.
      * Spring Boot maneja automáticamente la inyección de dependencias gracias a la anotación @Autowired.
      * @param correspondenciaRepository El repositorio necesario para las operaciones de datos.
+     * @param eventoDominioService El servicio para registrar eventos de dominio.
+     * @param userRepository El repositorio de usuarios.
+     * @param jdbcTemplate El acceso JDBC para consultas e inserciones en lote.
+     * @param secuenciaRepository El repositorio para reservar IDs.
+     * @param archivoService El servicio del archivo de correspondencias entregadas.
+     * @param archivoRepository El repositorio de las tablas de archivo.
+     * @param resumenDiarioService El servicio de resúmenes diarios.
+     * @param maxPaquetesLote Máximo de paquetes por lote.
      */
     @Autowired
-    public CorrespondenciaServiceImpl(CorrespondenciaRepository correspondenciaRepository) {
+    public CorrespondenciaServiceImpl(CorrespondenciaRepository correspondenciaRepository,
+                                      EventoDominioService eventoDominioService,
+                                      UserRepository userRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      SecuenciaRepository secuenciaRepository,
+                                      ArchivoService archivoService,
+                                      ArchivoRepository archivoRepository,
+                                      ResumenDiarioService resumenDiarioService,
+                                      @Value("${arkania.correspondencia.max-paquetes-lote:500}") int maxPaquetesLote) {
         this.correspondenciaRepository = correspondenciaRepository;
+        this.eventoDominioService = eventoDominioService;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.secuenciaRepository = secuenciaRepository;
+        this.archivoService = archivoService;
+        this.archivoRepository = archivoRepository;
+        this.resumenDiarioService = resumenDiarioService;
+        this.maxPaquetesLote = maxPaquetesLote;
     }
 
     /**
@@ -49,21 +155,123 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
      * como verificar permisos o establecer fechas por defecto.
      * @param dto El DTO de correspondencia a crear.
      * @return El DTO de la correspondencia creada con su ID asignado por la base de datos.
+     * @throws IllegalArgumentException si se intenta crear ya entregada
      */
     @Override
     public CorrespondenciaDTO crearCorrespondencia(CorrespondenciaDTO dto) {
+        rechazarEntregaDirecta(dto, null);
         // Convertir DTO a Entity
         CorrespondenciaEntity entity = convertirDtoAEntity(dto);
         // Aquí se puede agregar lógica adicional, como validar datos o auditar la creación
         CorrespondenciaEntity savedEntity = correspondenciaRepository.save(entity);
+        // Registrar el evento en la misma transacción para notificar al destinatario
+        registrarEvento(EventoDominioService.CORRESPONDENCIA_RECIBIDA, savedEntity, dto);
+        resumenDiarioService.marcar(Metrica.CORRESPONDENCIAS, savedEntity.getFechaRecepcion());
         // Convertir Entity a DTO
         return convertirEntityADto(savedEntity);
     }
 
+    /**
+     * Registra un lote de correspondencias.
+     * En lugar de una transacción, una conversión y un INSERT por paquete, el lote se valida en
+     * memoria, resuelve el usuario que registra y todos los destinatarios con una sola consulta,
+     * reserva los IDs en un solo viaje y los inserta con un solo lote JDBC. Cada destinatario
+     * recibe un único evento con todas sus correspondencias, para notificarlo una sola vez.
+     * @param lote El lote con el usuario que registra y los paquetes.
+     * @return El resultado con las correspondencias registradas y los errores por paquete.
+     */
+    @Override
+    public ResultadoCorrespondenciaLoteDTO registrarLote(CorrespondenciaLoteDTO lote) {
+        List<Paquete> paquetes = lote.getPaquetes() == null ? List.of() : lote.getPaquetes();
+        if (paquetes.isEmpty() || paquetes.size() > maxPaquetesLote) {
+            throw new IllegalArgumentException("El lote debe tener entre 1 y " + maxPaquetesLote + " paquetes");
+        }
+        if (lote.getRegistradoPor() == null) {
+            throw new IllegalArgumentException("Debe indicarse el usuario que registra el lote");
+        }
+
+        // 1. Validación sin base de datos
+        List<ErrorPaquete> errores = new ArrayList<>();
+        List<PaqueteValidado> validos = new ArrayList<>(paquetes.size());
+        for (int i = 0; i < paquetes.size(); i++) {
+            PaqueteValidado paquete = validarPaquete(i + 1, paquetes.get(i), errores);
+            if (paquete != null) {
+                validos.add(paquete);
+            }
+        }
+
+        // 2. Usuario que registra y destinatarios en una sola consulta
+        DestinatariosResueltos resueltos = resolverDestinatarios(lote.getRegistradoPor(), validos);
+        if (resueltos.registrador == null) {
+            throw new IllegalArgumentException("Usuario no encontrado con ID: " + lote.getRegistradoPor());
+        }
+        List<PaqueteValidado> aceptados = new ArrayList<>(validos.size());
+        for (PaqueteValidado paquete : validos) {
+            if (paquete.torre != null) {
+                ApartamentoResuelto apartamento = resueltos.apartamentos.get(paquete.torre + "|" + paquete.numero);
+                if (apartamento == null) {
+                    errores.add(new ErrorPaquete(paquete.posicion,
+                            "No existe el apartamento " + paquete.numero + " de la torre " + paquete.torre));
+                    continue;
+                }
+                paquete.apartamentoId = apartamento.apartamentoId();
+                paquete.destinatario = apartamento.propietario();
+            }
+            if (paquete.numeroDocumento != null) {
+                UsuarioResuelto usuario = resueltos.usuariosPorDocumento.get(paquete.numeroDocumento);
+                if (usuario == null) {
+                    errores.add(new ErrorPaquete(paquete.posicion,
+                            "No existe un usuario con el número de documento " + paquete.numeroDocumento));
+                    continue;
+                }
+                paquete.destinatario = usuario;
+            }
+            aceptados.add(paquete);
+        }
+
+        // 3. IDs en un solo viaje e inserción en un solo lote JDBC
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime fechaRecepcion = lote.getFechaRecepcion() != null ? lote.getFechaRecepcion() : ahora;
+        Iterator<Long> ids = secuenciaRepository.reservarIds("correspondencias_seq", aceptados.size()).iterator();
+        aceptados.forEach(paquete -> paquete.idCorrespondencia = ids.next());
+        if (!aceptados.isEmpty()) {
+            insertarLote(aceptados, resueltos.registrador.usuarioId(), fechaRecepcion, ahora);
+            resumenDiarioService.marcar(Metrica.CORRESPONDENCIAS, fechaRecepcion);
+        }
+
+        // 4. Un evento por destinatario con todas sus correspondencias
+        Map<Long, List<PaqueteValidado>> porDestinatario = new LinkedHashMap<>();
+        for (PaqueteValidado paquete : aceptados) {
+            porDestinatario.computeIfAbsent(paquete.destinatario.usuarioId(), id -> new ArrayList<>()).add(paquete);
+        }
+        porDestinatario.forEach((destinatarioId, suyos) -> {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("destinatarioId", destinatarioId);
+            datos.put("cantidad", suyos.size());
+            datos.put("idsCorrespondencia", suyos.stream().map(p -> p.idCorrespondencia).collect(Collectors.toList()));
+            datos.put("tipos", suyos.stream().map(p -> p.tipo.name()).collect(Collectors.toList()));
+            datos.put("fechaRecepcion", fechaRecepcion.toString());
+            eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_USUARIO, destinatarioId,
+                    EventoDominioService.CORRESPONDENCIA_RECIBIDA_LOTE, datos);
+        });
+
+        ResultadoCorrespondenciaLoteDTO resultado = new ResultadoCorrespondenciaLoteDTO();
+        resultado.setTotalPaquetes(paquetes.size());
+        resultado.setRegistradas(aceptados.size());
+        resultado.setDestinatariosNotificados(porDestinatario.size());
+        for (PaqueteValidado paquete : aceptados) {
+            resultado.getCorrespondencias().add(convertirPaqueteADto(paquete, resueltos.registrador, fechaRecepcion, ahora));
+        }
+        errores.sort(Comparator.comparingInt(ErrorPaquete::getPosicion));
+        resultado.setErrores(errores);
+        return resultado;
+    }
+
     /**
      * Lista todas las correspondencias registradas en el sistema.
      * Este método es útil para vistas administrativas o reportes generales.
-     * @return Una lista completa de todos los DTOs de correspondencias en la base de datos.
+     * Las archivadas no se incluyen: se consultan por ID o por rango de fechas.
+     * @return Una lista de los DTOs de las correspondencias de la tabla principal.
      */
     @Override
     public List<CorrespondenciaDTO> listarTodas() {
@@ -76,36 +284,114 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     /**
      * Busca una correspondencia específica por su ID único.
      * Utiliza el método findById de JpaRepository, que devuelve un Optional para manejar
-     * casos donde la correspondencia no existe.
+     * casos donde la correspondencia no existe. Si no está en la tabla principal se busca en el archivo.
      * @param id El ID único de la correspondencia a buscar.
      * @return Un Optional que contiene el DTO de la correspondencia si se encuentra, vacío en caso contrario.
      */
     @Override
     public Optional<CorrespondenciaDTO> buscarPorId(Long id) {
         Optional<CorrespondenciaEntity> entityOpt = correspondenciaRepository.findById(id);
+        if (entityOpt.isEmpty() && archivoService.disponible()) {
+            entityOpt = archivoRepository.buscarCorrespondencia(id);
+        }
         return entityOpt.map(this::convertirEntityADto);
     }
 
     /**
      * Actualiza una correspondencia existente en el sistema.
-     * JpaRepository maneja automáticamente si es una inserción o actualización basada en el ID.
-     * Se recomienda validar que la correspondencia exista antes de actualizar.
+     * Los campos editables se copian sobre la entidad cargada (las relaciones con usuarios y
+     * apartamento se conservan). Si el DTO trae versión, debe coincidir con la actual; y si otra
+     * transacción confirma un cambio entre la lectura y la escritura, Hibernate rechaza la escritura.
+     * La entrega no se hace por aquí: pasar a ENTREGADA exige quién retira y el UPDATE condicionado
+     * de entregarCorrespondencia, y la fecha de entrega solo la fija esa operación.
      * @param dto El DTO de correspondencia con los datos actualizados.
      * @return El DTO de la correspondencia actualizada después de ser guardada en la base de datos.
+     * @throws IllegalArgumentException si el cambio pasa una correspondencia no entregada a ENTREGADA
      */
     @Override
     public CorrespondenciaDTO actualizarCorrespondencia(CorrespondenciaDTO dto) {
-        // Validación opcional: verificar si existe antes de actualizar
-        if (!correspondenciaRepository.existsById(dto.getIdCorrespondencia())) {
-            throw CorrespondenciaNotFoundException.porId(dto.getIdCorrespondencia());
-        }
-        // Convertir DTO a Entity
-        CorrespondenciaEntity entity = convertirDtoAEntity(dto);
-        CorrespondenciaEntity updatedEntity = correspondenciaRepository.save(entity);
+        CorrespondenciaEntity entity = correspondenciaRepository.findById(dto.getIdCorrespondencia())
+                .orElseThrow(() -> CorrespondenciaNotFoundException.porId(dto.getIdCorrespondencia()));
+        ConflictoVersionException.verificar("Correspondencia", dto.getIdCorrespondencia(), entity.getVersion(), dto.getVersion());
+        rechazarEntregaDirecta(dto, entity.getEstado());
+        copiarCamposEditables(dto, entity);
+        // El flush incrementa la versión antes de convertir la respuesta
+        CorrespondenciaEntity updatedEntity = correspondenciaRepository.saveAndFlush(entity);
+        registrarEvento(EventoDominioService.CORRESPONDENCIA_ACTUALIZADA, updatedEntity, dto);
+        resumenDiarioService.marcar(Metrica.CORRESPONDENCIAS, updatedEntity.getFechaRecepcion());
         // Convertir Entity a DTO
         return convertirEntityADto(updatedEntity);
     }
 
+    /**
+     * Entrega una correspondencia pendiente con un UPDATE condicionado a su estado, sin leerla
+     * antes: dos entregas simultáneas no pueden pisarse porque solo una encuentra la fila en
+     * PENDIENTE. Quien retira no se consulta: la llave foránea rechaza un ID inexistente. Solo si
+     * no cambió ninguna fila se consulta si la correspondencia existe, para distinguir "no existe"
+     * de "ya estaba entregada"; si cambió, se lee para el evento y el resumen diario.
+     * @param id El ID de la correspondencia a entregar.
+     * @param retiradoPor El ID del usuario que la retira.
+     * @return El resultado con las filas afectadas.
+     */
+    @Override
+    public ResultadoEntregaDTO entregarCorrespondencia(Long id, Long retiradoPor) {
+        LocalDateTime fechaEntrega = LocalDateTime.now();
+        int entregadas;
+        try {
+            entregadas = correspondenciaRepository.entregarSiPendiente(id, usuarioQueRetira(retiradoPor),
+                    fechaEntrega, Estado.PENDIENTE, Estado.ENTREGADA);
+        } catch (DataIntegrityViolationException e) {
+            throw usuarioQueRetiraNoEncontrado(retiradoPor);
+        }
+        if (entregadas == 0) {
+            // Una correspondencia archivada ya fue entregada: cuenta como existente
+            if (!correspondenciaRepository.existsById(id)
+                    && (!archivoService.disponible() || archivoRepository.buscarCorrespondencia(id).isEmpty())) {
+                throw CorrespondenciaNotFoundException.porId(id);
+            }
+        } else {
+            // El UPDATE limpió el contexto de persistencia: la lectura trae el estado ya entregado
+            correspondenciaRepository.findById(id).ifPresent(entity -> {
+                registrarEvento(EventoDominioService.CORRESPONDENCIA_ENTREGADA, entity, new CorrespondenciaDTO());
+                resumenDiarioService.marcar(Metrica.CORRESPONDENCIAS, entity.getFechaRecepcion());
+            });
+        }
+        return new ResultadoEntregaDTO(entregadas, retiradoPor, fechaEntrega);
+    }
+
+    /**
+     * Entrega todas las correspondencias pendientes de un apartamento con un solo UPDATE y
+     * registra un único evento para el apartamento con el número de entregadas.
+     * @param apartamentoId El ID del apartamento.
+     * @param retiradoPor El ID del usuario que las retira.
+     * @return El resultado con el número de correspondencias entregadas.
+     */
+    @Override
+    public ResultadoEntregaDTO entregarPendientesDeApartamento(Long apartamentoId, Long retiradoPor) {
+        LocalDateTime fechaEntrega = LocalDateTime.now();
+        // Días de recepción cuyo resumen cambia; el UPDATE no devuelve las filas
+        List<LocalDateTime> fechasRecepcion =
+                correspondenciaRepository.fechasRecepcionPendientes(apartamentoId, Estado.PENDIENTE);
+        int entregadas;
+        try {
+            entregadas = correspondenciaRepository.entregarPendientesDeApartamento(apartamentoId,
+                    usuarioQueRetira(retiradoPor), fechaEntrega, Estado.PENDIENTE, Estado.ENTREGADA);
+        } catch (DataIntegrityViolationException e) {
+            throw usuarioQueRetiraNoEncontrado(retiradoPor);
+        }
+        if (entregadas > 0) {
+            resumenDiarioService.marcar(Metrica.CORRESPONDENCIAS, fechasRecepcion);
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("apartamentoId", apartamentoId);
+            datos.put("cantidad", entregadas);
+            datos.put("retiradoPorId", retiradoPor);
+            datos.put("fechaEntrega", fechaEntrega.toString());
+            eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_APARTAMENTO, apartamentoId,
+                    EventoDominioService.CORRESPONDENCIA_ENTREGADA_LOTE, datos);
+        }
+        return new ResultadoEntregaDTO(entregadas, retiradoPor, fechaEntrega);
+    }
+
     /**
      * Elimina una correspondencia del sistema por su ID.
      * Antes de eliminar, se pueden agregar verificaciones, como comprobar si hay dependencias
@@ -115,15 +401,18 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     @Override
     public void eliminarCorrespondencia(Long id) {
         // Verificación opcional: comprobar existencia antes de eliminar
-        if (!correspondenciaRepository.existsById(id)) {
-            throw CorrespondenciaNotFoundException.porId(id);
-        }
-        correspondenciaRepository.deleteById(id);
+        CorrespondenciaEntity entity = correspondenciaRepository.findById(id)
+                .orElseThrow(() -> CorrespondenciaNotFoundException.porId(id));
+        correspondenciaRepository.delete(entity);
+        resumenDiarioService.marcar(Metrica.CORRESPONDENCIAS, entity.getFechaRecepcion());
+        eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_CORRESPONDENCIA, id,
+                EventoDominioService.CORRESPONDENCIA_ELIMINADA, Map.of("idCorrespondencia", id));
     }
 
     /**
      * Busca todas las correspondencias dirigidas a un destinatario específico.
      * Utiliza el método personalizado del repositorio para filtrar por destinatario.
+     * No incluye las archivadas.
      * @param destinatario El ID del usuario destinatario.
      * @return Una lista de DTOs de correspondencias asociadas al destinatario.
      */
@@ -138,6 +427,7 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     /**
      * Busca correspondencias por su estado actual (Pendiente, Entregada, etc.).
      * Permite filtrar correspondencias según su estado para reportes o gestión.
+     * No incluye las archivadas (entregadas hace más de los días de retención).
      * @param estado El estado de la correspondencia a buscar.
      * @return Una lista de DTOs de correspondencias con el estado especificado.
      */
@@ -152,6 +442,7 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     /**
      * Busca correspondencias por su tipo (Paquete, Documento, Otro).
      * Facilita la categorización y búsqueda de correspondencias por tipo.
+     * No incluye las archivadas.
      * @param tipo El tipo de correspondencia a buscar.
      * @return Una lista de DTOs de correspondencias del tipo especificado.
      */
@@ -166,14 +457,18 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     /**
      * Busca correspondencias registradas dentro de un rango de fechas.
      * Utiliza el campo fechaRecepcion para filtrar. Es útil para reportes históricos.
+     * El archivo solo se consulta si el rango empieza antes del límite de archivo.
      * @param inicio La fecha de inicio del rango (inclusive).
      * @param fin La fecha de fin del rango (inclusive).
      * @return Una lista de DTOs de correspondencias en el rango de fechas especificado.
      */
     @Override
     public List<CorrespondenciaDTO> buscarPorRangoFechas(LocalDateTime inicio, LocalDateTime fin) {
-        List<CorrespondenciaEntity> entities = correspondenciaRepository.findByFechaRecepcionBetween(inicio, fin);
+        List<CorrespondenciaEntity> entities = conArchivadas(
+                correspondenciaRepository.findByFechaRecepcionBetween(inicio, fin),
+                archivoService.requiereArchivo(inicio), () -> archivoRepository.correspondenciasPorRecepcion(inicio, fin));
         return entities.stream()
+                .sorted(Comparator.comparing(CorrespondenciaEntity::getFechaRecepcion))
                 .map(this::convertirEntityADto)
                 .collect(Collectors.toList());
     }
@@ -181,6 +476,7 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
     /**
      * Busca correspondencias retiradas por un usuario específico.
      * Permite rastrear qué correspondencias ha retirado un usuario determinado.
+     * No incluye las archivadas.
      * @param idUsuario El ID del usuario que retiró la correspondencia.
      * @return Una lista de DTOs de correspondencias retiradas por el usuario.
      */
@@ -192,6 +488,223 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Agrega a las correspondencias de la tabla principal las archivadas, si el rango consultado
+     * empieza antes del límite de archivo.
+     */
+    private List<CorrespondenciaEntity> conArchivadas(List<CorrespondenciaEntity> activas, boolean incluirArchivo,
+                                                      Supplier<List<CorrespondenciaEntity>> archivadas) {
+        if (!incluirArchivo) {
+            return activas;
+        }
+        List<CorrespondenciaEntity> todas = new ArrayList<>(activas);
+        todas.addAll(archivadas.get());
+        return todas;
+    }
+
+    /**
+     * Referencia al usuario que retira la correspondencia, sin consultarlo: si no existe, la
+     * llave foránea rechaza el UPDATE.
+     * @throws IllegalArgumentException si no se indicó el usuario
+     */
+    private UserEntity usuarioQueRetira(Long retiradoPor) {
+        if (retiradoPor == null) {
+            throw usuarioQueRetiraNoEncontrado(null);
+        }
+        return userRepository.getReferenceById(retiradoPor);
+    }
+
+    private static IllegalArgumentException usuarioQueRetiraNoEncontrado(Long retiradoPor) {
+        return new IllegalArgumentException("Usuario que retira no encontrado con ID: " + retiradoPor);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES DEL REGISTRO EN LOTE
+    // ========================================
+
+    /**
+     * Valida y normaliza un paquete del lote sin consultar la base de datos.
+     * @return El paquete validado, o null si tiene errores (quedan en la lista de errores)
+     */
+    private PaqueteValidado validarPaquete(int posicion, Paquete paquete, List<ErrorPaquete> errores) {
+        if (paquete == null) {
+            errores.add(new ErrorPaquete(posicion, "El paquete está vacío"));
+            return null;
+        }
+        String torre = limpiar(paquete.getTorre());
+        String numero = limpiar(paquete.getNumero());
+        String numeroDocumento = limpiar(paquete.getNumeroDocumento());
+        String observaciones = limpiar(paquete.getObservaciones());
+
+        Tipo tipo;
+        try {
+            tipo = limpiar(paquete.getTipo()) == null ? Tipo.PAQUETE : Tipo.valueOf(paquete.getTipo().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            errores.add(new ErrorPaquete(posicion, "Tipo inválido: " + paquete.getTipo() + " (PAQUETE, DOCUMENTO u OTRO)"));
+            return null;
+        }
+        if ((torre == null) != (numero == null)) {
+            errores.add(new ErrorPaquete(posicion, "La torre y el número del apartamento deben indicarse juntos"));
+            return null;
+        }
+        if (torre == null && numeroDocumento == null) {
+            errores.add(new ErrorPaquete(posicion,
+                    "Debe indicarse el apartamento (torre y número) o el número de documento del destinatario"));
+            return null;
+        }
+        if (observaciones != null && observaciones.length() > MAX_LONGITUD_OBSERVACIONES) {
+            errores.add(new ErrorPaquete(posicion,
+                    "Las observaciones no pueden exceder " + MAX_LONGITUD_OBSERVACIONES + " caracteres"));
+            return null;
+        }
+        return new PaqueteValidado(posicion, torre, numero, numeroDocumento, tipo, observaciones);
+    }
+
+    /**
+     * Resuelve el usuario que registra, los apartamentos (con su propietario) y los usuarios
+     * por documento mencionados en el lote, con una sola consulta UNION ALL.
+     */
+    private DestinatariosResueltos resolverDestinatarios(Long registradoPor, List<PaqueteValidado> paquetes) {
+        Set<List<String>> apartamentos = new LinkedHashSet<>();
+        Set<String> documentos = new LinkedHashSet<>();
+        for (PaqueteValidado paquete : paquetes) {
+            if (paquete.torre != null) {
+                apartamentos.add(List.of(paquete.torre, paquete.numero));
+            }
+            if (paquete.numeroDocumento != null) {
+                documentos.add(paquete.numeroDocumento);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT 'R' AS origen, NULL AS torre, NULL AS numero, NULL AS numero_documento, NULL AS apartamento_id, " +
+                "u.usuario_id, u.nombres, u.apellidos FROM usuarios u WHERE u.usuario_id = ?");
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(registradoPor);
+        if (!apartamentos.isEmpty()) {
+            sql.append(" UNION ALL SELECT 'A', a.torre, a.numero, NULL, a.apartamento_id, u.usuario_id, u.nombres, u.apellidos " +
+                    "FROM apartamentos a JOIN usuarios u ON u.usuario_id = a.propietario_id WHERE (a.torre, a.numero) IN (")
+               .append(String.join(", ", Collections.nCopies(apartamentos.size(), "(?, ?)"))).append(")");
+            apartamentos.forEach(parametros::addAll);
+        }
+        if (!documentos.isEmpty()) {
+            sql.append(" UNION ALL SELECT 'D', NULL, NULL, u.numero_documento, NULL, u.usuario_id, u.nombres, u.apellidos " +
+                    "FROM usuarios u WHERE u.numero_documento IN (")
+               .append(String.join(", ", Collections.nCopies(documentos.size(), "?"))).append(")");
+            parametros.addAll(documentos);
+        }
+
+        DestinatariosResueltos resueltos = new DestinatariosResueltos();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            UsuarioResuelto usuario = new UsuarioResuelto(rs.getLong("usuario_id"),
+                    rs.getString("nombres") + " " + rs.getString("apellidos"));
+            switch (rs.getString("origen")) {
+                case "R" -> resueltos.registrador = usuario;
+                case "A" -> resueltos.apartamentos.put(rs.getString("torre") + "|" + rs.getString("numero"),
+                        new ApartamentoResuelto(rs.getLong("apartamento_id"), usuario));
+                default -> resueltos.usuariosPorDocumento.put(rs.getString("numero_documento"), usuario);
+            }
+        }, parametros.toArray());
+        return resueltos;
+    }
+
+    /**
+     * Inserta los paquetes aceptados en un solo lote JDBC.
+     */
+    private void insertarLote(List<PaqueteValidado> paquetes, Long registradoPor,
+                              LocalDateTime fechaRecepcion, LocalDateTime ahora) {
+        Timestamp recepcion = Timestamp.valueOf(fechaRecepcion);
+        Timestamp marca = Timestamp.valueOf(ahora);
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PaqueteValidado paquete = paquetes.get(i);
+                ps.setLong(1, paquete.idCorrespondencia);
+                ps.setLong(2, registradoPor);
+                ps.setLong(3, paquete.destinatario.usuarioId());
+                ps.setObject(4, paquete.apartamentoId, Types.BIGINT);
+                ps.setString(5, paquete.tipo.name());
+                ps.setTimestamp(6, recepcion);
+                ps.setString(7, Estado.PENDIENTE.name());
+                ps.setString(8, paquete.observaciones);
+                ps.setTimestamp(9, marca);
+                ps.setTimestamp(10, marca);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return paquetes.size();
+            }
+        });
+    }
+
+    private CorrespondenciaDTO convertirPaqueteADto(PaqueteValidado paquete, UsuarioResuelto registrador,
+                                                    LocalDateTime fechaRecepcion, LocalDateTime ahora) {
+        CorrespondenciaDTO dto = new CorrespondenciaDTO();
+        dto.setIdCorrespondencia(paquete.idCorrespondencia);
+        dto.setRegistradoPor(registrador.usuarioId());
+        dto.setRegistradoPorNombre(registrador.nombreCompleto());
+        dto.setDestinatario(paquete.destinatario.usuarioId());
+        dto.setDestinatarioNombre(paquete.destinatario.nombreCompleto());
+        dto.setApartamentoId(paquete.apartamentoId);
+        dto.setTipo(paquete.tipo.name());
+        dto.setFechaRecepcion(fechaRecepcion);
+        dto.setEstado(Estado.PENDIENTE.name());
+        dto.setObservaciones(paquete.observaciones);
+        dto.setCrearCorrespondencia(ahora);
+        dto.setActualizarCorrespondencia(ahora);
+        dto.setVersion(0L);
+        return dto;
+    }
+
+    private static String limpiar(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String limpio = valor.trim();
+        return limpio.isEmpty() ? null : limpio;
+    }
+
+    /**
+     * Paquete del lote ya validado; destinatario, apartamento e ID se completan al resolverlo.
+     */
+    private static class PaqueteValidado {
+        private final int posicion;
+        private final String torre;
+        private final String numero;
+        private final String numeroDocumento;
+        private final Tipo tipo;
+        private final String observaciones;
+        private UsuarioResuelto destinatario;
+        private Long apartamentoId;
+        private Long idCorrespondencia;
+
+        private PaqueteValidado(int posicion, String torre, String numero, String numeroDocumento,
+                                Tipo tipo, String observaciones) {
+            this.posicion = posicion;
+            this.torre = torre;
+            this.numero = numero;
+            this.numeroDocumento = numeroDocumento;
+            this.tipo = tipo;
+            this.observaciones = observaciones;
+        }
+    }
+
+    private record UsuarioResuelto(Long usuarioId, String nombreCompleto) {
+    }
+
+    private record ApartamentoResuelto(Long apartamentoId, UsuarioResuelto propietario) {
+    }
+
+    /**
+     * Resultado de la consulta de resolución del lote.
+     */
+    private static class DestinatariosResueltos {
+        private UsuarioResuelto registrador;
+        private final Map<String, ApartamentoResuelto> apartamentos = new HashMap<>();
+        private final Map<String, UsuarioResuelto> usuariosPorDocumento = new HashMap<>();
+    }
+
     // ========================================
     // MÉTODOS AUXILIARES DE CONVERSIÓN
     // ========================================
@@ -205,14 +718,36 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
         CorrespondenciaEntity entity = new CorrespondenciaEntity();
         entity.setIdCorrespondencia(dto.getIdCorrespondencia());
         // Aquí se mapearían los campos relacionados con usuario/apartamento si se dispone de los servicios
+        copiarCamposEditables(dto, entity);
+        return entity;
+    }
+
+    /**
+     * Rechaza un DTO que pasa a ENTREGADA una correspondencia que no lo estaba: la entrega solo
+     * se registra con entregarCorrespondencia, que exige quién retira.
+     * @param dto El DTO recibido
+     * @param estadoActual El estado actual de la correspondencia (null si se está creando)
+     */
+    private void rechazarEntregaDirecta(CorrespondenciaDTO dto, Estado estadoActual) {
+        if (Estado.ENTREGADA.name().equals(dto.getEstado()) && estadoActual != Estado.ENTREGADA) {
+            throw new IllegalArgumentException("La correspondencia se entrega con la operación de entrega, "
+                    + "indicando quién la retira");
+        }
+    }
+
+    /**
+     * Copia los campos simples del DTO sobre una entidad (sin ID, relaciones, versión ni datos
+     * de entrega, que solo fija entregarCorrespondencia).
+     * @param dto El DTO de origen
+     * @param entity La entidad de destino
+     */
+    private void copiarCamposEditables(CorrespondenciaDTO dto, CorrespondenciaEntity entity) {
         entity.setTipo(dto.getTipo() != null ? Tipo.valueOf(dto.getTipo()) : null);
         entity.setFechaRecepcion(dto.getFechaRecepcion());
-        entity.setFechaEntrega(dto.getFechaEntrega());
         entity.setEstado(dto.getEstado() != null ? Estado.valueOf(dto.getEstado()) : null);
         entity.setObservaciones(dto.getObservaciones());
         entity.setCrearCorrespondencia(dto.getCrearCorrespondencia());
         entity.setActualizarCorrespondencia(dto.getActualizarCorrespondencia());
-        return entity;
     }
 
     /**
@@ -231,7 +766,31 @@ public class CorrespondenciaServiceImpl implements CorrespondenciaService {
         dto.setObservaciones(entity.getObservaciones());
         dto.setCrearCorrespondencia(entity.getCrearCorrespondencia());
         dto.setActualizarCorrespondencia(entity.getActualizarCorrespondencia());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 
+    /**
+     * Registra en el outbox un evento de la correspondencia.
+     * Los IDs de usuarios se toman de la entidad cuando están enlazados y, si no, del DTO.
+     * @param tipoEvento Tipo de evento a registrar
+     * @param entity La correspondencia guardada
+     * @param dto El DTO recibido en la operación
+     */
+    private void registrarEvento(String tipoEvento, CorrespondenciaEntity entity, CorrespondenciaDTO dto) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("idCorrespondencia", entity.getIdCorrespondencia());
+        datos.put("destinatarioId", entity.getDestinatario() != null
+                ? entity.getDestinatario().getUsuarioId() : dto.getDestinatario());
+        datos.put("apartamentoId", entity.getApartamento() != null
+                ? entity.getApartamento().getApartamentoId() : dto.getApartamentoId());
+        datos.put("retiradoPorId", entity.getRetiradoPor() != null
+                ? entity.getRetiradoPor().getUsuarioId() : dto.getRetiradoPor());
+        datos.put("tipo", entity.getTipo() != null ? entity.getTipo().name() : null);
+        datos.put("estado", entity.getEstado() != null ? entity.getEstado().name() : null);
+        datos.put("fechaRecepcion", entity.getFechaRecepcion() != null ? entity.getFechaRecepcion().toString() : null);
+        eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_CORRESPONDENCIA,
+                entity.getIdCorrespondencia(), tipoEvento, datos);
+    }
+
 }
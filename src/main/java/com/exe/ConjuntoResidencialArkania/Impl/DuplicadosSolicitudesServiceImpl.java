@@ -0,0 +1,250 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.TipoSolicitud;
+import com.exe.ConjuntoResidencialArkania.Impl.IndiceSimilitud.Coincidencia;
+import com.exe.ConjuntoResidencialArkania.Repository.SolicitudRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.SolicitudRepository.TextoSolicitudAbierta;
+import com.exe.ConjuntoResidencialArkania.Service.DuplicadosSolicitudesService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de la detección de duplicados con un IndiceSimilitud por tipo de solicitud.
+ *
+ * La firma de la descripción se calcula fuera del bloqueo; buscar y agregar al índice se
+ * hacen bajo un bloqueo corto, así dos solicitudes parecidas que llegan a la vez quedan en el
+ * mismo grupo. Una solicitud se agrega al índice antes de confirmar su transacción (para
+ * agrupar también las simultáneas) y se quita si la transacción se revierte. Una descripción
+ * editada se reindexa al confirmar, en el mismo grupo.
+ *
+ * La reconstrucción lee las solicitudes abiertas sin bloquear el índice; los cambios hechos
+ * mientras tanto se guardan aparte y se aplican al índice nuevo antes de reemplazar el actual.
+ */
+@Service
+public class DuplicadosSolicitudesServiceImpl implements DuplicadosSolicitudesService {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicadosSolicitudesServiceImpl.class);
+
+    private static final List<SolicitudesEntity.EstadoSolicitud> ESTADOS_ABIERTOS =
+            List.of(SolicitudesEntity.EstadoSolicitud.pendiente, SolicitudesEntity.EstadoSolicitud.en_proceso);
+
+    private final SolicitudRepository solicitudRepository;
+    private final List<TipoSolicitud> tipos;
+    private final double umbral;
+    private final int ventanaDias;
+    private final EjecutorTareasLargas ejecutorTareasLargas;
+
+    /** Índices por tipo; protegidos por this. */
+    private Map<TipoSolicitud, IndiceSimilitud> indices;
+
+    /** Cambios hechos durante una reconstrucción en curso (null si no hay); protegidos por this. */
+    private List<Cambio> cambiosDuranteReconstruccion;
+
+    @Autowired
+    public DuplicadosSolicitudesServiceImpl(SolicitudRepository solicitudRepository,
+            @Value("${arkania.duplicados.tipos:queja,mantenimiento}") List<TipoSolicitud> tipos,
+            @Value("${arkania.duplicados.umbral:0.5}") double umbral,
+            @Value("${arkania.duplicados.ventana-dias:7}") int ventanaDias,
+            EjecutorTareasLargas ejecutorTareasLargas) {
+        this.solicitudRepository = solicitudRepository;
+        this.ejecutorTareasLargas = ejecutorTareasLargas;
+        this.tipos = List.copyOf(tipos);
+        this.umbral = umbral;
+        this.ventanaDias = ventanaDias;
+        this.indices = indicesVacios();
+    }
+
+    // ========================================
+    // AGRUPACIÓN
+    // ========================================
+
+    @Override
+    public Long agrupar(long idSolicitud, TipoSolicitud tipo, String descripcion) {
+        if (!tipos.contains(tipo)) {
+            return null;
+        }
+        int[] firma = IndiceSimilitud.firma(descripcion);
+        if (firma == null) {
+            return null;
+        }
+        long grupo;
+        synchronized (this) {
+            IndiceSimilitud indice = indices.get(tipo);
+            Coincidencia coincidencia = indice.buscar(firma);
+            grupo = coincidencia != null ? coincidencia.grupo() : idSolicitud;
+            aplicar(new Cambio(tipo, idSolicitud, grupo, firma));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado != STATUS_COMMITTED) {
+                        quitarAhora(List.of(idSolicitud));
+                    }
+                }
+            });
+        }
+        return grupo;
+    }
+
+    @Override
+    public void reindexar(long idSolicitud, TipoSolicitud tipo, String descripcion, long grupo) {
+        if (!tipos.contains(tipo)) {
+            return;
+        }
+        int[] firma = IndiceSimilitud.firma(descripcion);
+        if (firma == null) {
+            quitar(List.of(idSolicitud));
+            return;
+        }
+        Cambio cambio = new Cambio(tipo, idSolicitud, grupo, firma);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicarAhora(cambio);
+                }
+            });
+        } else {
+            aplicarAhora(cambio);
+        }
+    }
+
+    @Override
+    public void quitar(Collection<Long> idsSolicitudes) {
+        if (idsSolicitudes.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(idsSolicitudes);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    quitarAhora(ids);
+                }
+            });
+        } else {
+            quitarAhora(ids);
+        }
+    }
+
+    private synchronized void aplicarAhora(Cambio cambio) {
+        aplicar(cambio);
+    }
+
+    private synchronized void quitarAhora(List<Long> ids) {
+        for (Long id : ids) {
+            for (TipoSolicitud tipo : tipos) {
+                aplicar(new Cambio(tipo, id, 0, null));
+            }
+        }
+    }
+
+    // ========================================
+    // RECONSTRUCCIÓN
+    // ========================================
+
+    /**
+     * Reconstrucción periódica (la primera al iniciar), en el ejecutor de tareas largas.
+     */
+    @Scheduled(fixedDelayString = "${arkania.duplicados.intervalo-reconstruccion-ms:600000}")
+    public void reconstruirProgramado() {
+        ejecutorTareasLargas.ejecutar("índice de duplicados", () -> {
+            try {
+                reconstruir();
+            } catch (DataAccessException | IllegalStateException e) {
+                log.error("Duplicados: no se pudo reconstruir el índice: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public int reconstruir() {
+        synchronized (this) {
+            if (cambiosDuranteReconstruccion != null) {
+                throw new IllegalStateException("Ya hay una reconstrucción en curso");
+            }
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        }
+
+        Map<TipoSolicitud, IndiceSimilitud> nuevos = indicesVacios();
+        int indexadas = 0;
+        try {
+            if (!tipos.isEmpty()) {
+                List<TextoSolicitudAbierta> abiertas = solicitudRepository.textosAbiertos(
+                        ESTADOS_ABIERTOS, tipos, LocalDateTime.now().minusDays(ventanaDias));
+                for (TextoSolicitudAbierta abierta : abiertas) {
+                    int[] firma = IndiceSimilitud.firma(abierta.getDescripcion());
+                    // Sin grupo solo quedan las creadas antes de agruparse su tipo: no se indexan,
+                    // porque sus duplicados no se encontrarían al consultar el grupo
+                    if (firma != null && abierta.getGrupoDuplicados() != null) {
+                        nuevos.get(abierta.getTipoSolicitud()).agregar(abierta.getIdSolicitud(),
+                                abierta.getGrupoDuplicados(), firma);
+                        indexadas++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                cambiosDuranteReconstruccion = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            List<Cambio> cambios = cambiosDuranteReconstruccion;
+            cambiosDuranteReconstruccion = null;
+            indices = nuevos;
+            cambios.forEach(this::aplicar);
+        }
+        return indexadas;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Aplica un cambio al índice actual y lo guarda si hay una reconstrucción en curso.
+     * Se llama con el bloqueo tomado.
+     */
+    private void aplicar(Cambio cambio) {
+        IndiceSimilitud indice = indices.get(cambio.tipo());
+        if (cambio.firma() != null) {
+            indice.agregar(cambio.idSolicitud(), cambio.grupo(), cambio.firma());
+        } else {
+            indice.quitar(cambio.idSolicitud());
+        }
+        if (cambiosDuranteReconstruccion != null) {
+            cambiosDuranteReconstruccion.add(cambio);
+        }
+    }
+
+    private Map<TipoSolicitud, IndiceSimilitud> indicesVacios() {
+        Map<TipoSolicitud, IndiceSimilitud> vacios = new EnumMap<>(TipoSolicitud.class);
+        tipos.forEach(tipo -> vacios.put(tipo, new IndiceSimilitud(umbral)));
+        return vacios;
+    }
+
+    /**
+     * Alta (con firma) o baja (firma null) de una solicitud en el índice de su tipo.
+     */
+    private record Cambio(TipoSolicitud tipo, long idSolicitud, long grupo, int[] firma) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta operaciones conmutativas (agregar o quitar un permiso de un rol) reintentándolas
+ * cuando fallan por control de concurrencia optimista.
+ *
+ * Cada intento corre en su propia transacción y vuelve a leer la entidad, así que dos
+ * administradores que agregan permisos distintos al mismo rol a la vez terminan ambos
+ * aplicados en lugar de que uno pise al otro. Entre intentos se espera un tiempo creciente
+ * con variación aleatoria para que los hilos en conflicto no vuelvan a chocar.
+ *
+ * Si ya hay una transacción activa no se reintenta (el conflicto invalida la transacción
+ * del llamador) y la operación se ejecuta directamente dentro de ella.
+ */
+@Component
+public class EjecutorReintentoOptimista {
+
+    private static final Logger log = LoggerFactory.getLogger(EjecutorReintentoOptimista.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxIntentos;
+    private final long esperaBaseMs;
+
+    @Autowired
+    public EjecutorReintentoOptimista(PlatformTransactionManager transactionManager,
+                                      @Value("${arkania.concurrencia.max-reintentos:5}") int maxIntentos,
+                                      @Value("${arkania.concurrencia.espera-base-ms:10}") long esperaBaseMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.esperaBaseMs = esperaBaseMs;
+    }
+
+    /**
+     * Ejecuta la operación, reintentando ante conflictos de versión.
+     *
+     * @param operacion Operación a ejecutar; debe releer lo que modifica en cada intento
+     * @return Resultado del intento exitoso
+     * @throws ObjectOptimisticLockingFailureException si se agotan los intentos
+     */
+    public <T> T ejecutar(Supplier<T> operacion) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operacion.get();
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(estado -> operacion.get());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (intento >= maxIntentos) {
+                    log.warn("Concurrencia: conflicto de versión tras {} intentos: {}", intento, e.getMessage());
+                    throw e;
+                }
+                esperar(intento);
+            }
+        }
+    }
+
+    /**
+     * Variante sin resultado de {@link #ejecutar(Supplier)}.
+     */
+    public void ejecutar(Runnable operacion) {
+        ejecutar(() -> {
+            operacion.run();
+            return null;
+        });
+    }
+
+    private void esperar(int intento) {
+        if (esperaBaseMs <= 0) {
+            return;
+        }
+        long maximo = esperaBaseMs << Math.min(intento - 1, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maximo / 2, maximo + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+}
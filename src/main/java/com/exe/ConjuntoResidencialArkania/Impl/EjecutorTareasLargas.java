@@ -0,0 +1,84 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta fuera del programador de tareas los trabajos por lotes largos: archivo, reconciliación
+ * de resúmenes y reconstrucción de índices en memoria.
+ *
+ * El programador (spring.task.scheduling.pool.size) tiene pocos hilos y los comparten las
+ * tareas cortas y frecuentes: el relay del outbox, el escritor de auditoría, la verificación
+ * de la réplica y la expiración. Si un trabajo de varios minutos ocupara esos hilos, las
+ * tareas cortas se atrasarían. Aquí el método programado solo entrega el trabajo y vuelve.
+ *
+ * Los trabajos corren en arkania.tareas-largas.hilos hilos propios (uno por defecto, para no
+ * cargar la base con varios lotes a la vez). Un trabajo que sigue pendiente o en curso no se
+ * vuelve a encolar: la ejecución repetida se omite y queda en el log.
+ */
+@Component
+public class EjecutorTareasLargas {
+
+    private static final Logger log = LoggerFactory.getLogger(EjecutorTareasLargas.class);
+
+    private final ExecutorService ejecutor;
+
+    /** Nombres de los trabajos encolados o en curso. */
+    private final Set<String> pendientes = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public EjecutorTareasLargas(@Value("${arkania.tareas-largas.hilos:1}") int hilos) {
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(Math.max(1, hilos), tarea -> {
+            Thread hilo = new Thread(tarea, "tarea-larga-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Encola un trabajo si no hay otro con el mismo nombre pendiente o en curso.
+     *
+     * @param nombre Nombre del trabajo, para el log y para no duplicarlo
+     * @param trabajo Trabajo a ejecutar; sus excepciones se registran en el log
+     * @return true si se encoló
+     */
+    public boolean ejecutar(String nombre, Runnable trabajo) {
+        if (!pendientes.add(nombre)) {
+            log.warn("Tareas largas: {} sigue pendiente o en curso; se omite esta ejecución", nombre);
+            return false;
+        }
+        try {
+            ejecutor.execute(() -> {
+                try {
+                    trabajo.run();
+                } catch (RuntimeException e) {
+                    log.error("Tareas largas: {} falló: {}", nombre, e.getMessage(), e);
+                } finally {
+                    pendientes.remove(nombre);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendientes.remove(nombre);
+            log.warn("Tareas largas: {} no se pudo encolar (aplicación deteniéndose)", nombre);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
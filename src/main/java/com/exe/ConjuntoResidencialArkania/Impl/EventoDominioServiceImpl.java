@@ -0,0 +1,224 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.EventoDominioDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.EventoOutboxEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.EventoOutboxEntity.EstadoEvento;
+import com.exe.ConjuntoResidencialArkania.Repository.EventoOutboxRepository;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementación del outbox transaccional y de su relay.
+ *
+ * Registro: el evento se guarda con la transacción del llamador (propagación MANDATORY),
+ * así el evento y el cambio de negocio se confirman o se revierten juntos.
+ *
+ * Publicación: el relay lee periódicamente un lote de eventos pendientes en orden de ID y
+ * publica cada uno con ApplicationEventPublisher en su propia transacción, junto con la marca
+ * de publicado. Si un listener falla, el evento se reintenta con espera exponencial y los
+ * eventos posteriores del mismo agregado esperan, conservando el orden por agregado. Tras
+ * agotar los intentos el evento queda FALLIDO y deja de bloquear su agregado.
+ *
+ * El relay asume una sola instancia activa; en despliegues con varias instancias se debe
+ * habilitar (arkania.outbox.relay-habilitado) solo en una.
+ */
+@Service
+public class EventoDominioServiceImpl implements EventoDominioService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoDominioServiceImpl.class);
+
+    private static final TypeReference<Map<String, Object>> TIPO_DATOS = new TypeReference<>() {};
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaccionNueva;
+
+    @Value("${arkania.outbox.relay-habilitado:true}")
+    private boolean relayHabilitado;
+
+    @Value("${arkania.outbox.tamano-lote:100}")
+    private int tamanoLote;
+
+    @Value("${arkania.outbox.max-intentos:8}")
+    private int maxIntentos;
+
+    @Value("${arkania.outbox.espera-base-ms:1000}")
+    private long esperaBaseMs;
+
+    @Value("${arkania.outbox.espera-maxima-ms:300000}")
+    private long esperaMaximaMs;
+
+    @Value("${arkania.outbox.dias-retencion:7}")
+    private int diasRetencion;
+
+    @Autowired
+    public EventoDominioServiceImpl(EventoOutboxRepository eventoOutboxRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ========================================
+    // REGISTRO DE EVENTOS
+    // ========================================
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEvento(String agregadoTipo, Long agregadoId, String tipoEvento, Map<String, Object> datos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        EventoOutboxEntity evento = new EventoOutboxEntity();
+        evento.setAgregadoTipo(agregadoTipo);
+        evento.setAgregadoId(agregadoId);
+        evento.setTipoEvento(tipoEvento);
+        evento.setPayload(serializar(datos));
+        evento.setEstado(EstadoEvento.PENDIENTE);
+        evento.setIntentos(0);
+        evento.setProximoIntento(ahora);
+        evento.setFechaCreacion(ahora);
+        eventoOutboxRepository.save(evento);
+    }
+
+    // ========================================
+    // RELAY
+    // ========================================
+
+    /**
+     * Ejecución periódica del relay. El intervalo se mide desde el fin de la ejecución
+     * anterior, por lo que nunca hay dos ejecuciones simultáneas.
+     */
+    @Scheduled(fixedDelayString = "${arkania.outbox.intervalo-ms:1000}")
+    public void ejecutarRelay() {
+        if (!relayHabilitado) {
+            return;
+        }
+        int publicados;
+        do {
+            publicados = publicarPendientes();
+        } while (publicados >= tamanoLote); // Hay más pendientes: se continúa sin esperar
+    }
+
+    @Override
+    public int publicarPendientes() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Set<String> agregadosBloqueados = new HashSet<>();
+        int publicados = 0;
+
+        // Solo los eventos cuyo reintento venció: los que esperan no ocupan lugar en el lote
+        for (EventoOutboxEntity evento : eventoOutboxRepository.findPendientesVencidos(
+                EstadoEvento.PENDIENTE, ahora, PageRequest.of(0, tamanoLote))) {
+            String agregado = evento.getAgregadoTipo() + ":" + evento.getAgregadoId();
+            if (agregadosBloqueados.contains(agregado)) {
+                continue;
+            }
+            if (!publicar(evento)) {
+                // Un evento fallido bloquea a los posteriores de su agregado en este lote
+                agregadosBloqueados.add(agregado);
+                continue;
+            }
+            publicados++;
+        }
+        return publicados;
+    }
+
+    /**
+     * Limpieza diaria de los eventos publicados más antiguos que el periodo de retención.
+     */
+    @Scheduled(cron = "${arkania.outbox.cron-limpieza:0 30 3 * * *}")
+    @Transactional
+    public void limpiarPublicados() {
+        int eliminados = eventoOutboxRepository.deleteByEstadoAndFechaPublicacionBefore(
+                EstadoEvento.PUBLICADO, LocalDateTime.now().minusDays(diasRetencion));
+        if (eliminados > 0) {
+            log.info("Outbox: {} eventos publicados eliminados", eliminados);
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Publica un evento y lo marca como publicado en una misma transacción nueva.
+     * Los listeners que participan de la transacción se revierten junto con la marca.
+     *
+     * @return true si se publicó, false si algún listener falló
+     */
+    private boolean publicar(EventoOutboxEntity evento) {
+        try {
+            transaccionNueva.executeWithoutResult(estado -> {
+                eventPublisher.publishEvent(new EventoDominioDTO(evento.getEventoId(), evento.getAgregadoTipo(),
+                        evento.getAgregadoId(), evento.getTipoEvento(), deserializar(evento.getPayload()),
+                        evento.getFechaCreacion()));
+                evento.setEstado(EstadoEvento.PUBLICADO);
+                evento.setFechaPublicacion(LocalDateTime.now());
+                eventoOutboxRepository.save(evento);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            registrarFallo(evento, e);
+            return false;
+        }
+    }
+
+    /**
+     * Registra un intento fallido y programa el siguiente con espera exponencial.
+     */
+    private void registrarFallo(EventoOutboxEntity evento, RuntimeException error) {
+        int intentos = evento.getIntentos() + 1;
+        long espera = Math.min(esperaMaximaMs, esperaBaseMs << Math.min(intentos - 1, 20));
+        String mensaje = error.getClass().getSimpleName() + ": " + error.getMessage();
+
+        evento.setIntentos(intentos);
+        evento.setEstado(intentos >= maxIntentos ? EstadoEvento.FALLIDO : EstadoEvento.PENDIENTE);
+        evento.setFechaPublicacion(null);
+        evento.setProximoIntento(LocalDateTime.now().plusNanos(espera * 1_000_000));
+        evento.setUltimoError(mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje);
+        transaccionNueva.executeWithoutResult(estado -> eventoOutboxRepository.save(evento));
+
+        log.warn("Outbox: fallo publicando evento {} ({}) intento {}/{}: {}", evento.getEventoId(),
+                evento.getTipoEvento(), intentos, maxIntentos, mensaje);
+    }
+
+    private String serializar(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudieron serializar los datos del evento", e);
+        }
+    }
+
+    private Map<String, Object> deserializar(String payload) {
+        try {
+            return payload == null ? Map.of() : objectMapper.readValue(payload, TIPO_DATOS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload de evento inválido", e);
+        }
+    }
+}
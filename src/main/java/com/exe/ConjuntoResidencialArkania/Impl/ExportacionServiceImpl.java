@@ -0,0 +1,253 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+import com.exe.ConjuntoResidencialArkania.Service.ExportacionService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Implementación del servicio de exportación.
+ * Las consultas se ejecutan con JdbcTemplate sobre un ResultSet de solo avance y
+ * con un tamaño de fetch acotado, de modo que el driver trae las filas por bloques
+ * en lugar de cargar todo el resultado. Cada fila se escribe en el flujo de salida
+ * en cuanto se lee, sin pasar por entidades ni DTOs.
+ * En PostgreSQL el cursor solo se respeta dentro de una transacción, por eso los
+ * métodos son transaccionales de solo lectura.
+ */
+@Service
+public class ExportacionServiceImpl implements ExportacionService {
+
+    private static final String SELECT_CORRESPONDENCIAS =
+            "SELECT c.id_correspondencia, c.tipo, c.estado, c.fecha_recepcion, c.fecha_entrega, " +
+            "c.registrado_por, c.destinatario, c.retirado_por, c.apartamento, c.observaciones ";
+
+    private static final String SQL_CORRESPONDENCIAS =
+            SELECT_CORRESPONDENCIAS +
+            "FROM correspondencias c " +
+            "WHERE c.fecha_recepcion BETWEEN ? AND ? " +
+            "ORDER BY c.fecha_recepcion ASC";
+
+    // Rangos que alcanzan el archivo: ambas tablas, ordenadas juntas por fecha de recepción
+    private static final String SQL_CORRESPONDENCIAS_CON_ARCHIVO =
+            SELECT_CORRESPONDENCIAS + "FROM correspondencias c WHERE c.fecha_recepcion BETWEEN ? AND ? " +
+            "UNION ALL " +
+            SELECT_CORRESPONDENCIAS + "FROM correspondencias_archivo c WHERE c.fecha_recepcion BETWEEN ? AND ? " +
+            "ORDER BY 4 ASC";
+
+    private static final String[] COLUMNAS_CORRESPONDENCIAS = {
+            "idCorrespondencia", "tipo", "estado", "fechaRecepcion", "fechaEntrega",
+            "registradoPorId", "destinatarioId", "retiradoPorId", "apartamentoId", "observaciones"
+    };
+
+    private static final String SELECT_SOLICITUDES =
+            "SELECT s.id_solicitud, s.usuario_id, s.tipo_solicitud, s.estado_solicitud, " +
+            "s.descripcion, s.fecha_creacion, s.fecha_resolucion ";
+
+    private static final String SQL_SOLICITUDES =
+            SELECT_SOLICITUDES +
+            "FROM solicitudes s " +
+            "WHERE s.fecha_creacion BETWEEN ? AND ? " +
+            "ORDER BY s.fecha_creacion ASC";
+
+    private static final String SQL_SOLICITUDES_CON_ARCHIVO =
+            SELECT_SOLICITUDES + "FROM solicitudes s WHERE s.fecha_creacion BETWEEN ? AND ? " +
+            "UNION ALL " +
+            SELECT_SOLICITUDES + "FROM solicitudes_archivo s WHERE s.fecha_creacion BETWEEN ? AND ? " +
+            "ORDER BY 6 ASC";
+
+    private static final String[] COLUMNAS_SOLICITUDES = {
+            "idSolicitud", "usuarioId", "tipoSolicitud", "estadoSolicitud",
+            "descripcion", "fechaCreacion", "fechaResolucion"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ArchivoService archivoService;
+
+    /**
+     * Constructor que crea un JdbcTemplate propio para las exportaciones, configurado
+     * con el tamaño de fetch indicado en la propiedad arkania.exportacion.tamano-fetch.
+     * @param dataSource Origen de datos de la aplicación.
+     * @param objectMapper Mapper de Jackson usado para escribir NDJSON.
+     * @param archivoService Servicio del archivo, para incluir los registros archivados del rango.
+     * @param tamanoFetch Número de filas que el driver trae por cada viaje a la base de datos.
+     */
+    @Autowired
+    public ExportacionServiceImpl(DataSource dataSource, ObjectMapper objectMapper, ArchivoService archivoService,
+                                  @Value("${arkania.exportacion.tamano-fetch:500}") int tamanoFetch) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(tamanoFetch);
+        this.objectMapper = objectMapper;
+        this.archivoService = archivoService;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportarCorrespondencias(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida)
+            throws IOException {
+        if (archivoService.requiereArchivo(inicio)) {
+            return exportar(SQL_CORRESPONDENCIAS_CON_ARCHIVO, COLUMNAS_CORRESPONDENCIAS, formato, salida,
+                    Timestamp.valueOf(inicio), Timestamp.valueOf(fin), Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+        }
+        return exportar(SQL_CORRESPONDENCIAS, COLUMNAS_CORRESPONDENCIAS, formato, salida,
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportarSolicitudes(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida)
+            throws IOException {
+        if (archivoService.requiereArchivo(inicio)) {
+            return exportar(SQL_SOLICITUDES_CON_ARCHIVO, COLUMNAS_SOLICITUDES, formato, salida,
+                    Timestamp.valueOf(inicio), Timestamp.valueOf(fin), Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+        }
+        return exportar(SQL_SOLICITUDES, COLUMNAS_SOLICITUDES, formato, salida,
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Ejecuta la consulta y escribe cada fila en el formato solicitado a medida que se lee.
+     * Los errores de escritura (por ejemplo, el cliente cerró la conexión) se propagan
+     * como IOException y cancelan la lectura del cursor.
+     */
+    private long exportar(String sql, String[] columnas, Formato formato, OutputStream salida, Object... parametros)
+            throws IOException {
+        EscritorFilas escritor = formato == Formato.NDJSON
+                ? new EscritorNdjson(objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8), columnas)
+                : new EscritorCsv(salida, columnas);
+        long[] filas = {0};
+        Object[] valores = new Object[columnas.length];
+        try {
+            jdbcTemplate.query(sql, (ResultSet rs) -> {
+                for (int i = 0; i < columnas.length; i++) {
+                    valores[i] = normalizarValor(rs, i + 1);
+                }
+                try {
+                    escritor.escribirFila(valores);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                filas[0]++;
+            }, parametros);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        escritor.terminar();
+        return filas[0];
+    }
+
+    /**
+     * Convierte los valores JDBC a tipos simples: las fechas se exportan en formato ISO-8601.
+     */
+    private Object normalizarValor(ResultSet rs, int columna) throws SQLException {
+        Object valor = rs.getObject(columna);
+        if (valor instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return valor;
+    }
+
+    /**
+     * Escritor de filas para un formato concreto.
+     */
+    private interface EscritorFilas {
+        void escribirFila(Object[] valores) throws IOException;
+
+        void terminar() throws IOException;
+    }
+
+    /**
+     * Escribe filas CSV (RFC 4180) con una fila de encabezado.
+     */
+    private static class EscritorCsv implements EscritorFilas {
+        private final Writer writer;
+
+        EscritorCsv(OutputStream salida, String[] columnas) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            escribirFila(columnas);
+        }
+
+        @Override
+        public void escribirFila(Object[] valores) throws IOException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (valores[i] != null) {
+                    writer.write(escapar(valores[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            writer.flush();
+        }
+
+        private static String escapar(String valor) {
+            if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0
+                    && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+                return valor;
+            }
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * Escribe un objeto JSON por línea usando el generador de Jackson en modo streaming.
+     */
+    private static class EscritorNdjson implements EscritorFilas {
+        private final JsonGenerator generator;
+        private final String[] columnas;
+
+        EscritorNdjson(JsonGenerator generator, String[] columnas) {
+            this.generator = generator;
+            this.columnas = columnas;
+            // El flujo de salida pertenece al llamador
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Sin separador entre valores raíz: cada objeto termina con su propio salto de línea
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void escribirFila(Object[] valores) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columnas.length; i++) {
+                generator.writeObjectField(columnas[i], valores[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Config.RuteadorFuenteDatos;
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasFuentesDatosDTO;
+import com.exe.ConjuntoResidencialArkania.Service.FuentesDatosService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Implementación de las métricas de fuentes de datos.
+ */
+@Service
+public class FuentesDatosServiceImpl implements FuentesDatosService {
+
+    private final DataSource dataSource;
+    private final ObjectProvider<RuteadorFuenteDatos> ruteador;
+
+    @Autowired
+    public FuentesDatosServiceImpl(DataSource dataSource, ObjectProvider<RuteadorFuenteDatos> ruteador) {
+        this.dataSource = dataSource;
+        this.ruteador = ruteador;
+    }
+
+    @Override
+    public MetricasFuentesDatosDTO obtenerMetricas() {
+        MetricasFuentesDatosDTO metricas = new MetricasFuentesDatosDTO();
+        RuteadorFuenteDatos rutas = ruteador.getIfAvailable();
+        if (rutas != null) {
+            metricas.setReplicaHabilitada(true);
+            metricas.setReplicaDisponible(rutas.isReplicaDisponible());
+            metricas.setRetrasoReplicaSegundos(rutas.getRetrasoSegundos());
+            metricas.setConexionesEscritura(rutas.getConexionesEscritura());
+            metricas.setLecturasReplica(rutas.getLecturasReplica());
+            metricas.setLecturasEnPrimaria(rutas.getLecturasEnPrimaria());
+            metricas.getPools().add(estadoPool(rutas.getPrimaria()));
+            metricas.getPools().add(estadoPool(rutas.getReplica()));
+            return metricas;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                metricas.getPools().add(estadoPool(dataSource.unwrap(HikariDataSource.class)));
+            }
+        } catch (SQLException e) {
+            // Fuente de datos que no es Hikari: no hay estado de pool que informar
+        }
+        return metricas;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private MetricasFuentesDatosDTO.PoolConexiones estadoPool(HikariDataSource fuente) {
+        // El pool se crea con la primera conexión; antes de eso no hay MXBean
+        HikariPoolMXBean pool = fuente.getHikariPoolMXBean();
+        if (pool == null) {
+            return new MetricasFuentesDatosDTO.PoolConexiones(fuente.getPoolName(), 0, 0, 0, 0,
+                    fuente.getMaximumPoolSize());
+        }
+        return new MetricasFuentesDatosDTO.PoolConexiones(fuente.getPoolName(), pool.getActiveConnections(),
+                pool.getIdleConnections(), pool.getTotalConnections(), pool.getThreadsAwaitingConnection(),
+                fuente.getMaximumPoolSize());
+    }
+}
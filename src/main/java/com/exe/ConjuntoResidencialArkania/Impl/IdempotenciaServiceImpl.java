@@ -0,0 +1,186 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasIdempotenciaDTO;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementación en memoria del almacén de claves de idempotencia.
+ *
+ * Todas las claves tienen la misma vigencia, así que el orden de inserción es también el
+ * orden de vencimiento: una cola con las entradas en ese orden permite quitar las vencidas
+ * mirando solo la cabeza, sin recorrer el mapa. Al superar el límite de claves o de bytes
+ * se desalojan también desde la cabeza (las más antiguas). La limpieza se hace al reservar
+ * y al completar, así que el costo se reparte entre las peticiones.
+ *
+ * Una respuesta que ocupe más de la dieciseisava parte del límite de bytes no se guarda y
+ * su clave se libera: un reintento de esa petición se vuelve a ejecutar.
+ */
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    private final long vigenciaMs;
+    private final int maxClaves;
+    private final long maxBytes;
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entrada> orden = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enOrden = new AtomicInteger();
+    private final AtomicLong bytesEnUso = new AtomicLong();
+    private final Object desalojo = new Object();
+
+    private final LongAdder ejecutadas = new LongAdder();
+    private final LongAdder repetidas = new LongAdder();
+    private final LongAdder enCurso = new LongAdder();
+    private final LongAdder huellasDistintas = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    @Autowired
+    public IdempotenciaServiceImpl(@Value("${arkania.idempotencia.vigencia-minutos:1440}") long vigenciaMinutos,
+                                   @Value("${arkania.idempotencia.max-claves:10000}") int maxClaves,
+                                   @Value("${arkania.idempotencia.max-bytes:8388608}") long maxBytes) {
+        this.vigenciaMs = vigenciaMinutos * 60_000L;
+        this.maxClaves = maxClaves;
+        this.maxBytes = maxBytes;
+    }
+
+    // ========================================
+    // RESERVA Y RESPUESTAS
+    // ========================================
+
+    @Override
+    public Reserva reservar(String clave, String huella) {
+        long ahora = System.currentTimeMillis();
+        Entrada nueva = new Entrada(clave, huella, ahora + vigenciaMs);
+        while (true) {
+            Entrada actual = entradas.putIfAbsent(clave, nueva);
+            if (actual == null || (actual.vence <= ahora && entradas.replace(clave, actual, nueva))) {
+                if (actual != null) {
+                    descontar(actual);
+                }
+                orden.add(nueva);
+                enOrden.incrementAndGet();
+                ejecutadas.increment();
+                purgar(ahora);
+                return new Reserva(EstadoClave.NUEVA, huella, null);
+            }
+            if (actual.vence <= ahora) {
+                // Otra petición reemplazó la entrada vencida; se vuelve a intentar con la nueva
+                continue;
+            }
+
+            RespuestaGuardada respuesta = actual.respuesta;
+            if (!Objects.equals(actual.huella, huella)) {
+                huellasDistintas.increment();
+            } else if (respuesta == null) {
+                enCurso.increment();
+            } else {
+                repetidas.increment();
+            }
+            return new Reserva(respuesta == null ? EstadoClave.EN_CURSO : EstadoClave.COMPLETADA,
+                    actual.huella, respuesta);
+        }
+    }
+
+    @Override
+    public void completar(String clave, RespuestaGuardada respuesta) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return;
+        }
+        long bytes = respuesta.cuerpo().length;
+        if (bytes > maxBytes / 16) {
+            liberar(clave);
+            return;
+        }
+        synchronized (entrada) {
+            if (entrada.retirada) {
+                return;
+            }
+            entrada.bytes = bytes;
+            entrada.respuesta = respuesta;
+        }
+        bytesEnUso.addAndGet(bytes);
+        purgar(System.currentTimeMillis());
+    }
+
+    @Override
+    public void liberar(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && entrada.respuesta == null && entradas.remove(clave, entrada)) {
+            descontar(entrada);
+        }
+    }
+
+    @Override
+    public MetricasIdempotenciaDTO obtenerMetricas() {
+        return new MetricasIdempotenciaDTO(entradas.size(), bytesEnUso.get(), maxClaves, maxBytes,
+                ejecutadas.sum(), repetidas.sum(), enCurso.sum(), huellasDistintas.sum(), desalojos.sum());
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Quita desde la cabeza las entradas vencidas y, si se supera algún límite, las más antiguas.
+     * La cola puede tener entradas ya liberadas o reemplazadas; se descartan sin contarlas.
+     */
+    private void purgar(long ahora) {
+        synchronized (desalojo) {
+            Entrada cabeza;
+            while ((cabeza = orden.peek()) != null) {
+                boolean vencida = cabeza.vence <= ahora;
+                if (!vencida && enOrden.get() <= maxClaves && bytesEnUso.get() <= maxBytes) {
+                    return;
+                }
+                orden.poll();
+                enOrden.decrementAndGet();
+                if (entradas.remove(cabeza.clave, cabeza)) {
+                    descontar(cabeza);
+                    if (!vencida) {
+                        desalojos.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    private void descontar(Entrada entrada) {
+        long bytes;
+        synchronized (entrada) {
+            entrada.retirada = true;
+            bytes = entrada.bytes;
+            entrada.bytes = 0;
+        }
+        bytesEnUso.addAndGet(-bytes);
+    }
+
+    /**
+     * Clave reservada. La respuesta es null mientras la petición se ejecuta.
+     */
+    private static final class Entrada {
+        private final String clave;
+        private final String huella;
+        private final long vence;
+        private volatile RespuestaGuardada respuesta;
+        private long bytes;
+        private boolean retirada;
+
+        private Entrada(String clave, String huella, long vence) {
+            this.clave = clave;
+            this.huella = huella;
+            this.vence = vence;
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.EvaluacionAsignacionDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ImportacionResidenteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO.ErrorFila;
+import com.exe.ConjuntoResidencialArkania.DTO.UserDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.UsuarioRolDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.ApartamentoEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.SecuenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.ImportacionService;
+import com.exe.ConjuntoResidencialArkania.Service.PoliticaAsignacionService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+import com.exe.ConjuntoResidencialArkania.Service.UsuarioRolService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Implementación del servicio de importación masiva de residentes.
+ *
+ * El proceso de una importación es:
+ * 1. Validar todas las filas en paralelo con los patrones de UserConfig (CPU, sin base de datos).
+ * 2. Deduplicar por número de documento y email dentro del archivo.
+ * 3. Consultar en bloque los documentos y emails ya registrados (una consulta por cada
+ *    bloque de candidatos, en lugar de dos consultas por fila).
+ * 4. Evaluar los roles de las filas aceptadas con el motor de políticas de asignación
+ *    (límites por rol y prerequisitos) y rechazar las filas que incumplen alguna regla.
+ * 5. Reservar los IDs necesarios de las secuencias en bloques, un solo viaje por tabla.
+ * 6. Insertar usuarios, apartamentos y asignaciones con la carga masiva del motor
+ *    (COPY en PostgreSQL, INSERT de varias filas en MySQL), y registrar en la misma
+ *    transacción la auditoría de cada alta y el evento ROL_ASIGNADO de cada asignación.
+ *
+ * Los errores se acumulan por fila y se guardan en memoria (cantidad acotada de reportes)
+ * para descargarlos en CSV.
+ */
+@Service
+public class ImportacionServiceImpl implements ImportacionService {
+
+    private static final List<String> COLUMNAS_USUARIO = List.of("usuario_id", "tipo_documento",
+            "numero_documento", "nombres", "apellidos", "email", "telefono", "password", "activo",
+            "fecha_creacion", "fecha_actualizacion");
+
+    private static final List<String> COLUMNAS_APARTAMENTO = List.of("apartamento_id", "numero", "torre",
+            "propietario_id", "estado");
+
+    private static final List<String> COLUMNAS_ASIGNACION = List.of("usuario_rol_id", "usuario_id", "rol_id",
+            "activo", "fecha_expiracion", "recordatorio_enviado", "fecha_creacion", "fecha_actualizacion");
+
+    /**
+     * Máximo de parámetros por consulta IN al deduplicar contra la base de datos.
+     */
+    private static final int TAMANO_BLOQUE_CONSULTA = 1000;
+
+    /**
+     * Máximo de errores devueltos directamente en la respuesta de la importación.
+     */
+    private static final int MAX_ERRORES_EN_RESPUESTA = 100;
+
+    private static final Set<String> TIPOS_DOCUMENTO = Set.of("CC", "CE", "TI", "PP", "NIT");
+
+    private final UserRepository userRepository;
+    private final RolRepository rolRepository;
+    private final UsuarioRolService usuarioRolService;
+    private final PoliticaAsignacionService politicaAsignacionService;
+    private final AuditoriaService auditoriaService;
+    private final EventoDominioService eventoDominioService;
+    private final CacheRespuestasService cacheRespuestasService;
+    private final ResumenDiarioService resumenDiarioService;
+    private final SecuenciaRepository secuenciaRepository;
+    private final OperacionesDialecto operacionesDialecto;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Pattern> patronesDocumento;
+    private final Pattern patronEmail;
+    private final Pattern patronTelefono;
+
+    @Value("${arkania.importacion.rol-por-defecto:RESIDENTE}")
+    private String rolPorDefecto;
+
+    /**
+     * Reportes de errores de las últimas importaciones, acotados en cantidad
+     * para no crecer indefinidamente (se descarta el más antiguo).
+     */
+    private final Map<String, List<ErrorFila>> reportesErrores;
+
+    @Autowired
+    public ImportacionServiceImpl(UserRepository userRepository,
+                                  RolRepository rolRepository,
+                                  UsuarioRolService usuarioRolService,
+                                  PoliticaAsignacionService politicaAsignacionService,
+                                  AuditoriaService auditoriaService,
+                                  EventoDominioService eventoDominioService,
+                                  CacheRespuestasService cacheRespuestasService,
+                                  ResumenDiarioService resumenDiarioService,
+                                  SecuenciaRepository secuenciaRepository,
+                                  OperacionesDialecto operacionesDialecto,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Qualifier("patronCedulaCiudadania") Pattern patronCedulaCiudadania,
+                                  @Qualifier("patronCedulaExtranjeria") Pattern patronCedulaExtranjeria,
+                                  @Qualifier("patronTarjetaIdentidad") Pattern patronTarjetaIdentidad,
+                                  @Qualifier("patronPasaporte") Pattern patronPasaporte,
+                                  @Qualifier("patronNIT") Pattern patronNIT,
+                                  @Qualifier("patronEmail") Pattern patronEmail,
+                                  @Qualifier("patronTelefono") Pattern patronTelefono,
+                                  @Value("${arkania.importacion.max-reportes:50}") int maxReportes) {
+        this.userRepository = userRepository;
+        this.rolRepository = rolRepository;
+        this.usuarioRolService = usuarioRolService;
+        this.politicaAsignacionService = politicaAsignacionService;
+        this.auditoriaService = auditoriaService;
+        this.eventoDominioService = eventoDominioService;
+        this.cacheRespuestasService = cacheRespuestasService;
+        this.resumenDiarioService = resumenDiarioService;
+        this.secuenciaRepository = secuenciaRepository;
+        this.operacionesDialecto = operacionesDialecto;
+        this.jdbcTemplate = jdbcTemplate;
+        this.patronesDocumento = Map.of(
+                "CC", patronCedulaCiudadania,
+                "CE", patronCedulaExtranjeria,
+                "TI", patronTarjetaIdentidad,
+                "PP", patronPasaporte,
+                "NIT", patronNIT);
+        this.patronEmail = patronEmail;
+        this.patronTelefono = patronTelefono;
+        this.reportesErrores = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<ErrorFila>> eldest) {
+                return size() > maxReportes;
+            }
+        });
+    }
+
+    // ========================================
+    // OPERACIONES DE IMPORTACIÓN
+    // ========================================
+
+    @Override
+    @Transactional
+    public ResultadoImportacionDTO importarResidentes(List<ImportacionResidenteDTO> filas) {
+        List<ErrorFila> errores = new ArrayList<>();
+        for (int i = 0; i < filas.size(); i++) {
+            if (filas.get(i) == null) {
+                errores.add(new ErrorFila(i + 1, null, "La fila está vacía"));
+            }
+        }
+        return procesar(filas, errores);
+    }
+
+    @Override
+    @Transactional
+    public ResultadoImportacionDTO importarResidentesCsv(InputStream csv) throws IOException {
+        List<ErrorFila> errores = new ArrayList<>();
+        List<ImportacionResidenteDTO> filas = leerFilasCsv(csv, errores);
+        return procesar(filas, errores);
+    }
+
+    @Override
+    public Optional<List<ErrorFila>> obtenerReporteErrores(String importacionId) {
+        return Optional.ofNullable(reportesErrores.get(importacionId));
+    }
+
+    /**
+     * Ejecuta las etapas de la importación sobre las filas ya leídas.
+     *
+     * @param filas Filas a importar; las posiciones null son filas ya reportadas como ilegibles
+     * @param errores Errores acumulados hasta el momento (por ejemplo, de lectura del CSV)
+     */
+    private ResultadoImportacionDTO procesar(List<ImportacionResidenteDTO> filas, List<ErrorFila> errores) {
+        // 1. Validación en paralelo: solo CPU (patrones y hash de contraseñas)
+        List<FilaValidada> validadas = IntStream.range(0, filas.size())
+                .parallel()
+                .mapToObj(i -> filas.get(i) == null ? null : validarFila(i + 1, filas.get(i)))
+                .collect(Collectors.toList());
+
+        // 2. Deduplicación dentro del archivo (se conserva la primera aparición)
+        Set<String> documentosVistos = new HashSet<>();
+        Set<String> emailsVistos = new HashSet<>();
+        List<FilaValidada> candidatas = new ArrayList<>();
+        for (FilaValidada fila : validadas) {
+            if (fila == null) {
+                continue;
+            }
+            if (!fila.errores.isEmpty()) {
+                errores.addAll(fila.errores);
+                continue;
+            }
+            String documento = fila.datos.getNumeroDocumento();
+            String email = fila.datos.getEmail().toLowerCase();
+            if (!documentosVistos.add(documento)) {
+                errores.add(new ErrorFila(fila.numero, "numeroDocumento",
+                        "Número de documento duplicado en el archivo: " + documento));
+            } else if (!emailsVistos.add(email)) {
+                errores.add(new ErrorFila(fila.numero, "email", "Email duplicado en el archivo: " + email));
+            } else {
+                candidatas.add(fila);
+            }
+        }
+
+        // 3. Deduplicación contra la base de datos con consultas por bloques
+        Set<String> documentosExistentes = new HashSet<>();
+        Set<String> emailsExistentes = new HashSet<>();
+        for (int desde = 0; desde < candidatas.size(); desde += TAMANO_BLOQUE_CONSULTA) {
+            List<FilaValidada> bloque = candidatas.subList(desde, Math.min(desde + TAMANO_BLOQUE_CONSULTA, candidatas.size()));
+            List<String> documentos = bloque.stream().map(f -> f.datos.getNumeroDocumento()).collect(Collectors.toList());
+            List<String> emails = bloque.stream().map(f -> f.datos.getEmail().toLowerCase()).collect(Collectors.toList());
+            for (Object[] existente : userRepository.findDocumentosYEmailsExistentes(documentos, emails)) {
+                documentosExistentes.add((String) existente[0]);
+                emailsExistentes.add(((String) existente[1]).toLowerCase());
+            }
+        }
+
+        Map<String, RolEntity> rolesPorNombre = rolRepository.findAllRolesActivos().stream()
+                .collect(Collectors.toMap(r -> r.getNombre().toUpperCase(), r -> r, (a, b) -> a));
+
+        List<FilaValidada> aceptadas = new ArrayList<>();
+        for (FilaValidada fila : candidatas) {
+            if (documentosExistentes.contains(fila.datos.getNumeroDocumento())) {
+                errores.add(new ErrorFila(fila.numero, "numeroDocumento",
+                        "Ya existe un usuario con el número de documento: " + fila.datos.getNumeroDocumento()));
+                continue;
+            }
+            if (emailsExistentes.contains(fila.datos.getEmail().toLowerCase())) {
+                errores.add(new ErrorFila(fila.numero, "email",
+                        "Ya existe un usuario con el email: " + fila.datos.getEmail()));
+                continue;
+            }
+            String nombreRol = esVacio(fila.datos.getRol()) ? rolPorDefecto : fila.datos.getRol();
+            if (!esVacio(nombreRol)) {
+                fila.rol = rolesPorNombre.get(nombreRol.trim().toUpperCase());
+                if (fila.rol == null) {
+                    errores.add(new ErrorFila(fila.numero, "rol", "Rol no encontrado o inactivo: " + nombreRol));
+                    continue;
+                }
+            }
+            aceptadas.add(fila);
+        }
+
+        // 4. Políticas de asignación: se reserva cupo antes de insertar, como en cualquier asignación
+        List<FilaValidada> conRol = aceptadas.stream().filter(f -> f.rol != null).collect(Collectors.toList());
+        if (!conRol.isEmpty()) {
+            List<EvaluacionAsignacionDTO> evaluaciones = politicaAsignacionService.evaluarYReservarAltasNuevas(
+                    conRol.stream().map(f -> f.rol.getRolId()).collect(Collectors.toList()));
+            Set<FilaValidada> rechazadas = new HashSet<>();
+            for (int i = 0; i < conRol.size(); i++) {
+                EvaluacionAsignacionDTO evaluacion = evaluaciones.get(i);
+                if (!evaluacion.isPermitida()) {
+                    FilaValidada fila = conRol.get(i);
+                    errores.add(new ErrorFila(fila.numero, "rol", String.join("; ", evaluacion.getViolaciones())));
+                    rechazadas.add(fila);
+                }
+            }
+            aceptadas.removeAll(rechazadas);
+        }
+
+        // 5. Apartamentos: se reutilizan los existentes y se crea uno por cada torre/número nuevo
+        Map<String, Long> apartamentosExistentes = buscarApartamentosExistentes(aceptadas);
+        Map<String, FilaValidada> apartamentosNuevos = new LinkedHashMap<>();
+        for (FilaValidada fila : aceptadas) {
+            String clave = fila.claveApartamento();
+            if (clave != null && !apartamentosExistentes.containsKey(clave)) {
+                apartamentosNuevos.putIfAbsent(clave, fila); // la primera fila queda como propietaria
+            }
+        }
+        int totalAsignaciones = (int) aceptadas.stream().filter(f -> f.rol != null).count();
+
+        // 6. Reserva de IDs en un solo viaje por tabla
+        Iterator<Long> idsUsuarios = secuenciaRepository.reservarIds("usuarios_seq", aceptadas.size()).iterator();
+        Iterator<Long> idsApartamentos = secuenciaRepository.reservarIds("apartamentos_seq", apartamentosNuevos.size()).iterator();
+        Iterator<Long> idsAsignaciones = secuenciaRepository.reservarIds("usuario_rol_seq", totalAsignaciones).iterator();
+
+        // 7. Inserciones masivas
+        LocalDateTime fechaImportacion = LocalDateTime.now();
+        Timestamp ahora = Timestamp.valueOf(fechaImportacion);
+        List<Object[]> usuarios = new ArrayList<>(aceptadas.size());
+        List<Object[]> asignaciones = new ArrayList<>(totalAsignaciones);
+        for (FilaValidada fila : aceptadas) {
+            ImportacionResidenteDTO d = fila.datos;
+            fila.usuarioId = idsUsuarios.next();
+            usuarios.add(new Object[] { fila.usuarioId, d.getTipoDocumento(), d.getNumeroDocumento(), d.getNombres(),
+                    d.getApellidos(), d.getEmail(), d.getTelefono(), fila.passwordEncriptada, true, ahora, ahora });
+            if (fila.rol != null) {
+                LocalDateTime expiracion = usuarioRolService.calcularFechaExpiracion(fila.rol.getNombre(), fechaImportacion);
+                asignaciones.add(new Object[] { idsAsignaciones.next(), fila.usuarioId, fila.rol.getRolId(), true,
+                        expiracion == null ? null : Timestamp.valueOf(expiracion), false, ahora, ahora });
+            }
+        }
+        List<Object[]> apartamentos = new ArrayList<>(apartamentosNuevos.size());
+        for (FilaValidada propietario : apartamentosNuevos.values()) {
+            apartamentos.add(new Object[] { idsApartamentos.next(), propietario.datos.getNumeroApartamento(),
+                    propietario.datos.getTorre(), propietario.usuarioId, ApartamentoEntity.EstadoApartamento.OCUPADO.name() });
+        }
+
+        // COPY en PostgreSQL, INSERT de varias filas en MySQL
+        operacionesDialecto.insertarFilas("usuarios", COLUMNAS_USUARIO, usuarios);
+        operacionesDialecto.insertarFilas("apartamentos", COLUMNAS_APARTAMENTO, apartamentos);
+        operacionesDialecto.insertarFilas("usuario_rol", COLUMNAS_ASIGNACION, asignaciones);
+        if (!usuarios.isEmpty()) {
+            resumenDiarioService.marcar(ResumenDiarioService.Metrica.USUARIOS_REGISTRADOS, fechaImportacion);
+        }
+
+        registrarAltas(aceptadas, asignaciones, fechaImportacion);
+        // Los listados de roles incluyen el número de usuarios por rol
+        cacheRespuestasService.invalidar(CacheRespuestasService.ROLES);
+        cacheRespuestasService.invalidar(CacheRespuestasService.APARTAMENTOS);
+
+        // 8. Resultado y reporte de errores
+        errores.sort(Comparator.comparingInt(ErrorFila::getFila));
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        resultado.setImportacionId(UUID.randomUUID().toString());
+        resultado.setTotalFilas(filas.size());
+        resultado.setFilasConError((int) errores.stream().mapToInt(ErrorFila::getFila).distinct().count());
+        resultado.setUsuariosCreados(usuarios.size());
+        resultado.setApartamentosCreados(apartamentos.size());
+        resultado.setAsignacionesCreadas(asignaciones.size());
+        resultado.setErrores(new ArrayList<>(errores.subList(0, Math.min(errores.size(), MAX_ERRORES_EN_RESPUESTA))));
+        if (!errores.isEmpty()) {
+            reportesErrores.put(resultado.getImportacionId(), List.copyOf(errores));
+        }
+        return resultado;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Registra la auditoría de los usuarios y asignaciones insertados, y el evento ROL_ASIGNADO
+     * de cada asignación en el outbox, igual que las altas individuales.
+     *
+     * @param aceptadas Filas insertadas, con su usuarioId
+     * @param asignaciones Filas insertadas en usuario_rol, en el orden de las aceptadas con rol
+     */
+    private void registrarAltas(List<FilaValidada> aceptadas, List<Object[]> asignaciones, LocalDateTime fechaImportacion) {
+        Iterator<Object[]> filasAsignacion = asignaciones.iterator();
+        for (FilaValidada fila : aceptadas) {
+            ImportacionResidenteDTO d = fila.datos;
+            UserDTO usuario = new UserDTO();
+            usuario.setUsuarioId(fila.usuarioId);
+            usuario.setTipoDocumento(d.getTipoDocumento());
+            usuario.setNumeroDocumento(d.getNumeroDocumento());
+            usuario.setNombres(d.getNombres());
+            usuario.setApellidos(d.getApellidos());
+            usuario.setEmail(d.getEmail());
+            usuario.setTelefono(d.getTelefono());
+            usuario.setActivo(true);
+            usuario.setRoles(fila.rol == null ? Set.of() : Set.of(fila.rol.getNombre()));
+            usuario.setFechaCreacion(fechaImportacion);
+            usuario.setFechaActualizacion(fechaImportacion);
+            usuario.setVersion(0L);
+            auditoriaService.registrarCambio(AuditoriaService.ENTIDAD_USUARIO, fila.usuarioId, fila.usuarioId, null,
+                    AuditoriaService.CREAR, null, usuario);
+
+            if (fila.rol == null) {
+                continue;
+            }
+            Object[] filaAsignacion = filasAsignacion.next();
+            Long usuarioRolId = (Long) filaAsignacion[0];
+            LocalDateTime expiracion = filaAsignacion[4] == null ? null : ((Timestamp) filaAsignacion[4]).toLocalDateTime();
+
+            UsuarioRolDTO asignacion = new UsuarioRolDTO();
+            asignacion.setUsuarioRolId(usuarioRolId);
+            asignacion.setUsuarioId(fila.usuarioId);
+            asignacion.setNumeroDocumentoUsuario(d.getNumeroDocumento());
+            asignacion.setNombreCompletoUsuario(d.getNombres() + " " + d.getApellidos());
+            asignacion.setRolId(fila.rol.getRolId());
+            asignacion.setNombreRol(fila.rol.getNombre());
+            asignacion.setActivo(true);
+            asignacion.setFechaExpiracion(expiracion);
+            asignacion.setFechaCreacion(fechaImportacion);
+            asignacion.setFechaActualizacion(fechaImportacion);
+            asignacion.setVersion(0L);
+            auditoriaService.registrarCambio(AuditoriaService.ENTIDAD_USUARIO_ROL, usuarioRolId, fila.usuarioId,
+                    fila.rol.getNombre(), AuditoriaService.CREAR, null, asignacion);
+
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("usuarioRolId", usuarioRolId);
+            datos.put("usuarioId", fila.usuarioId);
+            datos.put("rolId", fila.rol.getRolId());
+            datos.put("rolNombre", fila.rol.getNombre());
+            datos.put("activo", true);
+            datos.put("fechaExpiracion", expiracion);
+            eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_USUARIO, fila.usuarioId,
+                    EventoDominioService.ROL_ASIGNADO, datos);
+        }
+    }
+
+    /**
+     * Valida una fila con los patrones configurados y precalcula el hash de la contraseña.
+     * No accede a la base de datos, por lo que puede ejecutarse en paralelo.
+     */
+    private FilaValidada validarFila(int numero, ImportacionResidenteDTO original) {
+        FilaValidada fila = new FilaValidada(numero, normalizar(original));
+        ImportacionResidenteDTO d = fila.datos;
+
+        if (esVacio(d.getTipoDocumento()) || !TIPOS_DOCUMENTO.contains(d.getTipoDocumento())) {
+            fila.error("tipoDocumento", "Tipo de documento debe ser: CC, CE, TI, PP o NIT");
+        } else if (esVacio(d.getNumeroDocumento())
+                || !patronesDocumento.get(d.getTipoDocumento()).matcher(d.getNumeroDocumento()).matches()) {
+            fila.error("numeroDocumento", "Número de documento inválido para el tipo " + d.getTipoDocumento());
+        }
+        if (esVacio(d.getNombres()) || d.getNombres().length() < 2 || d.getNombres().length() > 50) {
+            fila.error("nombres", "Los nombres deben tener entre 2 y 50 caracteres");
+        }
+        if (esVacio(d.getApellidos()) || d.getApellidos().length() < 2 || d.getApellidos().length() > 50) {
+            fila.error("apellidos", "Los apellidos deben tener entre 2 y 50 caracteres");
+        }
+        if (esVacio(d.getEmail()) || d.getEmail().length() > 150 || !patronEmail.matcher(d.getEmail()).matches()) {
+            fila.error("email", "El formato del email no es válido");
+        }
+        if (!esVacio(d.getTelefono()) && !patronTelefono.matcher(d.getTelefono()).matches()) {
+            fila.error("telefono", "El formato del teléfono no es válido");
+        }
+        if (esVacio(d.getPassword()) || d.getPassword().length() < 8) {
+            fila.error("password", "La contraseña debe tener al menos 8 caracteres");
+        }
+        boolean tieneTorre = !esVacio(d.getTorre());
+        boolean tieneNumero = !esVacio(d.getNumeroApartamento());
+        if (tieneTorre != tieneNumero) {
+            fila.error("torre", "La torre y el número del apartamento deben indicarse juntos");
+        } else if (tieneTorre && (d.getTorre().length() > 20 || d.getNumeroApartamento().length() > 10)) {
+            fila.error("numeroApartamento", "La torre admite hasta 20 caracteres y el número hasta 10");
+        }
+
+        if (fila.errores.isEmpty()) {
+            fila.passwordEncriptada = encriptarPassword(d.getPassword());
+        }
+        return fila;
+    }
+
+    /**
+     * Copia la fila recortando espacios y dejando en null los campos vacíos.
+     */
+    private ImportacionResidenteDTO normalizar(ImportacionResidenteDTO d) {
+        return new ImportacionResidenteDTO(
+                limpiar(d.getTipoDocumento()) == null ? null : limpiar(d.getTipoDocumento()).toUpperCase(),
+                limpiar(d.getNumeroDocumento()),
+                limpiar(d.getNombres()),
+                limpiar(d.getApellidos()),
+                limpiar(d.getEmail()),
+                limpiar(d.getTelefono()),
+                d.getPassword(),
+                limpiar(d.getTorre()),
+                limpiar(d.getNumeroApartamento()),
+                limpiar(d.getRol()));
+    }
+
+    /**
+     * Busca los apartamentos ya registrados en las torres mencionadas en la importación.
+     *
+     * @return Mapa torre|número → ID del apartamento
+     */
+    private Map<String, Long> buscarApartamentosExistentes(List<FilaValidada> filas) {
+        List<String> torres = filas.stream()
+                .map(f -> f.datos.getTorre())
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Long> existentes = new HashMap<>();
+        if (torres.isEmpty()) {
+            return existentes;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(torres.size(), "?"));
+        jdbcTemplate.query("SELECT apartamento_id, torre, numero FROM apartamentos WHERE torre IN (" + marcadores + ")",
+                rs -> {
+                    existentes.put(rs.getString("torre") + "|" + rs.getString("numero"), rs.getLong("apartamento_id"));
+                }, torres.toArray());
+        return existentes;
+    }
+
+    /**
+     * Lee un archivo CSV (RFC 4180) con fila de encabezado y lo convierte en filas de importación.
+     * Las columnas se identifican por nombre, sin distinguir mayúsculas.
+     */
+    private List<ImportacionResidenteDTO> leerFilasCsv(InputStream csv, List<ErrorFila> errores) throws IOException {
+        List<List<String>> registros = leerRegistrosCsv(
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+        if (registros.isEmpty()) {
+            throw new IllegalArgumentException("El archivo CSV está vacío");
+        }
+        List<String> encabezado = registros.get(0).stream()
+                .map(c -> c.replace("\uFEFF", "").trim().toLowerCase())
+                .collect(Collectors.toList());
+        if (!encabezado.contains("numerodocumento") || !encabezado.contains("email")) {
+            throw new IllegalArgumentException("El encabezado del CSV debe incluir al menos numeroDocumento y email");
+        }
+
+        List<ImportacionResidenteDTO> filas = new ArrayList<>(registros.size() - 1);
+        for (int i = 1; i < registros.size(); i++) {
+            List<String> valores = registros.get(i);
+            if (valores.size() != encabezado.size()) {
+                // Se conserva la posición para que la numeración coincida con el archivo
+                errores.add(new ErrorFila(filas.size() + 1, null,
+                        "La fila tiene " + valores.size() + " columnas y el encabezado " + encabezado.size()));
+                filas.add(null);
+                continue;
+            }
+            ImportacionResidenteDTO fila = new ImportacionResidenteDTO();
+            for (int c = 0; c < encabezado.size(); c++) {
+                String valor = valores.get(c);
+                switch (encabezado.get(c)) {
+                    case "tipodocumento" -> fila.setTipoDocumento(valor);
+                    case "numerodocumento" -> fila.setNumeroDocumento(valor);
+                    case "nombres" -> fila.setNombres(valor);
+                    case "apellidos" -> fila.setApellidos(valor);
+                    case "email" -> fila.setEmail(valor);
+                    case "telefono" -> fila.setTelefono(valor);
+                    case "password" -> fila.setPassword(valor);
+                    case "torre" -> fila.setTorre(valor);
+                    case "numeroapartamento" -> fila.setNumeroApartamento(valor);
+                    case "rol" -> fila.setRol(valor);
+                    default -> { } // Columnas desconocidas se ignoran
+                }
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    /**
+     * Divide el contenido CSV en registros y campos, respetando comillas dobles,
+     * comillas escapadas ("") y saltos de línea dentro de campos entre comillas.
+     * Las líneas vacías se omiten.
+     */
+    private List<List<String>> leerRegistrosCsv(BufferedReader reader) throws IOException {
+        List<List<String>> registros = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            char ch = (char) c;
+            if (entreComillas) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        reader.reset();
+                    }
+                } else {
+                    campo.append(ch);
+                }
+            } else if (ch == '"') {
+                entreComillas = true;
+            } else if (ch == ',') {
+                actual.add(campo.toString());
+                campo.setLength(0);
+            } else if (ch == '\n') {
+                actual.add(campo.toString());
+                campo.setLength(0);
+                if (!(actual.size() == 1 && actual.get(0).isEmpty())) {
+                    registros.add(actual);
+                }
+                actual = new ArrayList<>();
+            } else if (ch != '\r') {
+                campo.append(ch);
+            }
+        }
+        if (campo.length() > 0 || !actual.isEmpty()) {
+            actual.add(campo.toString());
+            registros.add(actual);
+        }
+        return registros;
+    }
+
+    /**
+     * Encripta una contraseña usando SHA-256, con la misma codificación hexadecimal
+     * que UserServiceImpl para que las credenciales importadas sean válidas en el login.
+     */
+    private String encriptarPassword(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(password.getBytes()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error al encriptar la contraseña", e);
+        }
+    }
+
+    private static String limpiar(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String limpio = valor.trim();
+        return limpio.isEmpty() ? null : limpio;
+    }
+
+    private static boolean esVacio(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
+
+    /**
+     * Estado de una fila durante la importación.
+     */
+    private static class FilaValidada {
+        private final int numero;
+        private final ImportacionResidenteDTO datos;
+        private final List<ErrorFila> errores = new ArrayList<>();
+        private String passwordEncriptada;
+        private RolEntity rol;
+        private Long usuarioId;
+
+        FilaValidada(int numero, ImportacionResidenteDTO datos) {
+            this.numero = numero;
+            this.datos = datos;
+        }
+
+        void error(String campo, String mensaje) {
+            errores.add(new ErrorFila(numero, campo, mensaje));
+        }
+
+        String claveApartamento() {
+            return datos.getTorre() == null ? null : datos.getTorre() + "|" + datos.getNumeroApartamento();
+        }
+    }
+}
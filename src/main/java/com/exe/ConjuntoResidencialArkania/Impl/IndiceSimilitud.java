@@ -0,0 +1,225 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de textos casi duplicados (MinHash con LSH por bandas).
+ *
+ * Cada texto se normaliza (minúsculas, sin tildes ni signos) y se descompone en fragmentos
+ * de TAMANO_FRAGMENTO caracteres. Su firma guarda, para cada una de BANDAS * FILAS_POR_BANDA
+ * funciones de hash, el mínimo sobre los fragmentos: la fracción de posiciones iguales entre
+ * dos firmas estima la similitud de Jaccard de sus conjuntos de fragmentos.
+ *
+ * La firma se parte en BANDAS bandas; dos textos son candidatos si coinciden en todas las
+ * filas de alguna banda. Con 16 bandas de 4 filas, un par con similitud 0.5 es candidato
+ * con probabilidad ~0.65 y uno con 0.7 con ~0.99, mientras que un par con 0.2 casi nunca lo
+ * es; los candidatos se confirman comparando las firmas completas contra el umbral. Así una
+ * búsqueda revisa unos pocos candidatos en lugar de todo el índice.
+ *
+ * Calcular la firma no requiere sincronización; agregar, quitar y buscar no son seguros para
+ * uso concurrente y el llamador sincroniza.
+ */
+final class IndiceSimilitud {
+
+    static final int TAMANO_FRAGMENTO = 5;
+    static final int BANDAS = 16;
+    static final int FILAS_POR_BANDA = 4;
+    private static final int FUNCIONES = BANDAS * FILAS_POR_BANDA;
+
+    /**
+     * Semilla fija: las firmas dependen solo del texto, no de la instancia.
+     */
+    private static final long SEMILLA = 0x5EED_A7C1_B5L;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final long[] MULTIPLICADORES = new long[FUNCIONES];
+    private static final long[] DESPLAZAMIENTOS = new long[FUNCIONES];
+
+    static {
+        Random aleatorio = new Random(SEMILLA);
+        for (int i = 0; i < FUNCIONES; i++) {
+            MULTIPLICADORES[i] = aleatorio.nextLong() | 1;
+            DESPLAZAMIENTOS[i] = aleatorio.nextLong();
+        }
+    }
+
+    private final double umbral;
+
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+
+    /** Por banda: hash de las filas de la banda → IDs con esas filas. */
+    private final List<Map<Long, Set<Long>>> cubetas = new ArrayList<>(BANDAS);
+
+    /**
+     * @param umbral Similitud de Jaccard estimada mínima para considerar dos textos duplicados
+     */
+    IndiceSimilitud(double umbral) {
+        if (!(umbral > 0 && umbral <= 1)) {
+            throw new IllegalArgumentException("El umbral debe estar entre 0 y 1");
+        }
+        this.umbral = umbral;
+        for (int b = 0; b < BANDAS; b++) {
+            cubetas.add(new HashMap<>());
+        }
+    }
+
+    // ========================================
+    // FIRMAS
+    // ========================================
+
+    /**
+     * Firma MinHash del texto, o null si el texto normalizado queda vacío.
+     */
+    static int[] firma(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return null;
+        }
+        int[] firma = new int[FUNCIONES];
+        Arrays.fill(firma, Integer.MAX_VALUE);
+        int fragmentos = Math.max(1, normalizado.length() - TAMANO_FRAGMENTO + 1);
+        for (int inicio = 0; inicio < fragmentos; inicio++) {
+            long fragmento = hashFragmento(normalizado, inicio,
+                    Math.min(normalizado.length(), inicio + TAMANO_FRAGMENTO));
+            for (int i = 0; i < FUNCIONES; i++) {
+                int valor = (int) (mezclar(fragmento * MULTIPLICADORES[i] + DESPLAZAMIENTOS[i]) >>> 33);
+                if (valor < firma[i]) {
+                    firma[i] = valor;
+                }
+            }
+        }
+        return firma;
+    }
+
+    /**
+     * Fracción de posiciones iguales entre dos firmas (estimación de la similitud de Jaccard).
+     */
+    static double similitud(int[] a, int[] b) {
+        int iguales = 0;
+        for (int i = 0; i < FUNCIONES; i++) {
+            if (a[i] == b[i]) {
+                iguales++;
+            }
+        }
+        return (double) iguales / FUNCIONES;
+    }
+
+    // ========================================
+    // ÍNDICE
+    // ========================================
+
+    void agregar(long id, long grupo, int[] firma) {
+        quitar(id);
+        entradas.put(id, new Entrada(grupo, firma));
+        for (int b = 0; b < BANDAS; b++) {
+            cubetas.get(b).computeIfAbsent(hashBanda(firma, b), k -> new HashSet<>()).add(id);
+        }
+    }
+
+    void quitar(long id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        for (int b = 0; b < BANDAS; b++) {
+            Map<Long, Set<Long>> banda = cubetas.get(b);
+            long clave = hashBanda(entrada.firma(), b);
+            Set<Long> ids = banda.get(clave);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                banda.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Entrada más parecida a la firma con similitud de al menos el umbral, o null si no hay.
+     */
+    Coincidencia buscar(int[] firma) {
+        Set<Long> revisados = new HashSet<>();
+        Coincidencia mejor = null;
+        for (int b = 0; b < BANDAS; b++) {
+            Set<Long> candidatos = cubetas.get(b).get(hashBanda(firma, b));
+            if (candidatos == null) {
+                continue;
+            }
+            for (Long id : candidatos) {
+                if (!revisados.add(id)) {
+                    continue;
+                }
+                Entrada entrada = entradas.get(id);
+                double similitud = similitud(firma, entrada.firma());
+                if (similitud >= umbral && (mejor == null || similitud > mejor.similitud())) {
+                    mejor = new Coincidencia(id, entrada.grupo(), similitud);
+                }
+            }
+        }
+        return mejor;
+    }
+
+    int tamano() {
+        return entradas.size();
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        // NFD separa las tildes (y la virgulilla de la ñ) de su letra; luego se descartan
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("");
+        return SEPARADORES.matcher(sinTildes).replaceAll(" ").trim();
+    }
+
+    private static long hashFragmento(String texto, int inicio, int fin) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = inicio; i < fin; i++) {
+            hash = (hash ^ texto.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long hashBanda(int[] firma, int banda) {
+        long hash = banda;
+        for (int f = banda * FILAS_POR_BANDA; f < (banda + 1) * FILAS_POR_BANDA; f++) {
+            hash = hash * 31 + firma[f];
+        }
+        return mezclar(hash);
+    }
+
+    /**
+     * Mezcla final de MurmurHash3: dispersa los bits de la entrada en toda la salida.
+     */
+    private static long mezclar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private record Entrada(long grupo, int[] firma) {
+    }
+
+    /**
+     * Entrada parecida encontrada: su ID, su grupo y la similitud estimada.
+     */
+    record Coincidencia(long id, long grupo, double similitud) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Medición del arranque: registra en el log, contados desde el inicio de la JVM, el momento
+ * en que la aplicación queda lista y el momento en que termina de atender la primera
+ * petición. El segundo es el que importa en un despliegue (ver Docs/RENDIMIENTO.md).
+ *
+ * La primera petición se detecta con el evento que Spring MVC publica al terminar cada
+ * petición; después de la primera, cada evento solo lee un indicador.
+ */
+@Component
+public class MedidorArranque {
+
+    private static final Logger log = LoggerFactory.getLogger(MedidorArranque.class);
+
+    private final AtomicBoolean primeraPeticionMedida = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alQuedarLista(ApplicationReadyEvent evento) {
+        log.info("Arranque: aplicación lista a {} ms del inicio de la JVM (contexto en {} ms)",
+                msDesdeInicioJvm(), evento.getTimeTaken() != null ? evento.getTimeTaken().toMillis() : -1);
+    }
+
+    @EventListener(ServletRequestHandledEvent.class)
+    public void alAtenderPeticion(ServletRequestHandledEvent evento) {
+        if (primeraPeticionMedida.get() || !primeraPeticionMedida.compareAndSet(false, true)) {
+            return;
+        }
+        log.info("Arranque: primera petición ({} {}, {}) atendida a {} ms del inicio de la JVM ({} ms en atenderla)",
+                evento.getMethod(), evento.getRequestUrl(), evento.getStatusCode(), msDesdeInicioJvm(),
+                evento.getProcessingTimeMillis());
+    }
+
+    private static long msDesdeInicioJvm() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
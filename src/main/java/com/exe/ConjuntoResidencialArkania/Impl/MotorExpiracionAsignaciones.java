@@ -0,0 +1,193 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.UsuarioRolService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Motor de expiración de asignaciones usuario-rol con vencimiento.
+ *
+ * Mantiene en memoria una cola de prioridad con los vencimientos de la próxima ventana
+ * de tiempo (arkania.expiracion.ventana-minutos), cargada con una consulta por rango sobre
+ * el índice de fecha de expiración. Cada ejecución solo revisa la cabeza de la cola; la
+ * base de datos se consulta de nuevo cuando la ventana cargada está por agotarse. La
+ * consulta de carga no tiene límite inferior, así que también recoge vencimientos
+ * atrasados (asignaciones omitidas por estar bloqueadas o creadas con el motor detenido).
+ *
+ * La desactivación se hace en lotes de arkania.expiracion.tamano-lote filas, cada uno en su
+ * propia transacción corta, bloqueando solo esas filas y saltando las que otra transacción
+ * tenga bloqueadas. Una asignación renovada después de entrar a la cola ya no cumple la
+ * condición de vencimiento y no se desactiva.
+ *
+ * Los recordatorios de renovación se emiten como eventos de dominio
+ * (ROL_PROXIMO_A_EXPIRAR) para los roles que requieren renovación.
+ *
+ * Asume una sola instancia activa, igual que el relay del outbox.
+ */
+@Component
+public class MotorExpiracionAsignaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorExpiracionAsignaciones.class);
+
+    private final UsuarioRolService usuarioRolService;
+    private final UsuarioRolRepository usuarioRolRepository;
+    private final int diasGracia;
+
+    /** Vencimientos programados ordenados por momento de desactivación. Solo la usa el motor. */
+    private final PriorityQueue<Vencimiento> vencimientos =
+            new PriorityQueue<>(Comparator.comparing(Vencimiento::desactivarEn));
+    private final Set<Long> programados = new HashSet<>();
+
+    /** Momento hasta el cual la cola contiene todos los vencimientos conocidos. */
+    private LocalDateTime horizonte = LocalDateTime.MIN;
+    private LocalDateTime proximosRecordatorios = LocalDateTime.MIN;
+
+    @Value("${arkania.expiracion.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${arkania.expiracion.ventana-minutos:10}")
+    private long ventanaMinutos;
+
+    @Value("${arkania.expiracion.max-programados:10000}")
+    private int maxProgramados;
+
+    @Value("${arkania.expiracion.tamano-lote:200}")
+    private int tamanoLote;
+
+    @Value("${arkania.expiracion.dias-anticipacion-recordatorio:15}")
+    private int diasAnticipacionRecordatorio;
+
+    @Value("${arkania.expiracion.intervalo-recordatorios-minutos:15}")
+    private long intervaloRecordatoriosMinutos;
+
+    @Autowired
+    public MotorExpiracionAsignaciones(UsuarioRolService usuarioRolService,
+                                       UsuarioRolRepository usuarioRolRepository,
+                                       @Qualifier("diasGraciaAntesDesactivacion") Integer diasGracia) {
+        this.usuarioRolService = usuarioRolService;
+        this.usuarioRolRepository = usuarioRolRepository;
+        this.diasGracia = diasGracia;
+    }
+
+    /**
+     * Ejecución periódica del motor. El intervalo define la precisión de la desactivación.
+     */
+    @Scheduled(fixedDelayString = "${arkania.expiracion.intervalo-ms:30000}")
+    public synchronized void ejecutar() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        if (!horizonte.isAfter(ahora.plusMinutes(ventanaMinutos / 2))) {
+            cargarVencimientos(ahora);
+        }
+        desactivarVencidas(ahora);
+
+        if (!ahora.isBefore(proximosRecordatorios)) {
+            enviarRecordatorios(ahora);
+            proximosRecordatorios = ahora.plusMinutes(intervaloRecordatoriosMinutos);
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Carga en la cola los vencimientos hasta el final de la nueva ventana.
+     */
+    private void cargarVencimientos(LocalDateTime ahora) {
+        LocalDateTime finVentana = ahora.plusMinutes(ventanaMinutos);
+        List<Object[]> filas = usuarioRolRepository.findVencimientosHasta(
+                finVentana.minusDays(diasGracia), PageRequest.of(0, maxProgramados));
+
+        for (Object[] fila : filas) {
+            Long usuarioRolId = (Long) fila[0];
+            LocalDateTime desactivarEn = ((LocalDateTime) fila[1]).plusDays(diasGracia);
+            if (programados.add(usuarioRolId)) {
+                vencimientos.add(new Vencimiento(usuarioRolId, desactivarEn));
+            }
+        }
+        // Si la consulta se truncó, la cola solo cubre hasta el último vencimiento cargado
+        horizonte = filas.size() < maxProgramados
+                ? finVentana
+                : ((LocalDateTime) filas.get(filas.size() - 1)[1]).plusDays(diasGracia);
+    }
+
+    /**
+     * Extrae de la cola los vencimientos cumplidos y los desactiva por lotes.
+     */
+    private void desactivarVencidas(LocalDateTime ahora) {
+        List<Long> lote = new ArrayList<>(tamanoLote);
+        int desactivadas = 0;
+        int candidatas = 0;
+        while (!vencimientos.isEmpty() && !vencimientos.peek().desactivarEn().isAfter(ahora)) {
+            Vencimiento vencimiento = vencimientos.poll();
+            programados.remove(vencimiento.usuarioRolId());
+            lote.add(vencimiento.usuarioRolId());
+            candidatas++;
+            if (lote.size() == tamanoLote) {
+                desactivadas += desactivarLote(lote, ahora);
+                lote.clear();
+            }
+        }
+        desactivadas += desactivarLote(lote, ahora);
+
+        if (candidatas > 0) {
+            log.info("Expiración: {} asignaciones desactivadas de {} vencimientos revisados", desactivadas, candidatas);
+        }
+    }
+
+    private int desactivarLote(List<Long> lote, LocalDateTime ahora) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        try {
+            return usuarioRolService.expirarAsignaciones(List.copyOf(lote), ahora.minusDays(diasGracia));
+        } catch (RuntimeException e) {
+            // Las filas siguen activas y vencidas: la próxima carga de la ventana las recoge
+            log.warn("Expiración: fallo desactivando lote de {} asignaciones: {}", lote.size(), e.getMessage());
+            horizonte = LocalDateTime.MIN;
+            return 0;
+        }
+    }
+
+    private void enviarRecordatorios(LocalDateTime ahora) {
+        LocalDateTime limite = ahora.plusDays(diasAnticipacionRecordatorio);
+        int total = 0;
+        int enviados;
+        try {
+            do {
+                enviados = usuarioRolService.enviarRecordatoriosRenovacion(limite, tamanoLote);
+                total += enviados;
+            } while (enviados == tamanoLote);
+        } catch (RuntimeException e) {
+            log.warn("Expiración: fallo emitiendo recordatorios de renovación: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Expiración: {} recordatorios de renovación emitidos", total);
+        }
+    }
+
+    /**
+     * Vencimiento programado: la asignación se desactiva al cumplirse su expiración más la gracia.
+     */
+    private record Vencimiento(Long usuarioRolId, LocalDateTime desactivarEn) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.EventoDominioDTO;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener de eventos de dominio que genera las notificaciones a los residentes.
+ * 
+ * Recibe los eventos publicados por el relay del outbox, fuera de la transacción de la
+ * petición original. Mientras no exista un canal de envío (correo, push), la notificación
+ * se registra en el log de la aplicación.
+ */
+@Component
+public class NotificacionEventosListener {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificacionEventosListener.class);
+
+    @EventListener
+    public void alPublicarEvento(EventoDominioDTO evento) {
+        switch (evento.getTipoEvento()) {
+            case EventoDominioService.CORRESPONDENCIA_RECIBIDA ->
+                    log.info("Notificación: el residente {} tiene correspondencia nueva ({}) en portería",
+                            evento.getDatos().get("destinatarioId"), evento.getDatos().get("tipo"));
+            case EventoDominioService.CORRESPONDENCIA_RECIBIDA_LOTE ->
+                    log.info("Notificación: el residente {} tiene {} correspondencias nuevas en portería",
+                            evento.getAgregadoId(), evento.getDatos().get("cantidad"));
+            case EventoDominioService.CORRESPONDENCIA_ENTREGADA ->
+                    log.info("Notificación: la correspondencia {} del residente {} fue entregada",
+                            evento.getAgregadoId(), evento.getDatos().get("destinatarioId"));
+            case EventoDominioService.CORRESPONDENCIA_ENTREGADA_LOTE ->
+                    log.info("Notificación: {} correspondencias del apartamento {} fueron entregadas al usuario {}",
+                            evento.getDatos().get("cantidad"), evento.getAgregadoId(),
+                            evento.getDatos().get("retiradoPorId"));
+            case EventoDominioService.SOLICITUD_ACTUALIZADA ->
+                    log.info("Notificación: la solicitud {} del usuario {} cambió a estado {}",
+                            evento.getAgregadoId(), evento.getDatos().get("usuarioId"),
+                            evento.getDatos().get("estadoSolicitud"));
+            case EventoDominioService.ROL_PROXIMO_A_EXPIRAR ->
+                    log.info("Notificación: el rol {} del usuario {} vence el {}; debe renovarse",
+                            evento.getDatos().get("rolNombre"), evento.getAgregadoId(),
+                            evento.getDatos().get("fechaExpiracion"));
+            case EventoDominioService.ROL_EXPIRADO ->
+                    log.info("Notificación: el rol {} del usuario {} expiró y fue desactivado",
+                            evento.getDatos().get("rolNombre"), evento.getAgregadoId());
+            default -> {
+                // Los demás eventos no generan notificación
+            }
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.exe.ConjuntoResidencialArkania.Impl;
 import com.exe.ConjuntoResidencialArkania.DTO.ParqueaderoDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.ParqueaderoEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
 import com.exe.ConjuntoResidencialArkania.Repository.ParqueaderoRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
 import com.exe.ConjuntoResidencialArkania.Service.ParqueaderoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,7 @@ public class ParqueaderoServiceImpl implements ParqueaderoService {
 
     private final ParqueaderoRepository parqueaderoRepository;
     private final UserRepository userRepository;
+    private final CacheRespuestasService cacheRespuestasService;
 
     @Override
     public List<ParqueaderoDTO> obtenerTodos() {
@@ -37,6 +40,7 @@ public class ParqueaderoServiceImpl implements ParqueaderoService {
     public ParqueaderoDTO crear(ParqueaderoDTO parqueaderoDTO) {
         ParqueaderoEntity entity = convertirAEntity(parqueaderoDTO);
         ParqueaderoEntity guardado = parqueaderoRepository.save(entity);
+        cacheRespuestasService.invalidar(CacheRespuestasService.PARQUEADEROS);
         return convertirADTO(guardado);
     }
 
@@ -44,6 +48,7 @@ public class ParqueaderoServiceImpl implements ParqueaderoService {
     public ParqueaderoDTO actualizar(Long id, ParqueaderoDTO parqueaderoDTO) {
         ParqueaderoEntity entity = parqueaderoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Parqueadero no encontrado"));
+        ConflictoVersionException.verificar("Parqueadero", id, entity.getVersion(), parqueaderoDTO.getVersion());
 
         entity.setTipoRol(ParqueaderoEntity.TipoRolParqueadero.valueOf(parqueaderoDTO.getTipoRol()));
         entity.setNumero(parqueaderoDTO.getNumero());
@@ -56,12 +61,14 @@ public class ParqueaderoServiceImpl implements ParqueaderoService {
         }
 
         ParqueaderoEntity actualizado = parqueaderoRepository.save(entity);
+        cacheRespuestasService.invalidar(CacheRespuestasService.PARQUEADEROS);
         return convertirADTO(actualizado);
     }
 
     @Override
     public void eliminar(Long id) {
         parqueaderoRepository.deleteById(id);
+        cacheRespuestasService.invalidar(CacheRespuestasService.PARQUEADEROS);
     }
 
     private ParqueaderoDTO convertirADTO(ParqueaderoEntity entity) {
@@ -70,7 +77,8 @@ public class ParqueaderoServiceImpl implements ParqueaderoService {
                 entity.getTipoRol().toString(),
                 entity.getNumero(),
                 entity.getUsuario() != null ? entity.getUsuario().getUsuarioId() : null,
-                entity.getEstado().toString()
+                entity.getEstado().toString(),
+                entity.getVersion()
         );
     }
 
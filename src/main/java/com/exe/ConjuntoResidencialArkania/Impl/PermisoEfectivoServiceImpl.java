@@ -0,0 +1,328 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Config.RuteadorFuenteDatos;
+import com.exe.ConjuntoResidencialArkania.DTO.PermisosUsuarioDTO;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación de la caché de permisos efectivos.
+ *
+ * La invalidación es por sellos de versión persistidos: usuarios.version_permisos para los
+ * cambios de un usuario o sus asignaciones y roles.version_permisos para los de un rol, que
+ * escriben una sola fila aunque el rol tenga miles de usuarios. Los sellos sobreviven a los
+ * reinicios y los comparten todas las instancias.
+ *
+ * Cada instancia guarda en memoria los sellos de todos los roles y los de los usuarios que
+ * cambiaron durante la vigencia de un token (más el margen de sincronización): un cambio más
+ * antiguo no puede ser posterior a ningún token sin expirar. Se cargan al iniciar, se
+ * actualizan al confirmarse los cambios de esta instancia y cada pocos segundos con los de
+ * las demás. Con ellos versionesVigentes compara los sellos de un token sin acceder a la base
+ * de datos, y la caché de permisos descarta las entradas calculadas con un sello anterior.
+ * Una entrada calculada mientras se invalidaba su usuario no se guarda, para no fijar datos
+ * leídos antes de un cambio ya confirmado.
+ */
+@Service
+public class PermisoEfectivoServiceImpl implements PermisoEfectivoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PermisoEfectivoServiceImpl.class);
+
+    private static final VersionesPermisos SIN_VERSIONES = new VersionesPermisos(0L, Map.of());
+
+    private final UsuarioRolRepository usuarioRolRepository;
+    private final UserRepository userRepository;
+    private final RolRepository rolRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxUsuarios;
+    private final long margenSincronizacionMs;
+    /** Antigüedad máxima de un sello de usuario que todavía puede invalidar un token. */
+    private final long ventanaSellosMs;
+
+    private final ConcurrentHashMap<Long, PermisosEnCache> cache = new ConcurrentHashMap<>();
+
+    /** Sello de cada rol. */
+    private final ConcurrentHashMap<Long, Long> versionesRoles = new ConcurrentHashMap<>();
+
+    /** Sello de los usuarios que cambiaron dentro de la ventana; los demás no invalidan tokens. */
+    private final ConcurrentHashMap<Long, Long> versionesUsuarios = new ConcurrentHashMap<>();
+
+    /** Se incrementa en cada invalidación local o sincronizada. */
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    /** Último sello usado por esta instancia: dos cambios en el mismo milisegundo avanzan igual. */
+    private final AtomicLong ultimoSello = new AtomicLong();
+
+    /** Instante de la última lectura de sellos, en milisegundos de época. */
+    private volatile long ultimaSincronizacion = System.currentTimeMillis();
+
+    @Autowired
+    public PermisoEfectivoServiceImpl(UsuarioRolRepository usuarioRolRepository,
+                                      UserRepository userRepository,
+                                      RolRepository rolRepository,
+                                      ObjectMapper objectMapper,
+                                      Duration duracionToken,
+                                      @Value("${arkania.permisos.max-usuarios-cache:10000}") int maxUsuarios,
+                                      @Value("${arkania.permisos.margen-sincronizacion-segundos:60}") long margenSincronizacionSegundos) {
+        this.usuarioRolRepository = usuarioRolRepository;
+        this.userRepository = userRepository;
+        this.rolRepository = rolRepository;
+        this.objectMapper = objectMapper;
+        this.maxUsuarios = maxUsuarios;
+        this.margenSincronizacionMs = margenSincronizacionSegundos * 1000;
+        this.ventanaSellosMs = duracionToken.toMillis() + margenSincronizacionMs;
+    }
+
+    // ========================================
+    // CONSULTAS
+    // ========================================
+
+    @Override
+    public boolean tienePermiso(Long usuarioId, String permiso) {
+        Set<String> permisos = obtenerPermisos(usuarioId);
+        return permisos.contains(permiso) || permisos.contains(TODOS_LOS_PERMISOS);
+    }
+
+    @Override
+    public Set<String> obtenerPermisos(Long usuarioId) {
+        PermisosEnCache permisos = obtener(usuarioId);
+        return permisos != null ? permisos.permisos() : Set.of();
+    }
+
+    @Override
+    public PermisosUsuarioDTO obtenerPermisosUsuario(Long usuarioId) {
+        PermisosEnCache enCache = obtener(usuarioId);
+        if (enCache == null) {
+            return new PermisosUsuarioDTO(usuarioId, List.of(), 0L);
+        }
+        List<String> permisos = new ArrayList<>(enCache.permisos());
+        Collections.sort(permisos);
+        return new PermisosUsuarioDTO(usuarioId, permisos, enCache.versiones().efectiva());
+    }
+
+    @Override
+    public long obtenerVersion(Long usuarioId) {
+        return obtenerVersiones(usuarioId).efectiva();
+    }
+
+    @Override
+    public VersionesPermisos obtenerVersiones(Long usuarioId) {
+        PermisosEnCache permisos = obtener(usuarioId);
+        return permisos != null ? permisos.versiones() : SIN_VERSIONES;
+    }
+
+    @Override
+    public boolean versionesVigentes(Long usuarioId, VersionesPermisos versiones) {
+        Long usuario = versionesUsuarios.get(usuarioId);
+        if (usuario != null && usuario > versiones.usuario()) {
+            return false;
+        }
+        for (Map.Entry<Long, Long> rol : versiones.roles().entrySet()) {
+            // Un rol sin sello en memoria es nuevo y aún no se sincronizó: el sello recibido es el último
+            Long actual = versionesRoles.get(rol.getKey());
+            if (actual != null && actual > rol.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========================================
+    // INVALIDACIÓN
+    // ========================================
+
+    @Override
+    public void invalidarUsuario(Long usuarioId) {
+        invalidarUsuarios(List.of(usuarioId));
+    }
+
+    @Override
+    public void invalidarUsuarios(Collection<Long> usuariosIds) {
+        userRepository.sellarVersionPermisos(usuariosIds, nuevoSello());
+        // El sello que quedó: el nuevo, o el anterior más uno si ya era mayor
+        List<Object[]> sellos = userRepository.findVersionesPermisos(usuariosIds);
+        alFinalizar(() -> sellos.forEach(fila -> versionesUsuarios.merge((Long) fila[0], (Long) fila[1], Math::max)),
+                () -> {
+                    invalidaciones.incrementAndGet();
+                    cache.keySet().removeAll(usuariosIds);
+                });
+    }
+
+    @Override
+    public void invalidarRol(Long rolId) {
+        rolRepository.sellarVersionPermisos(rolId, nuevoSello());
+        Optional<Long> sello = rolRepository.findVersionPermisos(rolId);
+        // Las entradas con el sello anterior se descartan al leerlas; las del rol se quitan
+        // también si se revierte, por si esta transacción calculó permisos con sus cambios
+        alFinalizar(() -> sello.ifPresent(version -> versionesRoles.merge(rolId, version, Math::max)),
+                () -> cache.values().removeIf(enCache -> enCache.versiones().roles().containsKey(rolId)));
+    }
+
+    /**
+     * Carga los sellos de todos los roles y los de los usuarios que cambiaron dentro de la ventana.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarVersiones() {
+        long ahora = System.currentTimeMillis();
+        RuteadorFuenteDatos.enPrimaria(() -> rolRepository.findVersionesPermisosDesde(-1L))
+                .forEach(fila -> versionesRoles.merge((Long) fila[0], (Long) fila[1], Math::max));
+        RuteadorFuenteDatos.enPrimaria(() -> userRepository.findVersionesPermisosDesde(ahora - ventanaSellosMs))
+                .forEach(fila -> versionesUsuarios.merge((Long) fila[0], (Long) fila[1], Math::max));
+        ultimaSincronizacion = ahora;
+        log.info("Permisos: sellos de {} roles y {} usuarios en memoria", versionesRoles.size(), versionesUsuarios.size());
+    }
+
+    /**
+     * Lee los sellos de usuarios y roles avanzados en otras instancias y descarta los permisos
+     * en caché de esos usuarios. La lectura se solapa con la anterior en
+     * margen-sincronizacion-segundos: el sello se fija antes de confirmar, así que una
+     * transacción larga puede hacerlo visible con un valor anterior a la última lectura.
+     */
+    @Scheduled(fixedDelayString = "${arkania.permisos.intervalo-sincronizacion-ms:15000}")
+    public void sincronizarVersiones() {
+        long ahora = System.currentTimeMillis();
+        long desde = ultimaSincronizacion - margenSincronizacionMs;
+        List<Object[]> usuarios = RuteadorFuenteDatos.enPrimaria(() -> userRepository.findVersionesPermisosDesde(desde));
+        List<Object[]> roles = RuteadorFuenteDatos.enPrimaria(() -> rolRepository.findVersionesPermisosDesde(desde));
+
+        int descartados = 0;
+        for (Object[] fila : usuarios) {
+            versionesUsuarios.merge((Long) fila[0], (Long) fila[1], Math::max);
+            PermisosEnCache enCache = cache.get((Long) fila[0]);
+            if (enCache != null && enCache.versiones().usuario() < (Long) fila[1]) {
+                invalidaciones.incrementAndGet();
+                cache.remove((Long) fila[0], enCache);
+                descartados++;
+            }
+        }
+        roles.forEach(fila -> versionesRoles.merge((Long) fila[0], (Long) fila[1], Math::max));
+        versionesUsuarios.values().removeIf(sello -> sello < ahora - ventanaSellosMs);
+        ultimaSincronizacion = ahora;
+        if (descartados > 0 || !roles.isEmpty()) {
+            log.debug("Permisos: {} usuarios y {} roles con permisos cambiados en otra instancia",
+                    descartados, roles.size());
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Permisos y versiones de un usuario, de la caché si sus sellos siguen vigentes, o
+     * calculados y guardados en ella.
+     *
+     * @return Permisos en caché, o null si el usuario no existe (no se guarda en caché)
+     */
+    private PermisosEnCache obtener(Long usuarioId) {
+        PermisosEnCache enCache = cache.get(usuarioId);
+        if (enCache != null && versionesVigentes(usuarioId, enCache.versiones())) {
+            return enCache;
+        }
+
+        long invalidacionesAntes = invalidaciones.get();
+        // Lo que se guarda en caché se lee de la primaria: la réplica puede no tener aún la última escritura
+        PermisosEnCache calculado = RuteadorFuenteDatos.enPrimaria(() -> calcularPermisos(usuarioId));
+        if (calculado != null && invalidaciones.get() == invalidacionesAntes) {
+            if (cache.size() >= maxUsuarios && !cache.containsKey(usuarioId)) {
+                // Sin política de reemplazo: al llenarse se vacía y se vuelve a poblar con los usuarios activos
+                log.info("Permisos: caché llena ({} usuarios), se vacía", cache.size());
+                cache.clear();
+            }
+            cache.put(usuarioId, calculado);
+        }
+        return calculado;
+    }
+
+    /**
+     * Une los permisos de los roles activos del usuario. El sello del usuario se lee antes que
+     * sus roles: si un cambio se confirma entre ambas lecturas, la entrada queda con el sello
+     * anterior y se descarta. El sello de cada rol se lee en la misma fila que sus permisos.
+     *
+     * @return Permisos con sus sellos, o null si el usuario no existe
+     */
+    private PermisosEnCache calcularPermisos(Long usuarioId) {
+        Optional<Long> version = userRepository.findVersionPermisos(usuarioId);
+        if (version.isEmpty()) {
+            return null;
+        }
+        Set<String> permisos = new HashSet<>();
+        Map<Long, Long> roles = new HashMap<>();
+        for (Object[] rol : usuarioRolRepository.findRolesAsignadosPorUsuario(usuarioId)) {
+            roles.put((Long) rol[0], (Long) rol[1]);
+            if (Boolean.TRUE.equals(rol[2])) {
+                permisos.addAll(convertirJsonAPermisos((String) rol[3]));
+            }
+        }
+        return new PermisosEnCache(Set.copyOf(permisos), new VersionesPermisos(version.get(), Map.copyOf(roles)));
+    }
+
+    private List<String> convertirJsonAPermisos(String permisosJson) {
+        if (permisosJson == null || permisosJson.trim().isEmpty()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(permisosJson, new TypeReference<List<String>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Permisos: JSON de permisos inválido ignorado: {}", permisosJson);
+            return List.of();
+        }
+    }
+
+    /**
+     * Sello para un cambio: los milisegundos actuales, o el último sello de esta instancia más
+     * uno si ya los alcanzó.
+     */
+    private long nuevoSello() {
+        return ultimoSello.updateAndGet(anterior -> Math.max(System.currentTimeMillis(), anterior + 1));
+    }
+
+    /**
+     * Ejecuta las acciones al terminar la transacción actual, o de inmediato si no hay una. La
+     * primera solo si se confirma: publica sellos que existen en la base de datos. La segunda
+     * también si se revierte: la propia transacción pudo haber guardado en caché permisos
+     * calculados con sus cambios sin confirmar.
+     */
+    private void alFinalizar(Runnable alConfirmar, Runnable siempre) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        alConfirmar.run();
+                    }
+                    siempre.run();
+                }
+            });
+        } else {
+            alConfirmar.run();
+            siempre.run();
+        }
+    }
+
+    /**
+     * Permisos calculados con los sellos vigentes al momento de calcularlos.
+     */
+    private record PermisosEnCache(Set<String> permisos, VersionesPermisos versiones) {
+    }
+}
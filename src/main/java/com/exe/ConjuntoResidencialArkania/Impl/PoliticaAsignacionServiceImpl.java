@@ -0,0 +1,484 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Config.RuteadorFuenteDatos;
+import com.exe.ConjuntoResidencialArkania.DTO.ContadorRolDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.EvaluacionAsignacionDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.PoliticaAsignacionService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación del motor de políticas de asignación de roles.
+ *
+ * Al iniciar, compila las reglas de UsuarioRolConfig: a cada rol que aparece en una
+ * exclusión o un prerequisito se le asigna un bit, y para cada uno se precalcula la máscara
+ * de roles excluyentes (la relación se vuelve simétrica) y la de roles prerequisito (basta
+ * tener uno). Con la máscara de roles activos de un usuario, cada regla se evalúa con un AND.
+ *
+ * Los límites por rol se controlan con contadores en memoria de asignaciones activas
+ * (confirmadas más reservadas por transacciones en curso). Cada contador tiene su propio
+ * candado: reservar cupo compara contra el límite e incrementa en un solo paso, así que dos
+ * transacciones concurrentes nunca ocupan el mismo último cupo. Los contadores se
+ * inicializan desde la base de datos y se resincronizan periódicamente para corregir
+ * cambios hechos fuera de la aplicación (ver ContadorRol sobre las altas confirmadas
+ * durante la resincronización). Como el relay del outbox, asume una sola instancia activa.
+ */
+@Service
+public class PoliticaAsignacionServiceImpl implements PoliticaAsignacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PoliticaAsignacionServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final RolRepository rolRepository;
+    private final UsuarioRolRepository usuarioRolRepository;
+    private final Map<String, Integer> limiteUsuariosPorRol;
+
+    // Grafo compilado de exclusiones y prerequisitos
+    private final Map<String, Integer> bitPorRol = new HashMap<>();
+    private final String[] rolPorBit;
+    private final long[] excluyentes;
+    private final long[] prerequisitos;
+
+    private final ConcurrentHashMap<String, ContadorRol> contadores = new ConcurrentHashMap<>();
+
+    /** Los contadores creados mientras se resincroniza acumulan sus altas desde su creación. */
+    private volatile boolean resincronizando;
+
+    @Autowired
+    public PoliticaAsignacionServiceImpl(UserRepository userRepository,
+                                         RolRepository rolRepository,
+                                         UsuarioRolRepository usuarioRolRepository,
+                                         @Qualifier("limiteUsuariosPorRol") Map<String, Integer> limiteUsuariosPorRol,
+                                         @Qualifier("rolesExcluyentes") Map<String, List<String>> rolesExcluyentes,
+                                         @Qualifier("rolesPrerequisitos") Map<String, List<String>> rolesPrerequisitos) {
+        this.userRepository = userRepository;
+        this.rolRepository = rolRepository;
+        this.usuarioRolRepository = usuarioRolRepository;
+        this.limiteUsuariosPorRol = Map.copyOf(limiteUsuariosPorRol);
+
+        Set<String> rolesConReglas = new TreeSet<>();
+        rolesExcluyentes.forEach((rol, otros) -> { rolesConReglas.add(rol); rolesConReglas.addAll(otros); });
+        rolesPrerequisitos.forEach((rol, otros) -> { rolesConReglas.add(rol); rolesConReglas.addAll(otros); });
+        if (rolesConReglas.size() > Long.SIZE) {
+            throw new IllegalStateException("El motor de políticas admite hasta " + Long.SIZE + " roles con reglas");
+        }
+        this.rolPorBit = rolesConReglas.toArray(new String[0]);
+        for (int i = 0; i < rolPorBit.length; i++) {
+            bitPorRol.put(rolPorBit[i], i);
+        }
+
+        this.excluyentes = new long[rolPorBit.length];
+        rolesExcluyentes.forEach((rol, otros) -> {
+            for (String otro : otros) {
+                excluyentes[bitPorRol.get(rol)] |= mascara(otro);
+                excluyentes[bitPorRol.get(otro)] |= mascara(rol);
+            }
+        });
+        this.prerequisitos = new long[rolPorBit.length];
+        rolesPrerequisitos.forEach((rol, otros) -> {
+            for (String otro : otros) {
+                prerequisitos[bitPorRol.get(rol)] |= mascara(otro);
+            }
+        });
+    }
+
+    // ========================================
+    // EVALUACIÓN
+    // ========================================
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EvaluacionAsignacionDTO> evaluar(List<EvaluacionAsignacionDTO> candidatas) {
+        return evaluarLote(candidatas, false);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<EvaluacionAsignacionDTO> evaluarYReservar(List<EvaluacionAsignacionDTO> candidatas) {
+        return evaluarLote(candidatas, true);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void validarYReservar(Long usuarioId, Long rolId) {
+        EvaluacionAsignacionDTO candidata = new EvaluacionAsignacionDTO(usuarioId, rolId, false, new ArrayList<>());
+        EvaluacionAsignacionDTO resultado = evaluarLote(List.of(candidata), true).get(0);
+        if (!resultado.isPermitida()) {
+            throw new RuntimeException("No se puede asignar el rol ID: " + rolId + " al usuario ID: " + usuarioId
+                    + ": " + String.join("; ", resultado.getViolaciones()));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<EvaluacionAsignacionDTO> evaluarYReservarAltasNuevas(List<Long> rolesIds) {
+        Map<Long, RolEntity> roles = rolRepository.findAllById(new HashSet<>(rolesIds)).stream()
+                .collect(Collectors.toMap(RolEntity::getRolId, Function.identity()));
+
+        List<ContadorRol> reservados = new ArrayList<>();
+        List<EvaluacionAsignacionDTO> resultados = new ArrayList<>(rolesIds.size());
+        for (Long rolId : rolesIds) {
+            List<String> violaciones = new ArrayList<>();
+            RolEntity rol = roles.get(rolId);
+            if (rol == null) {
+                violaciones.add("Rol no encontrado con ID: " + rolId);
+            } else if (!Boolean.TRUE.equals(rol.getActivo())) {
+                violaciones.add("El rol " + rol.getNombre() + " está inactivo");
+            } else {
+                // Un usuario nuevo no tiene otros roles: ninguna exclusión aplica y ningún prerequisito se cumple
+                String nombre = rol.getNombre();
+                Integer bit = bitPorRol.get(nombre);
+                if (bit != null && prerequisitos[bit] != 0) {
+                    violaciones.add("El rol " + nombre + " requiere alguno de: " + nombresDe(prerequisitos[bit]));
+                } else if (!reservarCupo(nombre, reservados)) {
+                    violaciones.add(mensajeLimite(nombre));
+                }
+            }
+            resultados.add(new EvaluacionAsignacionDTO(null, rolId, violaciones.isEmpty(), violaciones));
+        }
+        finalizarReservasAlCompletar(reservados);
+        return resultados;
+    }
+
+    // ========================================
+    // CONTADORES
+    // ========================================
+
+    @Override
+    public void liberarCupo(String nombreRol) {
+        alConfirmar(() -> contador(nombreRol).liberar());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        resincronizarContadores();
+    }
+
+    /**
+     * Resincronización periódica con la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${arkania.politica.intervalo-resincronizacion-ms:300000}",
+               initialDelayString = "${arkania.politica.intervalo-resincronizacion-ms:300000}")
+    public void resincronizarPeriodicamente() {
+        resincronizarContadores();
+    }
+
+    @Override
+    public synchronized void resincronizarContadores() {
+        // Las altas confirmadas desde aquí se vuelven a sumar al aplicar el conteo
+        synchronized (contadores) {
+            resincronizando = true;
+            contadores.values().forEach(ContadorRol::iniciarResincronizacion);
+        }
+
+        try {
+            // La réplica puede no tener aún las últimas asignaciones
+            Map<String, Integer> activosPorRol = RuteadorFuenteDatos.enPrimaria(() -> {
+                Map<String, Integer> activos = new HashMap<>();
+                for (Object[] fila : usuarioRolRepository.getEstadisticasAsignaciones()) {
+                    activos.put((String) fila[0], ((Number) fila[1]).intValue());
+                }
+                return activos;
+            });
+            Set<String> roles = new HashSet<>(activosPorRol.keySet());
+            roles.addAll(contadores.keySet());
+            for (String rol : roles) {
+                int[] cambio = contador(rol).aplicarResincronizacion(activosPorRol.getOrDefault(rol, 0));
+                if (cambio[0] != cambio[1]) {
+                    log.info("Políticas: contador de {} corregido de {} a {}", rol, cambio[0], cambio[1]);
+                }
+            }
+        } finally {
+            resincronizando = false;
+        }
+    }
+
+    @Override
+    public List<ContadorRolDTO> obtenerContadores() {
+        return contadores.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getValue().aDTO(e.getKey(), limiteUsuariosPorRol.get(e.getKey())))
+                .collect(Collectors.toList());
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Evalúa todas las reglas de un lote contra una instantánea cargada con tres consultas
+     * (usuarios, roles y roles activos de esos usuarios), sin importar el tamaño del lote.
+     */
+    private List<EvaluacionAsignacionDTO> evaluarLote(List<EvaluacionAsignacionDTO> candidatas, boolean reservar) {
+        Set<Long> usuariosIds = candidatas.stream().map(EvaluacionAsignacionDTO::getUsuarioId)
+                .filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        Set<Long> rolesIds = candidatas.stream().map(EvaluacionAsignacionDTO::getRolId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+
+        List<UserEntity> listaUsuarios = usuariosIds.isEmpty() ? List.of()
+                : reservar ? userRepository.findAndLockByUsuarioIdIn(usuariosIds) : userRepository.findAllById(usuariosIds);
+        Map<Long, UserEntity> usuarios = listaUsuarios.stream()
+                .collect(Collectors.toMap(UserEntity::getUsuarioId, Function.identity()));
+        Map<Long, RolEntity> roles = rolRepository.findAllById(rolesIds).stream()
+                .collect(Collectors.toMap(RolEntity::getRolId, Function.identity()));
+
+        // Estado actual de cada usuario: roles activos y su máscara
+        Map<Long, EstadoUsuario> estados = new HashMap<>();
+        if (!usuarios.isEmpty()) {
+            for (Object[] fila : usuarioRolRepository.findRolesActivosPorUsuarios(usuarios.keySet())) {
+                EstadoUsuario estado = estados.computeIfAbsent((Long) fila[0], id -> new EstadoUsuario());
+                estado.rolesActivos.add((Long) fila[1]);
+                estado.mascara |= mascara((String) fila[2]);
+            }
+        }
+        // Roles pedidos en el lote para cada usuario: un prerequisito se puede cumplir en el mismo lote
+        Map<Long, Long> mascarasLote = new HashMap<>();
+        for (EvaluacionAsignacionDTO candidata : candidatas) {
+            RolEntity rol = roles.get(candidata.getRolId());
+            if (candidata.getUsuarioId() != null && rol != null) {
+                mascarasLote.merge(candidata.getUsuarioId(), mascara(rol.getNombre()), (a, b) -> a | b);
+            }
+        }
+
+        List<ContadorRol> reservados = new ArrayList<>();
+        Map<String, Integer> simulados = new HashMap<>();
+        List<EvaluacionAsignacionDTO> resultados = new ArrayList<>(candidatas.size());
+
+        for (EvaluacionAsignacionDTO candidata : candidatas) {
+            List<String> violaciones = new ArrayList<>();
+            UserEntity usuario = usuarios.get(candidata.getUsuarioId());
+            RolEntity rol = roles.get(candidata.getRolId());
+
+            if (usuario == null) {
+                violaciones.add("Usuario no encontrado con ID: " + candidata.getUsuarioId());
+            } else if (!Boolean.TRUE.equals(usuario.getActivo())) {
+                violaciones.add("El usuario " + usuario.getUsuarioId() + " está inactivo");
+            }
+            if (rol == null) {
+                violaciones.add("Rol no encontrado con ID: " + candidata.getRolId());
+            } else if (!Boolean.TRUE.equals(rol.getActivo())) {
+                violaciones.add("El rol " + rol.getNombre() + " está inactivo");
+            }
+
+            if (usuario != null && rol != null) {
+                String nombre = rol.getNombre();
+                EstadoUsuario estado = estados.computeIfAbsent(usuario.getUsuarioId(), id -> new EstadoUsuario());
+                if (estado.rolesActivos.contains(rol.getRolId())) {
+                    violaciones.add("El usuario ya tiene el rol " + nombre + " activo");
+                }
+
+                Integer bit = bitPorRol.get(nombre);
+                if (bit != null) {
+                    long conflictos = excluyentes[bit] & estado.mascara;
+                    if (conflictos != 0) {
+                        violaciones.add("El rol " + nombre + " es excluyente con " + nombresDe(conflictos));
+                    }
+                    long requeridos = prerequisitos[bit];
+                    long disponibles = estado.mascara | mascarasLote.getOrDefault(usuario.getUsuarioId(), 0L);
+                    if (requeridos != 0 && (requeridos & disponibles) == 0) {
+                        violaciones.add("El rol " + nombre + " requiere alguno de: " + nombresDe(requeridos));
+                    }
+                }
+
+                if (violaciones.isEmpty()) {
+                    boolean hayCupo;
+                    if (reservar) {
+                        hayCupo = reservarCupo(nombre, reservados);
+                    } else {
+                        Integer limite = limiteUsuariosPorRol.get(nombre);
+                        int ocupados = contador(nombre).ocupados() + simulados.getOrDefault(nombre, 0);
+                        hayCupo = limite == null || ocupados < limite;
+                        if (hayCupo) {
+                            simulados.merge(nombre, 1, Integer::sum);
+                        }
+                    }
+                    if (!hayCupo) {
+                        violaciones.add(mensajeLimite(nombre));
+                    }
+                }
+
+                if (violaciones.isEmpty()) {
+                    // Las siguientes candidatas del lote ven esta asignación como hecha
+                    estado.rolesActivos.add(rol.getRolId());
+                    estado.mascara |= mascara(nombre);
+                }
+            }
+            resultados.add(new EvaluacionAsignacionDTO(candidata.getUsuarioId(), candidata.getRolId(),
+                    violaciones.isEmpty(), violaciones));
+        }
+
+        finalizarReservasAlCompletar(reservados);
+        return resultados;
+    }
+
+    /**
+     * Reserva un cupo del rol si no alcanzó su límite y lo agrega a las reservas de la evaluación.
+     */
+    private boolean reservarCupo(String nombreRol, List<ContadorRol> reservados) {
+        ContadorRol contador = contador(nombreRol);
+        if (!contador.reservar(limiteUsuariosPorRol.get(nombreRol))) {
+            return false;
+        }
+        reservados.add(contador);
+        return true;
+    }
+
+    /**
+     * Confirma o libera las reservas de una evaluación al terminar la transacción actual.
+     */
+    private void finalizarReservasAlCompletar(List<ContadorRol> reservados) {
+        if (!reservados.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reservados.forEach(contador -> contador.finalizarReserva(status == STATUS_COMMITTED));
+                }
+            });
+        }
+    }
+
+    private String mensajeLimite(String nombreRol) {
+        return "Se alcanzó el límite de " + limiteUsuariosPorRol.get(nombreRol) + " usuarios para el rol " + nombreRol;
+    }
+
+    private long mascara(String nombreRol) {
+        Integer bit = bitPorRol.get(nombreRol);
+        return bit == null ? 0L : 1L << bit;
+    }
+
+    private String nombresDe(long mascara) {
+        StringJoiner nombres = new StringJoiner(", ");
+        for (long resto = mascara; resto != 0; resto &= resto - 1) {
+            nombres.add(rolPorBit[Long.numberOfTrailingZeros(resto)]);
+        }
+        return nombres.toString();
+    }
+
+    private ContadorRol contador(String nombreRol) {
+        ContadorRol contador = contadores.get(nombreRol);
+        if (contador != null) {
+            return contador;
+        }
+        // Con el mismo candado que el inicio de la resincronización: ningún contador nuevo queda sin iniciarla
+        synchronized (contadores) {
+            return contadores.computeIfAbsent(nombreRol, rol -> new ContadorRol(resincronizando));
+        }
+    }
+
+    /**
+     * Ejecuta la acción al confirmarse la transacción actual, o de inmediato si no hay una.
+     */
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Roles activos de un usuario dentro de una evaluación.
+     */
+    private static final class EstadoUsuario {
+        private final Set<Long> rolesActivos = new HashSet<>();
+        private long mascara;
+    }
+
+    /**
+     * Contador de asignaciones activas de un rol. ocupados incluye las reservas pendientes.
+     *
+     * Todas las operaciones toman el candado del contador, así que una reserva nunca se
+     * intercala con la aplicación de una resincronización. El conteo de la base de datos se
+     * lee sin el candado; las altas confirmadas entre iniciarResincronizacion y
+     * aplicarResincronizacion se acumulan y se suman al conteo, porque pudieron confirmarse
+     * después de leerlo. Una alta confirmada justo antes de leerlo queda contada dos veces
+     * hasta la siguiente resincronización: el error siempre es hacia arriba, de modo que un
+     * rol nunca supera su límite. Por lo mismo, las bajas durante la resincronización no se
+     * descuentan del conteo leído.
+     */
+    private static final class ContadorRol {
+        private int ocupados;
+        private int pendientes;
+        private boolean resincronizando;
+        private int altasDuranteResincronizacion;
+
+        ContadorRol(boolean resincronizando) {
+            this.resincronizando = resincronizando;
+        }
+
+        synchronized boolean reservar(Integer limite) {
+            if (limite != null && ocupados >= limite) {
+                return false;
+            }
+            ocupados++;
+            pendientes++;
+            return true;
+        }
+
+        synchronized void finalizarReserva(boolean confirmada) {
+            pendientes--;
+            if (!confirmada) {
+                liberar();
+            } else if (resincronizando) {
+                altasDuranteResincronizacion++;
+            }
+        }
+
+        synchronized void liberar() {
+            ocupados = Math.max(0, ocupados - 1);
+        }
+
+        synchronized int ocupados() {
+            return ocupados;
+        }
+
+        synchronized void iniciarResincronizacion() {
+            resincronizando = true;
+            altasDuranteResincronizacion = 0;
+        }
+
+        /**
+         * Fija ocupados desde el conteo confirmado en la base de datos.
+         *
+         * @return Valor anterior y nuevo
+         */
+        synchronized int[] aplicarResincronizacion(int activosEnBaseDeDatos) {
+            int anterior = ocupados;
+            // Las reservas en curso aún no están en la base de datos
+            ocupados = activosEnBaseDeDatos + pendientes + altasDuranteResincronizacion;
+            resincronizando = false;
+            altasDuranteResincronizacion = 0;
+            return new int[] {anterior, ocupados};
+        }
+
+        synchronized ContadorRolDTO aDTO(String nombreRol, Integer limite) {
+            return new ContadorRolDTO(nombreRol, ocupados, pendientes, limite);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Nombres de las restricciones únicas y lectura de la restricción violada.
+ *
+ * Las altas no consultan antes si el dato ya existe: insertan y, si la base de datos
+ * rechaza la fila, traducen la restricción violada a la excepción de dominio. Así cuestan
+ * un solo viaje y siguen siendo correctas con altas simultáneas, que una consulta previa
+ * no puede evitar.
+ *
+ * Hibernate extrae el nombre del mensaje de cada motor; MySQL lo antepone con la tabla
+ * (usuarios.uk_usuarios_email), por eso se compara el final del nombre.
+ */
+final class RestriccionesUnicas {
+
+    static final String USUARIOS_NUMERO_DOCUMENTO = "uk_usuarios_numero_documento";
+    static final String USUARIOS_EMAIL = "uk_usuarios_email";
+    static final String ROLES_NOMBRE = "uk_roles_nombre";
+    static final String USUARIO_ROL = "uk_usuario_rol_usuario_rol";
+
+    private RestriccionesUnicas() {
+    }
+
+    /**
+     * Indica si la excepción se debe a la restricción indicada.
+     */
+    static boolean esViolacion(DataIntegrityViolationException e, String restriccion) {
+        String nombre = restriccionViolada(e);
+        return nombre != null && (nombre.equals(restriccion) || nombre.endsWith("." + restriccion));
+    }
+
+    private static String restriccionViolada(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion && violacion.getConstraintName() != null) {
+                return violacion.getConstraintName().toLowerCase();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,242 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ReporteDiarioDTO;
+import com.exe.ConjuntoResidencialArkania.Repository.ResumenDiarioRepository;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación de los resúmenes diarios.
+ *
+ * Los días pendientes se guardan en la tabla resumen_diario_pendiente, en la transacción de la
+ * escritura que los cambió: una escritura confirmada siempre deja su marca, aunque la instancia
+ * se detenga antes del siguiente recálculo, y la recalcula cualquier instancia. Cada ejecución
+ * lee las marcas, recalcula cada día en su propia transacción y quita solo las marcas leídas;
+ * una escritura confirmada durante el recálculo deja otra marca para la siguiente ejecución. Si
+ * el recálculo falla (por ejemplo, otra instancia recalculaba el mismo día), sus marcas quedan.
+ */
+@Service
+public class ResumenDiarioServiceImpl implements ResumenDiarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenDiarioServiceImpl.class);
+
+    private final ResumenDiarioRepository resumenDiarioRepository;
+    private final ArchivoService archivoService;
+    private final TransactionTemplate transaccionNueva;
+    private final EjecutorTareasLargas ejecutorTareasLargas;
+
+    /** Se verifica al iniciar y cada intervalo hasta que existan las dos tablas. */
+    private volatile boolean tablaDisponible;
+
+    @Value("${arkania.resumen.marcas-por-ejecucion:5000}")
+    private int marcasPorEjecucion;
+
+    @Value("${arkania.resumen.dias-por-lote:31}")
+    private int diasPorLote;
+
+    @Value("${arkania.resumen.dias-reconciliacion:3}")
+    private int diasReconciliacion;
+
+    @Autowired
+    public ResumenDiarioServiceImpl(ResumenDiarioRepository resumenDiarioRepository, ArchivoService archivoService,
+                                    PlatformTransactionManager transactionManager,
+                                    EjecutorTareasLargas ejecutorTareasLargas) {
+        this.resumenDiarioRepository = resumenDiarioRepository;
+        this.archivoService = archivoService;
+        this.ejecutorTareasLargas = ejecutorTareasLargas;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ========================================
+    // DISPONIBILIDAD
+    // ========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        verificarTabla();
+        if (!tablaDisponible) {
+            log.warn("Resúmenes diarios: no existen las tablas resumen_diario y resumen_diario_pendiente "
+                    + "(db/migracion/010_resumen_diario.sql y 014_resumen_diario_pendiente.sql); "
+                    + "los reportes diarios responderán vacíos hasta crearlas");
+        }
+    }
+
+    /**
+     * Verificación periódica de las tablas de resúmenes y de días pendientes, hasta encontrarlas.
+     * Sin la de pendientes no se marca nada: el INSERT fallido abortaría la transacción de la
+     * escritura en PostgreSQL.
+     */
+    @Scheduled(fixedDelayString = "${arkania.resumen.intervalo-verificacion-ms:300000}")
+    public void verificarTabla() {
+        if (!tablaDisponible) {
+            tablaDisponible = resumenDiarioRepository.tablaDisponible()
+                    && resumenDiarioRepository.tablaPendientesDisponible();
+        }
+    }
+
+    @Override
+    public boolean disponible() {
+        return tablaDisponible;
+    }
+
+    // ========================================
+    // DÍAS PENDIENTES
+    // ========================================
+
+    @Override
+    public void marcar(Metrica metrica, LocalDateTime fecha) {
+        marcar(metrica, fecha == null ? List.of() : List.of(fecha));
+    }
+
+    @Override
+    public void marcar(Metrica metrica, Collection<LocalDateTime> fechas) {
+        if (!tablaDisponible) {
+            return;
+        }
+        Set<LocalDate> dias = fechas.stream().filter(Objects::nonNull)
+                .map(LocalDateTime::toLocalDate)
+                .collect(Collectors.toSet());
+        if (dias.isEmpty()) {
+            return;
+        }
+        // En la transacción del llamador si hay una: la marca se confirma o se revierte con la escritura
+        resumenDiarioRepository.marcarPendientes(metrica, dias, LocalDateTime.now());
+    }
+
+    /**
+     * Recálculo periódico de los días pendientes.
+     */
+    @Scheduled(fixedDelayString = "${arkania.resumen.intervalo-ms:60000}")
+    public void actualizarPendientesProgramado() {
+        actualizarPendientes();
+    }
+
+    @Override
+    public int actualizarPendientes() {
+        if (!tablaDisponible) {
+            return 0;
+        }
+        // Un día marcado por varias escrituras se recalcula una vez y se quitan todas sus marcas
+        Map<DiaPendiente, List<Long>> marcas = resumenDiarioRepository.pendientes(marcasPorEjecucion).stream()
+                .collect(Collectors.groupingBy(marca -> new DiaPendiente(marca.metrica(), marca.fecha()),
+                        LinkedHashMap::new, Collectors.mapping(ResumenDiarioRepository.DiaPendiente::id,
+                                Collectors.toList())));
+        int recalculados = 0;
+        for (Map.Entry<DiaPendiente, List<Long>> marca : marcas.entrySet()) {
+            DiaPendiente dia = marca.getKey();
+            try {
+                recalcularTramo(dia.metrica(), dia.fecha(), dia.fecha().plusDays(1));
+                resumenDiarioRepository.quitarPendientes(marca.getValue());
+                recalculados++;
+            } catch (DataAccessException e) {
+                log.warn("Resúmenes diarios: no se pudo recalcular {} del {}: {}",
+                        dia.metrica(), dia.fecha(), e.getMessage());
+            }
+        }
+        return recalculados;
+    }
+
+    // ========================================
+    // RECÁLCULO Y CONSULTA
+    // ========================================
+
+    /**
+     * Reconciliación nocturna de los últimos días, en el ejecutor de tareas largas.
+     */
+    @Scheduled(cron = "${arkania.resumen.cron-reconciliacion:0 15 4 * * *}")
+    public void reconciliar() {
+        if (!tablaDisponible) {
+            return;
+        }
+        ejecutorTareasLargas.ejecutar("reconciliación de resúmenes", this::reconciliarUltimosDias);
+    }
+
+    private void reconciliarUltimosDias() {
+        LocalDate hoy = LocalDate.now();
+        try {
+            long filas = recalcular(null, hoy.minusDays(diasReconciliacion), hoy);
+            log.info("Resúmenes diarios: reconciliados los últimos {} días ({} filas)", diasReconciliacion, filas);
+        } catch (DataAccessException e) {
+            log.error("Resúmenes diarios: no se pudo reconciliar: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long recalcular(Metrica metrica, LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El rango de días no es válido");
+        }
+        if (!tablaDisponible) {
+            throw new IllegalStateException("No existen las tablas de resúmenes diarios");
+        }
+        List<Metrica> metricas = metrica != null ? List.of(metrica) : List.of(Metrica.values());
+        long filas = 0;
+        for (LocalDate inicio = desde; !inicio.isAfter(hasta); inicio = inicio.plusDays(diasPorLote)) {
+            LocalDate fin = inicio.plusDays(diasPorLote);
+            if (fin.isAfter(hasta.plusDays(1))) {
+                fin = hasta.plusDays(1);
+            }
+            for (Metrica m : metricas) {
+                filas += recalcularTramo(m, inicio, fin);
+            }
+        }
+        return filas;
+    }
+
+    @Override
+    public ReporteDiarioDTO consultar(Metrica metrica, LocalDate desde, LocalDate hasta) {
+        if (metrica == null || desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La métrica y un rango de días válido son obligatorios");
+        }
+        ReporteDiarioDTO reporte = new ReporteDiarioDTO();
+        reporte.setMetrica(metrica.name());
+        reporte.setDesde(desde);
+        reporte.setHasta(hasta);
+        if (tablaDisponible) {
+            reporte.setFilas(resumenDiarioRepository.consultar(metrica, desde, hasta));
+            reporte.setTotal(reporte.getFilas().stream().mapToLong(ReporteDiarioDTO.FilaResumen::getCantidad).sum());
+        }
+        return reporte;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Recalcula los días desde (inclusive) hasta (exclusive) en su propia transacción.
+     */
+    private int recalcularTramo(Metrica metrica, LocalDate desde, LocalDate hasta) {
+        boolean incluirArchivo = archivoService.requiereArchivo(desde.atStartOfDay());
+        Integer filas = transaccionNueva.execute(estado ->
+                resumenDiarioRepository.recalcular(metrica, desde, hasta, incluirArchivo, LocalDateTime.now()));
+        return filas != null ? filas : 0;
+    }
+
+    private record DiaPendiente(Metrica metrica, LocalDate fecha) {
+    }
+}
@@ -3,8 +3,13 @@ package com.exe.ConjuntoResidencialArkania.Impl;
 import com.exe.ConjuntoResidencialArkania.DTO.RolDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Exception.RoleAlreadyExistsException;
 import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
 import com.exe.ConjuntoResidencialArkania.Service.RolService;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -12,7 +17,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -43,6 +50,18 @@ public class RolServiceImpl implements RolService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private PermisoEfectivoService permisoEfectivoService;
+
+    @Autowired
+    private EjecutorReintentoOptimista ejecutorReintento;
+
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // ========================================
@@ -89,11 +108,8 @@ public class RolServiceImpl implements RolService {
 
     @Override
     public RolDTO crearRol(RolDTO rolDTO) {
-        // Validar que no exista un rol con el mismo nombre
+        // Un nombre duplicado lo rechaza la restricción única al insertar
         String nombreMayuscula = rolDTO.getNombre().toUpperCase();
-        if (existeRolPorNombre(nombreMayuscula)) {
-            throw new RuntimeException("Ya existe un rol con el nombre: " + nombreMayuscula);
-        }
 
         // Convertir DTO a Entity
         RolEntity rolEntity = convertirARolEntity(rolDTO);
@@ -107,10 +123,20 @@ public class RolServiceImpl implements RolService {
             rolEntity.setPermisos(convertirPermisosAJson(rolDTO.getPermisos()));
         }
 
-        // Guardar el rol
-        RolEntity rolGuardado = rolRepository.save(rolEntity);
+        // Guardar el rol: el flush envía el INSERT aquí para traducir un duplicado
+        RolEntity rolGuardado;
+        try {
+            rolGuardado = rolRepository.saveAndFlush(rolEntity);
+        } catch (DataIntegrityViolationException e) {
+            if (RestriccionesUnicas.esViolacion(e, RestriccionesUnicas.ROLES_NOMBRE)) {
+                throw RoleAlreadyExistsException.porNombre(nombreMayuscula);
+            }
+            throw e;
+        }
 
-        return convertirARolDTO(rolGuardado);
+        RolDTO rolCreado = convertirARolDTO(rolGuardado);
+        auditarRol(AuditoriaService.CREAR, rolCreado.getRolId(), null, rolCreado);
+        return rolCreado;
     }
 
     @Override
@@ -138,6 +164,8 @@ public class RolServiceImpl implements RolService {
     public RolDTO actualizarRol(Long rolId, RolDTO rolDTO) {
         RolEntity rolEntity = rolRepository.findById(rolId)
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
+        ConflictoVersionException.verificar("Rol", rolId, rolEntity.getVersion(), rolDTO.getVersion());
+        RolDTO estadoAnterior = convertirARolDTO(rolEntity);
 
         // Validar cambio de nombre si es diferente
         String nombreMayuscula = rolDTO.getNombre().toUpperCase();
@@ -161,8 +189,12 @@ public class RolServiceImpl implements RolService {
             rolEntity.setPermisos(convertirPermisosAJson(rolDTO.getPermisos()));
         }
 
-        RolEntity rolActualizado = rolRepository.save(rolEntity);
-        return convertirARolDTO(rolActualizado);
+        // El flush incrementa la versión antes de convertir la respuesta
+        RolEntity rolActualizado = rolRepository.saveAndFlush(rolEntity);
+        permisoEfectivoService.invalidarRol(rolId);
+        RolDTO estadoNuevo = convertirARolDTO(rolActualizado);
+        auditarRol(AuditoriaService.ACTUALIZAR, rolId, estadoAnterior, estadoNuevo);
+        return estadoNuevo;
     }
 
     @Override
@@ -180,9 +212,13 @@ public class RolServiceImpl implements RolService {
             throw new RuntimeException("No se puede eliminar el rol porque tiene usuarios asignados");
         }
 
+        RolDTO estadoAnterior = convertirARolDTO(rolEntity);
+
         // Eliminación lógica
         rolEntity.setActivo(false);
         rolRepository.save(rolEntity);
+        permisoEfectivoService.invalidarRol(rolId);
+        auditarRol(AuditoriaService.DESACTIVAR, rolId, estadoAnterior, convertirARolDTO(rolEntity));
     }
 
     @Override
@@ -190,8 +226,11 @@ public class RolServiceImpl implements RolService {
         RolEntity rolEntity = rolRepository.findById(rolId)
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
 
+        RolDTO estadoAnterior = convertirARolDTO(rolEntity);
         rolEntity.setActivo(true);
         rolRepository.save(rolEntity);
+        permisoEfectivoService.invalidarRol(rolId);
+        auditarRol(AuditoriaService.ACTIVAR, rolId, estadoAnterior, convertirARolDTO(rolEntity));
     }
 
     // ========================================
@@ -314,32 +353,49 @@ public class RolServiceImpl implements RolService {
     // OPERACIONES DE GESTIÓN DE PERMISOS
     // ========================================
 
+    /**
+     * Agregar y quitar un permiso son operaciones conmutativas: ante un conflicto de versión
+     * con otra modificación del mismo rol se reintentan releyendo el rol, en lugar de fallar.
+     * SUPPORTS evita abrir aquí la transacción; cada intento abre la suya.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void agregarPermisoARol(Long rolId, String permiso) {
-        RolEntity rolEntity = rolRepository.findById(rolId)
-                .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
+        ejecutorReintento.ejecutar(() -> {
+            RolEntity rolEntity = rolRepository.findById(rolId)
+                    .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
 
-        List<String> permisos = convertirJsonAPermisos(rolEntity.getPermisos());
-        
-        if (permisos.contains(permiso)) {
-            throw new IllegalArgumentException("El rol ya tiene el permiso: " + permiso);
-        }
+            List<String> permisos = convertirJsonAPermisos(rolEntity.getPermisos());
 
-        permisos.add(permiso);
-        rolEntity.setPermisos(convertirPermisosAJson(permisos));
-        rolRepository.save(rolEntity);
+            if (permisos.contains(permiso)) {
+                throw new IllegalArgumentException("El rol ya tiene el permiso: " + permiso);
+            }
+
+            List<String> permisosAnteriores = new ArrayList<>(permisos);
+            permisos.add(permiso);
+            rolEntity.setPermisos(convertirPermisosAJson(permisos));
+            rolRepository.saveAndFlush(rolEntity);
+            permisoEfectivoService.invalidarRol(rolId);
+            auditarPermisos(rolEntity, permisosAnteriores, permisos);
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removerPermisoDeRol(Long rolId, String permiso) {
-        RolEntity rolEntity = rolRepository.findById(rolId)
-                .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
+        ejecutorReintento.ejecutar(() -> {
+            RolEntity rolEntity = rolRepository.findById(rolId)
+                    .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
 
-        List<String> permisos = convertirJsonAPermisos(rolEntity.getPermisos());
-        permisos.remove(permiso);
-        
-        rolEntity.setPermisos(convertirPermisosAJson(permisos));
-        rolRepository.save(rolEntity);
+            List<String> permisos = convertirJsonAPermisos(rolEntity.getPermisos());
+            List<String> permisosAnteriores = new ArrayList<>(permisos);
+            permisos.remove(permiso);
+
+            rolEntity.setPermisos(convertirPermisosAJson(permisos));
+            rolRepository.saveAndFlush(rolEntity);
+            permisoEfectivoService.invalidarRol(rolId);
+            auditarPermisos(rolEntity, permisosAnteriores, permisos);
+        });
     }
 
     @Override
@@ -347,8 +403,33 @@ public class RolServiceImpl implements RolService {
         RolEntity rolEntity = rolRepository.findById(rolId)
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + rolId));
 
+        List<String> permisosAnteriores = convertirJsonAPermisos(rolEntity.getPermisos());
         rolEntity.setPermisos(convertirPermisosAJson(permisos));
         rolRepository.save(rolEntity);
+        permisoEfectivoService.invalidarRol(rolId);
+        auditarPermisos(rolEntity, permisosAnteriores, permisos == null ? List.of() : permisos);
+    }
+
+    /**
+     * Registra en la auditoría un cambio de rol e invalida las respuestas en caché de los
+     * listados de roles.
+     */
+    private void auditarRol(String operacion, Long rolId, RolDTO estadoAnterior, RolDTO estadoNuevo) {
+        cacheRespuestasService.invalidar(CacheRespuestasService.ROLES);
+        String rolNombre = estadoNuevo != null ? estadoNuevo.getNombre() : estadoAnterior.getNombre();
+        auditoriaService.registrarCambio(AuditoriaService.ENTIDAD_ROL, rolId, null, rolNombre,
+                operacion, estadoAnterior, estadoNuevo);
+    }
+
+    /**
+     * Registra en la auditoría un cambio de permisos de rol (solo las listas de permisos)
+     * e invalida las respuestas en caché de los listados de roles.
+     */
+    private void auditarPermisos(RolEntity rolEntity, List<String> permisosAnteriores, List<String> permisosNuevos) {
+        cacheRespuestasService.invalidar(CacheRespuestasService.ROLES);
+        auditoriaService.registrarCambio(AuditoriaService.ENTIDAD_ROL, rolEntity.getRolId(), null, rolEntity.getNombre(),
+                AuditoriaService.ACTUALIZAR_PERMISOS, Map.of("permisos", permisosAnteriores),
+                Map.of("permisos", new ArrayList<>(permisosNuevos)));
     }
 
     @Override
@@ -399,6 +480,7 @@ public class RolServiceImpl implements RolService {
         rolDTO.setActivo(rolEntity.getActivo());
         rolDTO.setFechaCreacion(rolEntity.getFechaCreacion());
         rolDTO.setFechaActualizacion(rolEntity.getFechaActualizacion());
+        rolDTO.setVersion(rolEntity.getVersion());
 
         // Convertir permisos JSON a lista
         rolDTO.setPermisos(convertirJsonAPermisos(rolEntity.getPermisos()));
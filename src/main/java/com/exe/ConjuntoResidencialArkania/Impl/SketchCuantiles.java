@@ -0,0 +1,164 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumen de una distribución de valores no negativos que estima cuantiles con error
+ * relativo acotado, en memoria proporcional al logaritmo del rango de valores (esquema
+ * DDSketch).
+ *
+ * Cada valor x > 0 cae en la cubeta i = ceil(log(x) / log(gamma)), con
+ * gamma = (1 + precision) / (1 - precision); la cubeta cubre (gamma^(i-1), gamma^i] y se
+ * representa por 2 * gamma^i / (gamma + 1), que está a menos de precision (relativo) de
+ * cualquier valor de la cubeta. Dos resúmenes con la misma precisión se combinan sumando
+ * los conteos de sus cubetas, así el resumen de un trimestre es exactamente la combinación
+ * de los de sus meses.
+ *
+ * No es seguro para uso concurrente; el llamador sincroniza.
+ */
+final class SketchCuantiles {
+
+    /**
+     * Valores por debajo de este se cuentan como cero.
+     */
+    private static final double VALOR_MINIMO = 1e-9;
+
+    private final double precision;
+    private final double logGamma;
+    private final double gamma;
+    private final TreeMap<Integer, Long> cubetas = new TreeMap<>();
+
+    private long ceros;
+    private long cantidad;
+    private double suma;
+    private double minimo = Double.POSITIVE_INFINITY;
+    private double maximo = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param precision Error relativo máximo de los cuantiles (por ejemplo 0.01 = 1 %)
+     */
+    SketchCuantiles(double precision) {
+        if (!(precision > 0 && precision < 1)) {
+            throw new IllegalArgumentException("La precisión debe estar entre 0 y 1");
+        }
+        this.precision = precision;
+        this.gamma = (1 + precision) / (1 - precision);
+        this.logGamma = Math.log(gamma);
+    }
+
+    void agregar(double valor) {
+        if (valor < 0 || Double.isNaN(valor)) {
+            throw new IllegalArgumentException("Solo se admiten valores no negativos");
+        }
+        if (valor < VALOR_MINIMO) {
+            ceros++;
+        } else {
+            cubetas.merge((int) Math.ceil(Math.log(valor) / logGamma), 1L, Long::sum);
+        }
+        cantidad++;
+        suma += valor;
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+    }
+
+    /**
+     * Quita un valor agregado antes. Los conteos quedan exactos; el mínimo y el máximo no se
+     * recalculan y quedan como cotas del rango observado.
+     */
+    void quitar(double valor) {
+        if (valor < 0 || Double.isNaN(valor)) {
+            throw new IllegalArgumentException("Solo se admiten valores no negativos");
+        }
+        if (valor < VALOR_MINIMO) {
+            if (ceros == 0) {
+                return;
+            }
+            ceros--;
+        } else {
+            int indice = (int) Math.ceil(Math.log(valor) / logGamma);
+            Long conteo = cubetas.get(indice);
+            if (conteo == null) {
+                return;
+            }
+            if (conteo == 1) {
+                cubetas.remove(indice);
+            } else {
+                cubetas.put(indice, conteo - 1);
+            }
+        }
+        cantidad--;
+        suma -= valor;
+        if (cantidad == 0) {
+            suma = 0;
+            minimo = Double.POSITIVE_INFINITY;
+            maximo = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Suma a este resumen los valores de otro con la misma precisión.
+     */
+    void combinar(SketchCuantiles otro) {
+        if (otro.precision != precision) {
+            throw new IllegalArgumentException("Solo se combinan resúmenes con la misma precisión");
+        }
+        otro.cubetas.forEach((indice, conteo) -> cubetas.merge(indice, conteo, Long::sum));
+        ceros += otro.ceros;
+        cantidad += otro.cantidad;
+        suma += otro.suma;
+        minimo = Math.min(minimo, otro.minimo);
+        maximo = Math.max(maximo, otro.maximo);
+    }
+
+    SketchCuantiles copia() {
+        SketchCuantiles copia = new SketchCuantiles(precision);
+        copia.combinar(this);
+        return copia;
+    }
+
+    /**
+     * Valor aproximado del cuantil q (0 = mínimo, 1 = máximo), o NaN si no hay valores.
+     */
+    double cuantil(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("El cuantil debe estar entre 0 y 1");
+        }
+        if (cantidad == 0) {
+            return Double.NaN;
+        }
+        long rango = (long) Math.floor(q * (cantidad - 1));
+        if (rango < ceros) {
+            return 0;
+        }
+        long acumulado = ceros;
+        for (Map.Entry<Integer, Long> cubeta : cubetas.entrySet()) {
+            acumulado += cubeta.getValue();
+            if (acumulado > rango) {
+                double representativo = 2 * Math.pow(gamma, cubeta.getKey()) / (gamma + 1);
+                // Los extremos se conocen exactos: el estimado nunca sale del rango observado
+                return Math.max(minimo, Math.min(maximo, representativo));
+            }
+        }
+        return maximo;
+    }
+
+    long cantidad() {
+        return cantidad;
+    }
+
+    double promedio() {
+        return cantidad == 0 ? Double.NaN : suma / cantidad;
+    }
+
+    double maximo() {
+        return cantidad == 0 ? Double.NaN : maximo;
+    }
+
+    /**
+     * Número de cubetas ocupadas (memoria usada por el resumen).
+     */
+    int cubetas() {
+        return cubetas.size() + (ceros > 0 ? 1 : 0);
+    }
+}
@@ -1,28 +1,90 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Impl;
+package com.exe.ConjuntoResidencialArkania.Impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
 import com.exe.ConjuntoResidencialArkania.DTO.SolicitudesDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Repository.ArchivoRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto;
 import com.exe.ConjuntoResidencialArkania.Repository.SolicitudRepository;
-
-import main.java.com.exe.ConjuntoResidencialArkania.Service.SolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.AnaliticaSolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+import com.exe.ConjuntoResidencialArkania.Service.DuplicadosSolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+import com.exe.ConjuntoResidencialArkania.Service.SolicitudesService;
 
 @Service
+@Transactional
 public class SolicitudServiceImpl implements SolicitudesService {
+    private static final Logger log = LoggerFactory.getLogger(SolicitudServiceImpl.class);
+
     public final SolicitudRepository solicitudRepository;
     public final ModelMapper modelMapper;
+    private final EventoDominioService eventoDominioService;
+    private final OperacionesDialecto operacionesDialecto;
+    // Las consultas que pueden incluir solicitudes cerradas hace tiempo leen también el archivo
+    private final ArchivoService archivoService;
+    private final ArchivoRepository archivoRepository;
+    private final AnaliticaSolicitudesService analiticaSolicitudesService;
+    private final DuplicadosSolicitudesService duplicadosSolicitudesService;
+    private final ResumenDiarioService resumenDiarioService;
+
+    // Máximo de resultados de la búsqueda de texto completo
+    private static final int LIMITE_BUSQUEDA_TEXTO = 200;
+
+    // Cola de trabajo: duración de un reclamo, envejecimiento por nivel de prioridad y
+    // máximo de solicitudes por reclamo
+    @Value("${arkania.cola.duracion-reclamo-minutos:30}")
+    private int duracionReclamoMinutos;
+
+    @Value("${arkania.cola.minutos-por-nivel-prioridad:60}")
+    private int minutosPorNivelPrioridad;
+
+    @Value("${arkania.cola.max-reclamos-por-peticion:20}")
+    private int maxReclamosPorPeticion;
 
     @Autowired
-    public SolicitudServiceImpl(SolicitudRepository solicitudRepository, ModelMapper modelMapper) {
+    public SolicitudServiceImpl(SolicitudRepository solicitudRepository, ModelMapper modelMapper,
+            EventoDominioService eventoDominioService, OperacionesDialecto operacionesDialecto,
+            ArchivoService archivoService, ArchivoRepository archivoRepository,
+            AnaliticaSolicitudesService analiticaSolicitudesService,
+            DuplicadosSolicitudesService duplicadosSolicitudesService, ResumenDiarioService resumenDiarioService) {
         this.solicitudRepository = solicitudRepository;
         this.modelMapper = modelMapper;
+        this.eventoDominioService = eventoDominioService;
+        this.operacionesDialecto = operacionesDialecto;
+        this.archivoService = archivoService;
+        this.archivoRepository = archivoRepository;
+        this.analiticaSolicitudesService = analiticaSolicitudesService;
+        this.duplicadosSolicitudesService = duplicadosSolicitudesService;
+        this.resumenDiarioService = resumenDiarioService;
     }
 
     @Override
     public List<SolicitudesDTO> listarSolicitudes() {
+        // Solo la tabla principal; las archivadas se consultan por ID o por rango de fechas
         List<SolicitudesEntity> solicitudes = solicitudRepository.findAll();
         return solicitudes.stream().map(solicitud -> modelMapper.map(solicitud, SolicitudesDTO.class))
                 .collect(Collectors.toList());
@@ -30,14 +92,30 @@ public class SolicitudServiceImpl implements SolicitudesService {
 
     @Override
     public Optional<SolicitudesDTO> findById(Long idSolicitud) {
-        return solicitudRepository.findById(idSolicitud)
-                .map(solicitud -> modelMapper.map(solicitud, SolicitudesDTO.class));
+        Optional<SolicitudesEntity> solicitud = solicitudRepository.findById(idSolicitud);
+        if (solicitud.isEmpty() && archivoService.disponible()) {
+            solicitud = archivoRepository.buscarSolicitud(idSolicitud);
+        }
+        return solicitud.map(s -> modelMapper.map(s, SolicitudesDTO.class));
     }
 
     @Override
     public SolicitudesDTO guardarSolicitud(SolicitudesDTO solicitudDTO) {
         SolicitudesEntity solicitud = modelMapper.map(solicitudDTO, SolicitudesEntity.class);
+        // Una solicitud nueva empieza sin versión ni reclamo, aunque el cliente los envíe
+        solicitud.setVersion(null);
+        solicitud.setAsignadoA(null);
+        solicitud.setReclamoVence(null);
+        solicitud.setPrioridad(solicitudDTO.getPrioridad() != null ? solicitudDTO.getPrioridad() : 0);
+        solicitud.setOrdenCola(ordenCola(solicitud));
         solicitud = solicitudRepository.save(solicitud);
+        // El ID ya está asignado (secuencia); el grupo se escribe junto con el INSERT. Si el tipo
+        // no se agrupa, la solicitud queda sola en su propio grupo
+        Long grupo = duplicadosSolicitudesService.agrupar(solicitud.getIdSolicitud(),
+                solicitud.getTipoSolicitud(), solicitud.getDescripcion());
+        solicitud.setGrupoDuplicados(grupo != null ? grupo : solicitud.getIdSolicitud());
+        registrarEvento(EventoDominioService.SOLICITUD_CREADA, solicitud);
+        marcarResumen(List.of(solicitud));
         return modelMapper.map(solicitud, SolicitudesDTO.class);
     }
 
@@ -45,55 +123,128 @@ public class SolicitudServiceImpl implements SolicitudesService {
     public SolicitudesDTO editarSolicitud(Long idSolicitud, SolicitudesDTO solicitudDto) {
         SolicitudesEntity solExistente = solicitudRepository.findById(idSolicitud).orElseThrow(
                 () -> new IllegalArgumentException("La solicitud con el ID: " + idSolicitud + " no encontrada"));
-        solExistente.setEstadoSolicitud(solicitudDto.getEstadoSolicitud());
+        ConflictoVersionException.verificar("Solicitud", idSolicitud, solExistente.getVersion(), solicitudDto.getVersion());
+        // El DTO define su propio enum; se convierte por nombre al de la entidad
+        SolicitudesEntity.EstadoSolicitud estadoAnterior = solExistente.getEstadoSolicitud();
+        SolicitudesEntity.EstadoSolicitud estadoNuevo =
+                SolicitudesEntity.EstadoSolicitud.valueOf(solicitudDto.getEstadoSolicitud().name());
+        solExistente.setEstadoSolicitud(estadoNuevo);
+        boolean estabaCerrada = estadoAnterior == SolicitudesEntity.EstadoSolicitud.resuelta
+                || estadoAnterior == SolicitudesEntity.EstadoSolicitud.rechazada;
+        boolean quedaCerrada = estadoNuevo == SolicitudesEntity.EstadoSolicitud.resuelta
+                || estadoNuevo == SolicitudesEntity.EstadoSolicitud.rechazada;
+        boolean seCierra = quedaCerrada && !estabaCerrada;
+        // Una resolución contada en el SLA se retira si la solicitud deja de estar resuelta
+        if (estadoAnterior == SolicitudesEntity.EstadoSolicitud.resuelta
+                && estadoNuevo != SolicitudesEntity.EstadoSolicitud.resuelta) {
+            retirarResolucion(solExistente);
+        }
+        if (!quedaCerrada) {
+            // Reabierta: la fecha se vuelve a fijar cuando se cierre otra vez
+            solExistente.setFechaResolucion(null);
+        } else if (seCierra || solExistente.getFechaResolucion() == null) {
+            solExistente.setFechaResolucion(LocalDateTime.now());
+        }
+        actualizarReclamo(solExistente, estadoAnterior, estadoNuevo, solicitudDto.getAsignadoA());
+        boolean cambiaDescripcion = !Objects.equals(solExistente.getDescripcion(), solicitudDto.getDescripcion());
         solExistente.setDescripcion(solicitudDto.getDescripcion());
+        if (solicitudDto.getPrioridad() != null) {
+            solExistente.setPrioridad(solicitudDto.getPrioridad());
+            solExistente.setOrdenCola(ordenCola(solExistente));
+        }
 
-        SolicitudesEntity solActualizada = solicitudRepository.save(solExistente);
+        // El flush incrementa la versión antes de convertir la respuesta
+        SolicitudesEntity solActualizada = solicitudRepository.saveAndFlush(solExistente);
+        registrarEvento(EventoDominioService.SOLICITUD_ACTUALIZADA, solActualizada);
+        marcarResumen(List.of(solActualizada));
+        if (seCierra) {
+            duplicadosSolicitudesService.quitar(List.of(idSolicitud));
+        } else if (!quedaCerrada && (cambiaDescripcion || estabaCerrada)
+                && solActualizada.getGrupoDuplicados() != null) {
+            // Descripción editada o solicitud reabierta: vuelve al índice con su grupo
+            duplicadosSolicitudesService.reindexar(idSolicitud, solActualizada.getTipoSolicitud(),
+                    solActualizada.getDescripcion(), solActualizada.getGrupoDuplicados());
+        }
+        if (estadoNuevo == SolicitudesEntity.EstadoSolicitud.resuelta
+                && estadoAnterior != SolicitudesEntity.EstadoSolicitud.resuelta) {
+            registrarResolucion(solActualizada);
+        }
         return modelMapper.map(solActualizada, SolicitudesDTO.class);
     }
 
     @Override
     public void eliminarSolicitud(Long idSolicitud) {
-        solicitudRepository.deleteById(idSolicitud);
+        solicitudRepository.findById(idSolicitud).ifPresent(solicitud -> {
+            if (solicitud.getEstadoSolicitud() == SolicitudesEntity.EstadoSolicitud.resuelta) {
+                retirarResolucion(solicitud);
+            }
+            solicitudRepository.delete(solicitud);
+            marcarResumen(List.of(solicitud));
+        });
+        duplicadosSolicitudesService.quitar(List.of(idSolicitud));
+        eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_SOLICITUD, idSolicitud,
+                EventoDominioService.SOLICITUD_ELIMINADA, Map.of("idSolicitud", idSolicitud));
     }
 
     // Repository metodos
     @Override
     public List<SolicitudesDTO> listarPorFechaCreacion(LocalDateTime inicio, LocalDateTime fin) {
-        List<SolicitudesEntity> entidades = solicitudRepository.findByFechaCreacion(inicio, fin);
+        List<SolicitudesEntity> entidades = conArchivadas(solicitudRepository.findByFechaCreacion(inicio, fin),
+                archivoService.requiereArchivo(inicio), () -> archivoRepository.solicitudesPorCreacion(inicio, fin));
         return entidades.stream()
+                .sorted(Comparator.comparing(SolicitudesEntity::getFechaCreacion))
                 .map(e -> modelMapper.map(e, SolicitudesDTO.class))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<SolicitudesDTO> listarPorFechaResolucion(LocalDateTime inicio, LocalDateTime fin) {
-        List<SolicitudesEntity> entidades = solicitudRepository.findByFechaResolucion(inicio, fin);
+        List<SolicitudesEntity> entidades = conArchivadas(solicitudRepository.findByFechaResolucion(inicio, fin),
+                archivoService.requiereArchivo(inicio), () -> archivoRepository.solicitudesPorResolucion(inicio, fin));
         return entidades.stream()
+                .sorted(Comparator.comparing(SolicitudesEntity::getFechaResolucion))
                 .map(e -> modelMapper.map(e, SolicitudesDTO.class))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<SolicitudesDTO> listarPorEstados(List<SolicitudesEntity.EstadoSolicitud> estados) {
-        List<SolicitudesEntity> entidades = solicitudRepository.findByEstadoSolicitudInOrderByFechaCreacionAsc(estados);
-        return entidades.stream()
+        return solicitudRepository.findByEstadoSolicitudInOrderByFechaCreacionAsc(estados).stream()
                 .map(e -> modelMapper.map(e, SolicitudesDTO.class))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<SolicitudesDTO> listarPorTipos(List<SolicitudesEntity.TipoSolicitud> tipos) {
-        List<SolicitudesEntity> entidades = solicitudRepository.findByTipoSolicitudInOrderByFechaCreacionAsc(tipos);
-        return entidades.stream()
+        return solicitudRepository.findByTipoSolicitudInOrderByFechaCreacionAsc(tipos).stream()
                 .map(e -> modelMapper.map(e, SolicitudesDTO.class))
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<SolicitudesDTO> buscarPorDescripcion(String descripcion) {
-        List<SolicitudesEntity> entidades = solicitudRepository.findByDescripcionContainingIgnoreCase(descripcion);
-        return entidades.stream()
+        // Primero por palabras con el índice de texto completo, ordenado por relevancia
+        List<Long> ids;
+        try {
+            ids = operacionesDialecto.buscarSolicitudesPorTexto(descripcion, LIMITE_BUSQUEDA_TEXTO);
+        } catch (DataAccessException e) {
+            // Índice FULLTEXT aún no creado (MySQL): se busca por subcadena
+            ids = List.of();
+        }
+        if (!ids.isEmpty()) {
+            Map<Long, Integer> posiciones = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                posiciones.put(ids.get(i), i);
+            }
+            return solicitudRepository.findAllById(ids).stream()
+                    .sorted(Comparator.comparing((SolicitudesEntity e) -> posiciones.get(e.getIdSolicitud())))
+                    .map(e -> modelMapper.map(e, SolicitudesDTO.class))
+                    .collect(Collectors.toList());
+        }
+
+        // Sin coincidencias por palabras (fragmentos de palabra, palabras vacías): por subcadena
+        return solicitudRepository.findByDescripcionContainingIgnoreCase(descripcion).stream()
                 .map(e -> modelMapper.map(e, SolicitudesDTO.class))
                 .collect(Collectors.toList());
     }
@@ -111,4 +262,225 @@ public class SolicitudServiceImpl implements SolicitudesService {
                 .map(e -> modelMapper.map(e, SolicitudesDTO.class))
                 .collect(Collectors.toList());
     }
+
+    // ========================================
+    // COLA DE TRABAJO
+    // ========================================
+
+    @Override
+    public List<SolicitudesDTO> reclamarSiguientes(SolicitudesEntity.TipoSolicitud tipo, Long trabajador,
+            int cantidad) {
+        if (tipo == null || trabajador == null) {
+            throw new IllegalArgumentException("El tipo de solicitud y el trabajador son obligatorios");
+        }
+        // Las filas quedan bloqueadas hasta el fin de la transacción; otros trabajadores las saltan
+        List<Long> ids = solicitudRepository.bloquearSiguientesEnCola(tipo.name(),
+                Math.max(1, Math.min(cantidad, maxReclamosPorPeticion)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        solicitudRepository.reclamar(ids, trabajador, LocalDateTime.now().plusMinutes(duracionReclamoMinutos),
+                SolicitudesEntity.EstadoSolicitud.en_proceso);
+
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posiciones.put(ids.get(i), i);
+        }
+        List<SolicitudesEntity> reclamadas = solicitudRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing((SolicitudesEntity e) -> posiciones.get(e.getIdSolicitud())))
+                .collect(Collectors.toList());
+        reclamadas.forEach(solicitud -> registrarEvento(EventoDominioService.SOLICITUD_ACTUALIZADA, solicitud));
+        marcarResumen(reclamadas);
+        return reclamadas.stream()
+                .map(e -> modelMapper.map(e, SolicitudesDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SolicitudesDTO completarReclamo(Long idSolicitud, Long trabajador,
+            SolicitudesEntity.EstadoSolicitud resultado) {
+        if (resultado != SolicitudesEntity.EstadoSolicitud.resuelta
+                && resultado != SolicitudesEntity.EstadoSolicitud.rechazada) {
+            throw new IllegalArgumentException("El resultado debe ser resuelta o rechazada");
+        }
+        int filas = solicitudRepository.completarReclamo(idSolicitud, trabajador, resultado, LocalDateTime.now(),
+                SolicitudesEntity.EstadoSolicitud.en_proceso);
+        SolicitudesEntity solicitud = reclamoVigente(filas, idSolicitud, trabajador);
+        registrarEvento(EventoDominioService.SOLICITUD_ACTUALIZADA, solicitud);
+        marcarResumen(List.of(solicitud));
+        duplicadosSolicitudesService.quitar(List.of(idSolicitud));
+        if (resultado == SolicitudesEntity.EstadoSolicitud.resuelta) {
+            registrarResolucion(solicitud);
+        }
+        return modelMapper.map(solicitud, SolicitudesDTO.class);
+    }
+
+    @Override
+    public SolicitudesDTO renovarReclamo(Long idSolicitud, Long trabajador) {
+        int filas = solicitudRepository.renovarReclamo(idSolicitud, trabajador,
+                LocalDateTime.now().plusMinutes(duracionReclamoMinutos), SolicitudesEntity.EstadoSolicitud.en_proceso);
+        return modelMapper.map(reclamoVigente(filas, idSolicitud, trabajador), SolicitudesDTO.class);
+    }
+
+    @Override
+    public void liberarReclamo(Long idSolicitud, Long trabajador) {
+        int filas = solicitudRepository.liberarReclamo(idSolicitud, trabajador,
+                SolicitudesEntity.EstadoSolicitud.pendiente, SolicitudesEntity.EstadoSolicitud.en_proceso);
+        SolicitudesEntity solicitud = reclamoVigente(filas, idSolicitud, trabajador);
+        registrarEvento(EventoDominioService.SOLICITUD_ACTUALIZADA, solicitud);
+        marcarResumen(List.of(solicitud));
+    }
+
+    // ========================================
+    // GRUPOS DE DUPLICADOS
+    // ========================================
+
+    @Override
+    public List<SolicitudesDTO> listarGrupo(Long grupo) {
+        return solicitudRepository.findByGrupo(grupo).stream()
+                .map(e -> modelMapper.map(e, SolicitudesDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<SolicitudesDTO> resolverGrupo(Long grupo, SolicitudesEntity.EstadoSolicitud resultado) {
+        if (resultado != SolicitudesEntity.EstadoSolicitud.resuelta
+                && resultado != SolicitudesEntity.EstadoSolicitud.rechazada) {
+            throw new IllegalArgumentException("El resultado debe ser resuelta o rechazada");
+        }
+        // El bloqueo evita que un trabajador cierre o libere una del grupo mientras tanto
+        List<Long> ids = solicitudRepository.bloquearAbiertasDeGrupo(grupo, List.of(
+                        SolicitudesEntity.EstadoSolicitud.pendiente, SolicitudesEntity.EstadoSolicitud.en_proceso))
+                .stream().map(SolicitudesEntity::getIdSolicitud).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        solicitudRepository.cerrar(ids, resultado, LocalDateTime.now());
+
+        List<SolicitudesEntity> cerradas = solicitudRepository.findAllById(ids);
+        duplicadosSolicitudesService.quitar(ids);
+        marcarResumen(cerradas);
+        // Un evento por solicitud: cada residente recibe la notificación de la suya
+        cerradas.forEach(solicitud -> {
+            registrarEvento(EventoDominioService.SOLICITUD_ACTUALIZADA, solicitud);
+            if (resultado == SolicitudesEntity.EstadoSolicitud.resuelta) {
+                registrarResolucion(solicitud);
+            }
+        });
+        return cerradas.stream()
+                .map(e -> modelMapper.map(e, SolicitudesDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    // Revisión periódica de reclamos vencidos (trabajadores que abandonaron la solicitud)
+    @Scheduled(fixedDelayString = "${arkania.cola.intervalo-reencolar-ms:30000}")
+    public void reencolarReclamosVencidos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Long> ids = solicitudRepository.findReclamosVencidos(ahora, SolicitudesEntity.EstadoSolicitud.en_proceso)
+                .stream().map(SolicitudesEntity::getIdSolicitud).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        int filas = solicitudRepository.reencolarVencidas(ids, ahora,
+                SolicitudesEntity.EstadoSolicitud.pendiente, SolicitudesEntity.EstadoSolicitud.en_proceso);
+        if (filas == 0) {
+            return;
+        }
+        // Las renovadas entre la lectura y el UPDATE siguen en proceso y no cambiaron
+        List<SolicitudesEntity> reencoladas = solicitudRepository.findAllById(ids).stream()
+                .filter(s -> s.getEstadoSolicitud() == SolicitudesEntity.EstadoSolicitud.pendiente)
+                .collect(Collectors.toList());
+        reencoladas.forEach(solicitud -> registrarEvento(EventoDominioService.SOLICITUD_ACTUALIZADA, solicitud));
+        marcarResumen(reencoladas);
+        log.info("Cola de solicitudes: {} reclamos vencidos devueltos a la cola", filas);
+    }
+
+    // Posición en la cola: cada nivel de prioridad equivale a minutosPorNivelPrioridad de espera
+    private LocalDateTime ordenCola(SolicitudesEntity solicitud) {
+        LocalDateTime base = solicitud.getFechaCreacion() != null ? solicitud.getFechaCreacion() : LocalDateTime.now();
+        int prioridad = solicitud.getPrioridad() != null ? solicitud.getPrioridad() : 0;
+        return base.minusMinutes((long) prioridad * minutosPorNivelPrioridad);
+    }
+
+    // Deja el reclamo coherente con el estado tras una edición: pendiente vuelve a la cola sin
+    // trabajador, en proceso necesita un trabajador con el reclamo vigente, y una cerrada
+    // conserva a quien la atendió pero ya no tiene reclamo
+    private void actualizarReclamo(SolicitudesEntity solicitud, SolicitudesEntity.EstadoSolicitud estadoAnterior,
+            SolicitudesEntity.EstadoSolicitud estadoNuevo, Long asignadoA) {
+        switch (estadoNuevo) {
+            case pendiente -> {
+                solicitud.setAsignadoA(null);
+                solicitud.setReclamoVence(null);
+            }
+            case en_proceso -> {
+                Long trabajador = asignadoA != null ? asignadoA : solicitud.getAsignadoA();
+                if (trabajador == null) {
+                    throw new IllegalArgumentException("Una solicitud en proceso necesita un trabajador asignado");
+                }
+                LocalDateTime ahora = LocalDateTime.now();
+                boolean reclamoVigente = estadoAnterior == SolicitudesEntity.EstadoSolicitud.en_proceso
+                        && trabajador.equals(solicitud.getAsignadoA())
+                        && solicitud.getReclamoVence() != null && solicitud.getReclamoVence().isAfter(ahora);
+                if (!reclamoVigente) {
+                    solicitud.setAsignadoA(trabajador);
+                    solicitud.setReclamoVence(ahora.plusMinutes(duracionReclamoMinutos));
+                }
+            }
+            default -> solicitud.setReclamoVence(null);
+        }
+    }
+
+    // Solicitud tras una operación sobre su reclamo; sin filas afectadas distingue
+    // "no existe" de "el reclamo ya no es del trabajador"
+    private SolicitudesEntity reclamoVigente(int filas, Long idSolicitud, Long trabajador) {
+        if (filas == 0) {
+            if (!solicitudRepository.existsById(idSolicitud)) {
+                throw new IllegalArgumentException("La solicitud con el ID: " + idSolicitud + " no encontrada");
+            }
+            throw new IllegalStateException("La solicitud " + idSolicitud
+                    + " no está reclamada por el trabajador " + trabajador);
+        }
+        return solicitudRepository.findById(idSolicitud).orElseThrow(
+                () -> new IllegalArgumentException("La solicitud con el ID: " + idSolicitud + " no encontrada"));
+    }
+
+    // Agrega a las solicitudes de la tabla principal las archivadas, si el rango consultado
+    // empieza antes del límite de archivo
+    private List<SolicitudesEntity> conArchivadas(List<SolicitudesEntity> activas, boolean incluirArchivo,
+            Supplier<List<SolicitudesEntity>> archivadas) {
+        if (!incluirArchivo) {
+            return activas;
+        }
+        List<SolicitudesEntity> todas = new ArrayList<>(activas);
+        todas.addAll(archivadas.get());
+        return todas;
+    }
+
+    // Días de creación cuyo resumen diario (tipo y estado) cambió
+    private void marcarResumen(List<SolicitudesEntity> solicitudes) {
+        resumenDiarioService.marcar(ResumenDiarioService.Metrica.SOLICITUDES,
+                solicitudes.stream().map(SolicitudesEntity::getFechaCreacion).collect(Collectors.toList()));
+    }
+
+    // Tiempo de resolución para el SLA; se aplica al confirmarse la transacción
+    private void registrarResolucion(SolicitudesEntity solicitud) {
+        analiticaSolicitudesService.registrarResolucion(solicitud.getIdSolicitud(), solicitud.getTipoSolicitud(),
+                solicitud.getFechaCreacion(), solicitud.getFechaResolucion());
+    }
+
+    private void retirarResolucion(SolicitudesEntity solicitud) {
+        analiticaSolicitudesService.retirarResolucion(solicitud.getIdSolicitud(), solicitud.getTipoSolicitud(),
+                solicitud.getFechaCreacion(), solicitud.getFechaResolucion());
+    }
+
+    // Registra en el outbox un cambio de la solicitud, dentro de la transacción actual
+    private void registrarEvento(String tipoEvento, SolicitudesEntity solicitud) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("idSolicitud", solicitud.getIdSolicitud());
+        datos.put("usuarioId", solicitud.getUsuario() != null ? solicitud.getUsuario().getUsuarioId() : null);
+        datos.put("tipoSolicitud", solicitud.getTipoSolicitud().name());
+        datos.put("estadoSolicitud", solicitud.getEstadoSolicitud().name());
+        eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_SOLICITUD,
+                solicitud.getIdSolicitud(), tipoEvento, datos);
+    }
 }
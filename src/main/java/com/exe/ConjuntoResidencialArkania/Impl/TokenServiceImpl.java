@@ -0,0 +1,277 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import com.exe.ConjuntoResidencialArkania.Config.JwtConfig;
+import com.exe.ConjuntoResidencialArkania.DTO.TokenDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.TokenVerificadoDTO;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService.VersionesPermisos;
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación de los tokens de acceso firmados.
+ *
+ * Formato JWT compacto: cabecera fija {"alg":"HS256","typ":"JWT"}, claims sub (ID del
+ * usuario), iat, exp, ver (versión efectiva de permisos), vus (sello de permisos del usuario)
+ * y rol (sello de cada rol, por ID), y firma HMAC-SHA256. La cabecera se
+ * compara como texto fijo, así que no se acepta ningún otro algoritmo. Cada hilo reutiliza
+ * su propia instancia de Mac y la firma se compara en tiempo constante. Los sellos del token
+ * se comparan con los que PermisoEfectivoService mantiene en memoria: verificar un token no
+ * accede a la base de datos.
+ *
+ * La lista de revocación guarda, por usuario desactivado, el segundo desde el cual sus
+ * tokens son válidos de nuevo; los tokens emitidos antes se rechazan. Una entrada solo es
+ * necesaria mientras pueda existir un token anterior sin expirar, así que se purga al pasar
+ * la vigencia de los tokens. La fuente es la tabla de usuarios (activo = false y
+ * fecha_actualizacion): al iniciar se reconstruye con los usuarios desactivados durante esa
+ * última vigencia, y cada arkania.token.intervalo-sincronizacion-ms se agregan los
+ * desactivados en otras instancias. Una desactivación hecha en otra instancia se aplica
+ * aquí, como máximo, con ese retraso.
+ */
+@Service
+public class TokenServiceImpl implements TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenServiceImpl.class);
+
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    private static final String CABECERA = CODIFICADOR.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKey claveFirma;
+    private final Duration duracion;
+    private final PermisoEfectivoService permisoEfectivoService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ThreadLocal<Mac> macPorHilo;
+
+    /** Usuario revocado → segundo (epoch) desde el cual se aceptan sus tokens. */
+    private final ConcurrentHashMap<Long, Long> revocados = new ConcurrentHashMap<>();
+
+    /** Momento de la última lectura de usuarios desactivados; null hasta la carga inicial. */
+    private volatile LocalDateTime ultimaSincronizacion;
+
+    @Value("${arkania.token.margen-sincronizacion-segundos:60}")
+    private long margenSincronizacionSegundos;
+
+    @Autowired
+    public TokenServiceImpl(SecretKey claveFirmaToken,
+                            Duration duracionToken,
+                            PermisoEfectivoService permisoEfectivoService,
+                            UserRepository userRepository,
+                            ObjectMapper objectMapper) {
+        this.claveFirma = claveFirmaToken;
+        this.duracion = duracionToken;
+        this.permisoEfectivoService = permisoEfectivoService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.macPorHilo = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(JwtConfig.ALGORITMO_FIRMA);
+                mac.init(claveFirma);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("No se pudo inicializar la firma de tokens", e);
+            }
+        });
+    }
+
+    // ========================================
+    // EMISIÓN Y VERIFICACIÓN
+    // ========================================
+
+    @Override
+    public TokenDTO emitirToken(Long usuarioId) {
+        long ahora = Instant.now().getEpochSecond();
+        long expira = ahora + duracion.getSeconds();
+        VersionesPermisos versiones = permisoEfectivoService.obtenerVersiones(usuarioId);
+        long version = versiones.efectiva();
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", usuarioId.toString());
+        claims.put("iat", ahora);
+        claims.put("exp", expira);
+        claims.put("ver", version);
+        claims.put("vus", versiones.usuario());
+        claims.put("rol", versiones.roles());
+        String cuerpo;
+        try {
+            cuerpo = CABECERA + "." + CODIFICADOR.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new RuntimeException("Error al generar el token", e);
+        }
+        String token = cuerpo + "." + CODIFICADOR.encodeToString(firmar(cuerpo));
+
+        return new TokenDTO(token, TIPO_TOKEN, usuarioId,
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(expira), ZoneId.systemDefault()), version);
+    }
+
+    @Override
+    public Optional<TokenVerificadoDTO> verificarToken(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int primerPunto = token.indexOf('.');
+        int segundoPunto = token.indexOf('.', primerPunto + 1);
+        if (primerPunto != CABECERA.length() || !token.startsWith(CABECERA)
+                || segundoPunto < 0 || token.indexOf('.', segundoPunto + 1) >= 0) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] firma = DECODIFICADOR.decode(token.substring(segundoPunto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(token.substring(0, segundoPunto)))) {
+                return Optional.empty();
+            }
+
+            JsonNode claims = objectMapper.readTree(DECODIFICADOR.decode(token.substring(primerPunto + 1, segundoPunto)));
+            Long usuarioId = Long.valueOf(claims.path("sub").asText());
+            long emitido = claims.path("iat").asLong();
+            long expira = claims.path("exp").asLong();
+            long version = claims.path("ver").asLong();
+
+            if (Instant.now().getEpochSecond() >= expira) {
+                return Optional.empty();
+            }
+            Long validoDesde = revocados.get(usuarioId);
+            if (validoDesde != null && emitido < validoDesde) {
+                return Optional.empty();
+            }
+
+            // Los sellos solo crecen; uno mayor que el local viene de otra instancia que ya vio el cambio.
+            // Un token sin sellos de roles se emitió antes de que existieran: se pide renovarlo
+            JsonNode roles = claims.path("rol");
+            boolean vigentes = false;
+            if (roles.isObject()) {
+                Map<Long, Long> versionesRoles = new HashMap<>();
+                for (Map.Entry<String, JsonNode> rol : roles.properties()) {
+                    versionesRoles.put(Long.valueOf(rol.getKey()), rol.getValue().asLong());
+                }
+                vigentes = permisoEfectivoService.versionesVigentes(usuarioId,
+                        new VersionesPermisos(claims.path("vus").asLong(), versionesRoles));
+            }
+            return Optional.of(new TokenVerificadoDTO(usuarioId, emitido, expira, version, vigentes));
+        } catch (IllegalArgumentException | IOException e) {
+            // Base64, JSON o sub mal formados (NumberFormatException es IllegalArgumentException)
+            return Optional.empty();
+        }
+    }
+
+    // ========================================
+    // REVOCACIÓN
+    // ========================================
+
+    @Override
+    public void revocarTokensUsuario(Long usuarioId) {
+        Runnable revocar = () -> revocarDesde(usuarioId, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revocar.run();
+                }
+            });
+        } else {
+            revocar.run();
+        }
+    }
+
+    @Override
+    public int contarUsuariosRevocados() {
+        return revocados.size();
+    }
+
+    /**
+     * Reconstruye la lista de revocación con los usuarios desactivados durante la última vigencia.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarRevocados() {
+        LocalDateTime ahora = LocalDateTime.now();
+        agregarDesactivadosDesde(ahora.minus(duracion));
+        ultimaSincronizacion = ahora;
+        log.info("Tokens: {} usuarios en la lista de revocación", revocados.size());
+    }
+
+    /**
+     * Agrega los usuarios desactivados desde la última lectura, incluidos los de otras
+     * instancias. La lectura se solapa con la anterior en margen-sincronizacion-segundos: la
+     * fecha de actualización se fija antes de confirmar, así que una transacción larga puede
+     * hacerse visible con una fecha anterior a la última lectura.
+     */
+    @Scheduled(fixedDelayString = "${arkania.token.intervalo-sincronizacion-ms:15000}")
+    public void sincronizarRevocados() {
+        LocalDateTime desde = ultimaSincronizacion;
+        if (desde == null) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        agregarDesactivadosDesde(desde.minusSeconds(margenSincronizacionSegundos));
+        ultimaSincronizacion = ahora;
+    }
+
+    /**
+     * Elimina las revocaciones cuyos tokens anteriores ya expiraron todos.
+     */
+    @Scheduled(fixedDelayString = "${arkania.token.intervalo-purga-ms:600000}")
+    public void purgarRevocados() {
+        long limite = Instant.now().getEpochSecond() - duracion.getSeconds();
+        revocados.values().removeIf(validoDesde -> validoDesde < limite);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private void agregarDesactivadosDesde(LocalDateTime desde) {
+        for (Object[] fila : userRepository.findDesactivadosDesde(desde)) {
+            LocalDateTime desactivado = (LocalDateTime) fila[1];
+            revocarDesde((Long) fila[0], desactivado.atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    /**
+     * Rechaza los tokens emitidos antes del momento indicado. Se redondea al segundo siguiente
+     * porque iat tiene precisión de segundos: un token del mismo segundo también se rechaza.
+     */
+    private void revocarDesde(Long usuarioId, Instant momento) {
+        long validoDesde = momento.getEpochSecond() + (momento.getNano() > 0 ? 1 : 0);
+        revocados.merge(usuarioId, validoDesde, Math::max);
+    }
+
+    private byte[] firmar(String contenido) {
+        Mac mac = macPorHilo.get();
+        return mac.doFinal(contenido.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -3,10 +3,17 @@ package com.exe.ConjuntoResidencialArkania.Impl;
 import com.exe.ConjuntoResidencialArkania.DTO.UserDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Exception.UserAlreadyExistsException;
 import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
 import com.exe.ConjuntoResidencialArkania.Service.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,6 +44,18 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private PermisoEfectivoService permisoEfectivoService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
     // ========================================
     // MÉTODOS AUXILIARES DE ENCRIPTACIÓN
     // ========================================
@@ -85,15 +104,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDTO crearUsuario(UserDTO userDTO) {
-        // Validar que no exista un usuario con el mismo documento
-        if (existeUsuarioPorDocumento(userDTO.getNumeroDocumento())) {
-            throw new RuntimeException("Ya existe un usuario con el número de documento: " + userDTO.getNumeroDocumento());
-        }
-
-        // Validar que no exista un usuario con el mismo email
-        if (existeUsuarioPorEmail(userDTO.getEmail())) {
-            throw new RuntimeException("Ya existe un usuario con el email: " + userDTO.getEmail());
-        }
+        // Documento y email duplicados los rechazan las restricciones únicas al insertar
 
         // Validar que la contraseña esté presente para usuarios nuevos
         if (userDTO.getPassword() == null || userDTO.getPassword().trim().isEmpty()) {
@@ -110,10 +121,24 @@ public class UserServiceImpl implements UserService {
         userEntity.setActivo(true);
         userEntity.setRoles(new HashSet<>());
 
-        // Guardar el usuario
-        UserEntity usuarioGuardado = userRepository.save(userEntity);
+        // Guardar el usuario: el flush envía el INSERT aquí para traducir un duplicado
+        UserEntity usuarioGuardado;
+        try {
+            usuarioGuardado = userRepository.saveAndFlush(userEntity);
+        } catch (DataIntegrityViolationException e) {
+            if (RestriccionesUnicas.esViolacion(e, RestriccionesUnicas.USUARIOS_NUMERO_DOCUMENTO)) {
+                throw UserAlreadyExistsException.porNumeroDocumento(userDTO.getNumeroDocumento());
+            }
+            if (RestriccionesUnicas.esViolacion(e, RestriccionesUnicas.USUARIOS_EMAIL)) {
+                throw UserAlreadyExistsException.porEmail(userDTO.getEmail());
+            }
+            throw e;
+        }
 
-        return convertirAUserDTO(usuarioGuardado);
+        UserDTO usuarioCreado = convertirAUserDTO(usuarioGuardado);
+        auditarUsuario(AuditoriaService.CREAR, usuarioGuardado.getUsuarioId(), null, usuarioCreado);
+        resumenDiarioService.marcar(ResumenDiarioService.Metrica.USUARIOS_REGISTRADOS, usuarioGuardado.getFechaCreacion());
+        return usuarioCreado;
     }
 
     @Override
@@ -141,6 +166,8 @@ public class UserServiceImpl implements UserService {
     public UserDTO actualizarUsuario(Long usuarioId, UserDTO userDTO) {
         UserEntity userEntity = userRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+        ConflictoVersionException.verificar("Usuario", usuarioId, userEntity.getVersion(), userDTO.getVersion());
+        UserDTO estadoAnterior = convertirAUserDTO(userEntity);
 
         // Validar cambio de email si es diferente
         if (!userEntity.getEmail().equals(userDTO.getEmail())) {
@@ -175,12 +202,23 @@ public class UserServiceImpl implements UserService {
         if (userDTO.getTelefono() != null) {
             userEntity.setTelefono(userDTO.getTelefono());
         }
+        boolean desactivado = Boolean.TRUE.equals(userEntity.getActivo()) && Boolean.FALSE.equals(userDTO.getActivo());
         if (userDTO.getActivo() != null) {
             userEntity.setActivo(userDTO.getActivo());
         }
 
-        UserEntity usuarioActualizado = userRepository.save(userEntity);
-        return convertirAUserDTO(usuarioActualizado);
+        // El flush incrementa la versión antes de convertir la respuesta
+        UserEntity usuarioActualizado = userRepository.saveAndFlush(userEntity);
+        if (!Objects.equals(estadoAnterior.getActivo(), usuarioActualizado.getActivo())) {
+            // Los permisos efectivos dependen de que el usuario esté activo
+            permisoEfectivoService.invalidarUsuario(usuarioId);
+        }
+        if (desactivado) {
+            tokenService.revocarTokensUsuario(usuarioId);
+        }
+        UserDTO estadoNuevo = convertirAUserDTO(usuarioActualizado);
+        auditarUsuario(AuditoriaService.ACTUALIZAR, usuarioId, estadoAnterior, estadoNuevo);
+        return estadoNuevo;
     }
 
     @Override
@@ -193,9 +231,14 @@ public class UserServiceImpl implements UserService {
         UserEntity userEntity = userRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
 
+        UserDTO estadoAnterior = convertirAUserDTO(userEntity);
+
         // Eliminación lógica
         userEntity.setActivo(false);
         userRepository.save(userEntity);
+        permisoEfectivoService.invalidarUsuario(usuarioId);
+        tokenService.revocarTokensUsuario(usuarioId);
+        auditarUsuario(AuditoriaService.DESACTIVAR, usuarioId, estadoAnterior, convertirAUserDTO(userEntity));
     }
 
     @Override
@@ -203,8 +246,11 @@ public class UserServiceImpl implements UserService {
         UserEntity userEntity = userRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
 
+        UserDTO estadoAnterior = convertirAUserDTO(userEntity);
         userEntity.setActivo(true);
         userRepository.save(userEntity);
+        permisoEfectivoService.invalidarUsuario(usuarioId);
+        auditarUsuario(AuditoriaService.ACTIVAR, usuarioId, estadoAnterior, convertirAUserDTO(userEntity));
     }
 
     // ========================================
@@ -280,7 +326,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public boolean existeUsuarioPorEmail(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        return userRepository.existsByEmail(email);
     }
 
     @Override
@@ -326,6 +372,7 @@ public class UserServiceImpl implements UserService {
         // Encriptar y guardar nueva contraseña
         userEntity.setPassword(encriptarPassword(passwordNueva));
         userRepository.save(userEntity);
+        auditarUsuario(AuditoriaService.CAMBIAR_PASSWORD, usuarioId, null, null);
     }
 
     @Override
@@ -341,6 +388,16 @@ public class UserServiceImpl implements UserService {
         // Encriptar y guardar nueva contraseña
         userEntity.setPassword(encriptarPassword(passwordNueva));
         userRepository.save(userEntity);
+        auditarUsuario(AuditoriaService.RESTABLECER_PASSWORD, usuarioId, null, null);
+    }
+
+    /**
+     * Registra en la auditoría un cambio de usuario. Los cambios de contraseña se registran
+     * sin valores: el DTO nunca incluye la contraseña.
+     */
+    private void auditarUsuario(String operacion, Long usuarioId, UserDTO estadoAnterior, UserDTO estadoNuevo) {
+        auditoriaService.registrarCambio(AuditoriaService.ENTIDAD_USUARIO, usuarioId, usuarioId, null,
+                operacion, estadoAnterior, estadoNuevo);
     }
 
     @Override
@@ -379,6 +436,7 @@ public class UserServiceImpl implements UserService {
         userDTO.setActivo(userEntity.getActivo());
         userDTO.setFechaCreacion(userEntity.getFechaCreacion());
         userDTO.setFechaActualizacion(userEntity.getFechaActualizacion());
+        userDTO.setVersion(userEntity.getVersion());
 
         // Convertir roles a Set<String>
         if (userEntity.getRoles() != null) {
@@ -1,15 +1,33 @@
 package com.exe.ConjuntoResidencialArkania.Impl;
 
+import com.exe.ConjuntoResidencialArkania.DTO.EvaluacionAsignacionDTO;
 import com.exe.ConjuntoResidencialArkania.DTO.UsuarioRolDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.UsuarioRol;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.ConflictoVersionException;
+import com.exe.ConjuntoResidencialArkania.Exception.UsuarioRolAlreadyExistsException;
+import com.exe.ConjuntoResidencialArkania.Exception.UsuarioRolNotFoundException;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto.ResultadoActivacion;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto.TipoActivacion;
+import com.exe.ConjuntoResidencialArkania.Repository.SecuenciaRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
 import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
+import com.exe.ConjuntoResidencialArkania.Service.PoliticaAsignacionService;
 import com.exe.ConjuntoResidencialArkania.Service.UsuarioRolService;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +62,42 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
     @Autowired
     private RolRepository rolRepository;
 
+    @Autowired
+    private EventoDominioService eventoDominioService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private PoliticaAsignacionService politicaAsignacionService;
+
+    @Autowired
+    private PermisoEfectivoService permisoEfectivoService;
+
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
+    @Autowired
+    private OperacionesDialecto operacionesDialecto;
+
+    @Autowired
+    private SecuenciaRepository secuenciaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier("diasExpiracionPorRol")
+    private Map<String, Integer> diasExpiracionPorRol;
+
+    @Autowired
+    @Qualifier("diasRenovacionPorRol")
+    private Map<String, Integer> diasRenovacionPorRol;
+
+    @Autowired
+    @Qualifier("rolesRequierenRenovacion")
+    private List<String> rolesRequierenRenovacion;
+
     // ========================================
     // OPERACIONES CRUD BÁSICAS
     // ========================================
@@ -58,27 +112,70 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         RolEntity rol = rolRepository.findById(usuarioRolDTO.getRolId())
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado con ID: " + usuarioRolDTO.getRolId()));
 
-        // Validar que no exista ya una asignación activa
-        if (existeAsignacionActiva(usuarioRolDTO.getUsuarioId(), usuarioRolDTO.getRolId())) {
-            throw new RuntimeException("Ya existe una asignación activa de este rol para el usuario");
+        // Validar políticas (asignación no duplicada, exclusiones, prerequisitos, límite) y reservar cupo
+        politicaAsignacionService.validarYReservar(usuario.getUsuarioId(), rol.getRolId());
+
+        // La restricción única cubre lo que la política no ve: altas simultáneas y asignaciones inactivas
+        try {
+            UsuarioRolDTO asignacionCreada = guardarNuevaAsignacion(usuario, rol);
+            usuarioRolRepository.flush();
+            return asignacionCreada;
+        } catch (DataIntegrityViolationException e) {
+            if (RestriccionesUnicas.esViolacion(e, RestriccionesUnicas.USUARIO_ROL)) {
+                throw UsuarioRolAlreadyExistsException.porUsuarioYRol(usuario.getUsuarioId(), rol.getRolId());
+            }
+            throw e;
         }
-
-        // Crear la nueva asignación
-        UsuarioRol usuarioRol = new UsuarioRol();
-        usuarioRol.setUsuario(usuario);
-        usuarioRol.setRol(rol);
-        usuarioRol.setActivo(true);
-
-        UsuarioRol asignacionGuardada = usuarioRolRepository.save(usuarioRol);
-        return convertirAUsuarioRolDTO(asignacionGuardada);
     }
 
     @Override
     public UsuarioRolDTO asignarRolAUsuario(Long usuarioId, Long rolId) {
-        UsuarioRolDTO usuarioRolDTO = new UsuarioRolDTO();
-        usuarioRolDTO.setUsuarioId(usuarioId);
-        usuarioRolDTO.setRolId(rolId);
-        return crearAsignacion(usuarioRolDTO);
+        return activarRolDeUsuario(usuarioId, rolId).asignacion();
+    }
+
+    @Override
+    public ResultadoAsignacion activarRolDeUsuario(Long usuarioId, Long rolId) {
+        // Repetición: la asignación ya está activa y se devuelve sin validar ni escribir
+        Optional<UsuarioRol> existente = usuarioRolRepository.findByUsuarioIdAndRolId(usuarioId, rolId);
+        if (existente.isPresent() && Boolean.TRUE.equals(existente.get().getActivo())) {
+            return new ResultadoAsignacion(convertirAUsuarioRolDTO(existente.get()), TipoActivacion.YA_ACTIVA);
+        }
+        UsuarioRolDTO estadoAnterior = existente.map(this::convertirAUsuarioRolDTO).orElse(null);
+
+        // Valida usuario, rol y políticas y reserva cupo; bloquea al usuario hasta el final de la transacción
+        politicaAsignacionService.validarYReservar(usuarioId, rolId);
+        RolEntity rol = rolRepository.findById(rolId).orElseThrow();
+
+        LocalDateTime ahora = LocalDateTime.now();
+        ResultadoActivacion resultado = operacionesDialecto.activarAsignacion(
+                secuenciaRepository.siguienteId("usuario_rol_seq"), usuarioId, rolId,
+                calcularFechaExpiracion(rol.getNombre(), ahora), ahora);
+
+        // El upsert no pasa por el contexto de persistencia: la asignación se lee de nuevo
+        UsuarioRol asignacion;
+        if (existente.isPresent()) {
+            asignacion = existente.get();
+            entityManager.refresh(asignacion);
+        } else {
+            asignacion = usuarioRolRepository.findById(resultado.usuarioRolId()).orElseThrow();
+        }
+        UsuarioRolDTO estadoNuevo = convertirAUsuarioRolDTO(asignacion);
+
+        switch (resultado.tipo()) {
+            case CREADA -> {
+                invalidarPermisos(asignacion);
+                registrarEventoAsignacion(EventoDominioService.ROL_ASIGNADO, asignacion);
+                auditarAsignacion(AuditoriaService.CREAR, asignacion, null, estadoNuevo);
+            }
+            case REACTIVADA -> {
+                invalidarPermisos(asignacion);
+                registrarEventoAsignacion(EventoDominioService.ROL_ACTIVADO, asignacion);
+                auditarAsignacion(AuditoriaService.ACTUALIZAR, asignacion, estadoAnterior, estadoNuevo);
+            }
+            // Otra transacción la activó entre la lectura y el upsert: el cupo reservado sobra
+            case YA_ACTIVA -> politicaAsignacionService.liberarCupo(rol.getNombre());
+        }
+        return new ResultadoAsignacion(estadoNuevo, resultado.tipo());
     }
 
     @Override
@@ -113,14 +210,32 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
     public UsuarioRolDTO actualizarAsignacion(Long usuarioRolId, UsuarioRolDTO usuarioRolDTO) {
         UsuarioRol usuarioRol = usuarioRolRepository.findById(usuarioRolId)
                 .orElseThrow(() -> new RuntimeException("Asignación no encontrada con ID: " + usuarioRolId));
+        ConflictoVersionException.verificar("Asignación", usuarioRolId, usuarioRol.getVersion(), usuarioRolDTO.getVersion());
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
 
         // Actualizar solo el estado activo (otros campos no se deben cambiar)
+        boolean cambioEstado = usuarioRolDTO.getActivo() != null && !usuarioRolDTO.getActivo().equals(usuarioRol.getActivo());
+        if (cambioEstado) {
+            if (usuarioRolDTO.getActivo()) {
+                reservarCupoActivacion(usuarioRol);
+            } else {
+                liberarCupoDesactivacion(usuarioRol);
+            }
+        }
         if (usuarioRolDTO.getActivo() != null) {
             usuarioRol.setActivo(usuarioRolDTO.getActivo());
         }
 
-        UsuarioRol asignacionActualizada = usuarioRolRepository.save(usuarioRol);
-        return convertirAUsuarioRolDTO(asignacionActualizada);
+        // El flush incrementa la versión antes de convertir la respuesta
+        UsuarioRol asignacionActualizada = usuarioRolRepository.saveAndFlush(usuarioRol);
+        invalidarPermisos(asignacionActualizada);
+        if (cambioEstado) {
+            registrarEventoAsignacion(asignacionActualizada.getActivo()
+                    ? EventoDominioService.ROL_ACTIVADO : EventoDominioService.ROL_DESACTIVADO, asignacionActualizada);
+        }
+        UsuarioRolDTO estadoNuevo = convertirAUsuarioRolDTO(asignacionActualizada);
+        auditarAsignacion(AuditoriaService.ACTUALIZAR, asignacionActualizada, estadoAnterior, estadoNuevo);
+        return estadoNuevo;
     }
 
     @Override
@@ -128,7 +243,12 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         UsuarioRol usuarioRol = usuarioRolRepository.findById(usuarioRolId)
                 .orElseThrow(() -> new RuntimeException("Asignación no encontrada con ID: " + usuarioRolId));
 
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+        liberarCupoDesactivacion(usuarioRol);
         usuarioRolRepository.delete(usuarioRol);
+        invalidarPermisos(usuarioRol);
+        registrarEventoAsignacion(EventoDominioService.ROL_ELIMINADO, usuarioRol);
+        auditarAsignacion(AuditoriaService.ELIMINAR, usuarioRol, estadoAnterior, null);
     }
 
     // ========================================
@@ -140,8 +260,13 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         UsuarioRol usuarioRol = usuarioRolRepository.findById(usuarioRolId)
                 .orElseThrow(() -> new RuntimeException("Asignación no encontrada con ID: " + usuarioRolId));
 
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+        reservarCupoActivacion(usuarioRol);
         usuarioRol.setActivo(true);
         usuarioRolRepository.save(usuarioRol);
+        invalidarPermisos(usuarioRol);
+        registrarEventoAsignacion(EventoDominioService.ROL_ACTIVADO, usuarioRol);
+        auditarAsignacion(AuditoriaService.ACTIVAR, usuarioRol, estadoAnterior, convertirAUsuarioRolDTO(usuarioRol));
     }
 
     @Override
@@ -149,8 +274,13 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         UsuarioRol usuarioRol = usuarioRolRepository.findById(usuarioRolId)
                 .orElseThrow(() -> new RuntimeException("Asignación no encontrada con ID: " + usuarioRolId));
 
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+        liberarCupoDesactivacion(usuarioRol);
         usuarioRol.setActivo(false);
         usuarioRolRepository.save(usuarioRol);
+        invalidarPermisos(usuarioRol);
+        registrarEventoAsignacion(EventoDominioService.ROL_DESACTIVADO, usuarioRol);
+        auditarAsignacion(AuditoriaService.DESACTIVAR, usuarioRol, estadoAnterior, convertirAUsuarioRolDTO(usuarioRol));
     }
 
     @Override
@@ -158,8 +288,13 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         UsuarioRol usuarioRol = usuarioRolRepository.findByUsuarioIdAndRolId(usuarioId, rolId)
                 .orElseThrow(() -> new RuntimeException("Asignación no encontrada para usuario ID: " + usuarioId + " y rol ID: " + rolId));
 
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+        reservarCupoActivacion(usuarioRol);
         usuarioRol.setActivo(true);
         usuarioRolRepository.save(usuarioRol);
+        invalidarPermisos(usuarioRol);
+        registrarEventoAsignacion(EventoDominioService.ROL_ACTIVADO, usuarioRol);
+        auditarAsignacion(AuditoriaService.ACTIVAR, usuarioRol, estadoAnterior, convertirAUsuarioRolDTO(usuarioRol));
     }
 
     @Override
@@ -167,8 +302,13 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         UsuarioRol usuarioRol = usuarioRolRepository.findByUsuarioIdAndRolId(usuarioId, rolId)
                 .orElseThrow(() -> new RuntimeException("Asignación no encontrada para usuario ID: " + usuarioId + " y rol ID: " + rolId));
 
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+        liberarCupoDesactivacion(usuarioRol);
         usuarioRol.setActivo(false);
         usuarioRolRepository.save(usuarioRol);
+        invalidarPermisos(usuarioRol);
+        registrarEventoAsignacion(EventoDominioService.ROL_DESACTIVADO, usuarioRol);
+        auditarAsignacion(AuditoriaService.DESACTIVAR, usuarioRol, estadoAnterior, convertirAUsuarioRolDTO(usuarioRol));
     }
 
     @Override
@@ -176,6 +316,93 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         desactivarAsignacionPorUsuarioYRol(usuarioId, rolId);
     }
 
+    // ========================================
+    // OPERACIONES DE EXPIRACIÓN Y RENOVACIÓN
+    // ========================================
+
+    @Override
+    public LocalDateTime calcularFechaExpiracion(String nombreRol, LocalDateTime desde) {
+        Integer dias = diasExpiracionPorRol.get(nombreRol);
+        if (dias == null && rolesRequierenRenovacion.contains(nombreRol)) {
+            dias = diasRenovacionPorRol.get(nombreRol);
+        }
+        return dias == null ? null : desde.plusDays(dias);
+    }
+
+    @Override
+    public UsuarioRolDTO renovarAsignacion(Long usuarioRolId) {
+        UsuarioRol usuarioRol = usuarioRolRepository.findById(usuarioRolId)
+                .orElseThrow(() -> UsuarioRolNotFoundException.porId(usuarioRolId));
+
+        String nombreRol = usuarioRol.getRol().getNombre();
+        Integer dias = diasRenovacionPorRol.getOrDefault(nombreRol, diasExpiracionPorRol.get(nombreRol));
+        if (dias == null) {
+            throw new IllegalArgumentException("El rol " + nombreRol + " no tiene vencimiento ni renovación");
+        }
+
+        // Solo se reactiva una asignación que expiró; una desactivada a mano se activa por la
+        // operación de activar
+        LocalDateTime ahora = LocalDateTime.now();
+        boolean vencida = usuarioRol.getFechaExpiracion() != null && !usuarioRol.getFechaExpiracion().isAfter(ahora);
+        if (!Boolean.TRUE.equals(usuarioRol.getActivo()) && !vencida) {
+            throw new IllegalStateException("La asignación " + usuarioRolId + " fue desactivada sin expirar; "
+                    + "no se puede renovar");
+        }
+
+        UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+        // La reactivación pasa por las políticas de asignación (exclusiones, prerequisitos y cupo)
+        reservarCupoActivacion(usuarioRol);
+        LocalDateTime base = usuarioRol.getFechaExpiracion() != null && usuarioRol.getFechaExpiracion().isAfter(ahora)
+                ? usuarioRol.getFechaExpiracion() : ahora;
+        usuarioRol.setFechaExpiracion(base.plusDays(dias));
+        usuarioRol.setRecordatorioEnviado(false);
+        usuarioRol.setActivo(true);
+
+        UsuarioRol asignacionRenovada = usuarioRolRepository.save(usuarioRol);
+        invalidarPermisos(asignacionRenovada);
+        registrarEventoAsignacion(EventoDominioService.ROL_RENOVADO, asignacionRenovada);
+        UsuarioRolDTO estadoNuevo = convertirAUsuarioRolDTO(asignacionRenovada);
+        auditarAsignacion(AuditoriaService.RENOVAR, asignacionRenovada, estadoAnterior, estadoNuevo);
+        return estadoNuevo;
+    }
+
+    @Override
+    public int expirarAsignaciones(Collection<Long> usuarioRolIds, LocalDateTime limiteExpiracion) {
+        if (usuarioRolIds.isEmpty()) {
+            return 0;
+        }
+        List<UsuarioRol> vencidas = usuarioRolRepository.findVencidasParaDesactivar(usuarioRolIds, limiteExpiracion);
+        for (UsuarioRol usuarioRol : vencidas) {
+            UsuarioRolDTO estadoAnterior = convertirAUsuarioRolDTO(usuarioRol);
+            politicaAsignacionService.liberarCupo(usuarioRol.getRol().getNombre());
+            usuarioRol.setActivo(false);
+            registrarEventoAsignacion(EventoDominioService.ROL_EXPIRADO, usuarioRol);
+            auditarAsignacion(AuditoriaService.EXPIRAR, usuarioRol, estadoAnterior, convertirAUsuarioRolDTO(usuarioRol));
+        }
+        usuarioRolRepository.saveAll(vencidas); // Actualizaciones agrupadas por el batching de Hibernate
+        if (!vencidas.isEmpty()) {
+            // Un solo UPDATE para los usuarios del lote
+            permisoEfectivoService.invalidarUsuarios(vencidas.stream().map(ur -> ur.getUsuario().getUsuarioId()).collect(Collectors.toSet()));
+            cacheRespuestasService.invalidar(CacheRespuestasService.ROLES);
+        }
+        return vencidas.size();
+    }
+
+    @Override
+    public int enviarRecordatoriosRenovacion(LocalDateTime limiteExpiracion, int maximo) {
+        if (rolesRequierenRenovacion.isEmpty()) {
+            return 0;
+        }
+        List<UsuarioRol> pendientes = usuarioRolRepository.findPendientesRecordatorio(
+                limiteExpiracion, rolesRequierenRenovacion, PageRequest.of(0, maximo));
+        for (UsuarioRol usuarioRol : pendientes) {
+            usuarioRol.setRecordatorioEnviado(true);
+            registrarEventoAsignacion(EventoDominioService.ROL_PROXIMO_A_EXPIRAR, usuarioRol);
+        }
+        usuarioRolRepository.saveAll(pendientes);
+        return pendientes.size();
+    }
+
     // ========================================
     // OPERACIONES DE LISTADO Y BÚSQUEDA
     // ========================================
@@ -293,20 +520,8 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
     @Override
     @Transactional(readOnly = true)
     public boolean puedeAsignarRol(Long usuarioId, Long rolId) {
-        // Verificar que el usuario existe y está activo
-        UserEntity usuario = userRepository.findById(usuarioId).orElse(null);
-        if (usuario == null || !usuario.getActivo()) {
-            return false;
-        }
-
-        // Verificar que el rol existe y está activo
-        RolEntity rol = rolRepository.findById(rolId).orElse(null);
-        if (rol == null || !rol.getActivo()) {
-            return false;
-        }
-
-        // Verificar que no existe una asignación activa
-        return !existeAsignacionActiva(usuarioId, rolId);
+        // Simulación con todas las reglas del motor de políticas
+        return politicaAsignacionService.evaluar(List.of(candidata(usuarioId, rolId))).get(0).isPermitida();
     }
 
     @Override
@@ -334,18 +549,10 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
 
     @Override
     public List<UsuarioRolDTO> asignarMultiplesRolesAUsuario(Long usuarioId, List<Long> rolesIds) {
-        List<UsuarioRolDTO> asignaciones = new ArrayList<>();
-
-        for (Long rolId : rolesIds) {
-            if (puedeAsignarRol(usuarioId, rolId)) {
-                UsuarioRolDTO asignacion = asignarRolAUsuario(usuarioId, rolId);
-                asignaciones.add(asignacion);
-            } else {
-                throw new RuntimeException("No se puede asignar el rol ID: " + rolId + " al usuario ID: " + usuarioId);
-            }
-        }
-
-        return asignaciones;
+        List<EvaluacionAsignacionDTO> candidatas = rolesIds.stream()
+                .map(rolId -> candidata(usuarioId, rolId))
+                .collect(Collectors.toList());
+        return asignarLote(candidatas);
     }
 
     @Override
@@ -361,18 +568,10 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
 
     @Override
     public List<UsuarioRolDTO> asignarRolAMultiplesUsuarios(Long rolId, List<Long> usuariosIds) {
-        List<UsuarioRolDTO> asignaciones = new ArrayList<>();
-
-        for (Long usuarioId : usuariosIds) {
-            if (puedeAsignarRol(usuarioId, rolId)) {
-                UsuarioRolDTO asignacion = asignarRolAUsuario(usuarioId, rolId);
-                asignaciones.add(asignacion);
-            } else {
-                throw new RuntimeException("No se puede asignar el rol ID: " + rolId + " al usuario ID: " + usuarioId);
-            }
-        }
-
-        return asignaciones;
+        List<EvaluacionAsignacionDTO> candidatas = usuariosIds.stream()
+                .map(usuarioId -> candidata(usuarioId, rolId))
+                .collect(Collectors.toList());
+        return asignarLote(candidatas);
     }
 
     @Override
@@ -402,6 +601,120 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         return asignarMultiplesRolesAUsuario(usuarioId, nuevosRolesIds);
     }
 
+    // ========================================
+    // POLÍTICAS DE ASIGNACIÓN
+    // ========================================
+
+    /**
+     * Evalúa un lote completo en una sola pasada y lo crea solo si todas las candidatas
+     * están permitidas; si alguna no lo está, se rechaza el lote entero y la transacción
+     * revertida libera los cupos reservados.
+     */
+    private List<UsuarioRolDTO> asignarLote(List<EvaluacionAsignacionDTO> candidatas) {
+        List<EvaluacionAsignacionDTO> evaluaciones = politicaAsignacionService.evaluarYReservar(candidatas);
+        for (EvaluacionAsignacionDTO evaluacion : evaluaciones) {
+            if (!evaluacion.isPermitida()) {
+                throw new RuntimeException("No se puede asignar el rol ID: " + evaluacion.getRolId()
+                        + " al usuario ID: " + evaluacion.getUsuarioId()
+                        + ": " + String.join("; ", evaluacion.getViolaciones()));
+            }
+        }
+
+        // Usuarios y roles ya están en el contexto de persistencia desde la evaluación
+        List<UsuarioRolDTO> asignaciones = new ArrayList<>();
+        for (EvaluacionAsignacionDTO evaluacion : evaluaciones) {
+            UserEntity usuario = userRepository.findById(evaluacion.getUsuarioId()).orElseThrow();
+            RolEntity rol = rolRepository.findById(evaluacion.getRolId()).orElseThrow();
+            asignaciones.add(guardarNuevaAsignacion(usuario, rol));
+        }
+        return asignaciones;
+    }
+
+    /**
+     * Crea una asignación activa ya validada por el motor de políticas.
+     */
+    private UsuarioRolDTO guardarNuevaAsignacion(UserEntity usuario, RolEntity rol) {
+        UsuarioRol usuarioRol = new UsuarioRol();
+        usuarioRol.setUsuario(usuario);
+        usuarioRol.setRol(rol);
+        usuarioRol.setActivo(true);
+        usuarioRol.setFechaExpiracion(calcularFechaExpiracion(rol.getNombre(), LocalDateTime.now()));
+
+        UsuarioRol asignacionGuardada = usuarioRolRepository.save(usuarioRol);
+        invalidarPermisos(asignacionGuardada);
+        registrarEventoAsignacion(EventoDominioService.ROL_ASIGNADO, asignacionGuardada);
+        UsuarioRolDTO asignacionCreada = convertirAUsuarioRolDTO(asignacionGuardada);
+        auditarAsignacion(AuditoriaService.CREAR, asignacionGuardada, null, asignacionCreada);
+        return asignacionCreada;
+    }
+
+    /**
+     * Valida y reserva cupo antes de activar una asignación inactiva. Sin efecto si ya está activa.
+     */
+    private void reservarCupoActivacion(UsuarioRol usuarioRol) {
+        if (!Boolean.TRUE.equals(usuarioRol.getActivo())) {
+            politicaAsignacionService.validarYReservar(usuarioRol.getUsuario().getUsuarioId(),
+                    usuarioRol.getRol().getRolId());
+        }
+    }
+
+    /**
+     * Libera el cupo de una asignación activa que se desactiva o elimina. Sin efecto si ya está inactiva.
+     */
+    private void liberarCupoDesactivacion(UsuarioRol usuarioRol) {
+        if (Boolean.TRUE.equals(usuarioRol.getActivo())) {
+            politicaAsignacionService.liberarCupo(usuarioRol.getRol().getNombre());
+        }
+    }
+
+    private EvaluacionAsignacionDTO candidata(Long usuarioId, Long rolId) {
+        return new EvaluacionAsignacionDTO(usuarioId, rolId, false, new ArrayList<>());
+    }
+
+    // ========================================
+    // EVENTOS DE DOMINIO
+    // ========================================
+
+    /**
+     * Registra en el outbox un cambio de asignación, dentro de la transacción actual.
+     * Los eventos se agrupan por usuario para que sus cambios de rol se publiquen en orden.
+     * 
+     * @param tipoEvento Tipo de evento (ROL_ASIGNADO, ROL_ACTIVADO, ...)
+     * @param usuarioRol Asignación afectada
+     */
+    private void registrarEventoAsignacion(String tipoEvento, UsuarioRol usuarioRol) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("usuarioRolId", usuarioRol.getUsuarioRolId());
+        datos.put("usuarioId", usuarioRol.getUsuario().getUsuarioId());
+        datos.put("rolId", usuarioRol.getRol().getRolId());
+        datos.put("rolNombre", usuarioRol.getRol().getNombre());
+        datos.put("activo", usuarioRol.getActivo());
+        datos.put("fechaExpiracion", usuarioRol.getFechaExpiracion());
+        eventoDominioService.registrarEvento(EventoDominioService.AGREGADO_USUARIO,
+                usuarioRol.getUsuario().getUsuarioId(), tipoEvento, datos);
+    }
+
+    /**
+     * Avanza la versión de permisos del usuario de la asignación e invalida los listados de
+     * roles en caché (incluyen el número de usuarios de cada rol). Se llama en cada operación
+     * que escribe una asignación, dentro de su transacción.
+     */
+    private void invalidarPermisos(UsuarioRol usuarioRol) {
+        permisoEfectivoService.invalidarUsuario(usuarioRol.getUsuario().getUsuarioId());
+        cacheRespuestasService.invalidar(CacheRespuestasService.ROLES);
+    }
+
+    /**
+     * Registra en la auditoría un cambio de asignación. El registro queda relacionado con el
+     * usuario de la asignación, para que aparezca en su historial.
+     */
+    private void auditarAsignacion(String operacion, UsuarioRol usuarioRol,
+                                   UsuarioRolDTO estadoAnterior, UsuarioRolDTO estadoNuevo) {
+        auditoriaService.registrarCambio(AuditoriaService.ENTIDAD_USUARIO_ROL, usuarioRol.getUsuarioRolId(),
+                usuarioRol.getUsuario().getUsuarioId(), usuarioRol.getRol().getNombre(),
+                operacion, estadoAnterior, estadoNuevo);
+    }
+
     // ========================================
     // OPERACIONES DE CONVERSIÓN
     // ========================================
@@ -417,8 +730,10 @@ public class UsuarioRolServiceImpl implements UsuarioRolService {
         usuarioRolDTO.setUsuarioId(usuarioRol.getUsuario().getUsuarioId());
         usuarioRolDTO.setRolId(usuarioRol.getRol().getRolId());
         usuarioRolDTO.setActivo(usuarioRol.getActivo());
+        usuarioRolDTO.setFechaExpiracion(usuarioRol.getFechaExpiracion());
         usuarioRolDTO.setFechaCreacion(usuarioRol.getFechaCreacion());
         usuarioRolDTO.setFechaActualizacion(usuarioRol.getFechaActualizacion());
+        usuarioRolDTO.setVersion(usuarioRol.getVersion());
 
         // Información adicional del usuario
         UserEntity usuario = usuarioRol.getUsuario();
@@ -0,0 +1,229 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import com.exe.ConjuntoResidencialArkania.Entity.ApartamentoEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de las tablas de archivo de correspondencias y solicitudes
+ * (ver db/migracion/007_archivo_historico.sql y 016_archivo_cola_grupos.sql).
+ *
+ * Mover: cada llamada bloquea un lote de filas cerradas de la tabla principal, las copia al
+ * archivo con un INSERT ... SELECT y las borra, todo en la transacción del llamador. Así una
+ * fila está siempre en una sola de las dos tablas.
+ *
+ * Leer: las consultas devuelven entidades sin administrar (no están en el contexto de
+ * persistencia ni se pueden guardar), con los usuarios y el apartamento reducidos a su ID,
+ * para que los servicios las conviertan con el mismo mapeo que las de la tabla principal.
+ */
+@Repository
+public class ArchivoRepository {
+
+    private static final String COLUMNAS_CORRESPONDENCIAS =
+            "id_correspondencia, registrado_por, destinatario, retirado_por, apartamento, tipo, " +
+            "fecha_recepcion, fecha_entrega, estado, observaciones, crear_correspondencia, " +
+            "actualizar_correspondencia, version";
+
+    private static final String COLUMNAS_SOLICITUDES =
+            "id_solicitud, usuario_id, tipo_solicitud, descripcion, estado_solicitud, " +
+            "fecha_creacion, fecha_resolucion, prioridad, orden_cola, asignado_a, reclamo_vence, " +
+            "grupo_duplicados, version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ArchivoRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Indica si existen las tablas de archivo con todas las columnas que se copian. Se debe
+     * llamar fuera de una transacción: en PostgreSQL una consulta fallida invalida la
+     * transacción en curso.
+     */
+    public boolean tablasDisponibles() {
+        try {
+            jdbcTemplate.queryForList("SELECT " + COLUMNAS_CORRESPONDENCIAS + " FROM correspondencias_archivo WHERE 1 = 0");
+            jdbcTemplate.queryForList("SELECT " + COLUMNAS_SOLICITUDES + " FROM solicitudes_archivo WHERE 1 = 0");
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    // ========================================
+    // MOVIMIENTO AL ARCHIVO
+    // ========================================
+
+    /**
+     * Mueve al archivo un lote de correspondencias entregadas antes del límite, las más
+     * antiguas primero. Requiere una transacción activa.
+     *
+     * @return Correspondencias movidas; menos que tamanoLote indica que no quedan más
+     */
+    public int moverCorrespondencias(LocalDateTime limite, int tamanoLote, LocalDateTime archivadaEn) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id_correspondencia FROM correspondencias " +
+                "WHERE estado = ? AND fecha_entrega < ? ORDER BY fecha_entrega LIMIT ? FOR UPDATE",
+                Long.class, CorrespondenciaEntity.Estado.ENTREGADA.name(), Timestamp.valueOf(limite), tamanoLote);
+        return mover("correspondencias", "id_correspondencia", COLUMNAS_CORRESPONDENCIAS, ids, archivadaEn);
+    }
+
+    /**
+     * Mueve al archivo un lote de solicitudes resueltas o rechazadas antes del límite (por
+     * fecha de resolución, o de creación si no la tienen). Requiere una transacción activa.
+     *
+     * @return Solicitudes movidas; menos que tamanoLote indica que no quedan más
+     */
+    public int moverSolicitudes(LocalDateTime limite, int tamanoLote, LocalDateTime archivadaEn) {
+        Timestamp marca = Timestamp.valueOf(limite);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id_solicitud FROM solicitudes " +
+                "WHERE estado_solicitud IN (?, ?) " +
+                "AND (fecha_resolucion < ? OR (fecha_resolucion IS NULL AND fecha_creacion < ?)) " +
+                "ORDER BY id_solicitud LIMIT ? FOR UPDATE",
+                Long.class, SolicitudesEntity.EstadoSolicitud.resuelta.name(),
+                SolicitudesEntity.EstadoSolicitud.rechazada.name(), marca, marca, tamanoLote);
+        return mover("solicitudes", "id_solicitud", COLUMNAS_SOLICITUDES, ids, archivadaEn);
+    }
+
+    // ========================================
+    // CONSULTAS DE CORRESPONDENCIAS ARCHIVADAS
+    // ========================================
+
+    public Optional<CorrespondenciaEntity> buscarCorrespondencia(Long id) {
+        return consultarCorrespondencias("id_correspondencia = ?", id).stream().findFirst();
+    }
+
+    public List<CorrespondenciaEntity> correspondenciasPorRecepcion(LocalDateTime inicio, LocalDateTime fin) {
+        return consultarCorrespondencias("fecha_recepcion BETWEEN ? AND ?",
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+    }
+
+    // ========================================
+    // CONSULTAS DE SOLICITUDES ARCHIVADAS
+    // ========================================
+
+    public Optional<SolicitudesEntity> buscarSolicitud(Long id) {
+        return consultarSolicitudes("id_solicitud = ?", id).stream().findFirst();
+    }
+
+    public List<SolicitudesEntity> solicitudesPorCreacion(LocalDateTime inicio, LocalDateTime fin) {
+        return consultarSolicitudes("fecha_creacion BETWEEN ? AND ?",
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+    }
+
+    public List<SolicitudesEntity> solicitudesPorResolucion(LocalDateTime inicio, LocalDateTime fin) {
+        return consultarSolicitudes("fecha_resolucion BETWEEN ? AND ?",
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private int mover(String tabla, String columnaId, String columnas, List<Long> ids, LocalDateTime archivadaEn) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String enIds = " WHERE " + columnaId + " IN (" + marcadores(ids.size()) + ")";
+        Object[] parametros = new Object[ids.size() + 1];
+        parametros[0] = Timestamp.valueOf(archivadaEn);
+        for (int i = 0; i < ids.size(); i++) {
+            parametros[i + 1] = ids.get(i);
+        }
+        jdbcTemplate.update("INSERT INTO " + tabla + "_archivo (" + columnas + ", archivada_en) " +
+                "SELECT " + columnas + ", ? FROM " + tabla + enIds, parametros);
+        return jdbcTemplate.update("DELETE FROM " + tabla + enIds, ids.toArray());
+    }
+
+    private List<CorrespondenciaEntity> consultarCorrespondencias(String condicion, Object... parametros) {
+        return jdbcTemplate.query("SELECT " + COLUMNAS_CORRESPONDENCIAS + " FROM correspondencias_archivo WHERE "
+                + condicion + " ORDER BY fecha_recepcion", MAPEO_CORRESPONDENCIA, parametros);
+    }
+
+    private List<SolicitudesEntity> consultarSolicitudes(String condicion, Object... parametros) {
+        return jdbcTemplate.query("SELECT " + COLUMNAS_SOLICITUDES + " FROM solicitudes_archivo WHERE "
+                + condicion + " ORDER BY fecha_creacion", MAPEO_SOLICITUD, parametros);
+    }
+
+    private static String marcadores(int cantidad) {
+        return String.join(", ", Collections.nCopies(cantidad, "?"));
+    }
+
+    private static final RowMapper<CorrespondenciaEntity> MAPEO_CORRESPONDENCIA = (rs, fila) -> {
+        CorrespondenciaEntity c = new CorrespondenciaEntity();
+        c.setIdCorrespondencia(rs.getLong("id_correspondencia"));
+        c.setRegistradoPor(usuario(rs, "registrado_por"));
+        c.setDestinatario(usuario(rs, "destinatario"));
+        c.setRetiradoPor(usuario(rs, "retirado_por"));
+        long apartamentoId = rs.getLong("apartamento");
+        if (!rs.wasNull()) {
+            ApartamentoEntity apartamento = new ApartamentoEntity();
+            apartamento.setApartamentoId(apartamentoId);
+            c.setApartamento(apartamento);
+        }
+        c.setTipo(CorrespondenciaEntity.Tipo.valueOf(rs.getString("tipo")));
+        c.setFechaRecepcion(fecha(rs, "fecha_recepcion"));
+        c.setFechaEntrega(fecha(rs, "fecha_entrega"));
+        c.setEstado(CorrespondenciaEntity.Estado.valueOf(rs.getString("estado")));
+        c.setObservaciones(rs.getString("observaciones"));
+        c.setCrearCorrespondencia(fecha(rs, "crear_correspondencia"));
+        c.setActualizarCorrespondencia(fecha(rs, "actualizar_correspondencia"));
+        c.setVersion(rs.getLong("version"));
+        return c;
+    };
+
+    private static final RowMapper<SolicitudesEntity> MAPEO_SOLICITUD = (rs, fila) -> {
+        SolicitudesEntity s = new SolicitudesEntity();
+        s.setIdSolicitud(rs.getLong("id_solicitud"));
+        s.setUsuario(usuario(rs, "usuario_id"));
+        s.setTipoSolicitud(SolicitudesEntity.TipoSolicitud.valueOf(rs.getString("tipo_solicitud")));
+        s.setDescripcion(rs.getString("descripcion"));
+        s.setEstadoSolicitud(SolicitudesEntity.EstadoSolicitud.valueOf(rs.getString("estado_solicitud")));
+        s.setFechaCreacion(fecha(rs, "fecha_creacion"));
+        s.setFechaResolucion(fecha(rs, "fecha_resolucion"));
+        s.setPrioridad(rs.getInt("prioridad"));
+        s.setOrdenCola(fecha(rs, "orden_cola"));
+        s.setAsignadoA(entero(rs, "asignado_a"));
+        s.setReclamoVence(fecha(rs, "reclamo_vence"));
+        s.setGrupoDuplicados(entero(rs, "grupo_duplicados"));
+        s.setVersion(rs.getLong("version"));
+        return s;
+    };
+
+    private static UserEntity usuario(ResultSet rs, String columna) throws SQLException {
+        long usuarioId = rs.getLong(columna);
+        if (rs.wasNull()) {
+            return null;
+        }
+        UserEntity usuario = new UserEntity();
+        usuario.setUsuarioId(usuarioId);
+        return usuario;
+    }
+
+    private static Long entero(ResultSet rs, String columna) throws SQLException {
+        long valor = rs.getLong(columna);
+        return rs.wasNull() ? null : valor;
+    }
+
+    private static LocalDateTime fecha(ResultSet rs, String columna) throws SQLException {
+        Timestamp valor = rs.getTimestamp(columna);
+        return valor != null ? valor.toLocalDateTime() : null;
+    }
+}
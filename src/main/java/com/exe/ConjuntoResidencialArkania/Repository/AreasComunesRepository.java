@@ -23,8 +23,10 @@ public interface AreasComunesRepository extends JpaRepository<AreasComunesEntity
     List<AreasComunesEntity> findByDescripcionContainingIgnoreCaseOrNombreContainingIgnoreCase(
             String descripcion, String nombre);
 
+    // Areas en un estado dado, ordenadas por nombre
+    List<AreasComunesEntity> findByEstadoOrderByNombreAsc(AreasComunesEntity.EstadoArea estado);
+
     //Arroja cuantas areas activas o inactivas hay 
-    long activas = areasComunesRepository.countByEstado(AreasComunesEntity.EstadoArea.activa);
-    long inactivas = areasComunesRepository.countByEstado(AreasComunesEntity.EstadoArea.inactiva);
+    long countByEstado(AreasComunesEntity.EstadoArea estado);
 
 }
@@ -0,0 +1,51 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import com.exe.ConjuntoResidencialArkania.Entity.AuditoriaEntity;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio de consulta del log de auditoría.
+ *
+ * Todas las consultas son paginadas y ordenadas por fecha descendente. Las que reciben
+ * un rango de fechas permiten a PostgreSQL descartar las particiones mensuales que
+ * quedan fuera del rango.
+ */
+@Repository
+public interface AuditoriaRepository extends JpaRepository<AuditoriaEntity, Long> {
+
+    /**
+     * Historial de una entidad (un usuario, un rol o una asignación).
+     */
+    Page<AuditoriaEntity> findByEntidadTipoAndEntidadIdOrderByFechaCambioDesc(
+            String entidadTipo, Long entidadId, Pageable pageable);
+
+    /**
+     * Historial completo de un usuario: cambios sobre el usuario y sobre sus asignaciones.
+     */
+    Page<AuditoriaEntity> findByUsuarioRelacionadoIdOrderByFechaCambioDesc(
+            Long usuarioRelacionadoId, Pageable pageable);
+
+    /**
+     * Historial de un usuario acotado a un rango de fechas.
+     */
+    Page<AuditoriaEntity> findByUsuarioRelacionadoIdAndFechaCambioBetweenOrderByFechaCambioDesc(
+            Long usuarioRelacionadoId, LocalDateTime fechaInicio, LocalDateTime fechaFin, Pageable pageable);
+
+    /**
+     * Cambios realizados por un usuario responsable.
+     */
+    Page<AuditoriaEntity> findByUsuarioResponsableIdOrderByFechaCambioDesc(
+            Long usuarioResponsableId, Pageable pageable);
+
+    /**
+     * Todos los cambios de un rango de fechas.
+     */
+    Page<AuditoriaEntity> findByFechaCambioBetweenOrderByFechaCambioDesc(
+            LocalDateTime fechaInicio, LocalDateTime fechaFin, Pageable pageable);
+}
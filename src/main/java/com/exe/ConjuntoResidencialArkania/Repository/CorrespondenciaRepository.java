@@ -2,8 +2,12 @@ package com.exe.ConjuntoResidencialArkania.Repository;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Estado;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Tipo;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,4 +29,33 @@ public interface CorrespondenciaRepository extends JpaRepository<Correspondencia
     // Buscar correspondencias entregadas por un usuario específico (retiradas por)
     List<CorrespondenciaEntity> findByRetiradoPor_usuarioId(Long retiradoPor);
 
+    // Entregar una correspondencia pendiente en una sola sentencia condicional: si otro portero
+    // ya la entregó, el WHERE no la encuentra y no se modifica nada (0 filas)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CorrespondenciaEntity c SET c.estado = :entregada, c.retiradoPor = :retiradoPor, " +
+           "c.fechaEntrega = :fechaEntrega, c.actualizarCorrespondencia = :fechaEntrega, c.version = c.version + 1 " +
+           "WHERE c.idCorrespondencia = :id AND c.estado = :pendiente")
+    int entregarSiPendiente(@Param("id") Long id,
+                            @Param("retiradoPor") UserEntity retiradoPor,
+                            @Param("fechaEntrega") LocalDateTime fechaEntrega,
+                            @Param("pendiente") Estado pendiente,
+                            @Param("entregada") Estado entregada);
+
+    // Fechas de recepción de las pendientes de un apartamento (días que cambia una entrega masiva)
+    @Query("SELECT c.fechaRecepcion FROM CorrespondenciaEntity c " +
+           "WHERE c.apartamento.apartamentoId = :apartamentoId AND c.estado = :pendiente")
+    List<LocalDateTime> fechasRecepcionPendientes(@Param("apartamentoId") Long apartamentoId,
+                                                  @Param("pendiente") Estado pendiente);
+
+    // Entregar en una sola sentencia todas las correspondencias pendientes de un apartamento
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CorrespondenciaEntity c SET c.estado = :entregada, c.retiradoPor = :retiradoPor, " +
+           "c.fechaEntrega = :fechaEntrega, c.actualizarCorrespondencia = :fechaEntrega, c.version = c.version + 1 " +
+           "WHERE c.apartamento.apartamentoId = :apartamentoId AND c.estado = :pendiente")
+    int entregarPendientesDeApartamento(@Param("apartamentoId") Long apartamentoId,
+                                        @Param("retiradoPor") UserEntity retiradoPor,
+                                        @Param("fechaEntrega") LocalDateTime fechaEntrega,
+                                        @Param("pendiente") Estado pendiente,
+                                        @Param("entregada") Estado entregada);
+
 }
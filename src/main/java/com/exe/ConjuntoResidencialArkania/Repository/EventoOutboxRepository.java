@@ -0,0 +1,59 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import com.exe.ConjuntoResidencialArkania.Entity.EventoOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para los eventos del outbox transaccional.
+ */
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutboxEntity, Long> {
+
+    /**
+     * Obtiene los eventos pendientes cuyo intento ya venció, en orden de registro.
+     * Se excluyen los eventos con un evento anterior de su mismo agregado aún en espera de
+     * reintento, para mantener el orden por agregado: los eventos en espera no se leen, así
+     * que un lote de eventos fallidos no detiene a los posteriores de otros agregados.
+     *
+     * @param pendiente Estado PENDIENTE
+     * @param ahora Momento de la lectura
+     * @param pageable Tamaño del lote a leer
+     * @return Lista de eventos ordenados por ID
+     */
+    @Query("SELECT e FROM EventoOutboxEntity e WHERE e.estado = :pendiente " +
+           "AND e.proximoIntento <= :ahora AND NOT EXISTS (SELECT 1 FROM EventoOutboxEntity p " +
+           "WHERE p.estado = :pendiente " +
+           "AND p.agregadoTipo = e.agregadoTipo AND p.agregadoId = e.agregadoId " +
+           "AND p.eventoId < e.eventoId AND p.proximoIntento > :ahora) " +
+           "ORDER BY e.eventoId")
+    List<EventoOutboxEntity> findPendientesVencidos(@Param("pendiente") EventoOutboxEntity.EstadoEvento pendiente,
+                                                    @Param("ahora") LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Elimina los eventos en un estado publicados antes de una fecha.
+     * 
+     * @param estado Estado de los eventos a eliminar (normalmente PUBLICADO)
+     * @param limite Fecha límite de publicación
+     * @return Número de eventos eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM EventoOutboxEntity e WHERE e.estado = :estado AND e.fechaPublicacion < :limite")
+    int deleteByEstadoAndFechaPublicacionBefore(@Param("estado") EventoOutboxEntity.EstadoEvento estado,
+                                                @Param("limite") LocalDateTime limite);
+
+    /**
+     * Cuenta los eventos por estado.
+     * 
+     * @param estado Estado a contar
+     * @return Número de eventos en ese estado
+     */
+    long countByEstado(EventoOutboxEntity.EstadoEvento estado);
+}
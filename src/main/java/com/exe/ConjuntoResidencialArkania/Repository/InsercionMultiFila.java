@@ -0,0 +1,56 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserción de muchas filas con sentencias INSERT ... VALUES (...), (...) de varias filas.
+ *
+ * Cada sentencia lleva tantas filas como quepan en el límite de parámetros de los drivers
+ * (65.535 en PostgreSQL y MySQL) sin pasar de MAX_FILAS. La sentencia de un lote completo se
+ * arma una sola vez y se reutiliza, así que el servidor la ve siempre igual.
+ */
+final class InsercionMultiFila {
+
+    private static final int MAX_PARAMETROS = 60_000;
+    private static final int MAX_FILAS = 1_000;
+
+    private InsercionMultiFila() {
+    }
+
+    static int insertar(JdbcTemplate jdbcTemplate, String tabla, List<String> columnas, List<Object[]> filas) {
+        if (filas.isEmpty()) {
+            return 0;
+        }
+        int porSentencia = Math.max(1, Math.min(MAX_FILAS, MAX_PARAMETROS / columnas.size()));
+        String sqlCompleta = null;
+        int insertadas = 0;
+        for (int desde = 0; desde < filas.size(); desde += porSentencia) {
+            List<Object[]> lote = filas.subList(desde, Math.min(desde + porSentencia, filas.size()));
+            String sql;
+            if (lote.size() == porSentencia) {
+                if (sqlCompleta == null) {
+                    sqlCompleta = sql(tabla, columnas, porSentencia);
+                }
+                sql = sqlCompleta;
+            } else {
+                sql = sql(tabla, columnas, lote.size());
+            }
+            List<Object> parametros = new ArrayList<>(lote.size() * columnas.size());
+            for (Object[] fila : lote) {
+                Collections.addAll(parametros, fila);
+            }
+            insertadas += jdbcTemplate.update(sql, parametros.toArray());
+        }
+        return insertadas;
+    }
+
+    private static String sql(String tabla, List<String> columnas, int filas) {
+        String marcadores = "(" + String.join(", ", Collections.nCopies(columnas.size(), "?")) + ")";
+        return "INSERT INTO " + tabla + " (" + String.join(", ", columnas) + ") VALUES "
+                + String.join(", ", Collections.nCopies(filas, marcadores));
+    }
+}
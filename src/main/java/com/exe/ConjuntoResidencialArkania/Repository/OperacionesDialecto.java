@@ -0,0 +1,86 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operaciones con SQL propio de cada motor de base de datos.
+ *
+ * JPA cubre el acceso normal, pero algunas operaciones solo son rápidas con la sintaxis
+ * nativa de cada motor: reservar bloques de IDs, cargas masivas, upsert de asignaciones y
+ * búsqueda de texto completo. Hay una implementación para PostgreSQL y otra para MySQL;
+ * DialectoConfig elige la que corresponde a la base de datos conectada.
+ */
+public interface OperacionesDialecto {
+
+    /**
+     * Efecto de activar una asignación usuario-rol.
+     */
+    enum TipoActivacion {
+        /** No existía y se insertó */
+        CREADA,
+        /** Existía inactiva y se reactivó */
+        REACTIVADA,
+        /** Ya estaba activa; no se modificó */
+        YA_ACTIVA
+    }
+
+    /**
+     * Resultado de activar una asignación usuario-rol.
+     *
+     * @param usuarioRolId ID de la asignación (nueva o existente)
+     * @param tipo Qué hizo la operación
+     */
+    record ResultadoActivacion(Long usuarioRolId, TipoActivacion tipo) {
+    }
+
+    /**
+     * Nombre del motor (postgresql, mysql).
+     */
+    String nombre();
+
+    /**
+     * Reserva bloques de IDs de una secuencia en un solo viaje. Cada valor devuelto es el
+     * inicio de un bloque de SecuenciaRepository.TAMANO_BLOQUE IDs (interpretación pooled-lo).
+     *
+     * @param secuencia Nombre de la secuencia (por ejemplo, usuarios_seq)
+     * @param bloques Número de bloques a reservar
+     * @return Inicio de cada bloque reservado
+     */
+    List<Long> reservarBloques(String secuencia, int bloques);
+
+    /**
+     * Inserta muchas filas con el mecanismo más rápido del motor.
+     *
+     * @param tabla Tabla destino
+     * @param columnas Columnas en el orden de los valores de cada fila
+     * @param filas Valores de cada fila (String, Number, Boolean, Timestamp o null)
+     * @return Filas insertadas
+     */
+    int insertarFilas(String tabla, List<String> columnas, List<Object[]> filas);
+
+    /**
+     * Crea o reactiva la asignación de un rol a un usuario en una sola sentencia,
+     * apoyada en la restricción única uk_usuario_rol_usuario_rol. Si la asignación ya
+     * está activa no se modifica, así que repetir la operación no tiene efecto.
+     *
+     * @param nuevoId ID a usar si la asignación no existe (reservado de usuario_rol_seq)
+     * @param usuarioId ID del usuario
+     * @param rolId ID del rol
+     * @param fechaExpiracion Nueva fecha de expiración (null si el rol no expira)
+     * @param ahora Fecha de creación o actualización
+     * @return ID de la asignación y efecto de la operación
+     */
+    ResultadoActivacion activarAsignacion(Long nuevoId, Long usuarioId, Long rolId,
+                                          LocalDateTime fechaExpiracion, LocalDateTime ahora);
+
+    /**
+     * Busca solicitudes por palabras de la descripción con el índice de texto completo
+     * del motor, ordenadas por relevancia.
+     *
+     * @param texto Palabras a buscar
+     * @param limite Máximo de resultados
+     * @return IDs de las solicitudes encontradas
+     */
+    List<Long> buscarSolicitudesPorTexto(String texto, int limite);
+}
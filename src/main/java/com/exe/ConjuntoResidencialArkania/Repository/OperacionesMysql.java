@@ -0,0 +1,107 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Operaciones nativas de MySQL.
+ *
+ * MySQL no tiene secuencias: Hibernate las emula con una tabla por secuencia (columna
+ * next_val, ver db/migracion/mysql/001). Los bloques se reservan igual que lo hace Hibernate,
+ * con un UPDATE condicionado al valor leído que se reintenta si otro proceso avanzó la tabla,
+ * así que no hace falta bloquear la fila.
+ *
+ * Las cargas masivas usan INSERT de varias filas. LOAD DATA LOCAL INFILE sería más rápido,
+ * pero exige allowLoadLocalInfile en el driver, que abre la lectura de archivos del cliente
+ * a cualquier servidor al que se conecte.
+ *
+ * La búsqueda de texto completo usa MATCH ... AGAINST sobre el índice FULLTEXT de
+ * db/migracion/mysql/005.
+ */
+public class OperacionesMysql implements OperacionesDialecto {
+
+    private static final Pattern NOMBRE_SECUENCIA = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    // Las asignaciones se evalúan de izquierda a derecha: activo se cambia al final para que
+    // las anteriores vean el valor original
+    private static final String SQL_ACTIVAR_ASIGNACION =
+            "INSERT INTO usuario_rol (usuario_rol_id, usuario_id, rol_id, activo, fecha_expiracion, " +
+            "recordatorio_enviado, fecha_creacion, fecha_actualizacion, version) " +
+            "VALUES (?, ?, ?, TRUE, ?, FALSE, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "fecha_expiracion = CASE WHEN activo THEN fecha_expiracion ELSE VALUES(fecha_expiracion) END, " +
+            "recordatorio_enviado = CASE WHEN activo THEN recordatorio_enviado ELSE FALSE END, " +
+            "fecha_actualizacion = CASE WHEN activo THEN fecha_actualizacion ELSE VALUES(fecha_actualizacion) END, " +
+            "version = CASE WHEN activo THEN version ELSE version + 1 END, " +
+            "activo = TRUE";
+
+    private static final String SQL_BUSCAR_TEXTO =
+            "SELECT id_solicitud FROM solicitudes " +
+            "WHERE MATCH(descripcion) AGAINST (? IN NATURAL LANGUAGE MODE) " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OperacionesMysql(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String nombre() {
+        return "mysql";
+    }
+
+    @Override
+    public List<Long> reservarBloques(String secuencia, int bloques) {
+        if (!NOMBRE_SECUENCIA.matcher(secuencia).matches()) {
+            throw new IllegalArgumentException("Nombre de secuencia inválido: " + secuencia);
+        }
+        long avance = (long) bloques * SecuenciaRepository.TAMANO_BLOQUE;
+        while (true) {
+            Long actual = jdbcTemplate.queryForObject("SELECT next_val FROM " + secuencia, Long.class);
+            int actualizadas = jdbcTemplate.update(
+                    "UPDATE " + secuencia + " SET next_val = ? WHERE next_val = ?", actual + avance, actual);
+            if (actualizadas == 1) {
+                List<Long> inicios = new ArrayList<>(bloques);
+                for (int i = 0; i < bloques; i++) {
+                    inicios.add(actual + (long) i * SecuenciaRepository.TAMANO_BLOQUE);
+                }
+                return inicios;
+            }
+        }
+    }
+
+    @Override
+    public int insertarFilas(String tabla, List<String> columnas, List<Object[]> filas) {
+        return InsercionMultiFila.insertar(jdbcTemplate, tabla, columnas, filas);
+    }
+
+    /**
+     * Con ON DUPLICATE KEY UPDATE el driver informa 2 filas afectadas cuando se modificó una
+     * existente y 1 cuando se insertó o quedó igual; el ID distingue la inserción.
+     */
+    @Override
+    public ResultadoActivacion activarAsignacion(Long nuevoId, Long usuarioId, Long rolId,
+                                                 LocalDateTime fechaExpiracion, LocalDateTime ahora) {
+        Timestamp marca = Timestamp.valueOf(ahora);
+        int afectadas = jdbcTemplate.update(SQL_ACTIVAR_ASIGNACION, nuevoId, usuarioId, rolId,
+                fechaExpiracion == null ? null : Timestamp.valueOf(fechaExpiracion), marca, marca);
+        Long id = jdbcTemplate.queryForObject(
+                "SELECT usuario_rol_id FROM usuario_rol WHERE usuario_id = ? AND rol_id = ?",
+                Long.class, usuarioId, rolId);
+        if (nuevoId.equals(id)) {
+            return new ResultadoActivacion(id, TipoActivacion.CREADA);
+        }
+        return new ResultadoActivacion(id, afectadas == 2 ? TipoActivacion.REACTIVADA : TipoActivacion.YA_ACTIVA);
+    }
+
+    @Override
+    public List<Long> buscarSolicitudesPorTexto(String texto, int limite) {
+        return jdbcTemplate.queryForList(SQL_BUSCAR_TEXTO, Long.class, texto, limite);
+    }
+}
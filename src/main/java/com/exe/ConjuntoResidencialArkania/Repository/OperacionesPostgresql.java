@@ -0,0 +1,144 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operaciones nativas de PostgreSQL.
+ *
+ * Las cargas masivas usan COPY ... FROM STDIN en formato CSV, que evita el análisis de una
+ * sentencia por fila y es varias veces más rápido que un INSERT por lotes. Si la conexión no
+ * es de pgjdbc (por ejemplo una base embebida en modo PostgreSQL en las pruebas) se usa
+ * INSERT de varias filas.
+ *
+ * La búsqueda de texto completo usa to_tsvector('spanish', descripcion), que debe coincidir
+ * con la expresión del índice GIN de db/migracion/postgresql/005.
+ */
+public class OperacionesPostgresql implements OperacionesDialecto {
+
+    private static final int FILAS_POR_COPY = 10_000;
+
+    private static final String SQL_ACTIVAR_ASIGNACION =
+            "INSERT INTO usuario_rol (usuario_rol_id, usuario_id, rol_id, activo, fecha_expiracion, " +
+            "recordatorio_enviado, fecha_creacion, fecha_actualizacion, version) " +
+            "VALUES (?, ?, ?, TRUE, ?, FALSE, ?, ?, 0) " +
+            "ON CONFLICT ON CONSTRAINT uk_usuario_rol_usuario_rol DO UPDATE SET " +
+            "activo = TRUE, fecha_expiracion = EXCLUDED.fecha_expiracion, recordatorio_enviado = FALSE, " +
+            "fecha_actualizacion = EXCLUDED.fecha_actualizacion, version = usuario_rol.version + 1 " +
+            "WHERE usuario_rol.activo = FALSE " +
+            "RETURNING usuario_rol_id";
+
+    private static final String SQL_BUSCAR_TEXTO =
+            "SELECT id_solicitud FROM solicitudes " +
+            "WHERE to_tsvector('spanish', descripcion) @@ plainto_tsquery('spanish', ?) " +
+            "ORDER BY ts_rank(to_tsvector('spanish', descripcion), plainto_tsquery('spanish', ?)) DESC, id_solicitud DESC " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OperacionesPostgresql(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String nombre() {
+        return "postgresql";
+    }
+
+    @Override
+    public List<Long> reservarBloques(String secuencia, int bloques) {
+        return jdbcTemplate.queryForList("SELECT nextval(?) FROM generate_series(1, ?)", Long.class, secuencia, bloques);
+    }
+
+    @Override
+    public int insertarFilas(String tabla, List<String> columnas, List<Object[]> filas) {
+        if (filas.isEmpty()) {
+            return 0;
+        }
+        Integer copiadas = jdbcTemplate.execute((ConnectionCallback<Integer>) conexion -> {
+            if (!conexion.isWrapperFor(PGConnection.class)) {
+                return null;
+            }
+            return copiar(conexion, tabla, columnas, filas);
+        });
+        return copiadas != null ? copiadas : InsercionMultiFila.insertar(jdbcTemplate, tabla, columnas, filas);
+    }
+
+    @Override
+    public ResultadoActivacion activarAsignacion(Long nuevoId, Long usuarioId, Long rolId,
+                                                 LocalDateTime fechaExpiracion, LocalDateTime ahora) {
+        Timestamp marca = Timestamp.valueOf(ahora);
+        List<Long> ids = jdbcTemplate.queryForList(SQL_ACTIVAR_ASIGNACION, Long.class, nuevoId, usuarioId, rolId,
+                fechaExpiracion == null ? null : Timestamp.valueOf(fechaExpiracion), marca, marca);
+        if (ids.isEmpty()) {
+            // El WHERE del DO UPDATE no se cumplió: ya estaba activa
+            Long existente = jdbcTemplate.queryForObject(
+                    "SELECT usuario_rol_id FROM usuario_rol WHERE usuario_id = ? AND rol_id = ?",
+                    Long.class, usuarioId, rolId);
+            return new ResultadoActivacion(existente, TipoActivacion.YA_ACTIVA);
+        }
+        Long id = ids.get(0);
+        return new ResultadoActivacion(id, id.equals(nuevoId) ? TipoActivacion.CREADA : TipoActivacion.REACTIVADA);
+    }
+
+    @Override
+    public List<Long> buscarSolicitudesPorTexto(String texto, int limite) {
+        return jdbcTemplate.queryForList(SQL_BUSCAR_TEXTO, Long.class, texto, texto, limite);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private int copiar(Connection conexion, String tabla, List<String> columnas, List<Object[]> filas)
+            throws SQLException {
+        String sql = "COPY " + tabla + " (" + String.join(", ", columnas) + ") FROM STDIN WITH (FORMAT csv)";
+        CopyManager copia = conexion.unwrap(PGConnection.class).getCopyAPI();
+        long total = 0;
+        try {
+            for (int desde = 0; desde < filas.size(); desde += FILAS_POR_COPY) {
+                StringBuilder csv = new StringBuilder();
+                for (Object[] fila : filas.subList(desde, Math.min(desde + FILAS_POR_COPY, filas.size()))) {
+                    for (int i = 0; i < fila.length; i++) {
+                        if (i > 0) {
+                            csv.append(',');
+                        }
+                        agregarValorCsv(csv, fila[i]);
+                    }
+                    csv.append('\n');
+                }
+                total += copia.copyIn(sql, new StringReader(csv.toString()));
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error al enviar los datos de COPY a " + tabla, e);
+        }
+        return (int) total;
+    }
+
+    /**
+     * En CSV de COPY un campo vacío sin comillas es NULL; los textos van siempre entre
+     * comillas para distinguir la cadena vacía de NULL.
+     */
+    private static void agregarValorCsv(StringBuilder csv, Object valor) {
+        if (valor == null) {
+            return;
+        }
+        if (valor instanceof Number || valor instanceof Boolean) {
+            csv.append(valor);
+        } else if (valor instanceof Timestamp || valor instanceof LocalDateTime) {
+            csv.append(valor.toString());
+        } else {
+            csv.append('"').append(valor.toString().replace("\"", "\"\"")).append('"');
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ReporteDiarioDTO.FilaResumen;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService.Metrica;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Repositorio de la tabla resumen_diario (ver db/migracion/010_resumen_diario.sql) y de los
+ * días pendientes de recalcular (resumen_diario_pendiente, ver 014_resumen_diario_pendiente.sql).
+ *
+ * Recalcular un rango borra sus filas y las vuelve a insertar con un INSERT ... SELECT
+ * agrupado por día sobre la tabla de origen (y su archivo), en la transacción del llamador.
+ * Como cada registro está en una sola de las dos tablas, archivar no cambia los resúmenes.
+ *
+ * Los días pendientes son filas solo de inserción (sin clave única por día): marcar nunca
+ * espera a otra transacción que marque el mismo día, y se quitan por ID después de recalcular.
+ */
+@Repository
+public class ResumenDiarioRepository {
+
+    private static final String SQL_BORRAR =
+            "DELETE FROM resumen_diario WHERE metrica = ? AND fecha >= ? AND fecha < ?";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO resumen_diario (metrica, fecha, dimension1, dimension2, cantidad, actualizado_en) " +
+            "SELECT '%s', CAST(t.fecha AS DATE), t.dimension1, t.dimension2, COUNT(*), ? FROM (%s) t " +
+            "GROUP BY CAST(t.fecha AS DATE), t.dimension1, t.dimension2";
+
+    private static final String SQL_ORIGEN =
+            "SELECT %s AS fecha, %s AS dimension1, %s AS dimension2 FROM %s WHERE %s >= ? AND %s < ?";
+
+    private static final String SQL_MARCAR =
+            "INSERT INTO resumen_diario_pendiente (metrica, fecha, marcado_en) VALUES (?, ?, ?)";
+
+    private static final String SQL_PENDIENTES =
+            "SELECT id, metrica, fecha FROM resumen_diario_pendiente ORDER BY id LIMIT ?";
+
+    private static final String SQL_CONSULTAR =
+            "SELECT fecha, dimension1, dimension2, cantidad FROM resumen_diario " +
+            "WHERE metrica = ? AND fecha >= ? AND fecha <= ? ORDER BY fecha, dimension1, dimension2";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ResumenDiarioRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Indica si existe la tabla resumen_diario. Se debe llamar fuera de una transacción: en
+     * PostgreSQL una consulta fallida invalida la transacción en curso.
+     */
+    public boolean tablaDisponible() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM resumen_diario WHERE 1 = 0", Long.class);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indica si existe la tabla resumen_diario_pendiente. Se debe llamar fuera de una transacción.
+     */
+    public boolean tablaPendientesDisponible() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM resumen_diario_pendiente WHERE 1 = 0", Long.class);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    // ========================================
+    // DÍAS PENDIENTES
+    // ========================================
+
+    /**
+     * Guarda días pendientes de recalcular, en la transacción del llamador si hay una: se
+     * confirman o se revierten junto con la escritura que los cambió.
+     */
+    public void marcarPendientes(Metrica metrica, Collection<LocalDate> fechas, LocalDateTime ahora) {
+        Timestamp marcadoEn = Timestamp.valueOf(ahora);
+        jdbcTemplate.batchUpdate(SQL_MARCAR, fechas.stream()
+                .map(fecha -> new Object[] {metrica.name(), Date.valueOf(fecha), marcadoEn})
+                .toList());
+    }
+
+    /**
+     * Días pendientes más antiguos, en orden de marca. Un mismo día puede aparecer varias veces.
+     */
+    public List<DiaPendiente> pendientes(int maximo) {
+        return jdbcTemplate.query(SQL_PENDIENTES, (rs, i) -> new DiaPendiente(rs.getLong(1),
+                Metrica.valueOf(rs.getString(2)), rs.getDate(3).toLocalDate()), maximo);
+    }
+
+    /**
+     * Quita las marcas ya recalculadas. Las marcas confirmadas después de leer los pendientes
+     * tienen otros IDs y quedan para la siguiente ejecución.
+     */
+    public int quitarPendientes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM resumen_diario_pendiente WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+    }
+
+    // ========================================
+    // RECÁLCULO Y CONSULTA
+    // ========================================
+
+    /**
+     * Recalcula los resúmenes de una métrica para los días desde (inclusive) hasta
+     * (exclusive). Requiere una transacción activa.
+     *
+     * @param incluirArchivo Leer también la tabla de archivo de la métrica (si tiene)
+     * @return Filas de resumen escritas
+     */
+    public int recalcular(Metrica metrica, LocalDate desde, LocalDate hasta, boolean incluirArchivo,
+                          LocalDateTime ahora) {
+        Origen origen = origen(metrica);
+        Timestamp inicio = Timestamp.valueOf(desde.atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(hasta.atStartOfDay());
+
+        String consulta = origen.consulta(origen.tabla());
+        boolean conArchivo = incluirArchivo && origen.tieneArchivo();
+        if (conArchivo) {
+            consulta += " UNION ALL " + origen.consulta(origen.tabla() + "_archivo");
+        }
+
+        jdbcTemplate.update(SQL_BORRAR, metrica.name(), Date.valueOf(desde), Date.valueOf(hasta));
+        String sql = String.format(SQL_INSERTAR, metrica.name(), consulta);
+        return conArchivo
+                ? jdbcTemplate.update(sql, Timestamp.valueOf(ahora), inicio, fin, inicio, fin)
+                : jdbcTemplate.update(sql, Timestamp.valueOf(ahora), inicio, fin);
+    }
+
+    /**
+     * Filas de una métrica entre dos días, inclusive, en orden de fecha.
+     */
+    public List<FilaResumen> consultar(Metrica metrica, LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(SQL_CONSULTAR, (rs, i) -> new FilaResumen(rs.getDate(1).toLocalDate(),
+                        rs.getString(2), rs.getString(3), rs.getLong(4)),
+                metrica.name(), Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static Origen origen(Metrica metrica) {
+        return switch (metrica) {
+            case CORRESPONDENCIAS -> new Origen("correspondencias", "fecha_recepcion", "tipo", "estado", true);
+            case SOLICITUDES -> new Origen("solicitudes", "fecha_creacion", "tipo_solicitud", "estado_solicitud", true);
+            case USUARIOS_REGISTRADOS -> new Origen("usuarios", "fecha_creacion", "''", "''", false);
+        };
+    }
+
+    /**
+     * Marca de un día pendiente de recalcular.
+     */
+    public record DiaPendiente(long id, Metrica metrica, LocalDate fecha) {
+    }
+
+    /**
+     * Tabla de origen de una métrica: columna de fecha y expresiones de las dimensiones.
+     */
+    private record Origen(String tabla, String columnaFecha, String dimension1, String dimension2,
+                          boolean tieneArchivo) {
+
+        String consulta(String desdeTabla) {
+            return String.format(SQL_ORIGEN, columnaFecha, dimension1, dimension2, desdeTabla,
+                    columnaFecha, columnaFecha);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.exe.ConjuntoResidencialArkania.Repository;
 import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -183,4 +184,41 @@ public interface RolRepository extends JpaRepository<RolEntity, Long> {
      */
     @Query("SELECT r FROM RolEntity r WHERE (r.permisos IS NULL OR r.permisos = '') AND r.activo = true ORDER BY r.nombre")
     List<RolEntity> findRolesSinPermisos();
+
+    // ========================================
+    // VERSIÓN DE PERMISOS
+    // ========================================
+
+    /**
+     * Sello de versión de los permisos de un rol.
+     * 
+     * @param rolId ID del rol
+     * @return Optional con el sello, o vacío si el rol no existe
+     */
+    @Query("SELECT r.versionPermisos FROM RolEntity r WHERE r.rolId = :rolId")
+    Optional<Long> findVersionPermisos(@Param("rolId") Long rolId);
+
+    /**
+     * Avanza el sello de versión de permisos de un rol: toma el sello recibido, o el actual
+     * más uno si ya era mayor o igual, para que nunca retroceda. Escribe solo la fila del rol,
+     * no la de sus usuarios.
+     * 
+     * @param rolId ID del rol
+     * @param sello Milisegundos de época del cambio
+     * @return Número de roles actualizados
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RolEntity r SET r.versionPermisos = CASE WHEN r.versionPermisos < :sello " +
+           "THEN :sello ELSE r.versionPermisos + 1 END WHERE r.rolId = :rolId")
+    int sellarVersionPermisos(@Param("rolId") Long rolId, @Param("sello") long sello);
+
+    /**
+     * Roles cuyo sello de versión de permisos es posterior a un instante. Con -1 devuelve
+     * todos: la tabla de roles es pequeña y cada instancia mantiene sus sellos en memoria.
+     * 
+     * @param desde Milisegundos de época
+     * @return Lista de arrays con [rol_id, version_permisos]
+     */
+    @Query("SELECT r.rolId, r.versionPermisos FROM RolEntity r WHERE r.versionPermisos > :desde")
+    List<Object[]> findVersionesPermisosDesde(@Param("desde") long desde);
 }
@@ -0,0 +1,97 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio para reservar identificadores de las secuencias de la base de datos.
+ *
+ * Las importaciones masivas insertan con JDBC por lotes y necesitan conocer los IDs
+ * antes de insertar (para enlazar usuarios, apartamentos y asignaciones sin volver
+ * a consultar). Este repositorio reserva un bloque de IDs en un solo viaje a la
+ * base de datos, en lugar de obtenerlos fila por fila al insertar.
+ *
+ * Las secuencias de las entidades avanzan de TAMANO_BLOQUE en TAMANO_BLOQUE y se
+ * interpretan con el optimizador pooled-lo de Hibernate: cada valor v obtenido de la
+ * secuencia reserva el rango [v, v + TAMANO_BLOQUE). Este repositorio usa la misma
+ * interpretación, por lo que sus IDs nunca chocan con los que asigna Hibernate.
+ *
+ * La forma de pedir los bloques depende del motor (secuencias en PostgreSQL, tablas
+ * next_val en MySQL) y la resuelve OperacionesDialecto.
+ *
+ * Las inserciones nativas de una sola fila piden los IDs de uno en uno con siguienteId, que
+ * reparte un bloque reservado entre llamadas en lugar de gastar un bloque en cada una.
+ */
+@Repository
+public class SecuenciaRepository {
+
+    /**
+     * Incremento de las secuencias; debe coincidir con el allocationSize de las entidades.
+     */
+    public static final int TAMANO_BLOQUE = 50;
+
+    private final OperacionesDialecto operacionesDialecto;
+    private final TransactionTemplate transaccionNueva;
+
+    private final Map<String, Deque<Long>> idsDisponibles = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SecuenciaRepository(OperacionesDialecto operacionesDialecto, PlatformTransactionManager transactionManager) {
+        this.operacionesDialecto = operacionesDialecto;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserva una cantidad de IDs de una secuencia.
+     * Los IDs reservados no se reutilizan aunque la transacción se revierta.
+     *
+     * @param secuencia Nombre de la secuencia (por ejemplo, usuarios_seq)
+     * @param cantidad Número de IDs a reservar
+     * @return Lista con los IDs reservados
+     */
+    public List<Long> reservarIds(String secuencia, int cantidad) {
+        if (cantidad <= 0) {
+            return List.of();
+        }
+        int bloques = (cantidad + TAMANO_BLOQUE - 1) / TAMANO_BLOQUE;
+        List<Long> inicios = operacionesDialecto.reservarBloques(secuencia, bloques);
+
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (Long inicio : inicios) {
+            for (int i = 0; i < TAMANO_BLOQUE && ids.size() < cantidad; i++) {
+                ids.add(inicio + i);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Devuelve un ID de la secuencia, tomado de un bloque reservado en memoria. El bloque se
+     * reserva en una transacción propia: en MySQL el avance de la tabla next_val es
+     * transaccional y, si se revirtiera con la transacción del llamador, otro proceso
+     * recibiría los mismos IDs que quedaron en memoria.
+     *
+     * @param secuencia Nombre de la secuencia (por ejemplo, usuario_rol_seq)
+     * @return ID reservado
+     */
+    public Long siguienteId(String secuencia) {
+        Deque<Long> disponibles = idsDisponibles.computeIfAbsent(secuencia, s -> new ArrayDeque<>());
+        synchronized (disponibles) {
+            if (disponibles.isEmpty()) {
+                disponibles.addAll(transaccionNueva.execute(estado -> reservarIds(secuencia, TAMANO_BLOQUE)));
+            }
+            return disponibles.poll();
+        }
+    }
+}
@@ -3,13 +3,18 @@ package com.exe.ConjuntoResidencialArkania.Repository;
 import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface SolicitudRepository extends JpaRepository<SolicitudesEntity, Long> {
 
@@ -39,4 +44,120 @@ public interface SolicitudRepository extends JpaRepository<SolicitudesEntity, Lo
 
     //Busca una palabra clave en la descripcion
     List<SolicitudesEntity> findByDescripcionContainingIgnoreCase(String descripcion);
+
+    // ========================================
+    // COLA DE TRABAJO
+    // ========================================
+
+    // Siguientes pendientes de un tipo en orden de cola, bloqueadas para la transacción actual.
+    // SKIP LOCKED salta las filas que otro trabajador está reclamando en ese momento, así los
+    // trabajadores no se esperan entre sí (PostgreSQL 9.5+, MySQL 8+).
+    @Query(value = "SELECT id_solicitud FROM solicitudes " +
+            "WHERE estado_solicitud = 'pendiente' AND tipo_solicitud = :tipo " +
+            "ORDER BY orden_cola, id_solicitud LIMIT :cantidad FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> bloquearSiguientesEnCola(@Param("tipo") String tipo, @Param("cantidad") int cantidad);
+
+    // Reclama las solicitudes ya bloqueadas por bloquearSiguientesEnCola
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudesEntity s SET s.estadoSolicitud = :enProceso, s.asignadoA = :trabajador, " +
+            "s.reclamoVence = :vence, s.version = s.version + 1 WHERE s.idSolicitud IN :ids")
+    int reclamar(@Param("ids") List<Long> ids,
+                 @Param("trabajador") Long trabajador,
+                 @Param("vence") LocalDateTime vence,
+                 @Param("enProceso") SolicitudesEntity.EstadoSolicitud enProceso);
+
+    // Cierra una solicitud reclamada solo si el reclamo sigue siendo del trabajador
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudesEntity s SET s.estadoSolicitud = :resultado, s.fechaResolucion = :fecha, " +
+            "s.reclamoVence = null, s.version = s.version + 1 " +
+            "WHERE s.idSolicitud = :id AND s.estadoSolicitud = :enProceso AND s.asignadoA = :trabajador")
+    int completarReclamo(@Param("id") Long id,
+                         @Param("trabajador") Long trabajador,
+                         @Param("resultado") SolicitudesEntity.EstadoSolicitud resultado,
+                         @Param("fecha") LocalDateTime fecha,
+                         @Param("enProceso") SolicitudesEntity.EstadoSolicitud enProceso);
+
+    // Extiende el reclamo vigente del trabajador
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudesEntity s SET s.reclamoVence = :vence " +
+            "WHERE s.idSolicitud = :id AND s.estadoSolicitud = :enProceso AND s.asignadoA = :trabajador")
+    int renovarReclamo(@Param("id") Long id,
+                       @Param("trabajador") Long trabajador,
+                       @Param("vence") LocalDateTime vence,
+                       @Param("enProceso") SolicitudesEntity.EstadoSolicitud enProceso);
+
+    // Devuelve a la cola una solicitud reclamada por el trabajador
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudesEntity s SET s.estadoSolicitud = :pendiente, s.asignadoA = null, " +
+            "s.reclamoVence = null, s.version = s.version + 1 " +
+            "WHERE s.idSolicitud = :id AND s.estadoSolicitud = :enProceso AND s.asignadoA = :trabajador")
+    int liberarReclamo(@Param("id") Long id,
+                       @Param("trabajador") Long trabajador,
+                       @Param("pendiente") SolicitudesEntity.EstadoSolicitud pendiente,
+                       @Param("enProceso") SolicitudesEntity.EstadoSolicitud enProceso);
+
+    // Solicitudes con el reclamo vencido, candidatas a volver a la cola
+    @Query("SELECT s FROM SolicitudesEntity s WHERE s.estadoSolicitud = :enProceso AND s.reclamoVence < :ahora")
+    List<SolicitudesEntity> findReclamosVencidos(@Param("ahora") LocalDateTime ahora,
+                                                 @Param("enProceso") SolicitudesEntity.EstadoSolicitud enProceso);
+
+    // Devuelve a la cola las solicitudes indicadas cuyo reclamo sigue vencido (un trabajador
+    // pudo renovarlo después de leerlas). Conservan su orden de cola, así vuelven a salir
+    // antes que las que llegaron después.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudesEntity s SET s.estadoSolicitud = :pendiente, s.asignadoA = null, " +
+            "s.reclamoVence = null, s.version = s.version + 1 " +
+            "WHERE s.idSolicitud IN :ids AND s.estadoSolicitud = :enProceso AND s.reclamoVence < :ahora")
+    int reencolarVencidas(@Param("ids") List<Long> ids,
+                          @Param("ahora") LocalDateTime ahora,
+                          @Param("pendiente") SolicitudesEntity.EstadoSolicitud pendiente,
+                          @Param("enProceso") SolicitudesEntity.EstadoSolicitud enProceso);
+
+    // ========================================
+    // GRUPOS DE DUPLICADOS
+    // ========================================
+
+    // Texto de las solicitudes abiertas recientes, para reconstruir el índice de similitud
+    @Query("SELECT s.idSolicitud AS idSolicitud, s.tipoSolicitud AS tipoSolicitud, " +
+            "s.descripcion AS descripcion, s.grupoDuplicados AS grupoDuplicados " +
+            "FROM SolicitudesEntity s " +
+            "WHERE s.estadoSolicitud IN :estados AND s.tipoSolicitud IN :tipos AND s.fechaCreacion >= :desde")
+    List<TextoSolicitudAbierta> textosAbiertos(@Param("estados") Collection<SolicitudesEntity.EstadoSolicitud> estados,
+                                               @Param("tipos") Collection<SolicitudesEntity.TipoSolicitud> tipos,
+                                               @Param("desde") LocalDateTime desde);
+
+    // Solicitudes de un grupo. La solicitud que abrió el grupo tiene como grupo su propio ID
+    // (asignado al crearla, o por la migración 009 si es anterior a la agrupación)
+    @Query("SELECT s FROM SolicitudesEntity s " +
+            "WHERE s.grupoDuplicados = :grupo ORDER BY s.fechaCreacion ASC")
+    List<SolicitudesEntity> findByGrupo(@Param("grupo") Long grupo);
+
+    // Solicitudes abiertas de un grupo, bloqueadas para cerrarlas juntas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SolicitudesEntity s " +
+            "WHERE s.grupoDuplicados = :grupo AND s.estadoSolicitud IN :estados")
+    List<SolicitudesEntity> bloquearAbiertasDeGrupo(@Param("grupo") Long grupo,
+                                                    @Param("estados") Collection<SolicitudesEntity.EstadoSolicitud> estados);
+
+    // Cierra las solicitudes ya bloqueadas por bloquearAbiertasDeGrupo
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudesEntity s SET s.estadoSolicitud = :resultado, s.fechaResolucion = :fecha, " +
+            "s.reclamoVence = null, s.version = s.version + 1 WHERE s.idSolicitud IN :ids")
+    int cerrar(@Param("ids") List<Long> ids,
+               @Param("resultado") SolicitudesEntity.EstadoSolicitud resultado,
+               @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Proyección con el texto de una solicitud abierta.
+     */
+    interface TextoSolicitudAbierta {
+        Long getIdSolicitud();
+
+        SolicitudesEntity.TipoSolicitud getTipoSolicitud();
+
+        String getDescripcion();
+
+        Long getGrupoDuplicados();
+    }
 }
@@ -2,12 +2,16 @@ package com.exe.ConjuntoResidencialArkania.Repository;
 
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -174,4 +178,87 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     @Query("SELECT u FROM UserEntity u WHERE u.telefono IS NOT NULL AND u.telefono != '' AND u.activo = true ORDER BY u.nombres, u.apellidos")
     List<UserEntity> findUsuariosConTelefono();
+
+    /**
+     * Obtiene, en una sola consulta, los documentos y emails que ya están registrados
+     * entre los candidatos indicados.
+     * Útil para deduplicar importaciones masivas sin consultar fila por fila. Los emails se
+     * comparan sin distinguir mayúsculas (índice idx_usuarios_email_minusculas).
+     * 
+     * @param documentos Números de documento candidatos
+     * @param emails Emails candidatos, en minúsculas
+     * @return Pares [numeroDocumento, email] de los usuarios existentes que coinciden
+     */
+    @Query("SELECT u.numeroDocumento, u.email FROM UserEntity u " +
+           "WHERE u.numeroDocumento IN :documentos OR LOWER(u.email) IN :emails")
+    List<Object[]> findDocumentosYEmailsExistentes(@Param("documentos") Collection<String> documentos,
+                                                  @Param("emails") Collection<String> emails);
+
+    /**
+     * Carga y bloquea un conjunto de usuarios hasta el fin de la transacción.
+     * El orden por ID evita interbloqueos entre transacciones que bloquean usuarios en común.
+     * 
+     * @param usuariosIds IDs de los usuarios
+     * @return Usuarios encontrados, ordenados por ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM UserEntity u WHERE u.usuarioId IN :usuariosIds ORDER BY u.usuarioId")
+    List<UserEntity> findAndLockByUsuarioIdIn(@Param("usuariosIds") Collection<Long> usuariosIds);
+
+    /**
+     * Usuarios desactivados desde una fecha, con la fecha de su última modificación.
+     * Se usa al iniciar para reconstruir la lista de revocación de tokens.
+     * 
+     * @param desde Fecha mínima de modificación
+     * @return Lista de arrays con [usuario_id, fecha_actualizacion]
+     */
+    @Query("SELECT u.usuarioId, u.fechaActualizacion FROM UserEntity u " +
+           "WHERE u.activo = false AND u.fechaActualizacion >= :desde")
+    List<Object[]> findDesactivadosDesde(@Param("desde") LocalDateTime desde);
+
+    // ========================================
+    // VERSIÓN DE PERMISOS
+    // ========================================
+
+    /**
+     * Sello de versión de los permisos de un usuario.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Optional con el sello, o vacío si el usuario no existe
+     */
+    @Query("SELECT u.versionPermisos FROM UserEntity u WHERE u.usuarioId = :usuarioId")
+    Optional<Long> findVersionPermisos(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Avanza el sello de versión de permisos de los usuarios indicados: toma el sello recibido,
+     * o el actual más uno si ya era mayor o igual, para que nunca retroceda.
+     * 
+     * @param usuariosIds IDs de los usuarios
+     * @param sello Milisegundos de época del cambio
+     * @return Número de usuarios actualizados
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserEntity u SET u.versionPermisos = CASE WHEN u.versionPermisos < :sello " +
+           "THEN :sello ELSE u.versionPermisos + 1 END WHERE u.usuarioId IN :usuariosIds")
+    int sellarVersionPermisos(@Param("usuariosIds") Collection<Long> usuariosIds, @Param("sello") long sello);
+
+    /**
+     * Sellos de versión de permisos de varios usuarios. Se lee después de sellarVersionPermisos,
+     * en la misma transacción, para conocer el sello que quedó en cada uno.
+     * 
+     * @param usuariosIds IDs de los usuarios
+     * @return Lista de arrays con [usuario_id, version_permisos]
+     */
+    @Query("SELECT u.usuarioId, u.versionPermisos FROM UserEntity u WHERE u.usuarioId IN :usuariosIds")
+    List<Object[]> findVersionesPermisos(@Param("usuariosIds") Collection<Long> usuariosIds);
+
+    /**
+     * Usuarios cuyo sello de versión de permisos es posterior a un instante. Cada instancia lo
+     * consulta periódicamente para descartar los permisos en caché que cambiaron en otra.
+     * 
+     * @param desde Milisegundos de época
+     * @return Lista de arrays con [usuario_id, version_permisos]
+     */
+    @Query("SELECT u.usuarioId, u.versionPermisos FROM UserEntity u WHERE u.versionPermisos > :desde")
+    List<Object[]> findVersionesPermisosDesde(@Param("desde") long desde);
 }
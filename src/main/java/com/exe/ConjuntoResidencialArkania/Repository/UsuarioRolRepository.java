@@ -3,12 +3,18 @@ package com.exe.ConjuntoResidencialArkania.Repository;
 import com.exe.ConjuntoResidencialArkania.Entity.UsuarioRol;
 import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
 import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -241,6 +247,85 @@ public interface UsuarioRolRepository extends JpaRepository<UsuarioRol, Long> {
      * @param usuario Usuario del cual obtener la asignación más reciente
      * @return Optional con la asignación más reciente o vacío si no existe
      */
-    @Query("SELECT ur FROM UsuarioRol ur WHERE ur.usuario = :usuario ORDER BY ur.fechaCreacion DESC LIMIT 1")
-    Optional<UsuarioRol> findMostRecentByUsuario(@Param("usuario") UserEntity usuario);
+    // Consulta derivada: Spring Data aplica el límite con la sintaxis de cada dialecto
+    Optional<UsuarioRol> findFirstByUsuarioOrderByFechaCreacionDesc(UserEntity usuario);
+
+    // ========================================
+    // POLÍTICAS DE ASIGNACIÓN
+    // ========================================
+
+    /**
+     * Roles activos de un conjunto de usuarios, en una sola consulta.
+     * 
+     * @param usuariosIds IDs de los usuarios
+     * @return Lista de arrays con [usuario_id, rol_id, nombre_rol]
+     */
+    @Query("SELECT ur.usuario.usuarioId, r.rolId, r.nombre FROM UsuarioRol ur JOIN ur.rol r " +
+           "WHERE ur.activo = true AND ur.usuario.usuarioId IN :usuariosIds")
+    List<Object[]> findRolesActivosPorUsuarios(@Param("usuariosIds") Collection<Long> usuariosIds);
+
+    // ========================================
+    // PERMISOS EFECTIVOS
+    // ========================================
+
+    /**
+     * Roles con asignación activa de un usuario activo, en una sola consulta, estén activos o
+     * no: activar un rol cambia los permisos de sus usuarios y avanza su sello.
+     * 
+     * @param usuarioId ID del usuario
+     * @return Lista de arrays con [rol_id, version_permisos, activo, permisos (JSON)]
+     */
+    @Query("SELECT r.rolId, r.versionPermisos, r.activo, r.permisos FROM UsuarioRol ur JOIN ur.rol r JOIN ur.usuario u " +
+           "WHERE u.usuarioId = :usuarioId AND u.activo = true AND ur.activo = true")
+    List<Object[]> findRolesAsignadosPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    // ========================================
+    // EXPIRACIÓN DE ASIGNACIONES
+    // ========================================
+
+    /**
+     * Vencimientos de asignaciones activas hasta una fecha, ordenados por fecha.
+     * Recorre solo el índice idx_usuario_rol_expiracion.
+     * 
+     * @param limite Fecha de expiración máxima
+     * @param pageable Cantidad máxima de resultados
+     * @return Lista de arrays con [usuario_rol_id, fecha_expiracion]
+     */
+    @Query("SELECT ur.usuarioRolId, ur.fechaExpiracion FROM UsuarioRol ur " +
+           "WHERE ur.activo = true AND ur.fechaExpiracion <= :limite ORDER BY ur.fechaExpiracion")
+    List<Object[]> findVencimientosHasta(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+    /**
+     * Bloquea para desactivar las asignaciones indicadas que sigan activas y vencidas.
+     * Las filas bloqueadas por otra transacción se omiten (SKIP LOCKED) en lugar de esperar;
+     * las que se hayan renovado mientras tanto ya no cumplen la condición de fecha.
+     * 
+     * @param ids IDs de las asignaciones candidatas
+     * @param limite Fecha de expiración máxima (ahora menos los días de gracia)
+     * @return Asignaciones bloqueadas, con usuario y rol cargados
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT ur FROM UsuarioRol ur JOIN FETCH ur.usuario JOIN FETCH ur.rol " +
+           "WHERE ur.usuarioRolId IN :ids AND ur.activo = true AND ur.fechaExpiracion <= :limite")
+    List<UsuarioRol> findVencidasParaDesactivar(@Param("ids") Collection<Long> ids,
+                                                @Param("limite") LocalDateTime limite);
+
+    /**
+     * Bloquea las asignaciones activas que vencen antes del límite y aún no tienen
+     * recordatorio de renovación, omitiendo las filas bloqueadas por otra transacción.
+     * 
+     * @param limite Fecha de expiración máxima (ahora más la anticipación del recordatorio)
+     * @param roles Nombres de los roles que requieren renovación
+     * @param pageable Tamaño del lote
+     * @return Asignaciones bloqueadas, con usuario y rol cargados
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT ur FROM UsuarioRol ur JOIN FETCH ur.usuario JOIN FETCH ur.rol r " +
+           "WHERE ur.activo = true AND ur.recordatorioEnviado = false AND ur.fechaExpiracion <= :limite " +
+           "AND r.nombre IN :roles ORDER BY ur.fechaExpiracion")
+    List<UsuarioRol> findPendientesRecordatorio(@Param("limite") LocalDateTime limite,
+                                                @Param("roles") Collection<String> roles,
+                                                Pageable pageable);
 }
@@ -0,0 +1,49 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.SlaSolicitudesDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.TipoSolicitud;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Servicio de tiempos de resolución de solicitudes (p50, p90 y p99 por tipo y mes).
+ *
+ * Mantiene en memoria un resumen de cuantiles combinable por cada tipo y mes de resolución.
+ * Cada solicitud resuelta lo actualiza al confirmarse su transacción; al iniciar y cada noche
+ * se reconstruye desde el historial (tablas principal y de archivo) en una sola lectura, lo
+ * que además incorpora las resoluciones hechas en otras instancias.
+ */
+public interface AnaliticaSolicitudesService {
+
+    /**
+     * Registra una solicitud resuelta. Si hay una transacción activa, se aplica al confirmarse.
+     * Se debe registrar una sola vez por resolución; al reabrirse se retira con retirarResolucion.
+     */
+    void registrarResolucion(Long idSolicitud, TipoSolicitud tipo, LocalDateTime fechaCreacion,
+                             LocalDateTime fechaResolucion);
+
+    /**
+     * Retira una resolución registrada antes, cuando la solicitud se reabre o deja de estar
+     * resuelta. Recibe los mismos datos con los que se registró. Si hay una transacción
+     * activa, se aplica al confirmarse.
+     */
+    void retirarResolucion(Long idSolicitud, TipoSolicitud tipo, LocalDateTime fechaCreacion,
+                           LocalDateTime fechaResolucion);
+
+    /**
+     * Reconstruye todos los resúmenes desde el historial y reemplaza los actuales.
+     *
+     * @return Solicitudes resueltas leídas
+     * @throws IllegalStateException si ya hay una reconstrucción en curso
+     */
+    long reconstruir();
+
+    /**
+     * Tiempos de resolución por tipo y mes entre desde y hasta (inclusive), y el total del
+     * rango por tipo, combinando los resúmenes mensuales.
+     *
+     * @param tipo Tipo de solicitud, o null para todos
+     */
+    SlaSolicitudesDTO obtenerSla(YearMonth desde, YearMonth hasta, TipoSolicitud tipo);
+}
@@ -0,0 +1,52 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasArchivoDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Servicio de archivo de registros cerrados: correspondencias entregadas y solicitudes
+ * resueltas o rechazadas.
+ *
+ * Una tarea nocturna mueve por lotes los registros cerrados hace más de
+ * arkania.archivo.dias-retencion días a tablas de archivo, para que las consultas diarias
+ * (pendientes, por estado, por rango reciente) recorran solo los registros activos. Solo las
+ * consultas por rango de fechas que empiezan antes del límite de archivo y las búsquedas por
+ * ID leen además el archivo; los listados completos y los filtros por destinatario, tipo,
+ * estado o texto ven solo los registros activos. Los registros archivados son de solo lectura.
+ */
+public interface ArchivoService {
+
+    /**
+     * Indica si las tablas de archivo existen con todas sus columnas
+     * (db/migracion/007_archivo_historico.sql y 016_archivo_cola_grupos.sql). Sin ellas no se
+     * archiva y las consultas leen solo las tablas principales.
+     */
+    boolean disponible();
+
+    /**
+     * Indica si una consulta por rango de fechas que empieza en inicio puede incluir
+     * registros archivados. Un registro se archiva cuando lleva más de los días de retención
+     * cerrado, y sus fechas de recepción, creación y resolución son anteriores al cierre, así
+     * que los rangos que empiezan después de ese límite no necesitan el archivo.
+     *
+     * @param inicio Inicio del rango consultado (null = sin límite inferior)
+     */
+    boolean requiereArchivo(LocalDateTime inicio);
+
+    /**
+     * Mueve al archivo, por lotes, las correspondencias entregadas antes del límite.
+     *
+     * @return Correspondencias archivadas en esta ejecución
+     */
+    int archivarCorrespondencias();
+
+    /**
+     * Mueve al archivo, por lotes, las solicitudes cerradas antes del límite.
+     *
+     * @return Solicitudes archivadas en esta ejecución
+     */
+    int archivarSolicitudes();
+
+    MetricasArchivoDTO obtenerMetricas();
+}
@@ -1,4 +1,4 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Service;
+package com.exe.ConjuntoResidencialArkania.Service;
 
 import java.util.List;
 import java.util.Optional;
@@ -8,6 +8,9 @@ import com.exe.ConjuntoResidencialArkania.DTO.AreasComunesDTO;
 public interface AreasComunesService {
     List<AreasComunesDTO> listarAreasComunes(); 
 
+    // Listar areas activas ordenadas por nombre
+    List<AreasComunesDTO> listarAreasActivas();
+
     // Buscar Area por ID
     Optional<AreasComunesDTO> findById(Long idAreaComun); 
 
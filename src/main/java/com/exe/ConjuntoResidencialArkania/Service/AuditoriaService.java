@@ -0,0 +1,96 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.AuditoriaDTO;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Servicio del log de auditoría de usuarios, roles y asignaciones usuario-rol.
+ *
+ * Los servicios de negocio registran cada cambio con su estado anterior y posterior.
+ * El registro no escribe en la base de datos: el cambio se encola en memoria cuando la
+ * transacción del llamador se confirma y se persiste después, por lotes, en segundo plano.
+ */
+public interface AuditoriaService {
+
+    // ========================================
+    // TIPOS DE ENTIDAD Y OPERACIONES
+    // ========================================
+
+    String ENTIDAD_USUARIO = "USUARIO";
+    String ENTIDAD_ROL = "ROL";
+    String ENTIDAD_USUARIO_ROL = "USUARIO_ROL";
+
+    String CREAR = "CREAR";
+    String ACTUALIZAR = "ACTUALIZAR";
+    String ELIMINAR = "ELIMINAR";
+    String ACTIVAR = "ACTIVAR";
+    String DESACTIVAR = "DESACTIVAR";
+    String EXPIRAR = "EXPIRAR";
+    String RENOVAR = "RENOVAR";
+    String CAMBIAR_PASSWORD = "CAMBIAR_PASSWORD";
+    String RESTABLECER_PASSWORD = "RESTABLECER_PASSWORD";
+    String ACTUALIZAR_PERMISOS = "ACTUALIZAR_PERMISOS";
+
+    /**
+     * Atributo de la petición con el ID del usuario autenticado que realiza el cambio. Lo fija
+     * FiltroTokenAutenticacion; sin token válido el cambio se registra sin responsable.
+     */
+    String ATRIBUTO_USUARIO_RESPONSABLE = "arkania.usuarioResponsableId";
+
+    // ========================================
+    // REGISTRO
+    // ========================================
+
+    /**
+     * Registra un cambio. Si hay una transacción activa, el registro se encola solo cuando
+     * ésta se confirma (un cambio revertido no se audita); si no la hay, se encola de inmediato.
+     * Los valores se serializan a JSON en segundo plano, por lo que no deben modificarse
+     * después de registrarlos (se esperan copias, como los DTO recién convertidos).
+     *
+     * @param entidadTipo Tipo de entidad (ENTIDAD_USUARIO, ENTIDAD_ROL, ENTIDAD_USUARIO_ROL)
+     * @param entidadId ID de la entidad modificada
+     * @param usuarioRelacionadoId Usuario afectado por el cambio (puede ser nulo)
+     * @param rolNombre Rol involucrado, para marcar auditoría especial y aprobación múltiple (puede ser nulo)
+     * @param operacion Operación realizada
+     * @param valorAnterior Estado anterior (nulo en creaciones)
+     * @param valorNuevo Estado posterior (nulo en eliminaciones físicas)
+     */
+    void registrarCambio(String entidadTipo, Long entidadId, Long usuarioRelacionadoId, String rolNombre,
+                         String operacion, Object valorAnterior, Object valorNuevo);
+
+    /**
+     * Escribe de inmediato los registros pendientes en memoria.
+     *
+     * @return Número de registros escritos
+     */
+    int vaciarPendientes();
+
+    /**
+     * Crea, si no existen, las particiones mensuales desde el mes actual hasta los meses de
+     * anticipación configurados. Sin efecto si la tabla no está particionada.
+     *
+     * @return Número de particiones creadas
+     */
+    int asegurarParticiones();
+
+    // ========================================
+    // CONSULTAS PAGINADAS
+    // ========================================
+
+    Page<AuditoriaDTO> obtenerHistorialEntidad(String entidadTipo, Long entidadId, Pageable pageable);
+
+    /**
+     * Historial de un usuario: cambios del propio usuario y de sus asignaciones de rol.
+     * Si se indican ambas fechas, la consulta se limita a ese rango.
+     */
+    Page<AuditoriaDTO> obtenerHistorialUsuario(Long usuarioId, LocalDateTime fechaInicio,
+                                               LocalDateTime fechaFin, Pageable pageable);
+
+    Page<AuditoriaDTO> obtenerCambiosPorResponsable(Long usuarioResponsableId, Pageable pageable);
+
+    Page<AuditoriaDTO> obtenerCambiosEnPeriodo(LocalDateTime fechaInicio, LocalDateTime fechaFin, Pageable pageable);
+}
@@ -0,0 +1,87 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasCacheDTO;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Servicio de caché de respuestas para listados de lectura frecuente (roles, apartamentos,
+ * parqueaderos y áreas comunes).
+ *
+ * Cada recurso tiene un sello de versión en memoria que se incrementa cuando la capa de
+ * servicios confirma una escritura sobre él. El sello permite responder peticiones
+ * condicionales (If-None-Match / If-Modified-Since) sin consultar la base de datos, y
+ * decide si una respuesta ya serializada sigue vigente.
+ *
+ * Las respuestas se guardan ya codificadas en JSON y, si son grandes, también comprimidas
+ * con gzip, para servirlas sin volver a serializar ni comprimir. La caché está acotada en
+ * bytes y desaloja las respuestas usadas menos recientemente.
+ *
+ * Los sellos son locales al proceso: las escrituras hechas por otra instancia de la
+ * aplicación o directamente en la base de datos no los invalidan.
+ */
+public interface CacheRespuestasService {
+
+    String ROLES = "roles";
+    String APARTAMENTOS = "apartamentos";
+    String PARQUEADEROS = "parqueaderos";
+    String AREAS_COMUNES = "areas-comunes";
+
+    /**
+     * Estado de un recurso en un momento dado.
+     *
+     * @param etag ETag débil que identifica la versión vigente
+     * @param version Sello de versión
+     * @param ultimaModificacion Momento de la última escritura conocida (al segundo)
+     */
+    record EstadoRecurso(String etag, long version, Instant ultimaModificacion) {
+    }
+
+    /**
+     * Respuesta ya serializada. Los arreglos son compartidos entre peticiones y no se
+     * deben modificar.
+     *
+     * @param json Cuerpo JSON
+     * @param gzip Mismo cuerpo comprimido con gzip, o null si es pequeño o no se reduce
+     */
+    record RespuestaSerializada(byte[] json, byte[] gzip) {
+    }
+
+    /**
+     * Estado vigente del recurso, sin consultar la base de datos.
+     */
+    EstadoRecurso obtenerEstado(String recurso);
+
+    /**
+     * Devuelve la respuesta serializada para la clave indicada, calculándola con la
+     * consulta si no está en caché o se calculó con otra versión del recurso.
+     *
+     * @param recurso Recurso al que pertenece la respuesta
+     * @param clave Identifica la respuesta dentro del recurso: endpoint y parámetros (ej. "activos", "permiso=READ_USERS")
+     * @param estado Estado leído antes de calcular; la respuesta se guarda con esa versión
+     * @param consulta Obtiene los datos a serializar
+     * @return Respuesta serializada
+     */
+    RespuestaSerializada obtenerOCalcular(String recurso, String clave, EstadoRecurso estado, Supplier<?> consulta);
+
+    /**
+     * Invalida el recurso cuando termina la transacción actual (o de inmediato si no hay una).
+     */
+    void invalidar(String recurso);
+
+    /**
+     * Registra una petición condicional respondida con 304.
+     */
+    void registrarNoModificado();
+
+    /**
+     * Registra una respuesta servida con su versión gzip.
+     */
+    void registrarServidaGzip();
+
+    /**
+     * Métricas de uso de la caché.
+     */
+    MetricasCacheDTO obtenerMetricas();
+}
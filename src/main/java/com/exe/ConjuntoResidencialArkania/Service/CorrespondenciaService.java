@@ -1,6 +1,9 @@
 package com.exe.ConjuntoResidencialArkania.Service;
 
 import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaLoteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoCorrespondenciaLoteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoEntregaDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Estado;
 import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Tipo;
 
@@ -25,6 +28,17 @@ public interface CorrespondenciaService {
      */
     CorrespondenciaDTO crearCorrespondencia(CorrespondenciaDTO correspondencia);
 
+    /**
+     * Registra un lote de correspondencias recibidas juntas en portería.
+     * Los destinatarios se resuelven con una sola consulta, las correspondencias se insertan
+     * en un solo lote JDBC y cada destinatario recibe una sola notificación con todas las suyas.
+     * Los paquetes con errores se reportan y el resto se registra.
+     * @param lote El lote con el usuario que registra y los paquetes.
+     * @return El resultado con las correspondencias registradas y los errores por paquete.
+     * @throws IllegalArgumentException si el lote está vacío, supera el máximo o el usuario que registra no existe.
+     */
+    ResultadoCorrespondenciaLoteDTO registrarLote(CorrespondenciaLoteDTO lote);
+
     /**
      * Lista todas las correspondencias registradas en el sistema.
      * @return Una lista de todos los DTOs de correspondencias.
@@ -45,6 +59,27 @@ public interface CorrespondenciaService {
      */
     CorrespondenciaDTO actualizarCorrespondencia(CorrespondenciaDTO correspondencia);
 
+    /**
+     * Entrega una correspondencia pendiente con una sola sentencia condicional
+     * (PENDIENTE → ENTREGADA, con quien la retira y la fecha de entrega). Si dos porteros la
+     * entregan a la vez, solo uno la cambia; el otro recibe 0 entregadas.
+     * @param id El ID de la correspondencia a entregar.
+     * @param retiradoPor El ID del usuario que la retira.
+     * @return El resultado con las filas afectadas (1 si se entregó, 0 si ya no estaba pendiente).
+     * @throws CorrespondenciaNotFoundException si la correspondencia no existe.
+     * @throws IllegalArgumentException si el usuario que la retira no existe.
+     */
+    ResultadoEntregaDTO entregarCorrespondencia(Long id, Long retiradoPor);
+
+    /**
+     * Entrega con una sola sentencia todas las correspondencias pendientes de un apartamento.
+     * @param apartamentoId El ID del apartamento.
+     * @param retiradoPor El ID del usuario que las retira.
+     * @return El resultado con el número de correspondencias entregadas.
+     * @throws IllegalArgumentException si el usuario que las retira no existe.
+     */
+    ResultadoEntregaDTO entregarPendientesDeApartamento(Long apartamentoId, Long retiradoPor);
+
     /**
      * Elimina una correspondencia del sistema por su ID.
      * @param id El ID de la correspondencia a eliminar.
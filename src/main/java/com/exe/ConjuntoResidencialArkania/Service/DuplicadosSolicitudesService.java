@@ -0,0 +1,47 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.TipoSolicitud;
+
+import java.util.Collection;
+
+/**
+ * Servicio de detección de solicitudes casi duplicadas (por ejemplo, decenas de quejas por
+ * el mismo corte de agua).
+ *
+ * Mantiene en memoria un índice de similitud de las descripciones de las solicitudes
+ * abiertas recientes de los tipos configurados (arkania.duplicados.tipos). Cada solicitud
+ * nueva se une al grupo de la abierta más parecida, o abre su propio grupo; el grupo se
+ * guarda en la solicitud (grupo_duplicados) para cerrarlo completo de una vez. El índice se
+ * reconstruye periódicamente desde la base, lo que incorpora las solicitudes creadas en otras
+ * instancias y descarta las que salieron de la ventana.
+ */
+public interface DuplicadosSolicitudesService {
+
+    /**
+     * Grupo de duplicados de una solicitud recién creada: el de la solicitud abierta más
+     * parecida del mismo tipo, o el ID de la propia solicitud si no hay ninguna. La solicitud
+     * queda en el índice; si la transacción se revierte, se quita.
+     *
+     * @return ID del grupo, o null si el tipo no se agrupa
+     */
+    Long agrupar(long idSolicitud, TipoSolicitud tipo, String descripcion);
+
+    /**
+     * Actualiza en el índice la descripción editada de una solicitud abierta, sin cambiarla de
+     * grupo. Se aplica al confirmarse la transacción; si la descripción nueva no tiene firma,
+     * la solicitud sale del índice.
+     */
+    void reindexar(long idSolicitud, TipoSolicitud tipo, String descripcion, long grupo);
+
+    /**
+     * Quita del índice solicitudes cerradas o eliminadas, al confirmarse la transacción.
+     */
+    void quitar(Collection<Long> idsSolicitudes);
+
+    /**
+     * Reconstruye el índice con las solicitudes abiertas de la ventana configurada.
+     *
+     * @return Solicitudes indexadas
+     */
+    int reconstruir();
+}
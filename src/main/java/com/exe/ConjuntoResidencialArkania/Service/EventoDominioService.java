@@ -0,0 +1,64 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import java.util.Map;
+
+/**
+ * Interfaz que define los servicios del outbox transaccional de eventos de dominio.
+ * 
+ * Los servicios de negocio registran eventos dentro de su propia transacción y un
+ * relay en segundo plano los publica después a los listeners de la aplicación
+ * (notificaciones, auditoría, contadores), con reintentos y orden por agregado.
+ */
+public interface EventoDominioService {
+
+    // ========================================
+    // TIPOS DE AGREGADO
+    // ========================================
+
+    String AGREGADO_CORRESPONDENCIA = "CORRESPONDENCIA";
+    String AGREGADO_USUARIO = "USUARIO";
+    String AGREGADO_SOLICITUD = "SOLICITUD";
+    String AGREGADO_APARTAMENTO = "APARTAMENTO";
+
+    // ========================================
+    // TIPOS DE EVENTO
+    // ========================================
+
+    String CORRESPONDENCIA_RECIBIDA = "CORRESPONDENCIA_RECIBIDA";
+    String CORRESPONDENCIA_RECIBIDA_LOTE = "CORRESPONDENCIA_RECIBIDA_LOTE";
+    String CORRESPONDENCIA_ACTUALIZADA = "CORRESPONDENCIA_ACTUALIZADA";
+    String CORRESPONDENCIA_ENTREGADA = "CORRESPONDENCIA_ENTREGADA";
+    String CORRESPONDENCIA_ENTREGADA_LOTE = "CORRESPONDENCIA_ENTREGADA_LOTE";
+    String CORRESPONDENCIA_ELIMINADA = "CORRESPONDENCIA_ELIMINADA";
+
+    String ROL_ASIGNADO = "ROL_ASIGNADO";
+    String ROL_ACTIVADO = "ROL_ACTIVADO";
+    String ROL_DESACTIVADO = "ROL_DESACTIVADO";
+    String ROL_ELIMINADO = "ROL_ELIMINADO";
+    String ROL_EXPIRADO = "ROL_EXPIRADO";
+    String ROL_PROXIMO_A_EXPIRAR = "ROL_PROXIMO_A_EXPIRAR";
+    String ROL_RENOVADO = "ROL_RENOVADO";
+
+    String SOLICITUD_CREADA = "SOLICITUD_CREADA";
+    String SOLICITUD_ACTUALIZADA = "SOLICITUD_ACTUALIZADA";
+    String SOLICITUD_ELIMINADA = "SOLICITUD_ELIMINADA";
+
+    /**
+     * Registra un evento en el outbox. Debe llamarse dentro de la transacción del cambio
+     * de negocio que origina el evento; falla si no hay una transacción activa.
+     * 
+     * @param agregadoTipo Tipo de agregado (ver constantes AGREGADO_*)
+     * @param agregadoId ID del agregado; los eventos de un mismo agregado se publican en orden
+     * @param tipoEvento Tipo de evento
+     * @param datos Datos del evento (se serializan a JSON)
+     */
+    void registrarEvento(String agregadoTipo, Long agregadoId, String tipoEvento, Map<String, Object> datos);
+
+    /**
+     * Publica un lote de eventos pendientes a los listeners de la aplicación.
+     * Lo ejecuta periódicamente el relay; se expone para pruebas y ejecuciones manuales.
+     * 
+     * @return Número de eventos publicados en esta ejecución
+     */
+    int publicarPendientes();
+}
@@ -0,0 +1,50 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Interfaz que define los servicios de exportación masiva del historial de
+ * correspondencias y solicitudes del conjunto residencial.
+ * A diferencia de las consultas por rango de fechas de los demás servicios,
+ * las exportaciones no construyen listas de DTOs en memoria: cada fila se lee
+ * de un cursor de solo avance y se escribe directamente en el flujo de salida,
+ * por lo que el consumo de memoria no depende del tamaño del rango solicitado.
+ */
+public interface ExportacionService {
+
+    /**
+     * Formatos de exportación soportados.
+     * CSV: valores separados por comas con una fila de encabezado.
+     * NDJSON: un objeto JSON por línea.
+     */
+    enum Formato {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Exporta las correspondencias recibidas en un rango de fechas.
+     * @param inicio Fecha inicial del rango (fecha de recepción).
+     * @param fin Fecha final del rango (fecha de recepción).
+     * @param formato Formato de salida de las filas.
+     * @param salida Flujo donde se escriben las filas; no se cierra al terminar.
+     * @return El número de filas exportadas.
+     * @throws IOException Si ocurre un error escribiendo en el flujo de salida.
+     */
+    long exportarCorrespondencias(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida)
+            throws IOException;
+
+    /**
+     * Exporta las solicitudes creadas en un rango de fechas.
+     * @param inicio Fecha inicial del rango (fecha de creación).
+     * @param fin Fecha final del rango (fecha de creación).
+     * @param formato Formato de salida de las filas.
+     * @param salida Flujo donde se escriben las filas; no se cierra al terminar.
+     * @return El número de filas exportadas.
+     * @throws IOException Si ocurre un error escribiendo en el flujo de salida.
+     */
+    long exportarSolicitudes(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida)
+            throws IOException;
+}
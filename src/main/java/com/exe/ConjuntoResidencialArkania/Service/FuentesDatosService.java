@@ -0,0 +1,15 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasFuentesDatosDTO;
+
+/**
+ * Servicio de consulta del estado de las fuentes de datos (primaria y réplica de lectura).
+ */
+public interface FuentesDatosService {
+
+    /**
+     * Métricas de ruteo y de los pools de conexiones. Sin réplica configurada se informa
+     * solo el pool único de la aplicación.
+     */
+    MetricasFuentesDatosDTO obtenerMetricas();
+}
@@ -0,0 +1,91 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasIdempotenciaDTO;
+
+/**
+ * Servicio de claves de idempotencia para las peticiones POST.
+ *
+ * Un cliente que reintenta una petición (por ejemplo, una app móvil que perdió la
+ * respuesta) envía la misma cabecera Idempotency-Key. La primera petición con la clave se
+ * ejecuta y su respuesta se guarda; las repeticiones reciben la respuesta guardada sin
+ * volver a ejecutar nada.
+ *
+ * Las claves se guardan en memoria, con vencimiento y acotadas en cantidad y en bytes.
+ * Son locales al proceso: con varias instancias, un reintento que llegue a otra instancia
+ * se ejecuta de nuevo (las operaciones que lo necesitan, como asignar un rol, son además
+ * idempotentes por sí mismas).
+ */
+public interface IdempotenciaService {
+
+    /**
+     * Cabecera con la clave de idempotencia que envía el cliente.
+     */
+    String CABECERA_CLAVE = "Idempotency-Key";
+
+    /**
+     * Cabecera que marca una respuesta repetida desde el almacén.
+     */
+    String CABECERA_REPETIDA = "Idempotency-Replayed";
+
+    /**
+     * Estado de una clave al reservarla.
+     */
+    enum EstadoClave {
+        /** No existía; la petición se debe ejecutar */
+        NUEVA,
+        /** Otra petición con la misma clave se está ejecutando */
+        EN_CURSO,
+        /** Ya se ejecutó; se debe repetir la respuesta guardada */
+        COMPLETADA
+    }
+
+    /**
+     * Respuesta guardada de una petición ya ejecutada. El cuerpo se comparte entre
+     * repeticiones y no se debe modificar.
+     *
+     * @param estado Código HTTP
+     * @param tipoContenido Content-Type (null si no tenía)
+     * @param location Cabecera Location (null si no tenía)
+     * @param etag Cabecera ETag (null si no tenía)
+     * @param cuerpo Cuerpo de la respuesta
+     */
+    record RespuestaGuardada(int estado, String tipoContenido, String location, String etag, byte[] cuerpo) {
+    }
+
+    /**
+     * Resultado de reservar una clave.
+     *
+     * @param estado Estado de la clave
+     * @param huella Huella de la petición que reservó la clave primero
+     * @param respuesta Respuesta guardada (solo si el estado es COMPLETADA)
+     */
+    record Reserva(EstadoClave estado, String huella, RespuestaGuardada respuesta) {
+    }
+
+    /**
+     * Reserva una clave para ejecutar la petición, o informa que ya está en curso o completada.
+     * Quien llama debe comparar la huella devuelta con la suya: una clave reutilizada con
+     * otro cuerpo no es una repetición.
+     *
+     * @param clave Clave completa (usuario, método, ruta y clave enviada por el cliente)
+     * @param huella Huella del cuerpo de la petición
+     * @return Estado de la clave
+     */
+    Reserva reservar(String clave, String huella);
+
+    /**
+     * Guarda la respuesta de una clave reservada. Si la respuesta es demasiado grande para
+     * el almacén, la clave se libera.
+     */
+    void completar(String clave, RespuestaGuardada respuesta);
+
+    /**
+     * Libera una clave reservada sin guardar respuesta (la petición falló y se puede reintentar).
+     */
+    void liberar(String clave);
+
+    /**
+     * Métricas del almacén de claves.
+     */
+    MetricasIdempotenciaDTO obtenerMetricas();
+}
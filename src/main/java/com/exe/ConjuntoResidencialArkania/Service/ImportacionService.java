@@ -0,0 +1,47 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ImportacionResidenteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO.ErrorFila;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz que define los servicios de importación masiva de residentes.
+ *
+ * Una importación crea en una sola operación los usuarios, los apartamentos que
+ * ocupan y sus asignaciones de rol. Las filas inválidas o duplicadas no abortan la
+ * importación: se omiten y se registran en un reporte de errores descargable.
+ */
+public interface ImportacionService {
+
+    /**
+     * Importa residentes a partir de una lista de filas (JSON).
+     *
+     * @param filas Filas a importar
+     * @return Resultado con contadores y muestra de errores
+     */
+    ResultadoImportacionDTO importarResidentes(List<ImportacionResidenteDTO> filas);
+
+    /**
+     * Importa residentes a partir de un archivo CSV con fila de encabezado.
+     * Columnas reconocidas: tipoDocumento, numeroDocumento, nombres, apellidos, email,
+     * telefono, password, torre, numeroApartamento, rol.
+     *
+     * @param csv Contenido del archivo CSV en UTF-8
+     * @return Resultado con contadores y muestra de errores
+     * @throws IOException Si no se puede leer el archivo
+     */
+    ResultadoImportacionDTO importarResidentesCsv(InputStream csv) throws IOException;
+
+    /**
+     * Obtiene el reporte completo de errores de una importación reciente.
+     *
+     * @param importacionId Identificador de la importación
+     * @return Errores de la importación, vacío si el reporte no existe o ya expiró
+     */
+    Optional<List<ErrorFila>> obtenerReporteErrores(String importacionId);
+}
@@ -0,0 +1,102 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.PermisosUsuarioDTO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio de permisos efectivos de los usuarios.
+ *
+ * Resuelve el conjunto de permisos de un usuario uniendo los de sus roles activos y lo
+ * mantiene en caché. Cada usuario y cada rol tienen un sello de versión persistido en la base
+ * de datos; los servicios de usuarios y asignaciones avanzan el del usuario (invalidarUsuario)
+ * y los de roles el del rol (invalidarRol), en la transacción de cada cambio. Cada instancia
+ * guarda en memoria los sellos de todos los roles y los sellos recientes de los usuarios, los
+ * actualiza al confirmarse sus propios cambios y lee los de las demás al sincronizar.
+ */
+public interface PermisoEfectivoService {
+
+    /**
+     * Permiso que concede todos los demás.
+     */
+    String TODOS_LOS_PERMISOS = "ALL_PERMISSIONS";
+
+    /**
+     * Sellos de versión de los permisos de un usuario: el suyo (datos y asignaciones) y el de
+     * cada rol con asignación activa, por ID del rol.
+     */
+    record VersionesPermisos(long usuario, Map<Long, Long> roles) {
+
+        /**
+         * Versión efectiva de los permisos: el mayor de los sellos.
+         */
+        public long efectiva() {
+            long efectiva = usuario;
+            for (long rol : roles.values()) {
+                efectiva = Math.max(efectiva, rol);
+            }
+            return efectiva;
+        }
+    }
+
+    /**
+     * Verifica si un usuario tiene un permiso. Con la caché vigente es una búsqueda en un
+     * conjunto en memoria, sin acceso a la base de datos.
+     *
+     * @param usuarioId ID del usuario
+     * @param permiso Permiso a verificar
+     * @return true si alguno de sus roles activos concede el permiso o ALL_PERMISSIONS
+     */
+    boolean tienePermiso(Long usuarioId, String permiso);
+
+    /**
+     * Conjunto inmutable de permisos efectivos de un usuario. Vacío si el usuario no existe
+     * o está inactivo.
+     */
+    Set<String> obtenerPermisos(Long usuarioId);
+
+    /**
+     * Permisos efectivos de un usuario con su versión actual.
+     */
+    PermisosUsuarioDTO obtenerPermisosUsuario(Long usuarioId);
+
+    /**
+     * Versión actual de los permisos de un usuario (VersionesPermisos.efectiva). Crece cada vez
+     * que cambian sus asignaciones, sus datos o alguno de sus roles, y no se reinicia con la
+     * aplicación. 0 si el usuario no existe.
+     */
+    long obtenerVersion(Long usuarioId);
+
+    /**
+     * Sellos actuales de los permisos de un usuario, de la caché o leídos de la base de datos.
+     * Sin roles y con sello 0 si el usuario no existe.
+     */
+    VersionesPermisos obtenerVersiones(Long usuarioId);
+
+    /**
+     * Indica si unos sellos leídos antes (por ejemplo, los de un token) siguen vigentes: ni el
+     * usuario ni ninguno de esos roles tiene un sello más nuevo conocido por esta instancia.
+     * Solo consulta memoria, nunca la base de datos: un cambio hecho en otra instancia se
+     * detecta, como máximo, con el retraso de la sincronización.
+     */
+    boolean versionesVigentes(Long usuarioId, VersionesPermisos versiones);
+
+    /**
+     * Avanza la versión de los permisos de un usuario dentro de la transacción actual y
+     * descarta su entrada en caché cuando la transacción termina.
+     */
+    void invalidarUsuario(Long usuarioId);
+
+    /**
+     * Igual que invalidarUsuario para varios usuarios, con una sola escritura.
+     */
+    void invalidarUsuarios(Collection<Long> usuariosIds);
+
+    /**
+     * Avanza la versión de los permisos del rol dentro de la transacción actual, con una sola
+     * escritura sobre la fila del rol. Se usa al cambiar un rol.
+     */
+    void invalidarRol(Long rolId);
+}
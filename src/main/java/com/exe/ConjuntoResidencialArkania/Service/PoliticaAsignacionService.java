@@ -0,0 +1,77 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ContadorRolDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.EvaluacionAsignacionDTO;
+
+import java.util.List;
+
+/**
+ * Servicio del motor de políticas de asignación de roles.
+ *
+ * Evalúa en una sola pasada, contra una única instantánea cargada de la base de datos,
+ * las reglas de UsuarioRolConfig: usuario y rol activos, asignación no duplicada, roles
+ * excluyentes, roles prerequisito y límite de usuarios por rol. Los límites se controlan
+ * con contadores en memoria por rol que se reservan al asignar y se liberan al desactivar,
+ * sin contar filas en cada asignación.
+ */
+public interface PoliticaAsignacionService {
+
+    /**
+     * Evalúa un lote de asignaciones candidatas sin modificar nada (simulación).
+     * Las candidatas se evalúan en orden: cada una ve como ya asignadas las anteriores
+     * permitidas del mismo lote.
+     *
+     * @param candidatas Pares usuario-rol a evaluar
+     * @return Resultado por candidata, en el mismo orden
+     */
+    List<EvaluacionAsignacionDTO> evaluar(List<EvaluacionAsignacionDTO> candidatas);
+
+    /**
+     * Evalúa un lote de asignaciones que se van a crear o activar en la transacción actual.
+     * Bloquea los usuarios involucrados hasta el fin de la transacción (las reglas de
+     * exclusión y prerequisito no se evalúan dos veces en paralelo para un mismo usuario)
+     * y reserva cupo en los contadores de las candidatas permitidas. Si la transacción se
+     * revierte, las reservas se liberan.
+     *
+     * @param candidatas Pares usuario-rol a evaluar
+     * @return Resultado por candidata, en el mismo orden
+     */
+    List<EvaluacionAsignacionDTO> evaluarYReservar(List<EvaluacionAsignacionDTO> candidatas);
+
+    /**
+     * Evalúa y reserva una sola asignación.
+     *
+     * @throws RuntimeException con las reglas incumplidas si no está permitida
+     */
+    void validarYReservar(Long usuarioId, Long rolId);
+
+    /**
+     * Libera el cupo de una asignación activa que se desactiva o elimina,
+     * cuando la transacción actual se confirma.
+     *
+     * @param nombreRol Nombre del rol de la asignación
+     */
+    void liberarCupo(String nombreRol);
+
+    /**
+     * Evalúa los roles de usuarios que se crean en la transacción actual (importación masiva),
+     * cada uno con un solo rol y sin asignaciones previas, y reserva cupo en los contadores
+     * de los permitidos. Si la transacción se revierte, las reservas se liberan.
+     *
+     * @param rolesIds Rol de cada usuario nuevo
+     * @return Resultado por rol, en el mismo orden (sin usuarioId)
+     */
+    List<EvaluacionAsignacionDTO> evaluarYReservarAltasNuevas(List<Long> rolesIds);
+
+    /**
+     * Recalcula los contadores a partir de la base de datos.
+     */
+    void resincronizarContadores();
+
+    /**
+     * Contadores en vivo por rol.
+     *
+     * @return Lista de contadores ordenada por nombre de rol
+     */
+    List<ContadorRolDTO> obtenerContadores();
+}
@@ -0,0 +1,74 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ReporteDiarioDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Servicio de resúmenes diarios para reportes operativos (tabla resumen_diario, ver
+ * db/migracion/010_resumen_diario.sql).
+ *
+ * Cada métrica guarda por día, y por una o dos dimensiones, el número de registros: un
+ * reporte de un año lee unas pocas filas por día en lugar de recorrer las tablas completas.
+ *
+ * Los servicios marcan los días que sus escrituras cambian, en la misma transacción (tabla
+ * resumen_diario_pendiente, ver 014_resumen_diario_pendiente.sql), y una tarea periódica los
+ * recalcula desde las tablas (y su archivo), un día por transacción. Recalcular en lugar de sumar diferencias mantiene exactos
+ * los resúmenes también con las actualizaciones masivas (entregas por apartamento, reclamos
+ * vencidos), cuyas filas no se leen. Cada noche se recalculan además los últimos días, por
+ * si una escritura no pasó por los servicios.
+ */
+public interface ResumenDiarioService {
+
+    /**
+     * Métricas resumidas. La fecha de cada fila es el día de la columna indicada.
+     */
+    enum Metrica {
+        /** Correspondencias por día de recepción, tipo y estado actual */
+        CORRESPONDENCIAS,
+        /** Solicitudes por día de creación, tipo y estado actual */
+        SOLICITUDES,
+        /** Usuarios registrados por día de creación */
+        USUARIOS_REGISTRADOS
+    }
+
+    /**
+     * Indica si existen las tablas resumen_diario y resumen_diario_pendiente. Sin ellas no se
+     * marcan días y los reportes responden vacíos.
+     */
+    boolean disponible();
+
+    /**
+     * Marca como pendientes de recalcular los días de las fechas indicadas (las null se
+     * ignoran). Si hay una transacción activa, la marca se guarda en ella.
+     */
+    void marcar(Metrica metrica, Collection<LocalDateTime> fechas);
+
+    /**
+     * Marca como pendiente de recalcular el día de una fecha.
+     */
+    void marcar(Metrica metrica, LocalDateTime fecha);
+
+    /**
+     * Recalcula los días pendientes.
+     *
+     * @return Días recalculados
+     */
+    int actualizarPendientes();
+
+    /**
+     * Recalcula (o llena por primera vez) los resúmenes de una métrica entre dos días,
+     * inclusive, por tramos de arkania.resumen.dias-por-lote días en transacciones separadas.
+     *
+     * @param metrica Métrica, o null para todas
+     * @return Filas de resumen escritas
+     */
+    long recalcular(Metrica metrica, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Resumen de una métrica entre dos días, inclusive.
+     */
+    ReporteDiarioDTO consultar(Metrica metrica, LocalDate desde, LocalDate hasta);
+}
@@ -1,4 +1,4 @@
-package main.java.com.exe.ConjuntoResidencialArkania.Service;
+package com.exe.ConjuntoResidencialArkania.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -8,7 +8,7 @@ import com.exe.ConjuntoResidencialArkania.DTO.SolicitudesDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
 
 public interface SolicitudesService {
-    List<solicitudesDTO> listarSolicitudes();
+    List<SolicitudesDTO> listarSolicitudes();
 
     Optional<SolicitudesDTO> findById(Long idSolicitud);
 
@@ -34,4 +34,32 @@ public interface SolicitudesService {
         List<SolicitudesEntity.EstadoSolicitud> estados,
         List<SolicitudesEntity.TipoSolicitud> tipos
     );
+
+    // Cola de trabajo: el personal reclama las siguientes pendientes de un tipo en lugar de
+    // elegirlas de un listado. Un reclamo pasa la solicitud a en_proceso por un tiempo limitado;
+    // si vence sin completarse, liberarse o renovarse, la solicitud vuelve a la cola.
+
+    // Reclama hasta cantidad solicitudes pendientes del tipo, en orden de cola (prioridad y
+    // antigüedad). Dos trabajadores nunca reclaman la misma; devuelve menos si la cola se vacía.
+    List<SolicitudesDTO> reclamarSiguientes(SolicitudesEntity.TipoSolicitud tipo, Long trabajador, int cantidad);
+
+    // Cierra como resuelta o rechazada una solicitud reclamada por el trabajador.
+    // IllegalStateException si el reclamo venció o es de otro trabajador.
+    SolicitudesDTO completarReclamo(Long idSolicitud, Long trabajador, SolicitudesEntity.EstadoSolicitud resultado);
+
+    // Extiende el reclamo del trabajador. IllegalStateException si ya no es suyo.
+    SolicitudesDTO renovarReclamo(Long idSolicitud, Long trabajador);
+
+    // Devuelve a la cola una solicitud reclamada por el trabajador. IllegalStateException si ya no es suya.
+    void liberarReclamo(Long idSolicitud, Long trabajador);
+
+    // Grupos de duplicados: las solicitudes nuevas casi iguales a una abierta del mismo tipo
+    // (p. ej. quejas por el mismo corte de agua) comparten su grupo y se cierran juntas.
+
+    // Solicitudes de un grupo, en orden de creación.
+    List<SolicitudesDTO> listarGrupo(Long grupo);
+
+    // Cierra como resuelta o rechazada todas las solicitudes abiertas del grupo. Devuelve las
+    // cerradas (vacía si el grupo no tiene abiertas).
+    List<SolicitudesDTO> resolverGrupo(Long grupo, SolicitudesEntity.EstadoSolicitud resultado);
 }
@@ -0,0 +1,57 @@
+package com.exe.ConjuntoResidencialArkania.Service;
+
+import com.exe.ConjuntoResidencialArkania.DTO.TokenDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.TokenVerificadoDTO;
+
+import java.util.Optional;
+
+/**
+ * Servicio de tokens de acceso firmados.
+ *
+ * Los tokens incluyen el ID del usuario y la versión de sus permisos, y se firman con
+ * HMAC-SHA256 con una clave configurada localmente. Verificarlos no accede a la base de
+ * datos: basta la firma, la fecha de expiración y una lista de revocación en memoria
+ * con los usuarios desactivados. La lista se reconstruye al iniciar y se sincroniza
+ * periódicamente desde la tabla de usuarios, así que una desactivación sobrevive a los
+ * reinicios y llega a las demás instancias.
+ */
+public interface TokenService {
+
+    String TIPO_TOKEN = "Bearer";
+
+    /**
+     * Atributo de la petición con el TokenVerificadoDTO del token presentado.
+     */
+    String ATRIBUTO_TOKEN = "arkania.token";
+
+    /**
+     * Emite un token para un usuario ya autenticado.
+     *
+     * @param usuarioId ID del usuario
+     * @return Token firmado con su expiración
+     */
+    TokenDTO emitirToken(Long usuarioId);
+
+    /**
+     * Verifica un token: formato, firma, expiración y revocación.
+     *
+     * @param token Token en formato JWT
+     * @return Datos del token, o vacío si no es válido
+     */
+    Optional<TokenVerificadoDTO> verificarToken(String token);
+
+    /**
+     * Revoca todos los tokens emitidos hasta ahora a un usuario, cuando la transacción
+     * actual se confirma. Los tokens emitidos después (por ejemplo tras reactivarlo) son válidos.
+     * En esta instancia aplica de inmediato; en las demás, en la siguiente sincronización
+     * (arkania.token.intervalo-sincronizacion-ms).
+     *
+     * @param usuarioId ID del usuario
+     */
+    void revocarTokensUsuario(Long usuarioId);
+
+    /**
+     * Número de usuarios en la lista de revocación.
+     */
+    int contarUsuariosRevocados();
+}
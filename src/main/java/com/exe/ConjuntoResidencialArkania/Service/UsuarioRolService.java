@@ -2,8 +2,11 @@ package com.exe.ConjuntoResidencialArkania.Service;
 
 import com.exe.ConjuntoResidencialArkania.DTO.UsuarioRolDTO;
 import com.exe.ConjuntoResidencialArkania.Entity.UsuarioRol;
+import com.exe.ConjuntoResidencialArkania.Exception.UsuarioRolNotFoundException;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto.TipoActivacion;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,15 @@ import java.util.Optional;
  */
 public interface UsuarioRolService {
 
+    /**
+     * Resultado de activar un rol a un usuario.
+     *
+     * @param asignacion Asignación activa
+     * @param tipo Si se creó, se reactivó o ya estaba activa
+     */
+    record ResultadoAsignacion(UsuarioRolDTO asignacion, TipoActivacion tipo) {
+    }
+
     // ========================================
     // OPERACIONES CRUD BÁSICAS
     // ========================================
@@ -36,15 +48,28 @@ public interface UsuarioRolService {
 
     /**
      * Asigna un rol específico a un usuario específico.
-     * Método de conveniencia que simplifica la asignación básica.
+     * Método de conveniencia equivalente a activarRolDeUsuario, sin indicar qué hizo.
      * 
      * @param usuarioId ID del usuario
      * @param rolId ID del rol
-     * @return UsuarioRolDTO con la información de la asignación creada
-     * @throws RuntimeException si el usuario o rol no existen
+     * @return UsuarioRolDTO con la información de la asignación activa
+     * @throws RuntimeException si el usuario o rol no existen o las políticas no lo permiten
      */
     UsuarioRolDTO asignarRolAUsuario(Long usuarioId, Long rolId);
 
+    /**
+     * Deja activo un rol para un usuario: crea la asignación, reactiva la existente o, si ya
+     * está activa, la devuelve sin cambios. La creación o reactivación es una sola sentencia
+     * (upsert sobre la restricción única usuario-rol), así que repetir la operación es seguro
+     * y no vuelve a validar políticas, reservar cupo, publicar eventos ni auditar.
+     * 
+     * @param usuarioId ID del usuario
+     * @param rolId ID del rol
+     * @return Asignación activa y qué hizo la operación
+     * @throws RuntimeException si el usuario o rol no existen o las políticas no lo permiten
+     */
+    ResultadoAsignacion activarRolDeUsuario(Long usuarioId, Long rolId);
+
     /**
      * Obtiene una asignación usuario-rol por su ID.
      * 
@@ -136,6 +161,56 @@ public interface UsuarioRolService {
      */
     void desasignarRolDeUsuario(Long usuarioId, Long rolId);
 
+    // ========================================
+    // OPERACIONES DE EXPIRACIÓN Y RENOVACIÓN
+    // ========================================
+
+    /**
+     * Calcula la fecha de expiración de una nueva asignación según UsuarioRolConfig:
+     * los días de diasExpiracionPorRol o, si el rol no está ahí y requiere renovación,
+     * los de diasRenovacionPorRol.
+     * 
+     * @param nombreRol Nombre del rol
+     * @param desde Fecha de la asignación
+     * @return Fecha de expiración o null si el rol no vence
+     */
+    LocalDateTime calcularFechaExpiracion(String nombreRol, LocalDateTime desde);
+
+    /**
+     * Renueva una asignación que vence: extiende su expiración (desde la fecha actual o
+     * desde el vencimiento vigente, la que sea posterior) y la reactiva si había expirado,
+     * validando de nuevo las políticas de asignación.
+     * 
+     * @param usuarioRolId ID de la asignación
+     * @return DTO de la asignación renovada
+     * @throws UsuarioRolNotFoundException si la asignación no existe
+     * @throws IllegalArgumentException si el rol de la asignación no vence
+     * @throws IllegalStateException si la asignación fue desactivada sin expirar
+     * @throws RuntimeException si la reactivación incumple las políticas de asignación
+     */
+    UsuarioRolDTO renovarAsignacion(Long usuarioRolId);
+
+    /**
+     * Desactiva, en una transacción corta, las asignaciones indicadas que sigan activas y
+     * con expiración anterior al límite. Las filas bloqueadas por otra transacción se omiten.
+     * La invoca el motor de expiración con lotes acotados.
+     * 
+     * @param usuarioRolIds IDs candidatos
+     * @param limiteExpiracion Fecha de expiración máxima (ahora menos los días de gracia)
+     * @return Número de asignaciones desactivadas
+     */
+    int expirarAsignaciones(Collection<Long> usuarioRolIds, LocalDateTime limiteExpiracion);
+
+    /**
+     * Emite, en una transacción corta, los recordatorios de renovación de un lote de
+     * asignaciones que vencen antes del límite y aún no tienen recordatorio.
+     * 
+     * @param limiteExpiracion Fecha de expiración máxima (ahora más la anticipación)
+     * @param maximo Tamaño máximo del lote
+     * @return Número de recordatorios emitidos
+     */
+    int enviarRecordatoriosRenovacion(LocalDateTime limiteExpiracion, int maximo);
+
     // ========================================
     // OPERACIONES DE LISTADO Y BÚSQUEDA
     // ========================================
@@ -403,6 +478,8 @@ public interface UsuarioRolService {
     /**
      * Obtiene el historial completo de asignaciones de un usuario.
      * Incluye asignaciones activas e inactivas con fechas de cambio.
+     * El detalle de cada cambio (responsable, valores anterior y nuevo) está en
+     * AuditoriaService.obtenerHistorialUsuario.
      * 
      * @param usuarioId ID del usuario
      * @return Lista con el historial de asignaciones del usuario
@@ -0,0 +1,44 @@
+-- Migración de IDs AUTO_INCREMENT a secuencias con asignación por bloques (pooled-lo).
+-- MySQL no tiene secuencias: Hibernate las emula con una tabla por secuencia
+-- (columna next_val). Ejecutar UNA vez sobre una base existente ANTES de desplegar.
+-- Las columnas AUTO_INCREMENT se conservan; Hibernate siempre envía el ID explícito.
+
+-- usuarios
+CREATE TABLE IF NOT EXISTS usuarios_seq (next_val BIGINT NOT NULL);
+DELETE FROM usuarios_seq;
+INSERT INTO usuarios_seq (next_val) SELECT COALESCE(MAX(usuario_id), 0) + 1 FROM usuarios;
+
+-- roles
+CREATE TABLE IF NOT EXISTS roles_seq (next_val BIGINT NOT NULL);
+DELETE FROM roles_seq;
+INSERT INTO roles_seq (next_val) SELECT COALESCE(MAX(rol_id), 0) + 1 FROM roles;
+
+-- usuario_rol
+CREATE TABLE IF NOT EXISTS usuario_rol_seq (next_val BIGINT NOT NULL);
+DELETE FROM usuario_rol_seq;
+INSERT INTO usuario_rol_seq (next_val) SELECT COALESCE(MAX(usuario_rol_id), 0) + 1 FROM usuario_rol;
+
+-- apartamentos
+CREATE TABLE IF NOT EXISTS apartamentos_seq (next_val BIGINT NOT NULL);
+DELETE FROM apartamentos_seq;
+INSERT INTO apartamentos_seq (next_val) SELECT COALESCE(MAX(apartamento_id), 0) + 1 FROM apartamentos;
+
+-- parqueaderos
+CREATE TABLE IF NOT EXISTS parqueaderos_seq (next_val BIGINT NOT NULL);
+DELETE FROM parqueaderos_seq;
+INSERT INTO parqueaderos_seq (next_val) SELECT COALESCE(MAX(parqueadero_id), 0) + 1 FROM parqueaderos;
+
+-- correspondencias
+CREATE TABLE IF NOT EXISTS correspondencias_seq (next_val BIGINT NOT NULL);
+DELETE FROM correspondencias_seq;
+INSERT INTO correspondencias_seq (next_val) SELECT COALESCE(MAX(id_correspondencia), 0) + 1 FROM correspondencias;
+
+-- solicitudes
+CREATE TABLE IF NOT EXISTS solicitudes_seq (next_val BIGINT NOT NULL);
+DELETE FROM solicitudes_seq;
+INSERT INTO solicitudes_seq (next_val) SELECT COALESCE(MAX(id_solicitud), 0) + 1 FROM solicitudes;
+
+-- areas_comunes
+CREATE TABLE IF NOT EXISTS areas_comunes_seq (next_val BIGINT NOT NULL);
+DELETE FROM areas_comunes_seq;
+INSERT INTO areas_comunes_seq (next_val) SELECT COALESCE(MAX(id_area_comun), 0) + 1 FROM areas_comunes;
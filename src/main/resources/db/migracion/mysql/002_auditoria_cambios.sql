@@ -0,0 +1,24 @@
+-- Tabla del log de auditoría (ver la versión PostgreSQL).
+-- En MySQL no se particiona: la clave primaria es solo auditoria_id y la retención se
+-- aplica borrando por fecha_cambio, que usa el índice de entidad o de usuario.
+-- Ejecutar ANTES de arrancar con el perfil produccion (ddl-auto=validate).
+
+CREATE TABLE IF NOT EXISTS auditoria_seq (next_val BIGINT NOT NULL);
+INSERT INTO auditoria_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM auditoria_seq);
+
+CREATE TABLE IF NOT EXISTS auditoria_cambios (
+    auditoria_id                 BIGINT       NOT NULL PRIMARY KEY,
+    entidad_tipo                 VARCHAR(30)  NOT NULL,
+    entidad_id                   BIGINT       NOT NULL,
+    operacion                    VARCHAR(40)  NOT NULL,
+    usuario_relacionado_id       BIGINT,
+    usuario_responsable_id       BIGINT,
+    valor_anterior               TEXT,
+    valor_nuevo                  TEXT,
+    auditoria_especial           BOOLEAN      NOT NULL DEFAULT FALSE,
+    requiere_aprobacion_multiple BOOLEAN      NOT NULL DEFAULT FALSE,
+    fecha_cambio                 DATETIME(6)  NOT NULL,
+    INDEX idx_auditoria_entidad (entidad_tipo, entidad_id, fecha_cambio),
+    INDEX idx_auditoria_usuario_relacionado (usuario_relacionado_id, fecha_cambio),
+    INDEX idx_auditoria_usuario_responsable (usuario_responsable_id, fecha_cambio)
+);
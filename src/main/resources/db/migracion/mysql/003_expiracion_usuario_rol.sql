@@ -0,0 +1,14 @@
+-- Columnas de vencimiento de las asignaciones usuario-rol (ver la versión PostgreSQL).
+
+ALTER TABLE usuario_rol ADD COLUMN fecha_expiracion DATETIME(6) NULL;
+ALTER TABLE usuario_rol ADD COLUMN recordatorio_enviado BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE usuario_rol ur
+JOIN roles r ON r.rol_id = ur.rol_id
+SET ur.fecha_expiracion = DATE_ADD(ur.fecha_creacion, INTERVAL
+    CASE r.nombre WHEN 'VISITANTE' THEN 7 WHEN 'PROVEEDOR' THEN 90 ELSE 365 END DAY)
+WHERE r.nombre IN ('VISITANTE', 'PROVEEDOR', 'VIGILANTE', 'CONSERJE')
+  AND ur.activo = TRUE
+  AND ur.fecha_expiracion IS NULL;
+
+CREATE INDEX idx_usuario_rol_expiracion ON usuario_rol (activo, fecha_expiracion);
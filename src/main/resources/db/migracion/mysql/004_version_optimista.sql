@@ -0,0 +1,10 @@
+-- Columna de versión para el control de concurrencia optimista (ver la versión PostgreSQL).
+
+ALTER TABLE usuarios ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE roles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE usuario_rol ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE apartamentos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE parqueaderos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE correspondencias ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE solicitudes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE areas_comunes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
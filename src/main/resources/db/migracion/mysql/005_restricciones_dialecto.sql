@@ -0,0 +1,16 @@
+-- Restricción única de asignaciones y texto completo de solicitudes.
+-- Ejecutar sobre una base existente antes de desplegar; en bases nuevas Hibernate crea la
+-- restricción, pero no el índice FULLTEXT.
+
+-- Si hay varias filas para el mismo usuario y rol se conserva la activa más reciente
+DELETE ur FROM usuario_rol ur
+JOIN usuario_rol otra
+  ON ur.usuario_id = otra.usuario_id
+ AND ur.rol_id = otra.rol_id
+ AND (otra.activo, otra.fecha_creacion, otra.usuario_rol_id) > (ur.activo, ur.fecha_creacion, ur.usuario_rol_id);
+
+-- Base del upsert de activación (INSERT ... ON DUPLICATE KEY UPDATE)
+ALTER TABLE usuario_rol ADD CONSTRAINT uk_usuario_rol_usuario_rol UNIQUE (usuario_id, rol_id);
+
+-- Índice de texto completo para MATCH ... AGAINST (OperacionesMysql)
+ALTER TABLE solicitudes ADD FULLTEXT INDEX idx_solicitudes_descripcion_fts (descripcion);
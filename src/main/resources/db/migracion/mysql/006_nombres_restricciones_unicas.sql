@@ -0,0 +1,40 @@
+-- Nombres fijos para los índices únicos de usuarios y roles.
+-- Las altas traducen la restricción violada por su nombre (uk_usuarios_numero_documento,
+-- uk_usuarios_email, uk_roles_nombre); las bases creadas con unique = true tienen nombres
+-- generados por Hibernate. Ejecutar una vez antes de desplegar.
+
+-- usuarios.numero_documento
+SET @sql = NULL;
+SELECT CONCAT('ALTER TABLE usuarios RENAME INDEX `', index_name, '` TO uk_usuarios_numero_documento') INTO @sql
+FROM information_schema.statistics
+WHERE table_schema = DATABASE() AND table_name = 'usuarios' AND column_name = 'numero_documento'
+  AND non_unique = 0 AND index_name NOT IN ('PRIMARY', 'uk_usuarios_numero_documento')
+LIMIT 1;
+SET @sql = COALESCE(@sql, 'DO 0');
+PREPARE renombrar FROM @sql;
+EXECUTE renombrar;
+DEALLOCATE PREPARE renombrar;
+
+-- usuarios.email
+SET @sql = NULL;
+SELECT CONCAT('ALTER TABLE usuarios RENAME INDEX `', index_name, '` TO uk_usuarios_email') INTO @sql
+FROM information_schema.statistics
+WHERE table_schema = DATABASE() AND table_name = 'usuarios' AND column_name = 'email'
+  AND non_unique = 0 AND index_name NOT IN ('PRIMARY', 'uk_usuarios_email')
+LIMIT 1;
+SET @sql = COALESCE(@sql, 'DO 0');
+PREPARE renombrar FROM @sql;
+EXECUTE renombrar;
+DEALLOCATE PREPARE renombrar;
+
+-- roles.nombre
+SET @sql = NULL;
+SELECT CONCAT('ALTER TABLE roles RENAME INDEX `', index_name, '` TO uk_roles_nombre') INTO @sql
+FROM information_schema.statistics
+WHERE table_schema = DATABASE() AND table_name = 'roles' AND column_name = 'nombre'
+  AND non_unique = 0 AND index_name NOT IN ('PRIMARY', 'uk_roles_nombre')
+LIMIT 1;
+SET @sql = COALESCE(@sql, 'DO 0');
+PREPARE renombrar FROM @sql;
+EXECUTE renombrar;
+DEALLOCATE PREPARE renombrar;
@@ -0,0 +1,42 @@
+-- Tablas de archivo para la correspondencia entregada y las solicitudes cerradas
+-- (ver la versión PostgreSQL).
+
+CREATE TABLE IF NOT EXISTS correspondencias_archivo (
+    id_correspondencia         BIGINT       NOT NULL PRIMARY KEY,
+    registrado_por             BIGINT       NOT NULL,
+    destinatario               BIGINT       NOT NULL,
+    retirado_por               BIGINT,
+    apartamento                BIGINT,
+    tipo                       VARCHAR(255) NOT NULL,
+    fecha_recepcion            DATETIME(6)  NOT NULL,
+    fecha_entrega              DATETIME(6),
+    estado                     VARCHAR(255) NOT NULL,
+    observaciones              VARCHAR(500),
+    crear_correspondencia      DATETIME(6),
+    actualizar_correspondencia DATETIME(6),
+    version                    BIGINT       NOT NULL DEFAULT 0,
+    archivada_en               DATETIME(6)  NOT NULL,
+    INDEX idx_correspondencias_archivo_fecha_recepcion (fecha_recepcion),
+    INDEX idx_correspondencias_archivo_destinatario (destinatario),
+    INDEX idx_correspondencias_archivo_retirado_por (retirado_por)
+);
+
+-- Candidatas a archivar: entregadas, en orden de fecha de entrega
+ALTER TABLE correspondencias ADD INDEX idx_correspondencias_estado_fecha_entrega (estado, fecha_entrega);
+
+CREATE TABLE IF NOT EXISTS solicitudes_archivo (
+    id_solicitud     BIGINT       NOT NULL PRIMARY KEY,
+    usuario_id       BIGINT       NOT NULL,
+    tipo_solicitud   VARCHAR(50)  NOT NULL,
+    descripcion      VARCHAR(500) NOT NULL,
+    estado_solicitud VARCHAR(50)  NOT NULL,
+    fecha_creacion   DATETIME(6)  NOT NULL,
+    fecha_resolucion DATETIME(6),
+    version          BIGINT       NOT NULL DEFAULT 0,
+    archivada_en     DATETIME(6)  NOT NULL,
+    INDEX idx_solicitudes_archivo_fecha_creacion (fecha_creacion),
+    INDEX idx_solicitudes_archivo_fecha_resolucion (fecha_resolucion)
+);
+
+-- Candidatas a archivar: resueltas o rechazadas, en orden de fecha de resolución
+ALTER TABLE solicitudes ADD INDEX idx_solicitudes_estado_fecha_resolucion (estado_solicitud, fecha_resolucion);
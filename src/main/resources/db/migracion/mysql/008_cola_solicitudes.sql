@@ -0,0 +1,13 @@
+-- Columnas e índices de la cola de trabajo de solicitudes (ver la versión PostgreSQL).
+-- FOR UPDATE SKIP LOCKED requiere MySQL 8.0 o posterior.
+
+ALTER TABLE solicitudes
+    ADD COLUMN prioridad INT NOT NULL DEFAULT 0,
+    ADD COLUMN orden_cola DATETIME(6),
+    ADD COLUMN asignado_a BIGINT,
+    ADD COLUMN reclamo_vence DATETIME(6);
+
+UPDATE solicitudes SET orden_cola = fecha_creacion WHERE orden_cola IS NULL;
+
+ALTER TABLE solicitudes ADD INDEX idx_solicitudes_cola (estado_solicitud, tipo_solicitud, orden_cola);
+ALTER TABLE solicitudes ADD INDEX idx_solicitudes_reclamo_vence (estado_solicitud, reclamo_vence);
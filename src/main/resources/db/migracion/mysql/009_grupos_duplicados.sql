@@ -0,0 +1,7 @@
+-- Grupos de solicitudes casi duplicadas (ver la versión PostgreSQL).
+
+ALTER TABLE solicitudes ADD COLUMN grupo_duplicados BIGINT;
+
+UPDATE solicitudes SET grupo_duplicados = id_solicitud WHERE grupo_duplicados IS NULL;
+
+ALTER TABLE solicitudes ADD INDEX idx_solicitudes_grupo_duplicados (grupo_duplicados);
@@ -0,0 +1,13 @@
+-- Resúmenes diarios para reportes operativos (ver la versión PostgreSQL).
+
+CREATE TABLE IF NOT EXISTS resumen_diario (
+    metrica        VARCHAR(40)  NOT NULL,
+    fecha          DATE         NOT NULL,
+    dimension1     VARCHAR(50)  NOT NULL DEFAULT '',
+    dimension2     VARCHAR(50)  NOT NULL DEFAULT '',
+    cantidad       BIGINT       NOT NULL,
+    actualizado_en DATETIME(6)  NOT NULL,
+    CONSTRAINT pk_resumen_diario PRIMARY KEY (metrica, fecha, dimension1, dimension2)
+);
+
+ALTER TABLE usuarios ADD INDEX idx_usuarios_fecha_creacion (fecha_creacion);
@@ -0,0 +1,23 @@
+-- Tabla del outbox (si la base no la tiene aún) e índice para que el relay lea solo los
+-- eventos pendientes cuyo reintento venció.
+
+CREATE TABLE IF NOT EXISTS eventos_outbox_seq (next_val BIGINT NOT NULL);
+INSERT INTO eventos_outbox_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM eventos_outbox_seq);
+
+CREATE TABLE IF NOT EXISTS eventos_outbox (
+    evento_id         BIGINT       NOT NULL PRIMARY KEY,
+    agregado_tipo     VARCHAR(50)  NOT NULL,
+    agregado_id       BIGINT       NOT NULL,
+    tipo_evento       VARCHAR(80)  NOT NULL,
+    payload           TEXT,
+    estado            VARCHAR(20)  NOT NULL,
+    intentos          INT          NOT NULL,
+    proximo_intento   DATETIME(6)  NOT NULL,
+    ultimo_error      VARCHAR(500),
+    fecha_creacion    DATETIME(6)  NOT NULL,
+    fecha_publicacion DATETIME(6),
+    INDEX idx_eventos_outbox_estado (estado, evento_id),
+    INDEX idx_eventos_outbox_agregado (agregado_tipo, agregado_id)
+);
+
+ALTER TABLE eventos_outbox ADD INDEX idx_eventos_outbox_proximo_intento (estado, proximo_intento);
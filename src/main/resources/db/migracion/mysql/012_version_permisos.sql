@@ -0,0 +1,7 @@
+-- Sello de versión de los permisos efectivos de cada usuario (ver la versión PostgreSQL).
+
+ALTER TABLE usuarios ADD COLUMN version_permisos BIGINT NOT NULL DEFAULT 0;
+UPDATE usuarios SET version_permisos = CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS UNSIGNED)
+    WHERE version_permisos = 0;
+
+ALTER TABLE usuarios ADD INDEX idx_usuarios_version_permisos (version_permisos);
@@ -0,0 +1,4 @@
+-- Búsqueda de usuarios por email sin distinguir mayúsculas (ver la versión PostgreSQL).
+-- Índice funcional: requiere MySQL 8.0.13 o posterior.
+
+ALTER TABLE usuarios ADD INDEX idx_usuarios_email_minusculas ((LOWER(email)));
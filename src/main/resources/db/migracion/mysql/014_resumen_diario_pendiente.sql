@@ -0,0 +1,9 @@
+-- Días pendientes de recalcular en resumen_diario (ver la versión PostgreSQL).
+
+CREATE TABLE IF NOT EXISTS resumen_diario_pendiente (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    metrica    VARCHAR(40)  NOT NULL,
+    fecha      DATE         NOT NULL,
+    marcado_en DATETIME(6)  NOT NULL,
+    CONSTRAINT pk_resumen_diario_pendiente PRIMARY KEY (id)
+);
@@ -0,0 +1,3 @@
+-- Sello de versión de los permisos de cada rol (ver la versión PostgreSQL).
+
+ALTER TABLE roles ADD COLUMN version_permisos BIGINT NOT NULL DEFAULT 0;
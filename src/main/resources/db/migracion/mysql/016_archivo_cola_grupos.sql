@@ -0,0 +1,11 @@
+-- Columnas de la cola de trabajo y de los grupos de duplicados en el archivo de solicitudes
+-- (ver la versión PostgreSQL).
+
+ALTER TABLE solicitudes_archivo
+    ADD COLUMN prioridad INT NOT NULL DEFAULT 0,
+    ADD COLUMN orden_cola DATETIME(6),
+    ADD COLUMN asignado_a BIGINT,
+    ADD COLUMN reclamo_vence DATETIME(6),
+    ADD COLUMN grupo_duplicados BIGINT;
+
+UPDATE solicitudes_archivo SET grupo_duplicados = id_solicitud WHERE grupo_duplicados IS NULL;
@@ -0,0 +1,57 @@
+-- Migración de IDs IDENTITY a secuencias con asignación por bloques (pooled-lo).
+-- Ejecutar UNA vez sobre una base existente ANTES de desplegar la versión que usa
+-- @SequenceGenerator; en bases nuevas Hibernate crea las secuencias automáticamente.
+-- Cada secuencia avanza de 50 en 50 (allocationSize de las entidades) y arranca
+-- después del mayor ID existente.
+
+BEGIN;
+
+-- usuarios
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('usuarios_seq', COALESCE((SELECT MAX(usuario_id) FROM usuarios), 0) + 1, false);
+ALTER TABLE usuarios ALTER COLUMN usuario_id DROP IDENTITY IF EXISTS;
+ALTER TABLE usuarios ALTER COLUMN usuario_id DROP DEFAULT;
+
+-- roles
+CREATE SEQUENCE IF NOT EXISTS roles_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('roles_seq', COALESCE((SELECT MAX(rol_id) FROM roles), 0) + 1, false);
+ALTER TABLE roles ALTER COLUMN rol_id DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN rol_id DROP DEFAULT;
+
+-- usuario_rol
+CREATE SEQUENCE IF NOT EXISTS usuario_rol_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('usuario_rol_seq', COALESCE((SELECT MAX(usuario_rol_id) FROM usuario_rol), 0) + 1, false);
+ALTER TABLE usuario_rol ALTER COLUMN usuario_rol_id DROP IDENTITY IF EXISTS;
+ALTER TABLE usuario_rol ALTER COLUMN usuario_rol_id DROP DEFAULT;
+
+-- apartamentos
+CREATE SEQUENCE IF NOT EXISTS apartamentos_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('apartamentos_seq', COALESCE((SELECT MAX(apartamento_id) FROM apartamentos), 0) + 1, false);
+ALTER TABLE apartamentos ALTER COLUMN apartamento_id DROP IDENTITY IF EXISTS;
+ALTER TABLE apartamentos ALTER COLUMN apartamento_id DROP DEFAULT;
+
+-- parqueaderos
+CREATE SEQUENCE IF NOT EXISTS parqueaderos_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('parqueaderos_seq', COALESCE((SELECT MAX(parqueadero_id) FROM parqueaderos), 0) + 1, false);
+ALTER TABLE parqueaderos ALTER COLUMN parqueadero_id DROP IDENTITY IF EXISTS;
+ALTER TABLE parqueaderos ALTER COLUMN parqueadero_id DROP DEFAULT;
+
+-- correspondencias
+CREATE SEQUENCE IF NOT EXISTS correspondencias_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('correspondencias_seq', COALESCE((SELECT MAX(id_correspondencia) FROM correspondencias), 0) + 1, false);
+ALTER TABLE correspondencias ALTER COLUMN id_correspondencia DROP IDENTITY IF EXISTS;
+ALTER TABLE correspondencias ALTER COLUMN id_correspondencia DROP DEFAULT;
+
+-- solicitudes
+CREATE SEQUENCE IF NOT EXISTS solicitudes_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('solicitudes_seq', COALESCE((SELECT MAX(id_solicitud) FROM solicitudes), 0) + 1, false);
+ALTER TABLE solicitudes ALTER COLUMN id_solicitud DROP IDENTITY IF EXISTS;
+ALTER TABLE solicitudes ALTER COLUMN id_solicitud DROP DEFAULT;
+
+-- areas_comunes
+CREATE SEQUENCE IF NOT EXISTS areas_comunes_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('areas_comunes_seq', COALESCE((SELECT MAX(id_area_comun) FROM areas_comunes), 0) + 1, false);
+ALTER TABLE areas_comunes ALTER COLUMN id_area_comun DROP IDENTITY IF EXISTS;
+ALTER TABLE areas_comunes ALTER COLUMN id_area_comun DROP DEFAULT;
+
+COMMIT;
@@ -0,0 +1,42 @@
+-- Tabla del log de auditoría particionada por mes (fecha_cambio).
+-- Ejecutar ANTES del primer arranque con auditoría: si la tabla no existe,
+-- ddl-auto=update la crea sin particionar (funciona, pero sin particiones).
+-- La aplicación crea al iniciar y cada día las particiones del mes actual y de los
+-- meses siguientes (arkania.auditoria.meses-anticipacion-particiones).
+-- La clave primaria incluye fecha_cambio porque PostgreSQL exige que contenga la
+-- columna de partición.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS auditoria_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS auditoria_cambios (
+    auditoria_id                 BIGINT       NOT NULL,
+    entidad_tipo                 VARCHAR(30)  NOT NULL,
+    entidad_id                   BIGINT       NOT NULL,
+    operacion                    VARCHAR(40)  NOT NULL,
+    usuario_relacionado_id       BIGINT,
+    usuario_responsable_id       BIGINT,
+    valor_anterior               TEXT,
+    valor_nuevo                  TEXT,
+    auditoria_especial           BOOLEAN      NOT NULL DEFAULT FALSE,
+    requiere_aprobacion_multiple BOOLEAN      NOT NULL DEFAULT FALSE,
+    fecha_cambio                 TIMESTAMP    NOT NULL,
+    PRIMARY KEY (auditoria_id, fecha_cambio)
+) PARTITION BY RANGE (fecha_cambio);
+
+-- Los índices creados sobre la tabla padre se replican en cada partición
+CREATE INDEX IF NOT EXISTS idx_auditoria_entidad
+    ON auditoria_cambios (entidad_tipo, entidad_id, fecha_cambio);
+CREATE INDEX IF NOT EXISTS idx_auditoria_usuario_relacionado
+    ON auditoria_cambios (usuario_relacionado_id, fecha_cambio);
+CREATE INDEX IF NOT EXISTS idx_auditoria_usuario_responsable
+    ON auditoria_cambios (usuario_responsable_id, fecha_cambio);
+
+-- Recibe las filas de meses sin partición (no debería usarse si la tarea diaria corre)
+CREATE TABLE IF NOT EXISTS auditoria_cambios_default PARTITION OF auditoria_cambios DEFAULT;
+
+COMMIT;
+
+-- Retención: una partición antigua se elimina sin afectar las demás, por ejemplo
+--   DROP TABLE auditoria_cambios_2024_01;
@@ -0,0 +1,24 @@
+-- Columnas de vencimiento de las asignaciones usuario-rol.
+-- Ejecutar sobre una base existente ANTES de desplegar: ddl-auto=update no puede agregar
+-- recordatorio_enviado como NOT NULL sobre una tabla que ya tiene filas.
+-- Los plazos coinciden con UsuarioRolConfig.diasExpiracionPorRol y diasRenovacionPorRol;
+-- las asignaciones activas existentes vencen contando desde su creación.
+
+BEGIN;
+
+ALTER TABLE usuario_rol ADD COLUMN IF NOT EXISTS fecha_expiracion TIMESTAMP;
+ALTER TABLE usuario_rol ADD COLUMN IF NOT EXISTS recordatorio_enviado BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE usuario_rol ur
+SET fecha_expiracion = ur.fecha_creacion + make_interval(days => p.dias)
+FROM roles r
+JOIN (VALUES ('VISITANTE', 7), ('PROVEEDOR', 90), ('VIGILANTE', 365), ('CONSERJE', 365)) AS p(rol, dias)
+  ON p.rol = r.nombre
+WHERE ur.rol_id = r.rol_id
+  AND ur.activo = TRUE
+  AND ur.fecha_expiracion IS NULL;
+
+-- Índice del motor de expiración
+CREATE INDEX IF NOT EXISTS idx_usuario_rol_expiracion ON usuario_rol (activo, fecha_expiracion);
+
+COMMIT;
@@ -0,0 +1,22 @@
+-- Restricción única de asignaciones y texto completo de solicitudes.
+-- Ejecutar sobre una base existente antes de desplegar; en bases nuevas Hibernate crea la
+-- restricción, pero no el índice de texto completo.
+
+BEGIN;
+
+-- Si hay varias filas para el mismo usuario y rol se conserva la activa más reciente
+DELETE FROM usuario_rol ur
+USING usuario_rol otra
+WHERE ur.usuario_id = otra.usuario_id
+  AND ur.rol_id = otra.rol_id
+  AND (otra.activo, otra.fecha_creacion, otra.usuario_rol_id) > (ur.activo, ur.fecha_creacion, ur.usuario_rol_id);
+
+-- Base del upsert de activación (INSERT ... ON CONFLICT ON CONSTRAINT)
+ALTER TABLE usuario_rol ADD CONSTRAINT uk_usuario_rol_usuario_rol UNIQUE (usuario_id, rol_id);
+
+COMMIT;
+
+-- Índice GIN de texto completo; la expresión debe ser igual a la de OperacionesPostgresql.
+-- CONCURRENTLY no bloquea las escrituras, pero no puede ir dentro de una transacción.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_solicitudes_descripcion_fts
+    ON solicitudes USING GIN (to_tsvector('spanish', descripcion));
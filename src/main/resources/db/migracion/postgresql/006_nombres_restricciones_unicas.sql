@@ -0,0 +1,22 @@
+-- Nombres fijos para las restricciones únicas de usuarios y roles.
+-- Las altas traducen la restricción violada por su nombre (uk_usuarios_numero_documento,
+-- uk_usuarios_email, uk_roles_nombre); las bases creadas con unique = true tienen nombres
+-- generados por Hibernate. Ejecutar una vez antes de desplegar.
+
+DO $$
+DECLARE
+    r record;
+BEGIN
+    FOR r IN
+        SELECT t.relname AS tabla, c.conname AS actual, 'uk_' || t.relname || '_' || a.attname AS nuevo
+        FROM pg_constraint c
+        JOIN pg_class t ON t.oid = c.conrelid
+        JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = c.conkey[1]
+        WHERE c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND (t.relname, a.attname) IN (('usuarios', 'numero_documento'), ('usuarios', 'email'), ('roles', 'nombre'))
+          AND c.conname <> 'uk_' || t.relname || '_' || a.attname
+    LOOP
+        EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I', r.tabla, r.actual, r.nuevo);
+    END LOOP;
+END $$;
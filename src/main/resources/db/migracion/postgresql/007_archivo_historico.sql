@@ -0,0 +1,59 @@
+-- Tablas de archivo para la correspondencia entregada y las solicitudes cerradas.
+-- Ejecutar antes de habilitar el archivo (arkania.archivo.habilitado): si las tablas no
+-- existen la aplicación no archiva y las consultas leen solo las tablas principales.
+-- La tarea de archivo mueve por lotes (INSERT ... SELECT y DELETE en una transacción) las
+-- filas cerradas hace más de arkania.archivo.dias-retencion días. Las tablas de archivo no
+-- tienen claves foráneas: conservan los IDs de usuarios y apartamentos aunque se eliminen.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS correspondencias_archivo (
+    id_correspondencia         BIGINT       NOT NULL PRIMARY KEY,
+    registrado_por             BIGINT       NOT NULL,
+    destinatario               BIGINT       NOT NULL,
+    retirado_por               BIGINT,
+    apartamento                BIGINT,
+    tipo                       VARCHAR(255) NOT NULL,
+    fecha_recepcion            TIMESTAMP(6) NOT NULL,
+    fecha_entrega              TIMESTAMP(6),
+    estado                     VARCHAR(255) NOT NULL,
+    observaciones              VARCHAR(500),
+    crear_correspondencia      TIMESTAMP(6),
+    actualizar_correspondencia TIMESTAMP(6),
+    version                    BIGINT       NOT NULL DEFAULT 0,
+    archivada_en               TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_correspondencias_archivo_fecha_recepcion
+    ON correspondencias_archivo (fecha_recepcion);
+CREATE INDEX IF NOT EXISTS idx_correspondencias_archivo_destinatario
+    ON correspondencias_archivo (destinatario);
+CREATE INDEX IF NOT EXISTS idx_correspondencias_archivo_retirado_por
+    ON correspondencias_archivo (retirado_por);
+
+-- Candidatas a archivar: entregadas, en orden de fecha de entrega
+CREATE INDEX IF NOT EXISTS idx_correspondencias_estado_fecha_entrega
+    ON correspondencias (estado, fecha_entrega);
+
+CREATE TABLE IF NOT EXISTS solicitudes_archivo (
+    id_solicitud     BIGINT       NOT NULL PRIMARY KEY,
+    usuario_id       BIGINT       NOT NULL,
+    tipo_solicitud   VARCHAR(50)  NOT NULL,
+    descripcion      VARCHAR(500) NOT NULL,
+    estado_solicitud VARCHAR(50)  NOT NULL,
+    fecha_creacion   TIMESTAMP(6) NOT NULL,
+    fecha_resolucion TIMESTAMP(6),
+    version          BIGINT       NOT NULL DEFAULT 0,
+    archivada_en     TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_solicitudes_archivo_fecha_creacion
+    ON solicitudes_archivo (fecha_creacion);
+CREATE INDEX IF NOT EXISTS idx_solicitudes_archivo_fecha_resolucion
+    ON solicitudes_archivo (fecha_resolucion);
+
+-- Candidatas a archivar: resueltas o rechazadas, en orden de fecha de resolución
+CREATE INDEX IF NOT EXISTS idx_solicitudes_estado_fecha_resolucion
+    ON solicitudes (estado_solicitud, fecha_resolucion);
+
+COMMIT;
@@ -0,0 +1,21 @@
+-- Columnas e índices de la cola de trabajo de solicitudes (/api/solicitudes/cola).
+-- Ejecutar sobre una base existente antes de desplegar: las solicitudes existentes entran a
+-- la cola con prioridad 0 y en orden de creación.
+
+BEGIN;
+
+ALTER TABLE solicitudes ADD COLUMN IF NOT EXISTS prioridad INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE solicitudes ADD COLUMN IF NOT EXISTS orden_cola TIMESTAMP(6);
+ALTER TABLE solicitudes ADD COLUMN IF NOT EXISTS asignado_a BIGINT;
+ALTER TABLE solicitudes ADD COLUMN IF NOT EXISTS reclamo_vence TIMESTAMP(6);
+
+UPDATE solicitudes SET orden_cola = fecha_creacion WHERE orden_cola IS NULL;
+
+-- Siguiente pendiente de un tipo (SELECT ... ORDER BY orden_cola FOR UPDATE SKIP LOCKED)
+CREATE INDEX IF NOT EXISTS idx_solicitudes_cola
+    ON solicitudes (estado_solicitud, tipo_solicitud, orden_cola);
+-- Reclamos vencidos por devolver a la cola
+CREATE INDEX IF NOT EXISTS idx_solicitudes_reclamo_vence
+    ON solicitudes (estado_solicitud, reclamo_vence);
+
+COMMIT;
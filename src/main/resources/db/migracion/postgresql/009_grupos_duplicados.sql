@@ -0,0 +1,14 @@
+-- Grupos de solicitudes casi duplicadas (/api/solicitudes/grupos).
+-- Ejecutar sobre una base existente antes de desplegar: cada solicitud existente abre su propio
+-- grupo (grupo_duplicados = su ID), igual que una solicitud nueva sin otra parecida. Las
+-- consultas de grupo solo miran grupo_duplicados.
+
+BEGIN;
+
+ALTER TABLE solicitudes ADD COLUMN IF NOT EXISTS grupo_duplicados BIGINT;
+
+UPDATE solicitudes SET grupo_duplicados = id_solicitud WHERE grupo_duplicados IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_solicitudes_grupo_duplicados ON solicitudes (grupo_duplicados);
+
+COMMIT;
@@ -0,0 +1,20 @@
+-- Resúmenes diarios para reportes operativos (/api/reportes/diarios).
+-- Después de crear la tabla, llenar el historial con
+-- POST /api/reportes/diarios/recalcular?desde=<primer día>&hasta=<hoy>.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS resumen_diario (
+    metrica        VARCHAR(40)  NOT NULL,
+    fecha          DATE         NOT NULL,
+    dimension1     VARCHAR(50)  NOT NULL DEFAULT '',
+    dimension2     VARCHAR(50)  NOT NULL DEFAULT '',
+    cantidad       BIGINT       NOT NULL,
+    actualizado_en TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_resumen_diario PRIMARY KEY (metrica, fecha, dimension1, dimension2)
+);
+
+-- Recálculo de un día de usuarios registrados sin recorrer toda la tabla
+CREATE INDEX IF NOT EXISTS idx_usuarios_fecha_creacion ON usuarios (fecha_creacion);
+
+COMMIT;
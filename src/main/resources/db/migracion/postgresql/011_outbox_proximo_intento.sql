@@ -0,0 +1,26 @@
+-- Tabla del outbox (si la base no la tiene aún) e índice para que el relay lea solo los
+-- eventos pendientes cuyo reintento venció.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS eventos_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS eventos_outbox (
+    evento_id         BIGINT       NOT NULL PRIMARY KEY,
+    agregado_tipo     VARCHAR(50)  NOT NULL,
+    agregado_id       BIGINT       NOT NULL,
+    tipo_evento       VARCHAR(80)  NOT NULL,
+    payload           TEXT,
+    estado            VARCHAR(20)  NOT NULL,
+    intentos          INTEGER      NOT NULL,
+    proximo_intento   TIMESTAMP    NOT NULL,
+    ultimo_error      VARCHAR(500),
+    fecha_creacion    TIMESTAMP    NOT NULL,
+    fecha_publicacion TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_eventos_outbox_estado ON eventos_outbox (estado, evento_id);
+CREATE INDEX IF NOT EXISTS idx_eventos_outbox_agregado ON eventos_outbox (agregado_tipo, agregado_id);
+CREATE INDEX IF NOT EXISTS idx_eventos_outbox_proximo_intento ON eventos_outbox (estado, proximo_intento);
+
+COMMIT;
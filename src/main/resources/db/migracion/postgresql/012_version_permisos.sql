@@ -0,0 +1,16 @@
+-- Sello de versión de los permisos efectivos de cada usuario (PermisoEfectivoServiceImpl).
+-- Se avanza en la misma transacción de cada cambio de usuario, asignación o rol, así que no
+-- se reinicia con la aplicación y lo comparten todas las instancias.
+-- Las filas existentes toman el instante de la migración: los tokens emitidos antes llevan
+-- versiones de la caché en memoria anterior y deben quedar como no vigentes.
+
+BEGIN;
+
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS version_permisos BIGINT NOT NULL DEFAULT 0;
+UPDATE usuarios SET version_permisos = (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT
+    WHERE version_permisos = 0;
+
+-- Sincronización entre instancias: usuarios con un sello posterior a la última lectura
+CREATE INDEX IF NOT EXISTS idx_usuarios_version_permisos ON usuarios (version_permisos);
+
+COMMIT;
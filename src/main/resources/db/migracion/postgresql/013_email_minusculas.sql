@@ -0,0 +1,10 @@
+-- Búsqueda de usuarios por email sin distinguir mayúsculas (deduplicación de la importación
+-- masiva, UserRepository.findDocumentosYEmailsExistentes). Los emails se guardan como los
+-- escribe el usuario; sin este índice LOWER(email) recorre toda la tabla. Hibernate no crea
+-- índices por expresión: ejecutar también en bases nuevas.
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_usuarios_email_minusculas ON usuarios (LOWER(email));
+
+COMMIT;
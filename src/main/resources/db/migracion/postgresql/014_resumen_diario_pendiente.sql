@@ -0,0 +1,16 @@
+-- Días pendientes de recalcular en resumen_diario. Las escrituras insertan la marca en su
+-- propia transacción, así una marca confirmada sobrevive a un reinicio de la instancia y la
+-- recalcula cualquier instancia. Sin clave única por día: marcar el mismo día desde varias
+-- transacciones no se bloquea, y el recálculo quita por ID solo las marcas que leyó.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS resumen_diario_pendiente (
+    id         BIGSERIAL    NOT NULL,
+    metrica    VARCHAR(40)  NOT NULL,
+    fecha      DATE         NOT NULL,
+    marcado_en TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_resumen_diario_pendiente PRIMARY KEY (id)
+);
+
+COMMIT;
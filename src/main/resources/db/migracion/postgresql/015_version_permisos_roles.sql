@@ -0,0 +1,12 @@
+-- Sello de versión de los permisos de cada rol (PermisoEfectivoServiceImpl). Cambiar un rol
+-- avanza solo su fila, en lugar del sello de cada usuario con el rol: los tokens llevan el
+-- sello del usuario y el de cada uno de sus roles, y se comparan con los que cada instancia
+-- mantiene en memoria.
+-- Las filas existentes quedan en 0: los tokens emitidos antes no llevan sellos de roles y se
+-- marcan para renovar.
+
+BEGIN;
+
+ALTER TABLE roles ADD COLUMN IF NOT EXISTS version_permisos BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
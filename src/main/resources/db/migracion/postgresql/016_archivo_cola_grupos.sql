@@ -0,0 +1,16 @@
+-- Columnas de la cola de trabajo (008) y de los grupos de duplicados (009) en el archivo de
+-- solicitudes, para que archivar conserve quién la atendió, su prioridad y su grupo.
+-- Ejecutar antes de desplegar: mientras falten estas columnas la aplicación no archiva.
+-- Las solicitudes ya archivadas quedan con prioridad 0, sin trabajador y en su propio grupo.
+
+BEGIN;
+
+ALTER TABLE solicitudes_archivo ADD COLUMN IF NOT EXISTS prioridad INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE solicitudes_archivo ADD COLUMN IF NOT EXISTS orden_cola TIMESTAMP(6);
+ALTER TABLE solicitudes_archivo ADD COLUMN IF NOT EXISTS asignado_a BIGINT;
+ALTER TABLE solicitudes_archivo ADD COLUMN IF NOT EXISTS reclamo_vence TIMESTAMP(6);
+ALTER TABLE solicitudes_archivo ADD COLUMN IF NOT EXISTS grupo_duplicados BIGINT;
+
+UPDATE solicitudes_archivo SET grupo_duplicados = id_solicitud WHERE grupo_duplicados IS NULL;
+
+COMMIT;
@@ -0,0 +1,118 @@
+package com.exe.ConjuntoResidencialArkania.Config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+
+import com.exe.ConjuntoResidencialArkania.Impl.IdempotenciaServiceImpl;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pruebas del filtro de idempotencia: usuario obligatorio, límite del cuerpo (también sin
+ * Content-Length) y huella del contenido de los multipart.
+ */
+class FiltroIdempotenciaTest {
+
+    private final FiltroIdempotencia filtro = new FiltroIdempotencia(new IdempotenciaServiceImpl(60, 100, 1_000_000));
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    @Test
+    void rechazaLaClaveSinUsuarioAutenticado() throws Exception {
+        MockHttpServletRequest peticion = peticion("{}".getBytes(StandardCharsets.UTF_8));
+        peticion.removeAttribute(AuditoriaService.ATRIBUTO_USUARIO_RESPONSABLE);
+
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, ejecutar(peticion).getStatus());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void rechazaUnCuerpoDemasiadoGrandeAunqueLlegueSinLongitud() throws Exception {
+        MockHttpServletRequest enPartes = new MockHttpServletRequest("POST", "/api/solicitudes") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        enPartes.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        enPartes.setContent(new byte[1024 * 1024 + 1]);
+        enPartes.addHeader(IdempotenciaService.CABECERA_CLAVE, "k1");
+        enPartes.setAttribute(AuditoriaService.ATRIBUTO_USUARIO_RESPONSABLE, 1L);
+
+        assertEquals(413, ejecutar(enPartes).getStatus());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void laRepeticionRecibeLaRespuestaConElCuerpoYaLeido() throws Exception {
+        byte[] cuerpo = "{\"descripcion\":\"Fuga\"}".getBytes(StandardCharsets.UTF_8);
+
+        MockHttpServletResponse primera = ejecutar(peticion(cuerpo));
+        assertEquals(201, primera.getStatus());
+        assertArrayEquals(cuerpo, primera.getContentAsByteArray(), "el controlador lee el cuerpo completo");
+
+        MockHttpServletResponse repetida = ejecutar(peticion(cuerpo));
+        assertEquals("true", repetida.getHeader(IdempotenciaService.CABECERA_REPETIDA));
+        assertEquals(1, ejecuciones.get());
+
+        byte[] otro = "{\"descripcion\":\"Gota\"}".getBytes(StandardCharsets.UTF_8);
+        assertEquals(422, ejecutar(peticion(otro)).getStatus());
+    }
+
+    @Test
+    void laHuellaDeUnMultipartEsSuContenido() throws Exception {
+        assertEquals(201, ejecutar(multipart("documento;nombres\n1;Ana\n")).getStatus());
+        // Misma longitud, otro contenido: la clave no se puede reutilizar
+        assertEquals(422, ejecutar(multipart("documento;nombres\n2;Eva\n")).getStatus());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    private MockHttpServletResponse ejecutar(HttpServletRequest peticion) throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(peticion, respuesta, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                ejecuciones.incrementAndGet();
+                resp.setStatus(201);
+                req.getInputStream().transferTo(resp.getOutputStream());
+            }
+        }));
+        return respuesta;
+    }
+
+    private static MockHttpServletRequest peticion(byte[] cuerpo) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("POST", "/api/solicitudes");
+        peticion.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        peticion.setContent(cuerpo);
+        peticion.addHeader(IdempotenciaService.CABECERA_CLAVE, "k1");
+        peticion.setAttribute(AuditoriaService.ATRIBUTO_USUARIO_RESPONSABLE, 1L);
+        return peticion;
+    }
+
+    private static MockMultipartHttpServletRequest multipart(String csv) {
+        MockMultipartHttpServletRequest peticion = new MockMultipartHttpServletRequest();
+        peticion.setRequestURI("/api/importacion/residentes/csv");
+        peticion.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=x");
+        MockPart archivo = new MockPart("archivo", "residentes.csv", csv.getBytes(StandardCharsets.UTF_8));
+        peticion.addPart(archivo);
+        peticion.addHeader(IdempotenciaService.CABECERA_CLAVE, "k2");
+        peticion.setAttribute(AuditoriaService.ATRIBUTO_USUARIO_RESPONSABLE, 1L);
+        return peticion;
+    }
+}
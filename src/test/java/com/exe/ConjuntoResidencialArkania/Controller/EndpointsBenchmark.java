@@ -0,0 +1,129 @@
+package com.exe.ConjuntoResidencialArkania.Controller;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Medición de latencia y rendimiento de los endpoints principales contra una instancia en
+ * ejecución, para comparar el perfil por defecto con el perfil produccion.
+ *
+ * No es una prueba unitaria (no la ejecuta Maven): se arranca la aplicación con un perfil,
+ * se corre este main, y se repite con el otro perfil sobre los mismos datos. Argumentos
+ * opcionales [urlBase] [hilos] [segundosPorEndpoint]; si la variable ARKANIA_BENCHMARK_TOKEN
+ * tiene un token de acceso se envía como Authorization: Bearer.
+ *
+ * Cada endpoint tiene un calentamiento de un tercio del tiempo medido para que el JIT, los
+ * pools y las cachés de sentencias estén llenos antes de medir. Los listados con caché de
+ * respuestas (roles, apartamentos) se incluyen como referencia de una petición sin base de datos.
+ */
+public class EndpointsBenchmark {
+
+    private static final String[] ENDPOINTS = {
+            "/api/usuarios",
+            "/api/usuarios/activos",
+            "/api/usuario-roles/activas",
+            "/api/correspondencias",
+            "/api/correspondencias/estado/PENDIENTE",
+            "/api/solicitudes",
+            "/api/roles",
+            "/api/apartamentos",
+    };
+
+    public static void main(String[] args) throws Exception {
+        String urlBase = args.length > 0 ? args[0] : "http://localhost:8085";
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        String token = System.getenv("ARKANIA_BENCHMARK_TOKEN");
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(hilos))
+                .build();
+
+        System.out.printf("%s, %d hilos, %d s por endpoint%n", urlBase, hilos, segundos);
+        System.out.printf("%-42s %10s %9s %9s %9s %8s%n", "endpoint", "peticiones/s", "p50 ms", "p90 ms", "p99 ms", "errores");
+        for (String endpoint : ENDPOINTS) {
+            HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(urlBase + endpoint))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET();
+            if (token != null && !token.isBlank()) {
+                peticion.header("Authorization", "Bearer " + token);
+            }
+            HttpRequest request = peticion.build();
+
+            ejecutar(cliente, request, hilos, Math.max(1, segundos / 3) * 1000L); // calentamiento
+            Resultado resultado = ejecutar(cliente, request, hilos, segundos * 1000L);
+            System.out.printf("%-42s %10.0f %9.2f %9.2f %9.2f %8d%n", endpoint,
+                    resultado.latencias.length / (segundos * 1.0),
+                    percentil(resultado.latencias, 0.50), percentil(resultado.latencias, 0.90),
+                    percentil(resultado.latencias, 0.99), resultado.errores);
+        }
+        System.exit(0);
+    }
+
+    private static Resultado ejecutar(HttpClient cliente, HttpRequest request, int hilos, long duracionMs) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        long fin = System.currentTimeMillis() + duracionMs;
+        try {
+            List<Future<Resultado>> parciales = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                parciales.add(ejecutor.submit(() -> {
+                    long[] latencias = new long[4096];
+                    int n = 0;
+                    long errores = 0;
+                    while (System.currentTimeMillis() < fin) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> respuesta = cliente.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (respuesta.statusCode() >= 400) {
+                                errores++;
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errores++;
+                            continue;
+                        }
+                        if (n == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, n * 2);
+                        }
+                        latencias[n++] = System.nanoTime() - inicio;
+                    }
+                    return new Resultado(Arrays.copyOf(latencias, n), errores);
+                }));
+            }
+            long[] todas = new long[0];
+            long errores = 0;
+            for (Future<Resultado> parcial : parciales) {
+                Resultado r = parcial.get();
+                long[] unidas = Arrays.copyOf(todas, todas.length + r.latencias.length);
+                System.arraycopy(r.latencias, 0, unidas, todas.length, r.latencias.length);
+                todas = unidas;
+                errores += r.errores;
+            }
+            Arrays.sort(todas);
+            return new Resultado(todas, errores);
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0.0;
+        }
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    private record Resultado(long[] latencias, long errores) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del buffer circular de auditoría: buffer lleno, vuelta completa de las posiciones
+ * y varios productores concurrentes con un consumidor sin perder, repetir ni desordenar
+ * los elementos de cada productor.
+ */
+class BufferCircularAuditoriaTest {
+
+    private static final int PRODUCTORES = 4;
+    private static final int POR_PRODUCTOR = 20_000;
+
+    @Test
+    void rechazaAlLlenarseYReutilizaLasPosicionesLiberadas() {
+        BufferCircularAuditoria<Integer> buffer = new BufferCircularAuditoria<>(3);
+        assertEquals(4, buffer.capacidad());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4), "buffer lleno");
+        assertEquals(4, buffer.tamano());
+
+        List<Integer> drenados = new ArrayList<>();
+        assertEquals(2, buffer.drenar(drenados, 2));
+        // Las dos posiciones liberadas se usan en la siguiente vuelta
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertFalse(buffer.offer(6));
+
+        assertEquals(4, buffer.drenar(drenados, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drenados);
+        assertEquals(0, buffer.drenar(drenados, 10));
+    }
+
+    @Test
+    void variosProductoresConUnConsumidorNoPierdenNiDesordenan() throws Exception {
+        BufferCircularAuditoria<long[]> buffer = new BufferCircularAuditoria<>(64);
+        CountDownLatch lleno = new CountDownLatch(1);
+        AtomicLong rechazos = new AtomicLong();
+        ExecutorService hilos = Executors.newFixedThreadPool(PRODUCTORES + 1);
+        try {
+            List<Future<?>> productores = new ArrayList<>();
+            for (int p = 0; p < PRODUCTORES; p++) {
+                long productor = p;
+                productores.add(hilos.submit(() -> {
+                    for (long i = 0; i < POR_PRODUCTOR; i++) {
+                        while (!buffer.offer(new long[] {productor, i})) {
+                            rechazos.incrementAndGet();
+                            lleno.countDown();
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+
+            // El consumidor espera a que el buffer se llene al menos una vez
+            Future<long[]> consumidor = hilos.submit(() -> {
+                assertTrue(lleno.await(10, TimeUnit.SECONDS));
+                long[] siguiente = new long[PRODUCTORES];
+                List<long[]> lote = new ArrayList<>();
+                long total = 0;
+                while (total < (long) PRODUCTORES * POR_PRODUCTOR) {
+                    lote.clear();
+                    if (buffer.drenar(lote, 32) == 0) {
+                        Thread.yield();
+                        continue;
+                    }
+                    for (long[] elemento : lote) {
+                        int productor = (int) elemento[0];
+                        // Cada productor llega en su orden, sin huecos ni repeticiones
+                        assertEquals(siguiente[productor], elemento[1]);
+                        siguiente[productor]++;
+                    }
+                    total += lote.size();
+                    assertTrue(buffer.tamano() <= buffer.capacidad());
+                }
+                return siguiente;
+            });
+
+            for (Future<?> productor : productores) {
+                productor.get(60, TimeUnit.SECONDS);
+            }
+            long[] recibidos = consumidor.get(60, TimeUnit.SECONDS);
+            for (long porProductor : recibidos) {
+                assertEquals(POR_PRODUCTOR, porProductor);
+            }
+            assertTrue(rechazos.get() > 0, "el buffer se llenó");
+            assertEquals(0, buffer.drenar(new ArrayList<>(), 1));
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
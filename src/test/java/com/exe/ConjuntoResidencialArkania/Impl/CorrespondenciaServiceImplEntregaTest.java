@@ -0,0 +1,134 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exe.ConjuntoResidencialArkania.DTO.CorrespondenciaDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Estado;
+import com.exe.ConjuntoResidencialArkania.Entity.CorrespondenciaEntity.Tipo;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Exception.CorrespondenciaNotFoundException;
+import com.exe.ConjuntoResidencialArkania.Repository.ArchivoRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.CorrespondenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.SecuenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+
+/**
+ * Pruebas de la entrega con un UPDATE condicionado contra JPA y H2: quien retira no se
+ * consulta antes y la llave foránea rechaza un usuario inexistente sin entregar nada; la
+ * actualización genérica no puede entregar. Sin transacción de prueba para que cada entrega
+ * confirme la suya.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import(CorrespondenciaServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CorrespondenciaServiceImplEntregaTest {
+
+    @Autowired
+    private CorrespondenciaServiceImpl correspondenciaService;
+
+    @Autowired
+    private CorrespondenciaRepository correspondenciaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private EventoDominioService eventoDominioService;
+
+    @MockitoBean
+    private SecuenciaRepository secuenciaRepository;
+
+    @MockitoBean
+    private ArchivoService archivoService;
+
+    @MockitoBean
+    private ArchivoRepository archivoRepository;
+
+    @MockitoBean
+    private ResumenDiarioService resumenDiarioService;
+
+    private Long residenteId;
+    private Long correspondenciaId;
+
+    @BeforeEach
+    void crearPendiente() {
+        correspondenciaRepository.deleteAll();
+        userRepository.deleteAll();
+
+        UserEntity residente = new UserEntity();
+        residente.setTipoDocumento("CC");
+        residente.setNumeroDocumento("10203040");
+        residente.setNombres("Ana");
+        residente.setApellidos("Pérez");
+        residente.setEmail("ana@arkania.test");
+        residente.setPassword("clave-de-prueba");
+        residente = userRepository.saveAndFlush(residente);
+        residenteId = residente.getUsuarioId();
+
+        CorrespondenciaEntity paquete = new CorrespondenciaEntity();
+        paquete.setRegistradoPor(residente);
+        paquete.setDestinatario(residente);
+        paquete.setTipo(Tipo.PAQUETE);
+        paquete.setEstado(Estado.PENDIENTE);
+        paquete.setFechaRecepcion(LocalDateTime.now().minusHours(1));
+        correspondenciaId = correspondenciaRepository.saveAndFlush(paquete).getIdCorrespondencia();
+    }
+
+    @Test
+    void entregaUnaSolaVez() {
+        assertEquals(1, correspondenciaService.entregarCorrespondencia(correspondenciaId, residenteId).getEntregadas());
+        CorrespondenciaEntity entregada = correspondenciaRepository.findById(correspondenciaId).orElseThrow();
+        assertEquals(Estado.ENTREGADA, entregada.getEstado());
+        assertEquals(residenteId, entregada.getRetiradoPor().getUsuarioId());
+
+        // La segunda entrega no encuentra la fila en PENDIENTE
+        assertEquals(0, correspondenciaService.entregarCorrespondencia(correspondenciaId, residenteId).getEntregadas());
+        assertThrows(CorrespondenciaNotFoundException.class,
+                () -> correspondenciaService.entregarCorrespondencia(correspondenciaId + 1000, residenteId));
+    }
+
+    @Test
+    void laLlaveForaneaRechazaUnUsuarioInexistente() {
+        assertThrows(IllegalArgumentException.class,
+                () -> correspondenciaService.entregarCorrespondencia(correspondenciaId, residenteId + 1000));
+        assertEquals(Estado.PENDIENTE, correspondenciaRepository.findById(correspondenciaId).orElseThrow().getEstado());
+    }
+
+    @Test
+    void laActualizacionGenericaNoEntrega() {
+        CorrespondenciaDTO cambio = new CorrespondenciaDTO();
+        cambio.setIdCorrespondencia(correspondenciaId);
+        cambio.setTipo(Tipo.PAQUETE.name());
+        cambio.setFechaRecepcion(LocalDateTime.now().minusHours(1));
+        cambio.setEstado(Estado.ENTREGADA.name());
+        cambio.setFechaEntrega(LocalDateTime.now());
+        assertThrows(IllegalArgumentException.class, () -> correspondenciaService.actualizarCorrespondencia(cambio));
+
+        // Editar los demás campos no fija la fecha de entrega
+        cambio.setEstado(Estado.PENDIENTE.name());
+        cambio.setObservaciones("Caja grande");
+        correspondenciaService.actualizarCorrespondencia(cambio);
+        CorrespondenciaEntity pendiente = correspondenciaRepository.findById(correspondenciaId).orElseThrow();
+        assertEquals(Estado.PENDIENTE, pendiente.getEstado());
+        assertEquals("Caja grande", pendiente.getObservaciones());
+        assertNull(pendiente.getFechaEntrega());
+        assertNull(pendiente.getRetiradoPor());
+    }
+}
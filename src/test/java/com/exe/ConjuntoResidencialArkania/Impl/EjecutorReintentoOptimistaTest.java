@@ -0,0 +1,140 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Prueba de concurrencia del reintento optimista, sin base de datos: un almacén en memoria
+ * con versión simula el rechazo de Hibernate a escribir sobre una versión desactualizada.
+ */
+class EjecutorReintentoOptimistaTest {
+
+    private static final int HILOS = 16;
+    private static final int PERMISOS_POR_HILO = 25;
+
+    @Test
+    void agregarPermisosConcurrentesNoPierdeActualizaciones() throws Exception {
+        RolVersionado rol = new RolVersionado();
+        EjecutorReintentoOptimista ejecutor = new EjecutorReintentoOptimista(new TransaccionSinRecursos(), 1000, 0);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                tareas.add(hilos.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < PERMISOS_POR_HILO; i++) {
+                        String permiso = "PERMISO_" + hilo + "_" + i;
+                        ejecutor.ejecutar(() -> rol.agregar(permiso));
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        int esperados = HILOS * PERMISOS_POR_HILO;
+        assertEquals(esperados, rol.permisos().size());
+        assertEquals(esperados, rol.version());
+    }
+
+    @Test
+    void conflictoSinIntentosRestantesSePropagaSinPisarDatos() throws Exception {
+        RolVersionado rol = new RolVersionado();
+        EjecutorReintentoOptimista ejecutor = new EjecutorReintentoOptimista(new TransaccionSinRecursos(), 1, 0);
+
+        // Dos lecturas de la misma versión: la segunda escritura debe fallar en lugar de pisar a la primera
+        RolVersionado.Lectura primera = rol.leer();
+        RolVersionado.Lectura segunda = rol.leer();
+        ejecutor.ejecutar(() -> rol.escribir(primera, "A"));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> ejecutor.ejecutar(() -> rol.escribir(segunda, "B")));
+        assertEquals(Set.of("A"), rol.permisos());
+    }
+
+    /**
+     * Rol en memoria con control de versión: escribir sobre una lectura desactualizada falla
+     * igual que un UPDATE ... WHERE version = ? que no afecta filas.
+     */
+    private static final class RolVersionado {
+
+        record Lectura(long version, Set<String> permisos) {
+        }
+
+        private long version;
+        private Set<String> permisos = new LinkedHashSet<>();
+
+        synchronized Lectura leer() {
+            return new Lectura(version, new LinkedHashSet<>(permisos));
+        }
+
+        synchronized void escribir(Lectura lectura, String permiso) {
+            if (lectura.version() != version) {
+                throw new ObjectOptimisticLockingFailureException(RolVersionado.class, "rol");
+            }
+            Set<String> nuevos = new LinkedHashSet<>(lectura.permisos());
+            nuevos.add(permiso);
+            permisos = nuevos;
+            version++;
+        }
+
+        void agregar(String permiso) {
+            Lectura lectura = leer();
+            Thread.yield(); // ensancha la ventana entre lectura y escritura
+            escribir(lectura, permiso);
+        }
+
+        synchronized Set<String> permisos() {
+            return permisos;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+    }
+
+    /**
+     * Gestor de transacciones sin recurso subyacente: solo marca la transacción como activa.
+     */
+    private static final class TransaccionSinRecursos extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
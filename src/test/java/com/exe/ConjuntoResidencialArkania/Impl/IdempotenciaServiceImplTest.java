@@ -0,0 +1,73 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.exe.ConjuntoResidencialArkania.DTO.MetricasIdempotenciaDTO;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService.EstadoClave;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService.Reserva;
+import com.exe.ConjuntoResidencialArkania.Service.IdempotenciaService.RespuestaGuardada;
+
+/**
+ * Pruebas del almacén de claves de idempotencia: ciclo de una clave, liberación tras un
+ * fallo y límites de claves y de bytes.
+ */
+class IdempotenciaServiceImplTest {
+
+    @Test
+    void laRepeticionRecibeLaRespuestaGuardada() {
+        IdempotenciaServiceImpl almacen = new IdempotenciaServiceImpl(60, 100, 1_000_000);
+
+        assertEquals(EstadoClave.NUEVA, almacen.reservar("k1", "h1").estado());
+        assertEquals(EstadoClave.EN_CURSO, almacen.reservar("k1", "h1").estado());
+
+        RespuestaGuardada respuesta = new RespuestaGuardada(201, "application/json", null, null, new byte[10]);
+        almacen.completar("k1", respuesta);
+        Reserva repetida = almacen.reservar("k1", "h1");
+        assertEquals(EstadoClave.COMPLETADA, repetida.estado());
+        assertSame(respuesta, repetida.respuesta());
+
+        // Otra huella con la misma clave: el llamador compara y rechaza
+        assertEquals("h1", almacen.reservar("k1", "h2").huella());
+
+        MetricasIdempotenciaDTO metricas = almacen.obtenerMetricas();
+        assertEquals(1, metricas.getEjecutadas());
+        assertEquals(1, metricas.getEnCurso());
+        assertEquals(1, metricas.getRepetidas());
+        assertEquals(1, metricas.getHuellasDistintas());
+        assertEquals(10, metricas.getBytesEnUso());
+    }
+
+    @Test
+    void unaClaveLiberadaSePuedeReintentar() {
+        IdempotenciaServiceImpl almacen = new IdempotenciaServiceImpl(60, 100, 1_000_000);
+
+        almacen.reservar("k1", "h1");
+        almacen.liberar("k1");
+        assertEquals(EstadoClave.NUEVA, almacen.reservar("k1", "h1").estado());
+    }
+
+    @Test
+    void desalojaLasClavesMasAntiguasAlSuperarLosLimites() {
+        IdempotenciaServiceImpl almacen = new IdempotenciaServiceImpl(60, 3, 1_600);
+
+        for (int i = 0; i < 5; i++) {
+            almacen.reservar("k" + i, "h");
+            almacen.completar("k" + i, new RespuestaGuardada(200, null, null, null, new byte[100]));
+        }
+        assertEquals(3, almacen.obtenerMetricas().getClaves());
+        assertEquals(EstadoClave.NUEVA, almacen.reservar("k0", "h").estado());
+        assertEquals(EstadoClave.COMPLETADA, almacen.reservar("k4", "h").estado());
+
+        // El límite de bytes admite 16 respuestas de 100 bytes (cada una cabe en 1.600 / 16)
+        IdempotenciaServiceImpl porBytes = new IdempotenciaServiceImpl(60, 100, 1_600);
+        for (int i = 0; i < 20; i++) {
+            porBytes.reservar("k" + i, "h");
+            porBytes.completar("k" + i, new RespuestaGuardada(200, null, null, null, new byte[100]));
+        }
+        assertEquals(16, porBytes.obtenerMetricas().getClaves());
+        assertEquals(1_600, porBytes.obtenerMetricas().getBytesEnUso());
+    }
+}
@@ -0,0 +1,129 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.exe.ConjuntoResidencialArkania.DTO.EvaluacionAsignacionDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ImportacionResidenteDTO;
+import com.exe.ConjuntoResidencialArkania.DTO.ResultadoImportacionDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.SecuenciaRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.PoliticaAsignacionService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+import com.exe.ConjuntoResidencialArkania.Service.UsuarioRolService;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Pruebas de la importación masiva frente al motor de políticas: las filas cuyo rol incumple
+ * una regla se rechazan antes de insertar, y las altas insertadas se auditan y publican en el
+ * outbox como las individuales.
+ */
+class ImportacionServiceImplTest {
+
+    private static final Long ROL_RESIDENTE = 3L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RolRepository rolRepository = mock(RolRepository.class);
+    private final PoliticaAsignacionService politicaAsignacionService = mock(PoliticaAsignacionService.class);
+    private final AuditoriaService auditoriaService = mock(AuditoriaService.class);
+    private final EventoDominioService eventoDominioService = mock(EventoDominioService.class);
+    private final SecuenciaRepository secuenciaRepository = mock(SecuenciaRepository.class);
+    private final OperacionesDialecto operacionesDialecto = mock(OperacionesDialecto.class);
+
+    private ImportacionServiceImpl importacionService;
+
+    @BeforeEach
+    void crearServicio() {
+        RolEntity residente = new RolEntity();
+        residente.setRolId(ROL_RESIDENTE);
+        residente.setNombre("RESIDENTE");
+        residente.setActivo(true);
+        when(rolRepository.findAllRolesActivos()).thenReturn(List.of(residente));
+        when(userRepository.findDocumentosYEmailsExistentes(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(secuenciaRepository.reservarIds(anyString(), anyInt())).thenAnswer(invocacion -> {
+            int cantidad = invocacion.getArgument(1);
+            return LongStream.rangeClosed(1, cantidad).boxed().collect(Collectors.toList());
+        });
+
+        Pattern cualquiera = Pattern.compile(".+");
+        importacionService = new ImportacionServiceImpl(userRepository, rolRepository, mock(UsuarioRolService.class),
+                politicaAsignacionService, auditoriaService, eventoDominioService, mock(CacheRespuestasService.class),
+                mock(ResumenDiarioService.class), secuenciaRepository, operacionesDialecto, mock(JdbcTemplate.class),
+                cualquiera, cualquiera, cualquiera, cualquiera, cualquiera, Pattern.compile(".+@.+"), cualquiera, 10);
+    }
+
+    @Test
+    void lasFilasQueSuperanElLimiteDelRolSeRechazanAntesDeInsertar() {
+        when(politicaAsignacionService.evaluarYReservarAltasNuevas(List.of(ROL_RESIDENTE, ROL_RESIDENTE)))
+                .thenReturn(List.of(
+                        new EvaluacionAsignacionDTO(null, ROL_RESIDENTE, true, new ArrayList<>()),
+                        new EvaluacionAsignacionDTO(null, ROL_RESIDENTE, false,
+                                new ArrayList<>(List.of("Se alcanzó el límite de 1 usuarios para el rol RESIDENTE")))));
+
+        ResultadoImportacionDTO resultado = importacionService.importarResidentes(List.of(
+                fila("1001", "ana@arkania.co"), fila("1002", "luis@arkania.co")));
+
+        assertEquals(1, resultado.getUsuariosCreados());
+        assertEquals(1, resultado.getAsignacionesCreadas());
+        assertEquals(1, resultado.getFilasConError());
+        assertEquals(2, resultado.getErrores().get(0).getFila());
+        assertEquals("rol", resultado.getErrores().get(0).getCampo());
+
+        assertEquals(1, filasInsertadas("usuarios").size());
+        assertEquals(1, filasInsertadas("usuario_rol").size());
+    }
+
+    @Test
+    void lasAltasImportadasSeAuditanYSePublicanEnElOutbox() {
+        when(politicaAsignacionService.evaluarYReservarAltasNuevas(anyList()))
+                .thenReturn(List.of(new EvaluacionAsignacionDTO(null, ROL_RESIDENTE, true, new ArrayList<>())));
+
+        importacionService.importarResidentes(List.of(fila("1001", "ana@arkania.co")));
+
+        verify(auditoriaService).registrarCambio(eq(AuditoriaService.ENTIDAD_USUARIO), eq(1L), eq(1L), isNull(),
+                eq(AuditoriaService.CREAR), isNull(), any());
+        verify(auditoriaService).registrarCambio(eq(AuditoriaService.ENTIDAD_USUARIO_ROL), eq(1L), eq(1L),
+                eq("RESIDENTE"), eq(AuditoriaService.CREAR), isNull(), any());
+        verify(eventoDominioService).registrarEvento(eq(EventoDominioService.AGREGADO_USUARIO), eq(1L),
+                eq(EventoDominioService.ROL_ASIGNADO), any(Map.class));
+    }
+
+    private ImportacionResidenteDTO fila(String documento, String email) {
+        return new ImportacionResidenteDTO("CC", documento, "Nombre", "Apellido", email, null,
+                "clave-segura", null, null, "RESIDENTE");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> filasInsertadas(String tabla) {
+        ArgumentCaptor<List<Object[]>> filas = ArgumentCaptor.forClass(List.class);
+        verify(operacionesDialecto).insertarFilas(eq(tabla), anyList(), filas.capture());
+        return filas.getValue();
+    }
+}
@@ -0,0 +1,54 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Prueba del índice de casi duplicados: agrupa variantes de un mismo texto y separa los
+ * textos distintos, también con muchas entradas no relacionadas en el índice.
+ */
+class IndiceSimilitudTest {
+
+    private static final double UMBRAL = 0.5;
+
+    @Test
+    void agrupaVariantesDelMismoTexto() {
+        IndiceSimilitud indice = new IndiceSimilitud(UMBRAL);
+        indice.agregar(1, 1, IndiceSimilitud.firma("No hay agua en el apartamento desde esta mañana, torre 3"));
+
+        IndiceSimilitud.Coincidencia coincidencia =
+                indice.buscar(IndiceSimilitud.firma("no hay agua en el apartamento desde esta manana (torre 3)"));
+
+        assertNotNull(coincidencia);
+        assertEquals(1, coincidencia.grupo());
+        assertTrue(coincidencia.similitud() >= UMBRAL);
+    }
+
+    @Test
+    void noAgrupaTextosDistintos() {
+        IndiceSimilitud indice = new IndiceSimilitud(UMBRAL);
+        indice.agregar(1, 1, IndiceSimilitud.firma("No hay agua en el apartamento desde esta mañana, torre 3"));
+        for (int i = 0; i < 5_000; i++) {
+            indice.agregar(100 + i, 100 + i, IndiceSimilitud.firma("Reserva del salón comunal número " + i));
+        }
+
+        assertNull(indice.buscar(IndiceSimilitud.firma("El ascensor de la torre 2 está dañado y no abre")));
+    }
+
+    @Test
+    void quitarSacaLaEntradaDelIndice() {
+        IndiceSimilitud indice = new IndiceSimilitud(UMBRAL);
+        int[] firma = IndiceSimilitud.firma("Fuga de agua en el parqueadero del sótano 2");
+        indice.agregar(7, 3, firma);
+
+        assertEquals(3, indice.buscar(firma).grupo());
+        indice.quitar(7);
+
+        assertNull(indice.buscar(firma));
+        assertEquals(0, indice.tamano());
+    }
+}
@@ -0,0 +1,177 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.UsuarioRol;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService.VersionesPermisos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pruebas de los sellos de versión de permisos contra JPA y H2: se persisten en las tablas
+ * usuarios y roles, así que otra instancia (o la misma tras reiniciar) los ve sin reiniciarse
+ * a 0, y cambiar un rol escribe solo su fila. Sin transacción de prueba para que cada cambio
+ * se confirme como en producción.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PermisoEfectivoServiceImplTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private UsuarioRolRepository usuarioRolRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaccion;
+    private Long usuarioId;
+    private Long rolId;
+
+    @BeforeEach
+    void crearUsuarioConRol() {
+        transaccion = new TransactionTemplate(transactionManager);
+        usuarioRolRepository.deleteAll();
+        userRepository.deleteAll();
+        rolRepository.deleteAll();
+
+        UserEntity usuario = new UserEntity();
+        usuario.setTipoDocumento("CC");
+        usuario.setNumeroDocumento("10203040");
+        usuario.setNombres("Ana");
+        usuario.setApellidos("Pérez");
+        usuario.setEmail("ana@arkania.test");
+        usuario.setPassword("clave-de-prueba");
+        usuario.setActivo(true);
+        usuarioId = userRepository.saveAndFlush(usuario).getUsuarioId();
+
+        RolEntity rol = new RolEntity();
+        rol.setNombre("RESIDENTE");
+        rol.setActivo(true);
+        rol.setPermisos("[\"VER_SOLICITUDES\"]");
+        rolId = rolRepository.saveAndFlush(rol).getRolId();
+
+        UsuarioRol asignacion = new UsuarioRol();
+        asignacion.setUsuario(userRepository.getReferenceById(usuarioId));
+        asignacion.setRol(rolRepository.getReferenceById(rolId));
+        asignacion.setActivo(true);
+        usuarioRolRepository.saveAndFlush(asignacion);
+    }
+
+    @Test
+    void laVersionSePersisteYSobreviveAUnaNuevaInstancia() {
+        PermisoEfectivoServiceImpl permisos = nuevaInstancia();
+        assertEquals(0L, permisos.obtenerVersion(usuarioId));
+        assertEquals(Set.of("VER_SOLICITUDES"), permisos.obtenerPermisos(usuarioId));
+
+        transaccion.executeWithoutResult(estado -> permisos.invalidarUsuario(usuarioId));
+        long version = permisos.obtenerVersion(usuarioId);
+        assertTrue(version > 0, "la invalidación avanza el sello");
+
+        // Otra instancia, o esta misma tras reiniciar, lee el mismo sello de la base
+        assertEquals(version, nuevaInstancia().obtenerVersion(usuarioId));
+    }
+
+    @Test
+    void cambiarUnRolAvanzaLaVersionDeSusUsuarios() {
+        PermisoEfectivoServiceImpl permisos = nuevaInstancia();
+        transaccion.executeWithoutResult(estado -> permisos.invalidarUsuario(usuarioId));
+        long antes = permisos.obtenerVersion(usuarioId);
+
+        transaccion.executeWithoutResult(estado -> {
+            RolEntity rol = rolRepository.findById(rolId).orElseThrow();
+            rol.setPermisos("[\"VER_SOLICITUDES\",\"CREAR_SOLICITUDES\"]");
+            rolRepository.save(rol);
+            permisos.invalidarRol(rolId);
+        });
+
+        // Dos cambios en el mismo milisegundo también avanzan el sello
+        assertTrue(permisos.obtenerVersion(usuarioId) > antes);
+        assertEquals(Set.of("VER_SOLICITUDES", "CREAR_SOLICITUDES"), permisos.obtenerPermisos(usuarioId));
+    }
+
+    @Test
+    void laSincronizacionDescartaLoCambiadoEnOtraInstancia() {
+        PermisoEfectivoServiceImpl local = nuevaInstancia();
+        PermisoEfectivoServiceImpl otra = nuevaInstancia();
+        assertEquals(Set.of("VER_SOLICITUDES"), local.obtenerPermisos(usuarioId));
+
+        transaccion.executeWithoutResult(estado -> {
+            UsuarioRol asignacion = usuarioRolRepository.findAll().get(0);
+            asignacion.setActivo(false);
+            usuarioRolRepository.save(asignacion);
+            otra.invalidarUsuario(usuarioId);
+        });
+        assertEquals(Set.of("VER_SOLICITUDES"), local.obtenerPermisos(usuarioId), "caché local aún sin sincronizar");
+
+        local.sincronizarVersiones();
+        assertEquals(Set.of(), local.obtenerPermisos(usuarioId));
+        assertEquals(otra.obtenerVersion(usuarioId), local.obtenerVersion(usuarioId));
+    }
+
+    @Test
+    void cambiarUnRolSellaSoloElRolYLoVenLasDemasInstancias() {
+        PermisoEfectivoServiceImpl local = nuevaInstancia();
+        PermisoEfectivoServiceImpl otra = nuevaInstancia();
+        VersionesPermisos antes = local.obtenerVersiones(usuarioId);
+        assertEquals(Set.of(rolId), antes.roles().keySet());
+        long selloUsuario = userRepository.findVersionPermisos(usuarioId).orElseThrow();
+
+        transaccion.executeWithoutResult(estado -> local.invalidarRol(rolId));
+
+        // La fila del usuario no se toca: solo avanza el sello del rol
+        assertEquals(selloUsuario, userRepository.findVersionPermisos(usuarioId).orElseThrow());
+        assertTrue(rolRepository.findVersionPermisos(rolId).orElseThrow() > antes.roles().get(rolId));
+        assertFalse(local.versionesVigentes(usuarioId, antes), "la instancia del cambio lo ve al confirmar");
+        assertTrue(local.versionesVigentes(usuarioId, local.obtenerVersiones(usuarioId)));
+
+        assertTrue(otra.versionesVigentes(usuarioId, antes), "otra instancia aún sin sincronizar");
+        otra.sincronizarVersiones();
+        assertFalse(otra.versionesVigentes(usuarioId, antes));
+    }
+
+    @Test
+    void unCambioRevertidoNoInvalidaLosSellos() {
+        PermisoEfectivoServiceImpl permisos = nuevaInstancia();
+        VersionesPermisos antes = permisos.obtenerVersiones(usuarioId);
+
+        transaccion.executeWithoutResult(estado -> {
+            permisos.invalidarRol(rolId);
+            permisos.invalidarUsuario(usuarioId);
+            estado.setRollbackOnly();
+        });
+
+        assertTrue(permisos.versionesVigentes(usuarioId, antes));
+        assertEquals(antes, permisos.obtenerVersiones(usuarioId));
+    }
+
+    private PermisoEfectivoServiceImpl nuevaInstancia() {
+        PermisoEfectivoServiceImpl permisos = new PermisoEfectivoServiceImpl(usuarioRolRepository, userRepository,
+                rolRepository, new ObjectMapper(), Duration.ofMinutes(60), 100, 60);
+        permisos.cargarVersiones();
+        return permisos;
+    }
+}
@@ -0,0 +1,99 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.exe.ConjuntoResidencialArkania.Entity.RolEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AuditoriaService;
+import com.exe.ConjuntoResidencialArkania.Service.CacheRespuestasService;
+import com.exe.ConjuntoResidencialArkania.Service.PermisoEfectivoService;
+import com.exe.ConjuntoResidencialArkania.Service.RolService;
+
+/**
+ * Prueba de concurrencia de los permisos de un rol contra JPA y H2: varios hilos agregan
+ * permisos distintos al mismo rol y, gracias a la versión de la entidad y al reintento
+ * optimista, ninguno se pierde. Sin transacción de prueba para que cada hilo confirme la suya.
+ */
+@DataJpaTest(properties = {
+        "arkania.concurrencia.max-reintentos=1000",
+        "arkania.concurrencia.espera-base-ms=1",
+        "spring.jpa.show-sql=false"
+})
+@Import({RolServiceImpl.class, EjecutorReintentoOptimista.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RolServiceImplConcurrenciaTest {
+
+    private static final int HILOS = 8;
+    private static final int PERMISOS_POR_HILO = 10;
+
+    @Autowired
+    private RolService rolService;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @MockitoBean
+    private AuditoriaService auditoriaService;
+
+    @MockitoBean
+    private PermisoEfectivoService permisoEfectivoService;
+
+    @MockitoBean
+    private CacheRespuestasService cacheRespuestasService;
+
+    @Test
+    void agregarPermisosConcurrentesNoPierdeActualizaciones() throws Exception {
+        RolEntity rol = new RolEntity();
+        rol.setNombre("ADMINISTRADOR");
+        rol.setActivo(true);
+        rol.setPermisos("[]");
+        Long rolId = rolRepository.saveAndFlush(rol).getRolId();
+
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        Set<String> esperados = new HashSet<>();
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                int hilo = h;
+                for (int i = 0; i < PERMISOS_POR_HILO; i++) {
+                    esperados.add("PERMISO_" + hilo + "_" + i);
+                }
+                tareas.add(hilos.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < PERMISOS_POR_HILO; i++) {
+                        rolService.agregarPermisoARol(rolId, "PERMISO_" + hilo + "_" + i);
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(esperados, new HashSet<>(rolService.obtenerPermisosDeRol(rolId)));
+        // La versión parte de 0 y sube una vez por cada escritura confirmada
+        assertEquals((long) esperados.size(), rolRepository.findById(rolId).orElseThrow().getVersion());
+    }
+}
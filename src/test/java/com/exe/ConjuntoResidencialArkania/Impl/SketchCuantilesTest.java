@@ -0,0 +1,82 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Prueba del error relativo, la combinación y el retiro de valores del resumen de cuantiles.
+ */
+class SketchCuantilesTest {
+
+    private static final double PRECISION = 0.01;
+    private static final int VALORES = 10_000;
+
+    @Test
+    void cuantilesDentroDelErrorRelativo() {
+        SketchCuantiles sketch = new SketchCuantiles(PRECISION);
+        for (int v = 1; v <= VALORES; v++) {
+            sketch.agregar(v);
+        }
+
+        assertEquals(VALORES, sketch.cantidad());
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            // Valor exacto del rango floor(q * (n - 1)) sobre 1..n
+            double exacto = Math.floor(q * (VALORES - 1)) + 1;
+            double estimado = sketch.cuantil(q);
+            assertTrue(Math.abs(estimado - exacto) <= PRECISION * exacto,
+                    "q=" + q + ": estimado " + estimado + ", exacto " + exacto);
+        }
+        assertEquals(VALORES, sketch.maximo());
+        assertEquals((VALORES + 1) / 2.0, sketch.promedio(), 1e-9);
+        // Memoria logarítmica: mucho menos cubetas que valores
+        assertTrue(sketch.cubetas() < 500, "cubetas: " + sketch.cubetas());
+    }
+
+    @Test
+    void combinarMitadesEquivaleAlResumenCompleto() {
+        SketchCuantiles completo = new SketchCuantiles(PRECISION);
+        SketchCuantiles pares = new SketchCuantiles(PRECISION);
+        SketchCuantiles impares = new SketchCuantiles(PRECISION);
+        for (int v = 1; v <= VALORES; v++) {
+            completo.agregar(v);
+            (v % 2 == 0 ? pares : impares).agregar(v);
+        }
+
+        SketchCuantiles combinado = pares.copia();
+        combinado.combinar(impares);
+
+        assertEquals(completo.cantidad(), combinado.cantidad());
+        assertEquals(completo.cubetas(), combinado.cubetas());
+        for (double q : new double[] {0.0, 0.5, 0.9, 0.99, 1.0}) {
+            assertEquals(completo.cuantil(q), combinado.cuantil(q), "q=" + q);
+        }
+        // La copia no comparte estado con el original
+        assertEquals(VALORES / 2, pares.cantidad());
+    }
+
+    @Test
+    void quitarDeshaceAgregar() {
+        SketchCuantiles esperado = new SketchCuantiles(PRECISION);
+        SketchCuantiles sketch = new SketchCuantiles(PRECISION);
+        for (int v = 1; v <= VALORES; v++) {
+            sketch.agregar(v);
+            if (v % 2 == 0) {
+                esperado.agregar(v);
+            }
+        }
+        sketch.agregar(0);
+        for (int v = 1; v <= VALORES; v += 2) {
+            sketch.quitar(v);
+        }
+        sketch.quitar(0);
+
+        assertEquals(esperado.cantidad(), sketch.cantidad());
+        assertEquals(esperado.cubetas(), sketch.cubetas());
+        assertEquals(esperado.promedio(), sketch.promedio(), 1e-6);
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            assertEquals(esperado.cuantil(q), sketch.cuantil(q), "q=" + q);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exe.ConjuntoResidencialArkania.Config.SolicitudesConfig;
+import com.exe.ConjuntoResidencialArkania.DTO.SolicitudesDTO;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.EstadoSolicitud;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.TipoSolicitud;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+import com.exe.ConjuntoResidencialArkania.Repository.ArchivoRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto;
+import com.exe.ConjuntoResidencialArkania.Repository.SolicitudRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Service.AnaliticaSolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.ArchivoService;
+import com.exe.ConjuntoResidencialArkania.Service.DuplicadosSolicitudesService;
+import com.exe.ConjuntoResidencialArkania.Service.EventoDominioService;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService;
+
+/**
+ * Pruebas de la cola de trabajo de solicitudes contra JPA y H2: reclamo en orden de cola,
+ * SKIP LOCKED entre trabajadores concurrentes, vencimiento del reclamo y coherencia del
+ * reclamo al editar. Sin transacción de prueba para que cada operación confirme la suya.
+ */
+@DataJpaTest(properties = {
+        "arkania.cola.duracion-reclamo-minutos=30",
+        "spring.jpa.show-sql=false"
+})
+@Import({SolicitudServiceImpl.class, SolicitudesConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SolicitudServiceImplColaTest {
+
+    private static final Long TRABAJADOR = 7L;
+
+    @Autowired
+    private SolicitudServiceImpl solicitudService;
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private EventoDominioService eventoDominioService;
+
+    @MockitoBean
+    private OperacionesDialecto operacionesDialecto;
+
+    @MockitoBean
+    private ArchivoService archivoService;
+
+    @MockitoBean
+    private ArchivoRepository archivoRepository;
+
+    @MockitoBean
+    private AnaliticaSolicitudesService analiticaSolicitudesService;
+
+    @MockitoBean
+    private DuplicadosSolicitudesService duplicadosSolicitudesService;
+
+    @MockitoBean
+    private ResumenDiarioService resumenDiarioService;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void crearPendientes() {
+        solicitudRepository.deleteAll();
+        userRepository.deleteAll();
+
+        UserEntity residente = new UserEntity();
+        residente.setTipoDocumento("CC");
+        residente.setNumeroDocumento("10203040");
+        residente.setNombres("Ana");
+        residente.setApellidos("Pérez");
+        residente.setEmail("ana@arkania.test");
+        residente.setPassword("clave-de-prueba");
+        residente = userRepository.saveAndFlush(residente);
+
+        // Cuatro pendientes en orden de cola: la primera es la más antigua
+        LocalDateTime base = LocalDateTime.now().minusHours(4);
+        ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            SolicitudesEntity solicitud = new SolicitudesEntity();
+            solicitud.setUsuario(residente);
+            solicitud.setTipoSolicitud(TipoSolicitud.mantenimiento);
+            solicitud.setDescripcion("Fuga de agua en el apartamento " + (101 + i));
+            solicitud.setEstadoSolicitud(EstadoSolicitud.pendiente);
+            solicitud.setFechaCreacion(base.plusMinutes(i));
+            solicitud.setOrdenCola(base.plusMinutes(i));
+            solicitud.setPrioridad(0);
+            ids.add(solicitudRepository.saveAndFlush(solicitud).getIdSolicitud());
+        }
+    }
+
+    @Test
+    void reclamarTomaLasPrimerasDeLaColaConReclamoVigente() {
+        List<SolicitudesDTO> reclamadas = solicitudService.reclamarSiguientes(TipoSolicitud.mantenimiento, TRABAJADOR, 2);
+
+        assertEquals(ids.subList(0, 2), reclamadas.stream().map(SolicitudesDTO::getIdSolicitud).toList());
+        for (Long id : ids.subList(0, 2)) {
+            SolicitudesEntity solicitud = solicitudRepository.findById(id).orElseThrow();
+            assertEquals(EstadoSolicitud.en_proceso, solicitud.getEstadoSolicitud());
+            assertEquals(TRABAJADOR, solicitud.getAsignadoA());
+            assertTrue(solicitud.getReclamoVence().isAfter(LocalDateTime.now()));
+        }
+        verify(eventoDominioService, times(2)).registrarEvento(eq(EventoDominioService.AGREGADO_SOLICITUD), any(),
+                eq(EventoDominioService.SOLICITUD_ACTUALIZADA), anyMap());
+    }
+
+    @Test
+    void unTrabajadorConcurrenteSaltaLasFilasBloqueadas() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        CountDownLatch bloqueadas = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService otroTrabajador = Executors.newSingleThreadExecutor();
+        try {
+            // El otro trabajador bloquea las dos primeras y mantiene abierta su transacción
+            Future<List<Long>> primeras = otroTrabajador.submit(() -> transaccion.execute(estado -> {
+                List<Long> bloqueo = solicitudRepository.bloquearSiguientesEnCola(TipoSolicitud.mantenimiento.name(), 2);
+                bloqueadas.countDown();
+                try {
+                    liberar.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return bloqueo;
+            }));
+            assertTrue(bloqueadas.await(10, TimeUnit.SECONDS));
+
+            List<Long> siguientes = transaccion.execute(estado ->
+                    solicitudRepository.bloquearSiguientesEnCola(TipoSolicitud.mantenimiento.name(), 2));
+            liberar.countDown();
+
+            assertEquals(ids.subList(0, 2), primeras.get(10, TimeUnit.SECONDS));
+            // Sin esperar al otro trabajador y sin repetir sus filas. PostgreSQL y MySQL siguen
+            // leyendo hasta completar el límite (3 y 4); H2 aplica el límite antes de saltar
+            // las bloqueadas y puede devolver menos
+            assertTrue(ids.subList(2, 4).containsAll(siguientes), "solo filas no bloqueadas: " + siguientes);
+        } finally {
+            liberar.countDown();
+            otroTrabajador.shutdownNow();
+        }
+    }
+
+    @Test
+    void unReclamoVencidoVuelveALaColaYSePublica() {
+        solicitudService.reclamarSiguientes(TipoSolicitud.mantenimiento, TRABAJADOR, 2);
+        // La primera vence; la segunda sigue vigente
+        SolicitudesEntity vencida = solicitudRepository.findById(ids.get(0)).orElseThrow();
+        vencida.setReclamoVence(LocalDateTime.now().minusMinutes(1));
+        solicitudRepository.saveAndFlush(vencida);
+
+        solicitudService.reencolarReclamosVencidos();
+
+        SolicitudesEntity reencolada = solicitudRepository.findById(ids.get(0)).orElseThrow();
+        assertEquals(EstadoSolicitud.pendiente, reencolada.getEstadoSolicitud());
+        assertNull(reencolada.getAsignadoA());
+        assertNull(reencolada.getReclamoVence());
+        assertEquals(EstadoSolicitud.en_proceso, solicitudRepository.findById(ids.get(1)).orElseThrow().getEstadoSolicitud());
+        // Dos eventos del reclamo y uno de la vuelta a la cola
+        verify(eventoDominioService, times(2)).registrarEvento(eq(EventoDominioService.AGREGADO_SOLICITUD), eq(ids.get(0)),
+                eq(EventoDominioService.SOLICITUD_ACTUALIZADA), anyMap());
+
+        // Vuelve a salir primero: conserva su orden de cola
+        assertEquals(ids.get(0), solicitudService.reclamarSiguientes(TipoSolicitud.mantenimiento, 8L, 1)
+                .get(0).getIdSolicitud());
+    }
+
+    @Test
+    void editarMantieneElReclamoCoherenteConElEstado() {
+        Long id = ids.get(0);
+        // En proceso sin trabajador: no hay a quién asignar el reclamo
+        assertThrows(IllegalArgumentException.class,
+                () -> solicitudService.editarSolicitud(id, edicion(SolicitudesDTO.EstadoSolicitud.en_proceso, null)));
+
+        solicitudService.editarSolicitud(id, edicion(SolicitudesDTO.EstadoSolicitud.en_proceso, TRABAJADOR));
+        SolicitudesEntity enProceso = solicitudRepository.findById(id).orElseThrow();
+        assertEquals(TRABAJADOR, enProceso.getAsignadoA());
+        assertTrue(enProceso.getReclamoVence().isAfter(LocalDateTime.now()));
+
+        solicitudService.editarSolicitud(id, edicion(SolicitudesDTO.EstadoSolicitud.pendiente, null));
+        SolicitudesEntity pendiente = solicitudRepository.findById(id).orElseThrow();
+        assertNull(pendiente.getAsignadoA());
+        assertNull(pendiente.getReclamoVence());
+
+        solicitudService.editarSolicitud(id, edicion(SolicitudesDTO.EstadoSolicitud.en_proceso, TRABAJADOR));
+        solicitudService.editarSolicitud(id, edicion(SolicitudesDTO.EstadoSolicitud.resuelta, null));
+        SolicitudesEntity resuelta = solicitudRepository.findById(id).orElseThrow();
+        assertEquals(TRABAJADOR, resuelta.getAsignadoA());
+        assertNull(resuelta.getReclamoVence());
+    }
+
+    private static SolicitudesDTO edicion(SolicitudesDTO.EstadoSolicitud estado, Long asignadoA) {
+        SolicitudesDTO dto = new SolicitudesDTO();
+        dto.setEstadoSolicitud(estado);
+        dto.setDescripcion("Fuga de agua en el apartamento 101");
+        dto.setAsignadoA(asignadoA);
+        return dto;
+    }
+}
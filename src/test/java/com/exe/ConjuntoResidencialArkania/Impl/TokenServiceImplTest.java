@@ -0,0 +1,88 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.exe.ConjuntoResidencialArkania.Config.JwtConfig;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pruebas de la verificación de tokens con la caché de permisos real: comparar los sellos del
+ * token no consulta ningún repositorio, ni con la caché de permisos vacía ni después de cambiar
+ * un rol.
+ */
+class TokenServiceImplTest {
+
+    private static final Long USUARIO = 1L;
+    private static final Long ROL = 5L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RolRepository rolRepository = mock(RolRepository.class);
+    private final UsuarioRolRepository usuarioRolRepository = mock(UsuarioRolRepository.class);
+
+    private PermisoEfectivoServiceImpl permisos;
+    private TokenServiceImpl tokenService;
+
+    @BeforeEach
+    void crearServicios() {
+        when(userRepository.findVersionPermisos(USUARIO)).thenReturn(Optional.of(100L));
+        when(userRepository.findVersionesPermisosDesde(anyLong())).thenReturn(List.of());
+        when(rolRepository.findVersionesPermisosDesde(anyLong())).thenReturn(List.<Object[]>of(new Object[] {ROL, 200L}));
+        when(usuarioRolRepository.findRolesAsignadosPorUsuario(USUARIO))
+                .thenReturn(List.<Object[]>of(new Object[] {ROL, 200L, true, "[\"VER_SOLICITUDES\"]"}));
+
+        permisos = nuevosPermisos();
+        tokenService = new TokenServiceImpl(new JwtConfig().claveFirmaToken(""), Duration.ofMinutes(60),
+                permisos, userRepository, new ObjectMapper());
+    }
+
+    @Test
+    void verificarNoConsultaLaBaseDeDatos() {
+        String token = tokenService.emitirToken(USUARIO).getToken();
+        clearInvocations(userRepository, rolRepository, usuarioRolRepository);
+
+        assertTrue(tokenService.verificarToken(token).orElseThrow().isPermisosVigentes());
+
+        // Otra instancia con la caché de permisos vacía (recién iniciada o vaciada al llenarse)
+        PermisoEfectivoServiceImpl otra = nuevosPermisos();
+        clearInvocations(userRepository, rolRepository, usuarioRolRepository);
+        TokenServiceImpl otroTokenService = new TokenServiceImpl(new JwtConfig().claveFirmaToken(""),
+                Duration.ofMinutes(60), otra, userRepository, new ObjectMapper());
+        otroTokenService.verificarToken(token);
+
+        verifyNoInteractions(userRepository, rolRepository, usuarioRolRepository);
+    }
+
+    @Test
+    void cambiarUnRolMarcaElTokenParaRenovarSinConsultarLaBaseDeDatos() {
+        String token = tokenService.emitirToken(USUARIO).getToken();
+        when(rolRepository.findVersionPermisos(ROL)).thenReturn(Optional.of(300L));
+        permisos.invalidarRol(ROL);
+        clearInvocations(userRepository, rolRepository, usuarioRolRepository);
+
+        assertFalse(tokenService.verificarToken(token).orElseThrow().isPermisosVigentes());
+        verifyNoInteractions(userRepository, rolRepository, usuarioRolRepository);
+    }
+
+    private PermisoEfectivoServiceImpl nuevosPermisos() {
+        PermisoEfectivoServiceImpl nuevos = new PermisoEfectivoServiceImpl(usuarioRolRepository, userRepository,
+                rolRepository, new ObjectMapper(), Duration.ofMinutes(60), 100, 60);
+        nuevos.cargarVersiones();
+        return nuevos;
+    }
+}
@@ -0,0 +1,123 @@
+package com.exe.ConjuntoResidencialArkania.Impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.exe.ConjuntoResidencialArkania.Config.JwtConfig;
+import com.exe.ConjuntoResidencialArkania.Repository.RolRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UserRepository;
+import com.exe.ConjuntoResidencialArkania.Repository.UsuarioRolRepository;
+import com.exe.ConjuntoResidencialArkania.Service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Medición del rendimiento de verificación de tokens con la caché de permisos real
+ * (PermisoEfectivoServiceImpl), sin base de datos ni contexto de Spring: los repositorios son
+ * dobles que solo responden a la emisión y a los cambios de rol, porque la verificación no
+ * los consulta.
+ *
+ * No es una prueba unitaria (no la ejecuta Maven): se corre a mano, por ejemplo desde el IDE,
+ * con argumentos opcionales [hilos] [verificacionesPorHilo] [cambiosDeRolPorSegundo]. Con
+ * cambios de rol, otro hilo avanza el sello de uno de los roles mientras se mide. Incluye una
+ * fase de calentamiento para que el JIT compile la ruta de verificación antes de medir.
+ */
+public class TokenVerificacionBenchmark {
+
+    private static final long ROLES = 8;
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int porHilo = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int cambiosPorSegundo = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        RolRepository rolRepository = mock(RolRepository.class, withSettings().stubOnly());
+        UsuarioRolRepository usuarioRolRepository = mock(UsuarioRolRepository.class, withSettings().stubOnly());
+        AtomicLong selloRol = new AtomicLong(1L);
+        when(userRepository.findVersionPermisos(any())).thenReturn(Optional.of(1L));
+        when(userRepository.findVersionesPermisosDesde(anyLong())).thenReturn(List.of());
+        when(rolRepository.findVersionesPermisosDesde(anyLong())).thenReturn(List.of());
+        when(rolRepository.findVersionPermisos(any())).thenAnswer(invocacion -> Optional.of(selloRol.incrementAndGet()));
+        when(usuarioRolRepository.findRolesAsignadosPorUsuario(any())).thenAnswer(invocacion -> {
+            long rol = (Long) invocacion.getArgument(0) % ROLES;
+            return List.<Object[]>of(new Object[] {rol, 1L, true, "[\"VER_SOLICITUDES\"]"});
+        });
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        PermisoEfectivoServiceImpl permisos = new PermisoEfectivoServiceImpl(usuarioRolRepository, userRepository,
+                rolRepository, objectMapper, Duration.ofMinutes(60), 10_000, 60);
+        permisos.cargarVersiones();
+        TokenService tokenService = new TokenServiceImpl(
+                new JwtConfig().claveFirmaToken(""), Duration.ofMinutes(60), permisos, userRepository, objectMapper);
+
+        String[] tokens = new String[1024];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenService.emitirToken((long) i + 1).getToken();
+        }
+
+        ejecutar(tokenService, tokens, hilos, porHilo / 5); // calentamiento
+
+        AtomicBoolean midiendo = new AtomicBoolean(true);
+        Thread cambios = new Thread(() -> {
+            long rol = 0;
+            while (midiendo.get() && cambiosPorSegundo > 0) {
+                permisos.invalidarRol(rol++ % ROLES);
+                try {
+                    Thread.sleep(1000L / cambiosPorSegundo);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        cambios.start();
+        long inicio = System.nanoTime();
+        long validos = ejecutar(tokenService, tokens, hilos, porHilo);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        midiendo.set(false);
+        cambios.join();
+
+        long total = (long) hilos * porHilo;
+        System.out.printf("%d hilos, %d cambios de rol/s, %d verificaciones (%d válidas) en %.2f s: "
+                        + "%.0f verificaciones/s, %.2f µs por verificación y hilo%n",
+                hilos, cambiosPorSegundo, total, validos, segundos, total / segundos, segundos * 1e6 * hilos / total);
+    }
+
+    private static long ejecutar(TokenService tokenService, String[] tokens, int hilos, int porHilo) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<Long>> resultados = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int desplazamiento = h;
+                resultados.add(ejecutor.submit(() -> {
+                    long validos = 0;
+                    for (int i = 0; i < porHilo; i++) {
+                        if (tokenService.verificarToken(tokens[(i + desplazamiento) & (tokens.length - 1)]).isPresent()) {
+                            validos++;
+                        }
+                    }
+                    return validos;
+                }));
+            }
+            long validos = 0;
+            for (Future<Long> resultado : resultados) {
+                validos += resultado.get();
+            }
+            return validos;
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.EstadoSolicitud;
+import com.exe.ConjuntoResidencialArkania.Entity.SolicitudesEntity.TipoSolicitud;
+import com.exe.ConjuntoResidencialArkania.Entity.UserEntity;
+
+/**
+ * Pruebas del archivo de solicitudes contra JPA y H2: una solicitud reclamada y agrupada
+ * conserva en el archivo su trabajador, su prioridad, su cola y su grupo. La tabla de archivo
+ * se crea como en db/migracion (007 y 016). Sin transacción de prueba para que el movimiento
+ * confirme la suya.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import(ArchivoRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArchivoRepositoryTest {
+
+    private static final String TABLA_ARCHIVO_007 =
+            "CREATE TABLE solicitudes_archivo (id_solicitud BIGINT NOT NULL PRIMARY KEY, usuario_id BIGINT NOT NULL, " +
+            "tipo_solicitud VARCHAR(50) NOT NULL, descripcion VARCHAR(500) NOT NULL, " +
+            "estado_solicitud VARCHAR(50) NOT NULL, fecha_creacion TIMESTAMP(6) NOT NULL, " +
+            "fecha_resolucion TIMESTAMP(6), version BIGINT DEFAULT 0 NOT NULL, archivada_en TIMESTAMP(6) NOT NULL)";
+
+    private static final String[] COLUMNAS_016 = {
+            "ALTER TABLE solicitudes_archivo ADD COLUMN prioridad INTEGER DEFAULT 0 NOT NULL",
+            "ALTER TABLE solicitudes_archivo ADD COLUMN orden_cola TIMESTAMP(6)",
+            "ALTER TABLE solicitudes_archivo ADD COLUMN asignado_a BIGINT",
+            "ALTER TABLE solicitudes_archivo ADD COLUMN reclamo_vence TIMESTAMP(6)",
+            "ALTER TABLE solicitudes_archivo ADD COLUMN grupo_duplicados BIGINT"
+    };
+
+    private static final String TABLA_CORRESPONDENCIAS_ARCHIVO =
+            "CREATE TABLE correspondencias_archivo (id_correspondencia BIGINT NOT NULL PRIMARY KEY, " +
+            "registrado_por BIGINT NOT NULL, destinatario BIGINT NOT NULL, retirado_por BIGINT, apartamento BIGINT, " +
+            "tipo VARCHAR(255) NOT NULL, fecha_recepcion TIMESTAMP(6) NOT NULL, fecha_entrega TIMESTAMP(6), " +
+            "estado VARCHAR(255) NOT NULL, observaciones VARCHAR(500), crear_correspondencia TIMESTAMP(6), " +
+            "actualizar_correspondencia TIMESTAMP(6), version BIGINT DEFAULT 0 NOT NULL, " +
+            "archivada_en TIMESTAMP(6) NOT NULL)";
+
+    @Autowired
+    private ArchivoRepository archivoRepository;
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserEntity residente;
+
+    @BeforeEach
+    void crearResidente() {
+        solicitudRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.execute(TABLA_CORRESPONDENCIAS_ARCHIVO);
+        jdbcTemplate.execute(TABLA_ARCHIVO_007);
+
+        residente = new UserEntity();
+        residente.setTipoDocumento("CC");
+        residente.setNumeroDocumento("10203040");
+        residente.setNombres("Ana");
+        residente.setApellidos("Pérez");
+        residente.setEmail("ana@arkania.test");
+        residente.setPassword("clave-de-prueba");
+        residente = userRepository.saveAndFlush(residente);
+    }
+
+    @AfterEach
+    void borrarArchivo() {
+        jdbcTemplate.execute("DROP TABLE solicitudes_archivo");
+        jdbcTemplate.execute("DROP TABLE correspondencias_archivo");
+    }
+
+    @Test
+    void sinLasColumnasDeLaColaNoSeArchiva() {
+        assertFalse(archivoRepository.tablasDisponibles());
+        for (String columna : COLUMNAS_016) {
+            jdbcTemplate.execute(columna);
+        }
+        assertTrue(archivoRepository.tablasDisponibles());
+    }
+
+    @Test
+    void archivarConservaElReclamoLaPrioridadYElGrupo() {
+        for (String columna : COLUMNAS_016) {
+            jdbcTemplate.execute(columna);
+        }
+        LocalDateTime creada = LocalDateTime.now().minusDays(400).truncatedTo(ChronoUnit.MILLIS);
+        SolicitudesEntity solicitud = new SolicitudesEntity();
+        solicitud.setUsuario(residente);
+        solicitud.setTipoSolicitud(TipoSolicitud.mantenimiento);
+        solicitud.setDescripcion("Fuga de agua en el apartamento 101");
+        solicitud.setEstadoSolicitud(EstadoSolicitud.resuelta);
+        solicitud.setFechaCreacion(creada);
+        solicitud.setFechaResolucion(creada.plusDays(2));
+        solicitud.setPrioridad(3);
+        solicitud.setOrdenCola(creada.minusHours(1));
+        solicitud.setAsignadoA(7L);
+        solicitud.setReclamoVence(creada.plusDays(1));
+        solicitud = solicitudRepository.saveAndFlush(solicitud);
+        Long id = solicitud.getIdSolicitud();
+        // Se une al grupo de otra solicitud, ya archivada o no
+        solicitud.setGrupoDuplicados(id + 1000);
+        solicitudRepository.saveAndFlush(solicitud);
+
+        Integer movidas = new TransactionTemplate(transactionManager).execute(estado ->
+                archivoRepository.moverSolicitudes(LocalDateTime.now().minusDays(365), 10, LocalDateTime.now()));
+        assertEquals(1, movidas);
+        assertFalse(solicitudRepository.existsById(id));
+
+        SolicitudesEntity archivada = archivoRepository.buscarSolicitud(id).orElseThrow();
+        assertEquals(7L, archivada.getAsignadoA());
+        assertEquals(3, archivada.getPrioridad());
+        assertEquals(creada.minusHours(1), archivada.getOrdenCola());
+        assertEquals(creada.plusDays(1), archivada.getReclamoVence());
+        assertEquals(id + 1000, archivada.getGrupoDuplicados());
+        assertEquals(EstadoSolicitud.resuelta, archivada.getEstadoSolicitud());
+    }
+}
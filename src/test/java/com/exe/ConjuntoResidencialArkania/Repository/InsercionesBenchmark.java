@@ -0,0 +1,171 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.h2.tools.Server;
+
+/**
+ * Medición del rendimiento de inserción con IDs IDENTITY (un INSERT por fila, leyendo el ID
+ * generado) frente a IDs de secuencia pooled-lo con lotes JDBC, que es lo que hace Hibernate
+ * en cada caso (ver Docs/RENDIMIENTO.md, sección 1).
+ *
+ * No es una prueba unitaria (no la ejecuta Maven): se corre a mano con argumentos opcionales
+ * [urlJdbc usuario clave]. Sin URL arranca un servidor H2 local por TCP, para que cada
+ * sentencia sea un viaje por la red como con la base real; contra PostgreSQL conviene agregar
+ * reWriteBatchedInserts=true a la URL, como en el perfil produccion.
+ */
+public class InsercionesBenchmark {
+
+    private static final int TAMANO_LOTE = 50;
+    private static final int[] REGISTROS = {1_000, 10_000};
+    private static final int REPETICIONES = 3;
+
+    public static void main(String[] args) throws Exception {
+        Server servidor = null;
+        String url;
+        String usuario;
+        String clave;
+        if (args.length >= 3) {
+            url = args[0];
+            usuario = args[1];
+            clave = args[2];
+        } else {
+            servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:" + UUID.randomUUID()
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+            usuario = "sa";
+            clave = "";
+        }
+
+        try (Connection conexion = DriverManager.getConnection(url, usuario, clave)) {
+            crearTablas(conexion);
+            System.out.printf("%s, lotes de %d, mediana de %d repeticiones%n", url, TAMANO_LOTE, REPETICIONES);
+            System.out.printf("%-10s %20s %28s %24s%n", "registros", "IDENTITY (filas/s)",
+                    "SEQUENCE + lotes (filas/s)", "sentencias antes/después");
+
+            // Calentamiento: JIT, caché de sentencias del servidor y crecimiento de las tablas
+            insertarConIdentity(conexion, 2_000);
+            insertarConSecuencia(conexion, 2_000);
+
+            for (int registros : REGISTROS) {
+                double[] identity = new double[REPETICIONES];
+                double[] secuencia = new double[REPETICIONES];
+                long sentenciasIdentity = 0;
+                long sentenciasSecuencia = 0;
+                for (int r = 0; r < REPETICIONES; r++) {
+                    long inicio = System.nanoTime();
+                    sentenciasIdentity = insertarConIdentity(conexion, registros);
+                    identity[r] = registros / ((System.nanoTime() - inicio) / 1e9);
+
+                    inicio = System.nanoTime();
+                    sentenciasSecuencia = insertarConSecuencia(conexion, registros);
+                    secuencia[r] = registros / ((System.nanoTime() - inicio) / 1e9);
+                }
+                System.out.printf("%-10d %20.0f %28.0f %13d / %d%n", registros, mediana(identity),
+                        mediana(secuencia), sentenciasIdentity, sentenciasSecuencia);
+            }
+        } finally {
+            if (servidor != null) {
+                servidor.stop();
+            }
+        }
+    }
+
+    // ========================================
+    // ESCENARIOS
+    // ========================================
+
+    /**
+     * Un INSERT por fila con lectura del ID generado: Hibernate no puede agrupar estas
+     * sentencias porque necesita el ID antes de seguir.
+     */
+    private static long insertarConIdentity(Connection conexion, int registros) throws Exception {
+        conexion.setAutoCommit(false);
+        long sentencias = 0;
+        try (PreparedStatement insert = conexion.prepareStatement(
+                "INSERT INTO bench_identity (nombre, email, creado) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < registros; i++) {
+                asignar(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet id = insert.getGeneratedKeys()) {
+                    id.next();
+                }
+                sentencias++;
+            }
+        }
+        conexion.commit();
+        return sentencias;
+    }
+
+    /**
+     * IDs de la secuencia interpretados con pooled-lo (cada valor inicia un bloque de
+     * TAMANO_LOTE) e inserciones enviadas en lotes del mismo tamaño.
+     */
+    private static long insertarConSecuencia(Connection conexion, int registros) throws Exception {
+        conexion.setAutoCommit(false);
+        long sentencias = 0;
+        try (PreparedStatement siguiente = conexion.prepareStatement("SELECT nextval('bench_seq')");
+             PreparedStatement insert = conexion.prepareStatement(
+                     "INSERT INTO bench_secuencia (id, nombre, email, creado) VALUES (?, ?, ?, ?)")) {
+            long proximoId = 0;
+            long finBloque = 0;
+            for (int i = 0; i < registros; i++) {
+                if (proximoId == finBloque) {
+                    try (ResultSet valor = siguiente.executeQuery()) {
+                        valor.next();
+                        proximoId = valor.getLong(1);
+                    }
+                    finBloque = proximoId + TAMANO_LOTE;
+                    sentencias++;
+                }
+                insert.setLong(1, proximoId++);
+                asignar(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % TAMANO_LOTE == 0) {
+                    insert.executeBatch();
+                    sentencias++;
+                }
+            }
+            if (registros % TAMANO_LOTE != 0) {
+                insert.executeBatch();
+                sentencias++;
+            }
+        }
+        conexion.commit();
+        return sentencias;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static void crearTablas(Connection conexion) throws Exception {
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE TABLE bench_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "nombre VARCHAR(100) NOT NULL, email VARCHAR(100) NOT NULL, creado TIMESTAMP NOT NULL)");
+            sentencia.execute("CREATE TABLE bench_secuencia (id BIGINT PRIMARY KEY, " +
+                    "nombre VARCHAR(100) NOT NULL, email VARCHAR(100) NOT NULL, creado TIMESTAMP NOT NULL)");
+            sentencia.execute("CREATE SEQUENCE bench_seq START WITH 1 INCREMENT BY " + TAMANO_LOTE);
+        }
+    }
+
+    private static void asignar(PreparedStatement insert, int desde, int i) throws Exception {
+        insert.setString(desde, "Residente " + i);
+        insert.setString(desde + 1, "residente" + i + "@arkania.test");
+        insert.setTimestamp(desde + 2, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static double mediana(double[] valores) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+}
@@ -0,0 +1,128 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto.ResultadoActivacion;
+import com.exe.ConjuntoResidencialArkania.Repository.OperacionesDialecto.TipoActivacion;
+
+/**
+ * Pruebas de las operaciones nativas contra H2 en modo MySQL y modo PostgreSQL.
+ *
+ * H2 acepta la sintaxis de MySQL que usan estas operaciones (tablas next_val, INSERT de
+ * varias filas, ON DUPLICATE KEY UPDATE). De PostgreSQL solo emula la inserción de varias
+ * filas: COPY, ON CONFLICT ... DO UPDATE, generate_series y tsvector necesitan un servidor real.
+ */
+class OperacionesDialectoTest {
+
+    private static final String TABLA_USUARIO_ROL =
+            "CREATE TABLE usuario_rol (usuario_rol_id BIGINT PRIMARY KEY, usuario_id BIGINT NOT NULL, " +
+            "rol_id BIGINT NOT NULL, activo BOOLEAN NOT NULL, fecha_expiracion TIMESTAMP, " +
+            "recordatorio_enviado BOOLEAN NOT NULL, fecha_creacion TIMESTAMP NOT NULL, " +
+            "fecha_actualizacion TIMESTAMP NOT NULL, version BIGINT DEFAULT 0, " +
+            "CONSTRAINT uk_usuario_rol_usuario_rol UNIQUE (usuario_id, rol_id))";
+
+    private static final List<String> COLUMNAS_ASIGNACION = List.of("usuario_rol_id", "usuario_id", "rol_id",
+            "activo", "fecha_expiracion", "recordatorio_enviado", "fecha_creacion", "fecha_actualizacion");
+
+    // ========================================
+    // MYSQL
+    // ========================================
+
+    @Test
+    void mysqlReservaBloquesConsecutivosDeLaTablaDeSecuencia() {
+        JdbcTemplate jdbc = baseEmbebida("MySQL");
+        jdbc.execute("CREATE TABLE usuario_rol_seq (next_val BIGINT NOT NULL)");
+        jdbc.update("INSERT INTO usuario_rol_seq (next_val) VALUES (1)");
+        OperacionesMysql operaciones = new OperacionesMysql(jdbc);
+
+        assertEquals(List.of(1L, 51L), operaciones.reservarBloques("usuario_rol_seq", 2));
+        assertEquals(List.of(101L), operaciones.reservarBloques("usuario_rol_seq", 1));
+        assertEquals(151L, jdbc.queryForObject("SELECT next_val FROM usuario_rol_seq", Long.class));
+    }
+
+    @Test
+    void mysqlInsertaFilasEnSentenciasDeVariasFilas() {
+        JdbcTemplate jdbc = baseEmbebida("MySQL");
+        jdbc.execute(TABLA_USUARIO_ROL);
+        OperacionesMysql operaciones = new OperacionesMysql(jdbc);
+
+        List<Object[]> filas = asignaciones(2_500);
+        assertEquals(2_500, operaciones.insertarFilas("usuario_rol", COLUMNAS_ASIGNACION, filas));
+        assertEquals(2_500, jdbc.queryForObject("SELECT COUNT(*) FROM usuario_rol", Integer.class));
+    }
+
+    @Test
+    void mysqlActivarAsignacionEsIdempotenteYReactiva() {
+        JdbcTemplate jdbc = baseEmbebida("MySQL");
+        jdbc.execute(TABLA_USUARIO_ROL);
+        OperacionesMysql operaciones = new OperacionesMysql(jdbc);
+        LocalDateTime ahora = LocalDateTime.of(2025, 1, 10, 8, 0);
+
+        ResultadoActivacion creada = operaciones.activarAsignacion(10L, 1L, 2L, null, ahora);
+        assertEquals(new ResultadoActivacion(10L, TipoActivacion.CREADA), creada);
+
+        ResultadoActivacion repetida = operaciones.activarAsignacion(11L, 1L, 2L, null, ahora.plusMinutes(1));
+        assertEquals(10L, repetida.usuarioRolId());
+        assertNotEquals(TipoActivacion.CREADA, repetida.tipo());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM usuario_rol", Integer.class));
+
+        jdbc.update("UPDATE usuario_rol SET activo = FALSE WHERE usuario_rol_id = 10");
+        LocalDateTime expiracion = ahora.plusYears(1);
+        ResultadoActivacion reactivada = operaciones.activarAsignacion(12L, 1L, 2L, expiracion, ahora.plusDays(1));
+        assertEquals(10L, reactivada.usuarioRolId());
+        assertNotEquals(TipoActivacion.CREADA, reactivada.tipo());
+        assertTrue(jdbc.queryForObject("SELECT activo FROM usuario_rol WHERE usuario_rol_id = 10", Boolean.class));
+        assertEquals(Timestamp.valueOf(expiracion),
+                jdbc.queryForObject("SELECT fecha_expiracion FROM usuario_rol WHERE usuario_rol_id = 10", Timestamp.class));
+    }
+
+    // ========================================
+    // POSTGRESQL
+    // ========================================
+
+    @Test
+    void postgresqlSinConexionPgjdbcInsertaConVariasFilas() {
+        JdbcTemplate jdbc = baseEmbebida("PostgreSQL");
+        jdbc.execute(TABLA_USUARIO_ROL);
+        OperacionesPostgresql operaciones = new OperacionesPostgresql(jdbc);
+
+        List<Object[]> filas = asignaciones(1_200);
+        assertEquals(1_200, operaciones.insertarFilas("usuario_rol", COLUMNAS_ASIGNACION, filas));
+        assertEquals(1_200, jdbc.queryForObject("SELECT COUNT(*) FROM usuario_rol", Integer.class));
+        assertNull(jdbc.queryForObject("SELECT fecha_expiracion FROM usuario_rol WHERE usuario_rol_id = 1", Timestamp.class));
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static JdbcTemplate baseEmbebida(String modo) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=" + modo + ";DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+
+    /**
+     * Filas de asignación con IDs 1..cantidad; las impares sin fecha de expiración.
+     */
+    private static List<Object[]> asignaciones(int cantidad) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0));
+        List<Object[]> filas = new ArrayList<>(cantidad);
+        for (long id = 1; id <= cantidad; id++) {
+            filas.add(new Object[] { id, id, 1L, true, id % 2 == 1 ? null : ahora, false, ahora, ahora });
+        }
+        return filas;
+    }
+}
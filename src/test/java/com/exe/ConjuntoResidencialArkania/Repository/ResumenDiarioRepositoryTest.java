@@ -0,0 +1,175 @@
+package com.exe.ConjuntoResidencialArkania.Repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.exe.ConjuntoResidencialArkania.DTO.ReporteDiarioDTO.FilaResumen;
+import com.exe.ConjuntoResidencialArkania.Service.ResumenDiarioService.Metrica;
+
+/**
+ * Pruebas del recálculo de resúmenes diarios contra H2 en modo PostgreSQL y modo MySQL:
+ * agrupación por día y dimensiones, lectura del archivo y reemplazo de las filas del rango;
+ * y de las marcas de días pendientes.
+ */
+class ResumenDiarioRepositoryTest {
+
+    private static final String TABLA_RESUMEN =
+            "CREATE TABLE resumen_diario (metrica VARCHAR(40) NOT NULL, fecha DATE NOT NULL, " +
+            "dimension1 VARCHAR(50) DEFAULT '' NOT NULL, dimension2 VARCHAR(50) DEFAULT '' NOT NULL, " +
+            "cantidad BIGINT NOT NULL, actualizado_en TIMESTAMP NOT NULL, " +
+            "PRIMARY KEY (metrica, fecha, dimension1, dimension2))";
+
+    private static final String TABLA_PENDIENTE_POSTGRESQL =
+            "CREATE TABLE resumen_diario_pendiente (id BIGSERIAL PRIMARY KEY, metrica VARCHAR(40) NOT NULL, " +
+            "fecha DATE NOT NULL, marcado_en TIMESTAMP NOT NULL)";
+
+    private static final String TABLA_PENDIENTE_MYSQL =
+            "CREATE TABLE resumen_diario_pendiente (id BIGINT AUTO_INCREMENT PRIMARY KEY, metrica VARCHAR(40) NOT NULL, " +
+            "fecha DATE NOT NULL, marcado_en DATETIME NOT NULL)";
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Test
+    void postgresqlRecalculaPorDiaYDimensionesConElArchivo() {
+        recalculaPorDiaYDimensionesConElArchivo(baseEmbebida("PostgreSQL"));
+    }
+
+    @Test
+    void mysqlRecalculaPorDiaYDimensionesConElArchivo() {
+        recalculaPorDiaYDimensionesConElArchivo(baseEmbebida("MySQL"));
+    }
+
+    @Test
+    void recalcularReemplazaSoloLosDiasDelRango() {
+        JdbcTemplate jdbc = baseEmbebida("PostgreSQL");
+        crearTablas(jdbc);
+        ResumenDiarioRepository repositorio = new ResumenDiarioRepository(jdbc);
+        insertarCorrespondencia(jdbc, "correspondencias", 1, "PAQUETE", "PENDIENTE", LocalDateTime.of(2025, 3, 1, 9, 0));
+        insertarCorrespondencia(jdbc, "correspondencias", 2, "PAQUETE", "PENDIENTE", LocalDateTime.of(2025, 3, 2, 9, 0));
+        repositorio.recalcular(Metrica.CORRESPONDENCIAS, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), false, AHORA);
+
+        // Se entrega la del día 2 y solo se recalcula ese día
+        jdbc.update("UPDATE correspondencias SET estado = 'ENTREGADA' WHERE id_correspondencia = 2");
+        assertEquals(1, repositorio.recalcular(Metrica.CORRESPONDENCIAS,
+                LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 3), false, AHORA));
+
+        List<FilaResumen> filas = repositorio.consultar(Metrica.CORRESPONDENCIAS,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2));
+        assertEquals(List.of(
+                new FilaResumen(LocalDate.of(2025, 3, 1), "PAQUETE", "PENDIENTE", 1),
+                new FilaResumen(LocalDate.of(2025, 3, 2), "PAQUETE", "ENTREGADA", 1)), filas);
+    }
+
+    @Test
+    void tablaDisponibleDetectaLaTabla() {
+        JdbcTemplate jdbc = baseEmbebida("PostgreSQL");
+        ResumenDiarioRepository repositorio = new ResumenDiarioRepository(jdbc);
+
+        assertFalse(repositorio.tablaDisponible());
+        jdbc.execute(TABLA_RESUMEN);
+        assertTrue(repositorio.tablaDisponible());
+    }
+
+    @Test
+    void postgresqlQuitaSoloLasMarcasLeidas() {
+        JdbcTemplate jdbc = baseEmbebida("PostgreSQL");
+        jdbc.execute(TABLA_PENDIENTE_POSTGRESQL);
+        quitaSoloLasMarcasLeidas(jdbc);
+    }
+
+    @Test
+    void mysqlQuitaSoloLasMarcasLeidas() {
+        JdbcTemplate jdbc = baseEmbebida("MySQL");
+        jdbc.execute(TABLA_PENDIENTE_MYSQL);
+        quitaSoloLasMarcasLeidas(jdbc);
+    }
+
+    @Test
+    void tablaPendientesDisponibleDetectaLaTabla() {
+        JdbcTemplate jdbc = baseEmbebida("PostgreSQL");
+        ResumenDiarioRepository repositorio = new ResumenDiarioRepository(jdbc);
+
+        assertFalse(repositorio.tablaPendientesDisponible());
+        jdbc.execute(TABLA_PENDIENTE_POSTGRESQL);
+        assertTrue(repositorio.tablaPendientesDisponible());
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static void quitaSoloLasMarcasLeidas(JdbcTemplate jdbc) {
+        ResumenDiarioRepository repositorio = new ResumenDiarioRepository(jdbc);
+        LocalDate dia1 = LocalDate.of(2025, 3, 1);
+        LocalDate dia2 = LocalDate.of(2025, 3, 2);
+        repositorio.marcarPendientes(Metrica.CORRESPONDENCIAS, List.of(dia1, dia2), AHORA);
+        repositorio.marcarPendientes(Metrica.CORRESPONDENCIAS, List.of(dia1), AHORA);
+
+        List<ResumenDiarioRepository.DiaPendiente> leidas = repositorio.pendientes(10);
+        assertEquals(3, leidas.size());
+        // En orden de marca; el día 1 aparece una vez por escritura
+        assertEquals(List.of(dia1, dia2, dia1), leidas.stream().map(ResumenDiarioRepository.DiaPendiente::fecha).toList());
+
+        // Una escritura marca el día 1 otra vez mientras se recalcula: su marca queda
+        repositorio.marcarPendientes(Metrica.CORRESPONDENCIAS, List.of(dia1), AHORA);
+        assertEquals(3, repositorio.quitarPendientes(leidas.stream().map(ResumenDiarioRepository.DiaPendiente::id).toList()));
+
+        List<ResumenDiarioRepository.DiaPendiente> restantes = repositorio.pendientes(10);
+        assertEquals(1, restantes.size());
+        assertEquals(Metrica.CORRESPONDENCIAS, restantes.get(0).metrica());
+        assertEquals(dia1, restantes.get(0).fecha());
+        assertEquals(1, repositorio.pendientes(1).size());
+        assertEquals(0, repositorio.quitarPendientes(List.of()));
+    }
+
+    private static void recalculaPorDiaYDimensionesConElArchivo(JdbcTemplate jdbc) {
+        crearTablas(jdbc);
+        ResumenDiarioRepository repositorio = new ResumenDiarioRepository(jdbc);
+        insertarCorrespondencia(jdbc, "correspondencias", 1, "PAQUETE", "PENDIENTE", LocalDateTime.of(2025, 3, 1, 8, 0));
+        insertarCorrespondencia(jdbc, "correspondencias", 2, "PAQUETE", "PENDIENTE", LocalDateTime.of(2025, 3, 1, 23, 59));
+        insertarCorrespondencia(jdbc, "correspondencias", 3, "DOCUMENTO", "PENDIENTE", LocalDateTime.of(2025, 3, 2, 0, 0));
+        insertarCorrespondencia(jdbc, "correspondencias_archivo", 4, "PAQUETE", "ENTREGADA", LocalDateTime.of(2025, 3, 1, 10, 0));
+        // Fuera del rango
+        insertarCorrespondencia(jdbc, "correspondencias", 5, "PAQUETE", "PENDIENTE", LocalDateTime.of(2025, 3, 3, 0, 0));
+
+        int escritas = repositorio.recalcular(Metrica.CORRESPONDENCIAS,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), true, AHORA);
+
+        assertEquals(3, escritas);
+        assertEquals(List.of(
+                new FilaResumen(LocalDate.of(2025, 3, 1), "PAQUETE", "ENTREGADA", 1),
+                new FilaResumen(LocalDate.of(2025, 3, 1), "PAQUETE", "PENDIENTE", 2),
+                new FilaResumen(LocalDate.of(2025, 3, 2), "DOCUMENTO", "PENDIENTE", 1)),
+                repositorio.consultar(Metrica.CORRESPONDENCIAS, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2)));
+    }
+
+    private static void crearTablas(JdbcTemplate jdbc) {
+        jdbc.execute(TABLA_RESUMEN);
+        for (String tabla : List.of("correspondencias", "correspondencias_archivo")) {
+            jdbc.execute("CREATE TABLE " + tabla + " (id_correspondencia BIGINT PRIMARY KEY, " +
+                    "tipo VARCHAR(20) NOT NULL, estado VARCHAR(20) NOT NULL, fecha_recepcion TIMESTAMP NOT NULL)");
+        }
+    }
+
+    private static void insertarCorrespondencia(JdbcTemplate jdbc, String tabla, long id, String tipo, String estado,
+                                                LocalDateTime fechaRecepcion) {
+        jdbc.update("INSERT INTO " + tabla + " (id_correspondencia, tipo, estado, fecha_recepcion) VALUES (?, ?, ?, ?)",
+                id, tipo, estado, Timestamp.valueOf(fechaRecepcion));
+    }
+
+    private static JdbcTemplate baseEmbebida(String modo) {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=" + modo + ";DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+}